@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.integration.aggregator.AggregatingMessageHandler;
+import org.springframework.integration.aggregator.DefaultAggregatingMessageGroupProcessor;
+import org.springframework.integration.channel.NullChannel;
+import org.springframework.integration.store.ShardedMessageStore;
+import org.springframework.integration.store.SimpleMessageStore;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+/**
+ * Measures an {@link AggregatingMessageHandler} backed by a
+ * {@link SimpleMessageStore} or a {@link ShardedMessageStore}, correlating complete sequences with the default
+ * correlation and release strategies. Each invocation feeds one whole group,
+ * so the reported figures are per aggregated part.
+ *
+ * @since 4.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AggregatorBenchmark {
+
+	private static final int MAX_GROUP_SIZE = 1000;
+
+	@Param({ "10", "100", "1000" })
+	private int groupSize;
+
+	@Param({ "simple", "sharded" })
+	private String store;
+
+	private AggregatingMessageHandler handler;
+
+	private Message<?>[] group;
+
+	@Setup
+	public void setup() {
+		this.handler = new AggregatingMessageHandler(new DefaultAggregatingMessageGroupProcessor(),
+				"sharded".equals(this.store) ? new ShardedMessageStore() : new SimpleMessageStore());
+		this.handler.setOutputChannel(new NullChannel());
+		this.handler.setBeanFactory(new DefaultListableBeanFactory());
+		this.handler.setExpireGroupsUponCompletion(true);
+		this.handler.afterPropertiesSet();
+		this.group = new Message<?>[this.groupSize];
+		for (int i = 0; i < this.groupSize; i++) {
+			this.group[i] = MessageBuilder.withPayload(i)
+					.pushSequenceDetails("group", i + 1, this.groupSize)
+					.build();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MAX_GROUP_SIZE)
+	public void aggregate() {
+		for (int i = 0; i < MAX_GROUP_SIZE; i += this.groupSize) {
+			for (Message<?> message : this.group) {
+				this.handler.handleMessage(message);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.management.DefaultMessageChannelMetrics;
+import org.springframework.integration.support.management.ExponentialMovingAverage;
+import org.springframework.integration.support.management.ExponentialMovingAverageRate;
+import org.springframework.integration.support.management.ExponentialMovingAverageRatio;
+import org.springframework.integration.support.management.StripedExponentialMovingAverage;
+import org.springframework.integration.support.management.StripedExponentialMovingAverageRate;
+import org.springframework.integration.support.management.StripedExponentialMovingAverageRatio;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * Measures concurrent sends to a {@link DirectChannel} with full statistics enabled,
+ * using the synchronized and the striped moving averages.
+ *
+ * @since 4.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@Threads(4)
+public class ChannelMetricsBenchmark {
+
+	@Param({ "synchronized", "striped" })
+	public String averages;
+
+	private final DirectChannel channel = new DirectChannel();
+
+	private final Message<String> message = new GenericMessage<String>("foo");
+
+	@Setup
+	public void setup() {
+		boolean striped = "striped".equals(this.averages);
+		int window = DefaultMessageChannelMetrics.DEFAULT_MOVING_AVERAGE_WINDOW;
+		this.channel.configureMetrics(new DefaultMessageChannelMetrics("channel",
+				striped ? new StripedExponentialMovingAverage(window, 1000000.)
+						: new ExponentialMovingAverage(window, 1000000.),
+				striped ? new StripedExponentialMovingAverageRate(1, 60, window, true)
+						: new ExponentialMovingAverageRate(1, 60, window, true),
+				striped ? new StripedExponentialMovingAverageRatio(60, window, true)
+						: new ExponentialMovingAverageRatio(60, window, true),
+				striped ? new StripedExponentialMovingAverageRate(1, 60, window, true)
+						: new ExponentialMovingAverageRate(1, 60, window, true)));
+		this.channel.enableStats(true);
+		this.channel.subscribe(new MessageHandler() {
+
+			@Override
+			public void handleMessage(Message<?> message) throws MessagingException {
+			}
+
+		});
+	}
+
+	@Benchmark
+	public boolean send() {
+		return this.channel.send(this.message);
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+
+/**
+ * Measures the synchronous send path of a {@link DirectChannel}, i.e. the
+ * {@link org.springframework.integration.dispatcher.UnicastingDispatcher} with
+ * one or more round-robin subscribers, optionally through a chain of channels.
+ *
+ * @since 4.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DirectChannelBenchmark {
+
+	@Param({ "1", "4" })
+	private int subscribers;
+
+	@Param({ "1", "15" })
+	private int hops;
+
+	private DirectChannel input;
+
+	private Message<?> message;
+
+	private long received;
+
+	@Setup
+	public void setup() {
+		DirectChannel last = new DirectChannel();
+		for (int i = 0; i < this.subscribers; i++) {
+			last.subscribe(new MessageHandler() {
+
+				@Override
+				public void handleMessage(Message<?> message) throws MessagingException {
+					DirectChannelBenchmark.this.received++;
+				}
+
+			});
+		}
+		last.afterPropertiesSet();
+		DirectChannel next = last;
+		for (int i = 1; i < this.hops; i++) {
+			final DirectChannel downstream = next;
+			DirectChannel channel = new DirectChannel();
+			channel.subscribe(new MessageHandler() {
+
+				@Override
+				public void handleMessage(Message<?> message) throws MessagingException {
+					downstream.send(message);
+				}
+
+			});
+			channel.afterPropertiesSet();
+			next = channel;
+		}
+		this.input = next;
+		this.message = MessageBuilder.withPayload("foo").setHeader("bar", "baz").build();
+	}
+
+	@Benchmark
+	public boolean send() {
+		return this.input.send(this.message);
+	}
+
+}
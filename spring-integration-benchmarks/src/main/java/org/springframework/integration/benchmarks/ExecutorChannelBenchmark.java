@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.integration.channel.ExecutorChannel;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+
+/**
+ * Measures hand-off through an {@link ExecutorChannel}: each invocation sends a
+ * batch of messages and waits until every one of them has been handled on the
+ * executor threads.
+ *
+ * @since 4.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ExecutorChannelBenchmark {
+
+	private static final int BATCH = 1000;
+
+	@Param({ "1", "4" })
+	private int poolSize;
+
+	private ExecutorService executor;
+
+	private ExecutorChannel channel;
+
+	private Message<?> message;
+
+	private volatile CountDownLatch latch;
+
+	@Setup
+	public void setup() {
+		this.executor = Executors.newFixedThreadPool(this.poolSize);
+		this.channel = new ExecutorChannel(this.executor);
+		this.channel.setBeanFactory(new DefaultListableBeanFactory());
+		this.channel.afterPropertiesSet();
+		this.channel.subscribe(new MessageHandler() {
+
+			@Override
+			public void handleMessage(Message<?> message) throws MessagingException {
+				ExecutorChannelBenchmark.this.latch.countDown();
+			}
+
+		});
+		this.message = MessageBuilder.withPayload("foo").setHeader("bar", "baz").build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.executor.shutdownNow();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void sendAndAwait() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(BATCH);
+		this.latch = latch;
+		for (int i = 0; i < BATCH; i++) {
+			this.channel.send(this.message);
+		}
+		latch.await();
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.integration.handler.ExpressionEvaluatingMessageProcessor;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+/**
+ * Measures SpEL evaluation through an {@link ExpressionEvaluatingMessageProcessor},
+ * interpreted and compiled.
+ *
+ * @since 4.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ExpressionEvaluatingMessageProcessorBenchmark {
+
+	@Param({ "OFF", "IMMEDIATE" })
+	public String compilerMode;
+
+	private ExpressionEvaluatingMessageProcessor<Object> processor;
+
+	private Message<String> message;
+
+	@Setup
+	public void setup() throws Exception {
+		this.processor = new ExpressionEvaluatingMessageProcessor<Object>(new SpelExpressionParser()
+				.parseExpression("payload.length() > 2 and headers['foo'] == 'bar'"));
+		this.processor.setBeanFactory(new DefaultListableBeanFactory());
+		this.processor.setCompilerMode(SpelCompilerMode.valueOf(this.compilerMode));
+		this.processor.afterPropertiesSet();
+		this.message = MessageBuilder.withPayload("foo").setHeader("foo", "bar").build();
+	}
+
+	@Benchmark
+	public Object evaluate() {
+		return this.processor.processMessage(this.message);
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.integration.support.IdGenerators;
+import org.springframework.util.AlternativeJdkIdGenerator;
+import org.springframework.util.IdGenerator;
+
+/**
+ * Measures concurrent message id generation with the default (alternative JDK) and the
+ * {@link IdGenerators} strategies.
+ *
+ * @since 4.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@Threads(4)
+public class IdGeneratorBenchmark {
+
+	@Param({ "default", "jdk", "incrementing", "nodeSequence" })
+	public String generator;
+
+	private IdGenerator idGenerator;
+
+	@Setup
+	public void setup() {
+		if ("jdk".equals(this.generator)) {
+			this.idGenerator = new IdGenerators.JdkIdGenerator();
+		}
+		else if ("incrementing".equals(this.generator)) {
+			this.idGenerator = new IdGenerators.SimpleIncrementingIdGenerator();
+		}
+		else if ("nodeSequence".equals(this.generator)) {
+			this.idGenerator = new IdGenerators.NodeSequenceIdGenerator();
+		}
+		else {
+			this.idGenerator = new AlternativeJdkIdGenerator();
+		}
+	}
+
+	@Benchmark
+	public UUID generateId() {
+		return this.idGenerator.generateId();
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+/**
+ * Measures the header copying performed by {@link MessageBuilder} when a
+ * component derives a new message from an inbound one.
+ *
+ * @since 4.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MessageBuilderBenchmark {
+
+	@Param({ "5", "40" })
+	private int headers;
+
+	private Message<String> message;
+
+	@Setup
+	public void setup() {
+		MessageBuilder<String> builder = MessageBuilder.withPayload("foo");
+		for (int i = 0; i < this.headers; i++) {
+			builder.setHeader("header" + i, "value" + i);
+		}
+		this.message = builder.build();
+	}
+
+	@Benchmark
+	public Message<String> withPayload() {
+		return MessageBuilder.withPayload("bar").build();
+	}
+
+	@Benchmark
+	public Message<String> fromMessage() {
+		return MessageBuilder.fromMessage(this.message).build();
+	}
+
+	@Benchmark
+	public Message<String> fromMessageSetHeader() {
+		return MessageBuilder.fromMessage(this.message).setHeader("header0", "changed").build();
+	}
+
+	@Benchmark
+	public Message<String> withPayloadCopyHeaders() {
+		return MessageBuilder.withPayload("bar").copyHeaders(this.message.getHeaders()).build();
+	}
+
+	@Benchmark
+	public Object derivedMessages() {
+		Message<String> message = this.message;
+		for (int i = 0; i < 4; i++) {
+			message = MessageBuilder.fromMessage(message).setHeader("hop", i).build();
+		}
+		return message.getHeaders().get("header1");
+	}
+
+	@Benchmark
+	public Message<String> pushSequenceDetails() {
+		return MessageBuilder.fromMessage(this.message).pushSequenceDetails("corr", 1, 1).build();
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.util.MessagingMethodInvokerHelper;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.handler.annotation.Header;
+
+/**
+ * Measures POJO method dispatch through {@link MessagingMethodInvokerHelper},
+ * the invoker behind service activators, transformers, filters and routers.
+ *
+ * @since 4.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MessagingMethodInvokerHelperBenchmark {
+
+	private MessagingMethodInvokerHelper<Object> payloadHelper;
+
+	private MessagingMethodInvokerHelper<Object> messageHelper;
+
+	private MessagingMethodInvokerHelper<Object> headerHelper;
+
+	private MessagingMethodInvokerHelper<Object> overloadedHelper;
+
+	private Message<String> stringMessage;
+
+	private Message<Integer> integerMessage;
+
+	@Setup
+	public void setup() {
+		this.payloadHelper = new MessagingMethodInvokerHelper<Object>(new PayloadService(), "handle", false);
+		this.messageHelper = new MessagingMethodInvokerHelper<Object>(new MessageService(), "handle", false);
+		this.headerHelper = new MessagingMethodInvokerHelper<Object>(new HeaderService(), "handle", false);
+		this.overloadedHelper = new MessagingMethodInvokerHelper<Object>(new OverloadedService(), "handle", false);
+		this.stringMessage = MessageBuilder.withPayload("foo").setHeader("bar", "baz").build();
+		this.integerMessage = MessageBuilder.withPayload(42).setHeader("bar", "baz").build();
+	}
+
+	@Benchmark
+	public Object payloadArgument() throws Exception {
+		return this.payloadHelper.process(this.stringMessage);
+	}
+
+	@Benchmark
+	public Object messageArgument() throws Exception {
+		return this.messageHelper.process(this.stringMessage);
+	}
+
+	@Benchmark
+	public Object payloadAndHeaderArguments() throws Exception {
+		return this.headerHelper.process(this.stringMessage);
+	}
+
+	@Benchmark
+	public Object overloadedByPayloadType() throws Exception {
+		this.overloadedHelper.process(this.stringMessage);
+		return this.overloadedHelper.process(this.integerMessage);
+	}
+
+
+	public static class PayloadService {
+
+		public String handle(String payload) {
+			return payload;
+		}
+
+	}
+
+	public static class MessageService {
+
+		public Object handle(Message<?> message) {
+			return message.getPayload();
+		}
+
+	}
+
+	public static class HeaderService {
+
+		public String handle(String payload, @Header("bar") String bar) {
+			return bar;
+		}
+
+	}
+
+	public static class OverloadedService {
+
+		public String handle(String payload) {
+			return payload;
+		}
+
+		public Integer handle(Integer payload) {
+			return payload;
+		}
+
+	}
+
+}
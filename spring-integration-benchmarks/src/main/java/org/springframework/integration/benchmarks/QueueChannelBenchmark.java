@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.integration.channel.AbstractPollableChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.channel.RingBufferChannel;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+/**
+ * Measures a {@link QueueChannel} (or a {@link RingBufferChannel}) shared by concurrent producer and consumer
+ * threads. Both sides use a zero timeout so that a full or empty queue never
+ * parks a benchmark thread past the end of an iteration; a failed
+ * {@code send} or a {@code null} receive is still counted as an operation,
+ * exactly as a poller would experience it.
+ *
+ * @since 4.2
+ */
+@State(Scope.Group)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class QueueChannelBenchmark {
+
+	@Param({ "1024" })
+	private int capacity;
+
+	@Param({ "queue", "ringBuffer" })
+	private String type;
+
+	private AbstractPollableChannel channel;
+
+	private Message<?> message;
+
+	@Setup
+	public void setup() {
+		if ("ringBuffer".equals(this.type)) {
+			this.channel = new RingBufferChannel(this.capacity);
+		}
+		else {
+			this.channel = new QueueChannel(this.capacity);
+		}
+		this.channel.afterPropertiesSet();
+		this.message = MessageBuilder.withPayload("foo").setHeader("bar", "baz").build();
+	}
+
+	@Benchmark
+	@Group("spsc")
+	@GroupThreads(1)
+	public boolean spscSend() {
+		return this.channel.send(this.message, 0);
+	}
+
+	@Benchmark
+	@Group("spsc")
+	@GroupThreads(1)
+	public Message<?> spscReceive() {
+		return this.channel.receive(0);
+	}
+
+	@Benchmark
+	@Group("mpmc")
+	@GroupThreads(4)
+	public boolean mpmcSend() {
+		return this.channel.send(this.message, 0);
+	}
+
+	@Benchmark
+	@Group("mpmc")
+	@GroupThreads(4)
+	public Message<?> mpmcReceive() {
+		return this.channel.receive(0);
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.integration.scheduling.HashedWheelTaskScheduler;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Measures scheduling and cancelling a delayed task, as done by a delayer or an
+ * aggregator group timeout, with a {@link ThreadPoolTaskScheduler} and a
+ * {@link HashedWheelTaskScheduler}, while a large number of other tasks are pending.
+ *
+ * @since 4.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TaskSchedulerBenchmark {
+
+	private static final Runnable TASK = new Runnable() {
+
+		@Override
+		public void run() {
+		}
+
+	};
+
+	@Param({ "threadPool", "hashedWheel" })
+	public String scheduler;
+
+	@Param({ "100000" })
+	public int pending;
+
+	private TaskScheduler taskScheduler;
+
+	@Setup
+	public void setup() {
+		if ("hashedWheel".equals(this.scheduler)) {
+			this.taskScheduler = new HashedWheelTaskScheduler();
+		}
+		else {
+			ThreadPoolTaskScheduler threadPoolTaskScheduler = new ThreadPoolTaskScheduler();
+			threadPoolTaskScheduler.afterPropertiesSet();
+			this.taskScheduler = threadPoolTaskScheduler;
+		}
+		Date later = new Date(System.currentTimeMillis() + 3600000);
+		for (int i = 0; i < this.pending; i++) {
+			this.taskScheduler.schedule(TASK, new Date(later.getTime() + i));
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		if (this.taskScheduler instanceof HashedWheelTaskScheduler) {
+			((HashedWheelTaskScheduler) this.taskScheduler).destroy();
+		}
+		else {
+			((ThreadPoolTaskScheduler) this.taskScheduler).destroy();
+		}
+	}
+
+	@Benchmark
+	public boolean scheduleAndCancel() {
+		ScheduledFuture<?> future = this.taskScheduler.schedule(TASK, new Date(System.currentTimeMillis() + 60000));
+		return future.cancel(false);
+	}
+
+}
@@ -0,0 +1,4 @@
+/**
+ * JMH micro-benchmarks for the core messaging hot paths.
+ */
+package org.springframework.integration.benchmarks;
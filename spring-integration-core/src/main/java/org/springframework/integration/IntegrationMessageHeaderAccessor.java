@@ -50,6 +50,13 @@ public class IntegrationMessageHeaderAccessor extends MessageHeaderAccessor {
 
 	public static final String DUPLICATE_MESSAGE = "duplicateMessage";
 
+	/**
+	 * The header holding the {@link org.springframework.integration.splitter.SplitAcknowledgment}
+	 * of a message produced by a splitter that limits the number of unacknowledged messages.
+	 * @since 4.2
+	 */
+	public static final String SPLIT_ACKNOWLEDGMENT = "splitAcknowledgment";
+
 	public IntegrationMessageHeaderAccessor(Message<?> message) {
 		super(message);
 	}
@@ -41,11 +41,11 @@ import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.channel.NullChannel;
 import org.springframework.integration.expression.IntegrationEvaluationContextAware;
 import org.springframework.integration.handler.AbstractMessageProducingHandler;
+import org.springframework.integration.store.CompactMessageGroup;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.store.MessageGroupStore;
 import org.springframework.integration.store.MessageGroupStore.MessageGroupCallback;
 import org.springframework.integration.store.MessageStore;
-import org.springframework.integration.store.SimpleMessageGroup;
 import org.springframework.integration.store.SimpleMessageStore;
 import org.springframework.integration.support.locks.DefaultLockRegistry;
 import org.springframework.integration.support.locks.LockRegistry;
@@ -386,15 +386,25 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 				}
 			}
 			MessageGroup messageGroup = messageStore.getMessageGroup(correlationKey);
-			if (this.sequenceAware) {
-				messageGroup = new SequenceAwareMessageGroup(messageGroup);
+			boolean canAdd;
+			if (this.sequenceAware && messageGroup instanceof CompactMessageGroup) {
+				canAdd = ((CompactMessageGroup) messageGroup).canAddInSequence(message);
+			}
+			else if (this.releaseStrategy instanceof IncrementalReleaseStrategy) {
+				canAdd = ((IncrementalReleaseStrategy) this.releaseStrategy).canAdd(messageGroup, message);
+			}
+			else {
+				canAdd = messageGroup.canAdd(message);
 			}
 
-			if (!messageGroup.isComplete() && messageGroup.canAdd(message)) {
+			if (!messageGroup.isComplete() && canAdd) {
 				if (logger.isTraceEnabled()) {
 					logger.trace("Adding message to group [ " + messageGroup + "]");
 				}
 				messageGroup = this.store(correlationKey, message);
+				if (this.releaseStrategy instanceof IncrementalReleaseStrategy) {
+					((IncrementalReleaseStrategy) this.releaseStrategy).messageAdded(messageGroup, message);
+				}
 
 				if (releaseStrategy.canRelease(messageGroup)) {
 					Collection<Message<?>> completedMessages = null;
@@ -405,6 +415,7 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 						// Always clean up even if there was an exception
 						// processing messages
 						this.afterRelease(messageGroup, completedMessages);
+						clearReleaseStrategyState(correlationKey);
 					}
 				}
 				else {
@@ -540,6 +551,7 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 							afterRelease(groupNow, groupNow.getMessages(), true);
 							removeGroup = false;
 						}
+						clearReleaseStrategyState(correlationKey);
 					}
 					else {
 						/*
@@ -590,6 +602,13 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 	void remove(MessageGroup group) {
 		Object correlationKey = group.getGroupId();
 		messageStore.removeMessageGroup(correlationKey);
+		clearReleaseStrategyState(correlationKey);
+	}
+
+	private void clearReleaseStrategyState(Object correlationKey) {
+		if (this.releaseStrategy instanceof IncrementalReleaseStrategy) {
+			((IncrementalReleaseStrategy) this.releaseStrategy).clearState(correlationKey);
+		}
 	}
 
 	protected int findLastReleasedSequenceNumber(Object groupId, Collection<Message<?>> partialSequence) {
@@ -670,44 +689,6 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 		}
 	}
 
-	protected static class SequenceAwareMessageGroup extends SimpleMessageGroup {
-
-		public SequenceAwareMessageGroup(MessageGroup messageGroup) {
-			super(messageGroup);
-		}
-
-		/**
-		 * This method determines whether messages have been added to this group that supersede the given message based on
-		 * its sequence id. This can be helpful to avoid ending up with sequences larger than their required sequence size
-		 * or sequences that are missing certain sequence numbers.
-		 */
-		@Override
-		public boolean canAdd(Message<?> message) {
-			if (this.size() == 0) {
-				return true;
-			}
-			IntegrationMessageHeaderAccessor messageHeaderAccessor = new IntegrationMessageHeaderAccessor(message);
-			Integer messageSequenceNumber = messageHeaderAccessor.getSequenceNumber();
-			if (messageSequenceNumber != null && messageSequenceNumber > 0) {
-				Integer messageSequenceSize = messageHeaderAccessor.getSequenceSize();
-				return messageSequenceSize.equals(this.getSequenceSize())
-						&& !this.containsSequenceNumber(this.getMessages(), messageSequenceNumber);
-			}
-			return true;
-		}
-
-		private boolean containsSequenceNumber(Collection<Message<?>> messages, Integer messageSequenceNumber) {
-			for (Message<?> member : messages) {
-				Integer memberSequenceNumber = new IntegrationMessageHeaderAccessor(member).getSequenceNumber();
-				if (messageSequenceNumber.equals(memberSequenceNumber)) {
-					return true;
-				}
-			}
-			return false;
-		}
-
-	}
-
 	private class ForceReleaseMessageGroupProcessor implements MessageGroupProcessor {
 
 		@Override
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aggregator;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.integration.store.MessageGroup;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+
+/**
+ * Base class for {@link IncrementalReleaseStrategy} implementations. Keeps a state
+ * object per group id that is folded over the messages of the group as they are added.
+ * <p>
+ * The state records the size, timestamp and last released sequence number of the group
+ * it was computed for; if the group no longer matches (messages were removed, or the
+ * group was recreated), the state is rebuilt from all of its messages. Adding a message
+ * to a group whose state is up to date, and deciding on the release of that group, only
+ * cost {@link #addToState(Object, Message)} and {@link #canRelease(MessageGroup, Object)}.
+ * <p>
+ * The state is only a cache: a group that is completed or removed without the strategy
+ * being told (for example by another node sharing the message store, or through
+ * {@code MessageGroupStore.removeMessageGroup()}) leaves its state behind, so state that
+ * has not been used for {@link #setStateIdleTimeout(long) stateIdleTimeout} is evicted.
+ *
+ * @param <S> the type of the per-group state.
+ *
+ * @since 4.2
+ */
+public abstract class AbstractIncrementalReleaseStrategy<S> implements IncrementalReleaseStrategy {
+
+	private static final long DEFAULT_STATE_IDLE_TIMEOUT = 60000;
+
+	private final ConcurrentMap<Object, GroupState<S>> states = new ConcurrentHashMap<Object, GroupState<S>>();
+
+	private final AtomicLong lastEviction = new AtomicLong(System.currentTimeMillis());
+
+	private volatile long stateIdleTimeout = DEFAULT_STATE_IDLE_TIMEOUT;
+
+	/**
+	 * Set the time in milliseconds after which the state of a group that has not been
+	 * used is discarded; it is rebuilt from the group's messages if the group is used
+	 * again. Default 60 seconds.
+	 * @param stateIdleTimeout the timeout; must be positive.
+	 */
+	public void setStateIdleTimeout(long stateIdleTimeout) {
+		Assert.isTrue(stateIdleTimeout > 0, "'stateIdleTimeout' must be greater than 0");
+		this.stateIdleTimeout = stateIdleTimeout;
+	}
+
+	@Override
+	public final void messageAdded(MessageGroup group, Message<?> message) {
+		long now = System.currentTimeMillis();
+		evictIdleStates(now);
+		Object groupId = group.getGroupId();
+		GroupState<S> groupState = this.states.get(groupId);
+		if (groupState != null) {
+			synchronized (groupState) {
+				if (groupState.matches(group, group.size() - 1)) {
+					addToState(groupState.state, message);
+					groupState.size++;
+					groupState.lastUsed = now;
+					return;
+				}
+			}
+		}
+		this.states.put(groupId, buildState(group));
+	}
+
+	@Override
+	public boolean canRelease(MessageGroup group) {
+		if (group.size() == 0) {
+			this.states.remove(group.getGroupId());
+			return canRelease(group, createState());
+		}
+		GroupState<S> groupState = getGroupState(group);
+		synchronized (groupState) {
+			return canRelease(group, groupState.state);
+		}
+	}
+
+	/**
+	 * This implementation delegates to {@link MessageGroup#canAdd(Message)}.
+	 */
+	@Override
+	public boolean canAdd(MessageGroup group, Message<?> message) {
+		return group.canAdd(message);
+	}
+
+	@Override
+	public void clearState(Object groupId) {
+		this.states.remove(groupId);
+	}
+
+	/**
+	 * @return the number of groups for which state is currently kept.
+	 */
+	public int getStateCount() {
+		return this.states.size();
+	}
+
+	/**
+	 * Return the up to date state of the group, rebuilding it if necessary. The state
+	 * is mutable; callers are expected to hold the lock of the group, as a correlating
+	 * handler does.
+	 * @param group The group.
+	 * @return the state.
+	 */
+	protected final S getState(MessageGroup group) {
+		return getGroupState(group).state;
+	}
+
+	/**
+	 * @return a new state for an empty group.
+	 */
+	protected abstract S createState();
+
+	/**
+	 * Update the state with a message added to the group.
+	 * @param state The state.
+	 * @param message The message.
+	 */
+	protected abstract void addToState(S state, Message<?> message);
+
+	/**
+	 * Decide whether the group can be released.
+	 * @param group The group.
+	 * @param state The state of the group, reflecting all its messages.
+	 * @return true if the group can be released.
+	 */
+	protected abstract boolean canRelease(MessageGroup group, S state);
+
+	private GroupState<S> getGroupState(MessageGroup group) {
+		Object groupId = group.getGroupId();
+		GroupState<S> groupState = this.states.get(groupId);
+		if (groupState != null) {
+			synchronized (groupState) {
+				if (groupState.matches(group, group.size())) {
+					groupState.lastUsed = System.currentTimeMillis();
+					return groupState;
+				}
+			}
+		}
+		groupState = buildState(group);
+		this.states.put(groupId, groupState);
+		return groupState;
+	}
+
+	/**
+	 * Discard idle states, at most once per half of the idle timeout; only the thread
+	 * that wins the race for the eviction scans the states.
+	 */
+	private void evictIdleStates(long now) {
+		long idleTimeout = this.stateIdleTimeout;
+		long last = this.lastEviction.get();
+		if (now - last < idleTimeout / 2 || !this.lastEviction.compareAndSet(last, now)) {
+			return;
+		}
+		Iterator<GroupState<S>> iterator = this.states.values().iterator();
+		while (iterator.hasNext()) {
+			if (now - iterator.next().lastUsed > idleTimeout) {
+				iterator.remove();
+			}
+		}
+	}
+
+	private GroupState<S> buildState(MessageGroup group) {
+		S state = createState();
+		int size = 0;
+		for (Message<?> message : group.getMessages()) {
+			addToState(state, message);
+			size++;
+		}
+		return new GroupState<S>(state, size, group);
+	}
+
+
+	private static final class GroupState<S> {
+
+		private final S state;
+
+		private final long timestamp;
+
+		private final int lastReleasedSequenceNumber;
+
+		private int size;
+
+		private volatile long lastUsed = System.currentTimeMillis();
+
+		private GroupState(S state, int size, MessageGroup group) {
+			this.state = state;
+			this.size = size;
+			this.timestamp = group.getTimestamp();
+			this.lastReleasedSequenceNumber = group.getLastReleasedMessageSequenceNumber();
+		}
+
+		private boolean matches(MessageGroup group, int expectedSize) {
+			return this.size == expectedSize
+					&& this.timestamp == group.getTimestamp()
+					&& this.lastReleasedSequenceNumber == group.getLastReleasedMessageSequenceNumber();
+		}
+
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aggregator;
+
+import org.springframework.integration.store.MessageGroup;
+import org.springframework.messaging.Message;
+
+/**
+ * A {@link ReleaseStrategy} that is notified of each message added to a group and
+ * keeps its own running state per group, so that {@link #canRelease(MessageGroup)}
+ * does not need to inspect every message of the group on each invocation.
+ * <p>
+ * A correlating handler calls {@link #messageAdded(MessageGroup, Message)} after a
+ * message has been stored in its group and before asking whether the group can be
+ * released; it calls {@link #clearState(Object)} when the group has been released,
+ * expired or removed. Implementations must still answer {@link #canRelease(MessageGroup)}
+ * correctly for a group they have not been told about (for example after a restart
+ * with a persistent message store).
+ *
+ * @since 4.2
+ * @see AbstractIncrementalReleaseStrategy
+ */
+public interface IncrementalReleaseStrategy extends ReleaseStrategy {
+
+	/**
+	 * Update the state of the group with a message that has just been added to it.
+	 * @param group The group, already containing the message.
+	 * @param message The added message.
+	 */
+	void messageAdded(MessageGroup group, Message<?> message);
+
+	/**
+	 * Determine whether the message can be added to the group, possibly using the
+	 * state kept for the group rather than examining its messages.
+	 * @param group The group.
+	 * @param message The message.
+	 * @return true if the message can be added.
+	 */
+	boolean canAdd(MessageGroup group, Message<?> message);
+
+	/**
+	 * Discard any state kept for the group.
+	 * @param groupId The group id.
+	 */
+	void clearState(Object groupId);
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,9 @@
 
 package org.springframework.integration.aggregator;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -30,6 +30,10 @@ import org.springframework.messaging.Message;
 /**
  * An implementation of {@link ReleaseStrategy} that simply compares the current size of the message list to the
  * expected 'sequenceSize'.
+ * <p>
+ * Since 4.2, this is an {@link IncrementalReleaseStrategy}: the lowest sequence number
+ * (for partial release) and the set of sequence numbers in a group are kept up to date
+ * as messages are added, rather than computed from all the messages of the group.
  *
  * @author Mark Fisher
  * @author Marius Bogoevici
@@ -38,12 +42,11 @@ import org.springframework.messaging.Message;
  * @author Oleg Zhurakousky
  * @author Enrique Rodríguez
  */
-public class SequenceSizeReleaseStrategy implements ReleaseStrategy {
+public class SequenceSizeReleaseStrategy
+		extends AbstractIncrementalReleaseStrategy<SequenceSizeReleaseStrategy.SequenceState> {
 
 	private static final Log logger = LogFactory.getLog(SequenceSizeReleaseStrategy.class);
 
-	private final Comparator<Message<?>> comparator = new SequenceNumberComparator();
-
 	private volatile boolean releasePartialSequences;
 
 	public SequenceSizeReleaseStrategy() {
@@ -65,29 +68,41 @@ public class SequenceSizeReleaseStrategy implements ReleaseStrategy {
 	}
 
 	@Override
-	public boolean canRelease(MessageGroup messageGroup) {
+	protected SequenceState createState() {
+		return new SequenceState();
+	}
+
+	@Override
+	protected void addToState(SequenceState state, Message<?> message) {
+		int sequenceNumber = new IntegrationMessageHeaderAccessor(message).getSequenceNumber();
+		if (sequenceNumber < state.minSequenceNumber) {
+			state.minSequenceNumber = sequenceNumber;
+		}
+		if (sequenceNumber > 0) {
+			state.add(sequenceNumber, new IntegrationMessageHeaderAccessor(message).getSequenceSize());
+		}
+	}
+
+	@Override
+	protected boolean canRelease(MessageGroup messageGroup, SequenceState state) {
 
 		boolean canRelease = false;
 
-		Collection<Message<?>> messages = messageGroup.getMessages();
+		int size = messageGroup.size();
 
-		if (releasePartialSequences && !messages.isEmpty()) {
+		if (releasePartialSequences && size > 0) {
 
 			if (logger.isTraceEnabled()) {
 				logger.trace("Considering partial release of group [" + messageGroup + "]");
 			}
-			Message<?> minMessage = Collections.min(messages, this.comparator);
-
-			int nextSequenceNumber = new IntegrationMessageHeaderAccessor(minMessage).getSequenceNumber();
+			int nextSequenceNumber = state.minSequenceNumber;
 			int lastReleasedMessageSequence = messageGroup.getLastReleasedMessageSequenceNumber();
 
 			if (nextSequenceNumber - lastReleasedMessageSequence == 1){
-				canRelease = true;;
+				canRelease = true;
 			}
 		}
 		else {
-			int size = messages.size();
-
 			if (size == 0){
 				canRelease = true;
 			}
@@ -102,4 +117,63 @@ public class SequenceSizeReleaseStrategy implements ReleaseStrategy {
 		return canRelease;
 	}
 
+	/**
+	 * Determine whether the message can be added to the group without superseding a
+	 * message already present: a message with a sequence number can only be added to
+	 * a non-empty group if its sequence size matches that of the group and no message
+	 * with the same sequence number is present.
+	 * @param messageGroup The group.
+	 * @param message The message.
+	 * @return true if the message can be added.
+	 * @since 4.2
+	 */
+	@Override
+	public boolean canAdd(MessageGroup messageGroup, Message<?> message) {
+		if (messageGroup.size() == 0) {
+			return true;
+		}
+		IntegrationMessageHeaderAccessor messageHeaderAccessor = new IntegrationMessageHeaderAccessor(message);
+		int messageSequenceNumber = messageHeaderAccessor.getSequenceNumber();
+		if (messageSequenceNumber > 0) {
+			return messageHeaderAccessor.getSequenceSize() == messageGroup.getSequenceSize()
+					&& !getState(messageGroup).contains(messageSequenceNumber);
+		}
+		return true;
+	}
+
+
+	/**
+	 * The sequence numbers present in a group: in a {@link BitSet} up to the sequence
+	 * size (at least 64), and in a set above it, so that a message with a huge sequence
+	 * number does not allocate a huge {@link BitSet}.
+	 */
+	protected static final class SequenceState {
+
+		private static final int MAX_UNSIZED_SEQUENCE_NUMBER = 64;
+
+		private final BitSet sequenceNumbers = new BitSet();
+
+		private Set<Integer> sparseSequenceNumbers;
+
+		private int minSequenceNumber = Integer.MAX_VALUE;
+
+		private void add(int sequenceNumber, int sequenceSize) {
+			if (sequenceNumber <= Math.max(MAX_UNSIZED_SEQUENCE_NUMBER, sequenceSize)) {
+				this.sequenceNumbers.set(sequenceNumber);
+			}
+			else {
+				if (this.sparseSequenceNumbers == null) {
+					this.sparseSequenceNumbers = new HashSet<Integer>();
+				}
+				this.sparseSequenceNumbers.add(sequenceNumber);
+			}
+		}
+
+		private boolean contains(int sequenceNumber) {
+			return this.sequenceNumbers.get(sequenceNumber)
+					|| (this.sparseSequenceNumbers != null && this.sparseSequenceNumbers.contains(sequenceNumber));
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2011 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  * 
  * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
  * the License. You may obtain a copy of the License at
@@ -24,12 +24,16 @@ import org.springframework.integration.store.MessageGroup;
  * <li>There are more messages than a threshold set by the user.</li>
  * <li>The time elapsed since the earliest message, according to their timestamps, exceeds a timeout set by the user.</li>
  * </ul>
+ * <p>
+ * Since 4.2, the earliest timestamp of each group is kept up to date as messages are
+ * added (see {@link IncrementalReleaseStrategy}).
  * 
  * @author Dave Syer
  * 
  * @since 2.0
  */
-public class TimeoutCountSequenceSizeReleaseStrategy implements ReleaseStrategy {
+public class TimeoutCountSequenceSizeReleaseStrategy
+		extends AbstractIncrementalReleaseStrategy<TimeoutCountSequenceSizeReleaseStrategy.EarliestTimestamp> {
 
 	/**
 	 * Default timeout is one minute.
@@ -58,24 +62,33 @@ public class TimeoutCountSequenceSizeReleaseStrategy implements ReleaseStrategy
 		this.timeout = timeout;
 	}
 
-	public boolean canRelease(MessageGroup messages) {
-		long elapsedTime = System.currentTimeMillis() - findEarliestTimestamp(messages);
-		return messages.isComplete() || messages.getMessages().size() >= threshold || elapsedTime > timeout;
+	@Override
+	protected EarliestTimestamp createState() {
+		return new EarliestTimestamp();
 	}
 
+	@Override
+	protected void addToState(EarliestTimestamp state, Message<?> message) {
+		long timestamp = message.getHeaders().getTimestamp();
+		if (timestamp < state.timestamp) {
+			state.timestamp = timestamp;
+		}
+	}
+
+	@Override
+	protected boolean canRelease(MessageGroup messages, EarliestTimestamp earliest) {
+		long elapsedTime = System.currentTimeMillis() - earliest.timestamp;
+		return messages.isComplete() || messages.size() >= threshold || elapsedTime > timeout;
+	}
+
+
 	/**
-	 * @param messages the message group
-	 * @return the earliest timestamp or Long.MAX_VALUE
+	 * The earliest timestamp of the messages in a group, or Long.MAX_VALUE.
 	 */
-	private long findEarliestTimestamp(MessageGroup messages) {
-		long result = Long.MAX_VALUE;
-		for (Message<?> message : messages.getMessages()) {
-			long timestamp = message.getHeaders().getTimestamp();
-			if (timestamp < result) {
-				result = timestamp;
-			}
-		}
-		return result;
+	protected static final class EarliestTimestamp {
+
+		private long timestamp = Long.MAX_VALUE;
+
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014 the original author or authors.
+ * Copyright 2014-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -125,4 +125,15 @@ public @interface MessagingGateway {
 	 */
 	String reactorEnvironment() default "";
 
+	/**
+	 * Set to {@code "true"} for the methods returning a {@link java.util.concurrent.Future},
+	 * {@link org.springframework.util.concurrent.ListenableFuture},
+	 * {@code java.util.concurrent.CompletableFuture} or Reactive Streams
+	 * {@code org.reactivestreams.Publisher} to return it without holding a thread until the
+	 * reply arrives, instead of running on the {@link #asyncExecutor()}.
+	 * @return the suggested non-blocking replies flag.
+	 * @since 4.2
+	 */
+	String nonBlockingReplies() default "";
+
 }
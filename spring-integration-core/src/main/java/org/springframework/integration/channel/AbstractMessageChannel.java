@@ -37,7 +37,9 @@ import org.springframework.integration.history.MessageHistory;
 import org.springframework.integration.history.TrackableComponent;
 import org.springframework.integration.support.converter.DefaultDatatypeChannelMessageConverter;
 import org.springframework.integration.support.management.ConfigurableMetricsAware;
+import org.springframework.integration.support.management.HistogramMetrics;
 import org.springframework.integration.support.management.IntegrationManagedResource;
+import org.springframework.integration.support.management.LatencyHistogram;
 import org.springframework.integration.support.management.MetricsContext;
 import org.springframework.integration.support.management.Statistics;
 import org.springframework.messaging.Message;
@@ -63,7 +65,7 @@ import org.springframework.util.StringUtils;
 @IntegrationManagedResource
 public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		implements MessageChannel, TrackableComponent, ChannelInterceptorAware, MessageChannelMetrics,
-		ConfigurableMetricsAware<AbstractMessageChannelMetrics> {
+		ConfigurableMetricsAware<AbstractMessageChannelMetrics>, HistogramMetrics {
 
 	private final ChannelInterceptorList interceptors;
 
@@ -83,6 +85,15 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 
 	private volatile AbstractMessageChannelMetrics channelMetrics = new DefaultMessageChannelMetrics();
 
+	private volatile LatencyHistogram sendDurationHistogram;
+
+	/**
+	 * True when no interceptors, datatypes, counts/stats, histogram or message history are
+	 * configured, so {@link #send(Message, long)} can go straight to {@link #doSend}.
+	 * Re-evaluated by {@link #updateDirectSend()} whenever one of those changes.
+	 */
+	private volatile boolean directSend = true;
+
 	public AbstractMessageChannel() {
 		this.interceptors = new ChannelInterceptorList(logger);
 	}
@@ -95,6 +106,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 	@Override
 	public void setShouldTrack(boolean shouldTrack) {
 		this.shouldTrack = shouldTrack;
+		updateDirectSend();
 	}
 
 	@Override
@@ -103,6 +115,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		if (!countsEnabled) {
 			this.statsEnabled = false;
 		}
+		updateDirectSend();
 	}
 
 	@Override
@@ -117,6 +130,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		}
 		this.statsEnabled = statsEnabled;
 		this.channelMetrics.setFullStatsEnabled(statsEnabled);
+		updateDirectSend();
 	}
 
 	@Override
@@ -124,6 +138,45 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		return this.statsEnabled;
 	}
 
+	@Override
+	public void enableHistogram(boolean histogramEnabled) {
+		if (!histogramEnabled) {
+			this.sendDurationHistogram = null;
+		}
+		else if (this.sendDurationHistogram == null) {
+			this.sendDurationHistogram = new LatencyHistogram();
+		}
+		updateDirectSend();
+	}
+
+	@Override
+	public boolean isHistogramEnabled() {
+		return this.sendDurationHistogram != null;
+	}
+
+	@Override
+	public double getMedianDuration() {
+		LatencyHistogram histogram = this.sendDurationHistogram;
+		return histogram != null ? histogram.getMedian() : 0;
+	}
+
+	@Override
+	public double getDuration99thPercentile() {
+		LatencyHistogram histogram = this.sendDurationHistogram;
+		return histogram != null ? histogram.get99thPercentile() : 0;
+	}
+
+	@Override
+	public double getDuration999thPercentile() {
+		LatencyHistogram histogram = this.sendDurationHistogram;
+		return histogram != null ? histogram.get999thPercentile() : 0;
+	}
+
+	@Override
+	public LatencyHistogram getDurationHistogram() {
+		return this.sendDurationHistogram;
+	}
+
 	protected AbstractMessageChannelMetrics getMetrics() {
 		return this.channelMetrics;
 	}
@@ -150,6 +203,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 	public void setDatatypes(Class<?>... datatypes) {
 		this.datatypes = (datatypes != null && datatypes.length > 0)
 				? datatypes : new Class<?>[0];
+		updateDirectSend();
 	}
 
 	/**
@@ -162,6 +216,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 	public void setInterceptors(List<ChannelInterceptor> interceptors) {
 		Collections.sort(interceptors, this.orderComparator);
 		this.interceptors.set(interceptors);
+		updateDirectSend();
 	}
 
 	/**
@@ -172,6 +227,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 	@Override
 	public void addInterceptor(ChannelInterceptor interceptor) {
 		this.interceptors.add(interceptor);
+		updateDirectSend();
 	}
 
 	/**
@@ -183,6 +239,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 	@Override
 	public void addInterceptor(int index, ChannelInterceptor interceptor) {
 		this.interceptors.add(index, interceptor);
+		updateDirectSend();
 	}
 
 	/**
@@ -233,12 +290,16 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 
 	@Override
 	public boolean removeInterceptor(ChannelInterceptor interceptor) {
-		return this.interceptors.remove(interceptor);
+		boolean removed = this.interceptors.remove(interceptor);
+		updateDirectSend();
+		return removed;
 	}
 
 	@Override
 	public ChannelInterceptor removeInterceptor(int index) {
-		return this.interceptors.remove(index);
+		ChannelInterceptor removed = this.interceptors.remove(index);
+		updateDirectSend();
+		return removed;
 	}
 
 	/**
@@ -253,6 +314,10 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 	@Override
 	public void reset() {
 		this.channelMetrics.reset();
+		LatencyHistogram histogram = this.sendDurationHistogram;
+		if (histogram != null) {
+			histogram.reset();
+		}
 	}
 
 	@Override
@@ -346,6 +411,25 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		if (this.statsEnabled) {
 			this.channelMetrics.setFullStatsEnabled(true);
 		}
+		updateDirectSend();
+	}
+
+	/**
+	 * Return true if sends currently bypass interceptors, datatype conversion,
+	 * metrics and message history because none of them is configured.
+	 * @return true if the direct send path is in use.
+	 * @since 4.2
+	 */
+	protected boolean isDirectSend() {
+		return this.directSend;
+	}
+
+	private void updateDirectSend() {
+		this.directSend = !this.shouldTrack
+				&& !this.countsEnabled
+				&& this.sendDurationHistogram == null
+				&& this.datatypes.length == 0
+				&& this.interceptors.getInterceptors().isEmpty();
 	}
 
 	/**
@@ -398,6 +482,18 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 	public final boolean send(Message<?> message, long timeout) {
 		Assert.notNull(message, "message must not be null");
 		Assert.notNull(message.getPayload(), "message payload must not be null");
+		if (this.directSend && !logger.isDebugEnabled()) {
+			try {
+				return this.doSend(message, timeout);
+			}
+			catch (Exception e) {
+				if (e instanceof MessagingException) {
+					throw (MessagingException) e;
+				}
+				throw new MessageDeliveryException(message,
+						"failed to send Message to channel '" + this.getComponentName() + "'", e);
+			}
+		}
 		if (this.shouldTrack) {
 			message = MessageHistory.write(message, this, this.getMessageBuilderFactory());
 		}
@@ -409,6 +505,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		boolean countsEnabled = this.countsEnabled;
 		ChannelInterceptorList interceptors = this.interceptors;
 		AbstractMessageChannelMetrics channelMetrics = this.channelMetrics;
+		LatencyHistogram histogram = this.sendDurationHistogram;
 		try {
 			if (this.datatypes.length > 0) {
 				message = this.convertPayloadIfNecessary(message);
@@ -426,7 +523,11 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 			if (countsEnabled) {
 				metrics = channelMetrics.beforeSend();
 			}
+			long histogramStart = histogram != null ? System.nanoTime() : 0;
 			sent = this.doSend(message, timeout);
+			if (histogram != null && sent) {
+				histogram.record(System.nanoTime() - histogramStart);
+			}
 			if (countsEnabled) {
 				channelMetrics.afterSend(metrics, sent);
 				metricsProcessed = true;
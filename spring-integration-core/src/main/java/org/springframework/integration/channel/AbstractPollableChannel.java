@@ -17,12 +17,14 @@
 package org.springframework.integration.channel;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.List;
 
 import org.springframework.integration.channel.management.PollableChannelManagement;
 import org.springframework.messaging.Message;
-import org.springframework.messaging.PollableChannel;
 import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.util.Assert;
 
 /**
  * Base class for all pollable channels.
@@ -31,7 +33,7 @@ import org.springframework.messaging.support.ChannelInterceptor;
  * @author Artem Bilan
  * @author Gary Russell
  */
-public abstract class AbstractPollableChannel extends AbstractMessageChannel implements PollableChannel,
+public abstract class AbstractPollableChannel extends AbstractMessageChannel implements BatchPollableChannel,
 		PollableChannelManagement {
 
 
@@ -125,6 +127,59 @@ public abstract class AbstractPollableChannel extends AbstractMessageChannel imp
 		}
 	}
 
+	/**
+	 * Receive up to {@code maxMessages} messages from this channel. Messages that are
+	 * immediately available are taken in one {@link #doReceive(int, long)} operation;
+	 * only if the channel is empty does this method wait, according to the timeout
+	 * semantics of {@link #receive(long)}, for the first message.
+	 * <p>
+	 * When the channel has interceptors, they must see each message, so the messages
+	 * are received one at a time through {@link #receive(long)} instead.
+	 *
+	 * @param maxMessages the maximum number of messages to receive; must be positive.
+	 * @param timeout the timeout in milliseconds for the first message.
+	 *
+	 * @return the received messages; empty if no message is available within the
+	 * allotted time or the receiving thread is interrupted.
+	 * @since 4.2
+	 */
+	@Override
+	public final List<Message<?>> receive(int maxMessages, long timeout) {
+		Assert.isTrue(maxMessages > 0, "'maxMessages' must be greater than 0");
+		if (getInterceptors().getInterceptors().size() > 0) {
+			List<Message<?>> messages = new ArrayList<Message<?>>();
+			Message<?> message = receive(timeout);
+			while (message != null) {
+				messages.add(message);
+				if (messages.size() >= maxMessages) {
+					break;
+				}
+				message = receive(0);
+			}
+			return messages;
+		}
+		boolean countsEnabled = isCountsEnabled();
+		try {
+			List<Message<?>> messages = this.doReceive(maxMessages, timeout);
+			if (countsEnabled) {
+				int count = Math.max(1, messages.size());
+				for (int i = 0; i < count; i++) {
+					getMetrics().afterReceive();
+				}
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("postReceive on channel '" + this + "', messages: " + messages);
+			}
+			return messages;
+		}
+		catch (RuntimeException e) {
+			if (countsEnabled) {
+				getMetrics().afterError();
+			}
+			throw e;
+		}
+	}
+
 	/**
 	 * Subclasses must implement this method. A non-negative timeout indicates
 	 * how long to wait if the channel is empty (if the value is 0, it must
@@ -137,4 +192,29 @@ public abstract class AbstractPollableChannel extends AbstractMessageChannel imp
 	 */
 	protected abstract Message<?> doReceive(long timeout);
 
+	/**
+	 * Receive up to {@code maxMessages} messages; the timeout applies only while
+	 * waiting for the first one. This implementation calls {@link #doReceive(long)}
+	 * once with the timeout and then with a zero timeout until the channel is empty
+	 * or the batch is full; subclasses backed by a queue that supports draining
+	 * should override it to take the batch in one operation.
+	 *
+	 * @param maxMessages The maximum number of messages (positive).
+	 * @param timeout The timeout for the first message.
+	 * @return The messages, never null.
+	 * @since 4.2
+	 */
+	protected List<Message<?>> doReceive(int maxMessages, long timeout) {
+		List<Message<?>> messages = new ArrayList<Message<?>>();
+		Message<?> message = this.doReceive(timeout);
+		while (message != null) {
+			messages.add(message);
+			if (messages.size() >= maxMessages) {
+				break;
+			}
+			message = this.doReceive(0);
+		}
+		return messages;
+	}
+
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.integration.channel;
+
+import java.util.List;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.PollableChannel;
+
+/**
+ * A {@link PollableChannel} that can hand out several {@link Message Messages} in one
+ * receive operation.
+ *
+ * @since 4.2
+ *
+ */
+public interface BatchPollableChannel extends PollableChannel {
+
+	/**
+	 * Receive up to {@code maxMessages} {@link Message Messages} in one operation,
+	 * taking whatever is immediately available rather than locking the queue once per
+	 * message. Only when the channel is empty does the call wait, according to the
+	 * {@code timeout}, for the first message.
+	 *
+	 * @param maxMessages The maximum number of messages to receive; must be positive.
+	 * @param timeout How long to wait for the first message, in milliseconds; 0 to
+	 * return immediately, negative to block indefinitely.
+	 * @return The received messages, in order; empty if none arrived within the timeout.
+	 */
+	List<Message<?>> receive(int maxMessages, long timeout);
+
+}
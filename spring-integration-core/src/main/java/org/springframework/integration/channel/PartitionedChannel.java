@@ -0,0 +1,233 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.channel;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.integration.context.IntegrationProperties;
+import org.springframework.integration.dispatcher.LoadBalancingStrategy;
+import org.springframework.integration.dispatcher.PartitionedDispatcher;
+import org.springframework.integration.expression.ExpressionUtils;
+import org.springframework.integration.support.channel.BeanFactoryChannelResolver;
+import org.springframework.integration.util.Function;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link org.springframework.messaging.SubscribableChannel} that hands messages off
+ * to an {@link Executor}, like the {@link ExecutorChannel}, but preserves the order of
+ * the messages with the same partition key: it delegates to a
+ * {@link PartitionedDispatcher}, which hashes the key of each message onto one of a
+ * number of serial partitions. Messages with different keys are handled in parallel.
+ * <p>
+ * The key is the {@code correlationId} header by default, or the value of the header
+ * or the expression provided. Unless an executor is provided, the partitions share a
+ * fixed pool with one thread per available processor, which is created when the
+ * channel is initialized and shut down when it is destroyed (on Java 7 or later, a
+ * work-stealing {@link java.util.concurrent.ForkJoinPool} can be provided instead).
+ * <p>
+ * Exceptions thrown by the subscribers are sent to the {@code errorChannel} header of
+ * the failed message or to the default error channel, as for an {@link ExecutorChannel}.
+ *
+ * @since 4.2
+ */
+public class PartitionedChannel extends AbstractSubscribableChannel implements DisposableBean {
+
+	private final PartitionedDispatcher dispatcher;
+
+	private final DefaultExecutor defaultExecutor;
+
+	private volatile Expression partitionKeyExpression;
+
+	private volatile Integer maxSubscribers;
+
+	/**
+	 * Create a channel with the provided number of partitions on a default pool with one
+	 * thread per available processor.
+	 * @param partitionCount the number of partitions.
+	 */
+	public PartitionedChannel(int partitionCount) {
+		this.defaultExecutor = new DefaultExecutor();
+		this.dispatcher = new PartitionedDispatcher(this.defaultExecutor, partitionCount);
+	}
+
+	/**
+	 * Create a channel with the provided number of partitions on the provided executor.
+	 * @param executor the executor.
+	 * @param partitionCount the number of partitions.
+	 */
+	public PartitionedChannel(Executor executor, int partitionCount) {
+		this.defaultExecutor = null;
+		this.dispatcher = new PartitionedDispatcher(executor, partitionCount);
+	}
+
+	/**
+	 * Use the value of this header as the partition key.
+	 * @param headerName the header name.
+	 */
+	public void setPartitionKeyHeader(final String headerName) {
+		Assert.hasText(headerName, "'headerName' must not be empty");
+		this.partitionKeyExpression = null;
+		this.dispatcher.setPartitionKeyFunction(new Function<Message<?>, Object>() {
+
+			@Override
+			public Object apply(Message<?> message) {
+				return message.getHeaders().get(headerName);
+			}
+
+		});
+	}
+
+	/**
+	 * Use the result of this expression, evaluated against the message, as the
+	 * partition key.
+	 * @param partitionKeyExpression the expression.
+	 */
+	public void setPartitionKeyExpression(Expression partitionKeyExpression) {
+		Assert.notNull(partitionKeyExpression, "'partitionKeyExpression' must not be null");
+		this.partitionKeyExpression = partitionKeyExpression;
+	}
+
+	/**
+	 * Specify whether the channel's dispatcher should have failover enabled.
+	 * By default, it will. Set this value to 'false' to disable it.
+	 * @param failover The failover boolean.
+	 */
+	public void setFailover(boolean failover) {
+		this.dispatcher.setFailover(failover);
+	}
+
+	/**
+	 * Specify the maximum number of subscribers supported by the
+	 * channel's dispatcher.
+	 * @param maxSubscribers The maximum number of subscribers allowed.
+	 */
+	public void setMaxSubscribers(int maxSubscribers) {
+		this.maxSubscribers = maxSubscribers;
+		this.dispatcher.setMaxSubscribers(maxSubscribers);
+	}
+
+	/**
+	 * Provide a {@link LoadBalancingStrategy} for the channel's dispatcher.
+	 * @param loadBalancingStrategy The load balancing strategy implementation.
+	 */
+	public void setLoadBalancingStrategy(LoadBalancingStrategy loadBalancingStrategy) {
+		this.dispatcher.setLoadBalancingStrategy(loadBalancingStrategy);
+	}
+
+	/**
+	 * Set the maximum number of messages a partition handles in one executor task.
+	 * @param maxMessagesPerTask the maximum number of messages.
+	 * @see PartitionedDispatcher#setMaxMessagesPerTask(int)
+	 */
+	public void setMaxMessagesPerTask(int maxMessagesPerTask) {
+		this.dispatcher.setMaxMessagesPerTask(maxMessagesPerTask);
+	}
+
+	public int getPartitionCount() {
+		return this.dispatcher.getPartitionCount();
+	}
+
+	@Override
+	protected PartitionedDispatcher getDispatcher() {
+		return this.dispatcher;
+	}
+
+	@Override
+	protected void onInit() throws Exception {
+		super.onInit();
+		if (this.defaultExecutor != null) {
+			this.defaultExecutor.initialize();
+		}
+		if (this.getBeanFactory() != null) {
+			this.dispatcher.setErrorHandler(new MessagePublishingErrorHandler(
+					new BeanFactoryChannelResolver(this.getBeanFactory())));
+		}
+		if (this.maxSubscribers == null) {
+			this.maxSubscribers = this.getIntegrationProperty(IntegrationProperties.CHANNELS_MAX_UNICAST_SUBSCRIBERS,
+					Integer.class);
+			this.dispatcher.setMaxSubscribers(this.maxSubscribers);
+		}
+		final Expression partitionKeyExpression = this.partitionKeyExpression;
+		if (partitionKeyExpression != null) {
+			final EvaluationContext evaluationContext =
+					ExpressionUtils.createStandardEvaluationContext(this.getBeanFactory());
+			this.dispatcher.setPartitionKeyFunction(new Function<Message<?>, Object>() {
+
+				@Override
+				public Object apply(Message<?> message) {
+					return partitionKeyExpression.getValue(evaluationContext, message);
+				}
+
+			});
+		}
+	}
+
+	@Override
+	public void destroy() {
+		if (this.defaultExecutor != null) {
+			this.defaultExecutor.shutdown();
+		}
+	}
+
+
+	/**
+	 * The executor used when none is provided: the thread pool is only created when the
+	 * channel is initialized.
+	 */
+	private final class DefaultExecutor implements Executor {
+
+		private volatile ThreadPoolTaskExecutor delegate;
+
+		private synchronized void initialize() {
+			if (this.delegate == null) {
+				ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+				int processors = Runtime.getRuntime().availableProcessors();
+				executor.setCorePoolSize(processors);
+				executor.setMaxPoolSize(processors);
+				String name = PartitionedChannel.this.getComponentName();
+				executor.setThreadNamePrefix(name != null ? name + "-" : "partitioned-");
+				executor.initialize();
+				this.delegate = executor;
+			}
+		}
+
+		private synchronized void shutdown() {
+			if (this.delegate != null) {
+				this.delegate.shutdown();
+				this.delegate = null;
+			}
+		}
+
+		@Override
+		public void execute(Runnable task) {
+			ThreadPoolTaskExecutor delegate = this.delegate;
+			if (delegate == null) {
+				throw new RejectedExecutionException("The channel '" + PartitionedChannel.this
+						+ "' must be initialized (and not destroyed) before it is used");
+			}
+			delegate.execute(task);
+		}
+
+	}
+
+}
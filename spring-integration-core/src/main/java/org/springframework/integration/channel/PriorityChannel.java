@@ -17,6 +17,7 @@
 package org.springframework.integration.channel;
 
 import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -102,6 +103,20 @@ public class PriorityChannel extends QueueChannel {
 		return message;
 	}
 
+	@Override
+	protected List<Message<?>> doReceive(int maxMessages, long timeout) {
+		List<Message<?>> messages = super.doReceive(maxMessages, timeout);
+		for (int i = 0; i < messages.size(); i++) {
+			Message<?> message = messages.get(i);
+			// a message taken by doReceive(long) has already been unwrapped and released
+			if (message instanceof MessageWrapper) {
+				messages.set(i, ((MessageWrapper) message).getRootMessage());
+				upperBound.release();
+			}
+		}
+		return messages;
+	}
+
 	private static class SequenceFallbackComparator implements Comparator<Message<?>> {
 
 		private final Comparator<Message<?>> targetComparator;
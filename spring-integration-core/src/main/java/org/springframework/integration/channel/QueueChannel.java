@@ -145,6 +145,38 @@ public class QueueChannel extends AbstractPollableChannel implements QueueChanne
 		}
 	}
 
+	/**
+	 * Drain the messages that are already queued in one operation (a single lock
+	 * acquisition for a {@link BlockingQueue}), waiting only if the queue is empty.
+	 */
+	@Override
+	protected List<Message<?>> doReceive(int maxMessages, long timeout) {
+		List<Message<?>> messages = new ArrayList<Message<?>>();
+		drainTo(messages, maxMessages);
+		if (messages.isEmpty() && timeout != 0) {
+			Message<?> message = this.doReceive(timeout);
+			if (message != null) {
+				messages.add(message);
+				if (maxMessages > 1) {
+					drainTo(messages, maxMessages - 1);
+				}
+			}
+		}
+		return messages;
+	}
+
+	private void drainTo(List<Message<?>> messages, int maxMessages) {
+		if (this.queue instanceof BlockingQueue) {
+			((BlockingQueue<Message<?>>) this.queue).drainTo(messages, maxMessages);
+		}
+		else {
+			Message<?> message = null;
+			for (int i = 0; i < maxMessages && (message = this.queue.poll()) != null; i++) {
+				messages.add(message);
+			}
+		}
+	}
+
 	@Override
 	public List<Message<?>> clear() {
 		List<Message<?>> clearedMessages = new ArrayList<Message<?>>();
@@ -0,0 +1,404 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.channel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.integration.channel.management.QueueChannelManagement;
+import org.springframework.integration.core.MessageSelector;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+
+/**
+ * A bounded, lock-free {@link org.springframework.messaging.PollableChannel} backed by
+ * a preallocated ring buffer. Unlike a {@link QueueChannel} over a
+ * {@link java.util.concurrent.LinkedBlockingQueue}, no node is allocated per message
+ * and neither producers nor consumers take a lock; each slot carries a sequence
+ * number that producers and consumers claim with a compare-and-set.
+ * <p>
+ * The capacity is rounded up to the next power of two. With
+ * {@link ProducerType#SINGLE}, slots are claimed without a compare-and-set; this is
+ * only safe when exactly one thread sends to the channel at a time (any number of
+ * threads may receive). Since {@link #purge(MessageSelector)} re-enqueues retained
+ * messages, it must not run concurrently with that producer either.
+ * <p>
+ * When the buffer is full (send) or empty (receive) and the timeout permits waiting,
+ * the calling thread waits according to the {@link WaitStrategy}. With the default
+ * {@link WaitStrategy#BLOCK}, an idle thread ends up blocked on a condition and
+ * consumes no CPU until it is signalled; the lock is only taken when some thread is
+ * actually waiting.
+ *
+ * @since 4.2
+ */
+public class RingBufferChannel extends AbstractPollableChannel implements QueueChannelOperations,
+		QueueChannelManagement {
+
+	/**
+	 * Whether one or many threads may send to the channel concurrently.
+	 */
+	public enum ProducerType {
+
+		/**
+		 * Exactly one sending thread at a time; slots are claimed without a CAS.
+		 */
+		SINGLE,
+
+		/**
+		 * Any number of sending threads.
+		 */
+		MULTI
+
+	}
+
+	/**
+	 * How a thread waits for free space (send) or for a message (receive).
+	 */
+	public enum WaitStrategy {
+
+		/**
+		 * Busy spin; lowest latency, burns a core per waiting thread.
+		 */
+		SPIN,
+
+		/**
+		 * {@link Thread#yield()} between attempts.
+		 */
+		YIELD,
+
+		/**
+		 * Park briefly between attempts.
+		 */
+		PARK,
+
+		/**
+		 * Spin, then yield, then block until signalled by the other side; lowest
+		 * CPU usage.
+		 */
+		BLOCK
+
+	}
+
+	private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	private static final int SPIN_TRIES = 100;
+
+	private static final int YIELD_TRIES = 100;
+
+	private final int capacity;
+
+	private final int mask;
+
+	private final Message<?>[] buffer;
+
+	private final AtomicLongArray sequences;
+
+	private final AtomicLong producerSequence = new AtomicLong();
+
+	private final AtomicLong consumerSequence = new AtomicLong();
+
+	private final boolean singleProducer;
+
+	private final ReentrantLock waitLock = new ReentrantLock();
+
+	private final Condition notEmpty = this.waitLock.newCondition();
+
+	private final Condition notFull = this.waitLock.newCondition();
+
+	private final AtomicInteger waitingConsumers = new AtomicInteger();
+
+	private final AtomicInteger waitingProducers = new AtomicInteger();
+
+	private volatile WaitStrategy waitStrategy = WaitStrategy.BLOCK;
+
+	/**
+	 * Create a multi-producer channel with (at least) the specified capacity.
+	 * @param capacity The capacity; rounded up to the next power of two.
+	 */
+	public RingBufferChannel(int capacity) {
+		this(capacity, ProducerType.MULTI);
+	}
+
+	/**
+	 * Create a channel with (at least) the specified capacity.
+	 * @param capacity The capacity; rounded up to the next power of two.
+	 * @param producerType The producer type.
+	 */
+	public RingBufferChannel(int capacity, ProducerType producerType) {
+		Assert.isTrue(capacity > 0 && capacity <= 1 << 30, "'capacity' must be between 1 and 2^30");
+		Assert.notNull(producerType, "'producerType' must not be null");
+		this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = this.capacity - 1;
+		this.buffer = new Message<?>[this.capacity];
+		this.sequences = new AtomicLongArray(this.capacity);
+		for (int i = 0; i < this.capacity; i++) {
+			this.sequences.set(i, i);
+		}
+		this.singleProducer = ProducerType.SINGLE.equals(producerType);
+	}
+
+	/**
+	 * Set the strategy used while waiting for space or for a message; default
+	 * {@link WaitStrategy#BLOCK}. Set it before the channel is used.
+	 * @param waitStrategy the wait strategy.
+	 */
+	public void setWaitStrategy(WaitStrategy waitStrategy) {
+		Assert.notNull(waitStrategy, "'waitStrategy' must not be null");
+		this.waitStrategy = waitStrategy;
+	}
+
+	/**
+	 * @return the actual capacity of the ring buffer (a power of two).
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	@Override
+	protected boolean doSend(Message<?> message, long timeout) {
+		Assert.notNull(message, "'message' must not be null");
+		if (offer(message)) {
+			return true;
+		}
+		if (timeout == 0) {
+			return false;
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		int attempt = 0;
+		while (!Thread.currentThread().isInterrupted()) {
+			long remaining = deadline - System.nanoTime();
+			if (timeout > 0 && remaining <= 0) {
+				return false;
+			}
+			idle(attempt++, false, timeout > 0 ? remaining : -1);
+			if (offer(message)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	protected Message<?> doReceive(long timeout) {
+		Message<?> message = poll();
+		if (message != null || timeout == 0) {
+			return message;
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		int attempt = 0;
+		while (!Thread.currentThread().isInterrupted()) {
+			long remaining = deadline - System.nanoTime();
+			if (timeout > 0 && remaining <= 0) {
+				return null;
+			}
+			idle(attempt++, true, timeout > 0 ? remaining : -1);
+			message = poll();
+			if (message != null) {
+				return message;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public List<Message<?>> clear() {
+		List<Message<?>> clearedMessages = new ArrayList<Message<?>>();
+		Message<?> message = null;
+		while ((message = poll()) != null) {
+			clearedMessages.add(message);
+		}
+		return clearedMessages;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The messages present when the purge starts are removed from the buffer and those
+	 * accepted by the selector are sent again, in their original order; messages sent
+	 * concurrently with the purge may therefore be received before them.
+	 */
+	@Override
+	public List<Message<?>> purge(MessageSelector selector) {
+		if (selector == null) {
+			return this.clear();
+		}
+		List<Message<?>> purgedMessages = new ArrayList<Message<?>>();
+		List<Message<?>> retainedMessages = new ArrayList<Message<?>>();
+		for (int i = getQueueSize(); i > 0; i--) {
+			Message<?> message = poll();
+			if (message == null) {
+				break;
+			}
+			if (selector.accept(message)) {
+				retainedMessages.add(message);
+			}
+			else {
+				purgedMessages.add(message);
+			}
+		}
+		for (Message<?> message : retainedMessages) {
+			doSend(message, -1);
+		}
+		return purgedMessages;
+	}
+
+	@Override
+	public int getQueueSize() {
+		long consumed = this.consumerSequence.get();
+		long produced = this.producerSequence.get();
+		return (int) Math.max(0, Math.min(this.capacity, produced - consumed));
+	}
+
+	@Override
+	public int getRemainingCapacity() {
+		return this.capacity - getQueueSize();
+	}
+
+	private boolean offer(Message<?> message) {
+		long position = this.producerSequence.get();
+		while (true) {
+			long difference = this.sequences.get((int) position & this.mask) - position;
+			if (difference == 0) {
+				if (this.singleProducer) {
+					this.producerSequence.lazySet(position + 1);
+					break;
+				}
+				if (this.producerSequence.compareAndSet(position, position + 1)) {
+					break;
+				}
+			}
+			else if (difference < 0) {
+				return false;
+			}
+			position = this.producerSequence.get();
+		}
+		int index = (int) position & this.mask;
+		this.buffer[index] = message;
+		publish(index, position + 1, true);
+		return true;
+	}
+
+	private Message<?> poll() {
+		long position = this.consumerSequence.get();
+		while (true) {
+			int index = (int) position & this.mask;
+			long difference = this.sequences.get(index) - (position + 1);
+			if (difference == 0) {
+				if (this.consumerSequence.compareAndSet(position, position + 1)) {
+					Message<?> message = this.buffer[index];
+					this.buffer[index] = null;
+					publish(index, position + this.capacity, false);
+					return message;
+				}
+			}
+			else if (difference < 0) {
+				return null;
+			}
+			position = this.consumerSequence.get();
+		}
+	}
+
+	/**
+	 * Publish a slot sequence. When threads may be blocked, the store must be
+	 * volatile so that either the waiter's re-check sees it or we see the waiter.
+	 */
+	private void publish(int index, long sequence, boolean produced) {
+		if (this.waitStrategy != WaitStrategy.BLOCK) {
+			this.sequences.lazySet(index, sequence);
+			return;
+		}
+		this.sequences.set(index, sequence);
+		AtomicInteger waiters = produced ? this.waitingConsumers : this.waitingProducers;
+		if (waiters.get() > 0) {
+			this.waitLock.lock();
+			try {
+				(produced ? this.notEmpty : this.notFull).signal();
+			}
+			finally {
+				this.waitLock.unlock();
+			}
+		}
+	}
+
+	private boolean canPoll() {
+		long position = this.consumerSequence.get();
+		return this.sequences.get((int) position & this.mask) - (position + 1) >= 0;
+	}
+
+	private boolean canOffer() {
+		long position = this.producerSequence.get();
+		return this.sequences.get((int) position & this.mask) - position >= 0;
+	}
+
+	private void idle(int attempt, boolean receiving, long remainingNanos) {
+		switch (this.waitStrategy) {
+		case SPIN:
+			break;
+		case YIELD:
+			Thread.yield();
+			break;
+		case PARK:
+			LockSupport.parkNanos(PARK_NANOS);
+			break;
+		default:
+			if (attempt < SPIN_TRIES) {
+				break;
+			}
+			if (attempt < SPIN_TRIES + YIELD_TRIES) {
+				Thread.yield();
+				break;
+			}
+			block(receiving, remainingNanos);
+		}
+	}
+
+	private void block(boolean receiving, long remainingNanos) {
+		AtomicInteger waiters = receiving ? this.waitingConsumers : this.waitingProducers;
+		this.waitLock.lock();
+		try {
+			waiters.incrementAndGet();
+			try {
+				if (receiving ? !canPoll() : !canOffer()) {
+					Condition condition = receiving ? this.notEmpty : this.notFull;
+					if (remainingNanos < 0) {
+						condition.await();
+					}
+					else {
+						condition.awaitNanos(remainingNanos);
+					}
+				}
+			}
+			finally {
+				waiters.decrementAndGet();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			this.waitLock.unlock();
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014 the original author or authors.
+ * Copyright 2014-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -85,6 +85,7 @@ public class MessagingGatewayRegistrar implements ImportBeanDefinitionRegistrar
 		String errorChannel = (String) gatewayAttributes.get("errorChannel");
 		String asyncExecutor = (String) gatewayAttributes.get("asyncExecutor");
 		String reactorEnvironment = (String) gatewayAttributes.get("reactorEnvironment");
+		String nonBlockingReplies = (String) gatewayAttributes.get("nonBlockingReplies");
 		String mapper = (String) gatewayAttributes.get("mapper");
 
 		boolean hasMapper = StringUtils.hasText(mapper);
@@ -143,6 +144,9 @@ public class MessagingGatewayRegistrar implements ImportBeanDefinitionRegistrar
 		if (StringUtils.hasText(reactorEnvironment)) {
 			gatewayProxyBuilder.addPropertyReference("reactorEnvironment", reactorEnvironment);
 		}
+		if (StringUtils.hasText(nonBlockingReplies)) {
+			gatewayProxyBuilder.addPropertyValue("nonBlockingReplies", nonBlockingReplies);
+		}
 		if (StringUtils.hasText(mapper)) {
 			gatewayProxyBuilder.addPropertyReference("mapper", mapper);
 		}
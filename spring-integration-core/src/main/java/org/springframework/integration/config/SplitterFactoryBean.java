@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -45,6 +45,10 @@ public class SplitterFactoryBean extends AbstractStandardMessageHandlerFactoryBe
 
 	private volatile String delimiters;
 
+	private volatile Integer maxInFlight;
+
+	private volatile Long inFlightTimeout;
+
 
 	public void setSendTimeout(Long sendTimeout) {
 		this.sendTimeout = sendTimeout;
@@ -66,6 +70,14 @@ public class SplitterFactoryBean extends AbstractStandardMessageHandlerFactoryBe
 		this.delimiters = delimiters;
 	}
 
+	public void setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = maxInFlight;
+	}
+
+	public void setInFlightTimeout(long inFlightTimeout) {
+		this.inFlightTimeout = inFlightTimeout;
+	}
+
 	@Override
 	MessageHandler createMethodInvokingHandler(Object targetObject, String targetMethodName) {
 		Assert.notNull(targetObject, "targetObject must not be null");
@@ -110,7 +122,8 @@ public class SplitterFactoryBean extends AbstractStandardMessageHandlerFactoryBe
 	@Override
 	protected boolean canBeUsedDirect(AbstractMessageProducingHandler handler) {
 		return handler instanceof AbstractMessageSplitter
-				|| (this.applySequence == null && this.delimiters == null);
+				|| (this.applySequence == null && this.delimiters == null && this.maxInFlight == null
+						&& this.inFlightTimeout == null);
 	}
 
 	@Override
@@ -132,6 +145,10 @@ public class SplitterFactoryBean extends AbstractStandardMessageHandlerFactoryBe
 					+ "an AbstractReplyProducingMessageHandler, but not an AbstractMessageSplitter");
 			Assert.isNull(this.delimiters, "Cannot set delimiters if the referenced bean is not an "
 					+ "an AbstractReplyProducingMessageHandler, but not an AbstractMessageSplitter");
+			Assert.isNull(this.maxInFlight, "Cannot set maxInFlight if the referenced bean is "
+					+ "an AbstractReplyProducingMessageHandler, but not an AbstractMessageSplitter");
+			Assert.isNull(this.inFlightTimeout, "Cannot set inFlightTimeout if the referenced bean is "
+					+ "an AbstractReplyProducingMessageHandler, but not an AbstractMessageSplitter");
 		}
 		else {
 			AbstractMessageSplitter splitter = (AbstractMessageSplitter) handler;
@@ -143,6 +160,12 @@ public class SplitterFactoryBean extends AbstractStandardMessageHandlerFactoryBe
 			if (this.applySequence != null) {
 				splitter.setApplySequence(applySequence);
 			}
+			if (this.maxInFlight != null) {
+				splitter.setMaxInFlight(this.maxInFlight);
+			}
+			if (this.inFlightTimeout != null) {
+				splitter.setInFlightTimeout(this.inFlightTimeout);
+			}
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -74,6 +74,7 @@ public class GatewayParser implements BeanDefinitionParser {
 
 		gatewayAttributes.put("mapper", element.getAttribute("mapper"));
 		gatewayAttributes.put("reactorEnvironment", element.getAttribute("reactor-environment"));
+		gatewayAttributes.put("nonBlockingReplies", element.getAttribute("non-blocking-replies"));
 		gatewayAttributes.put("defaultReplyTimeout",
 				element.getAttribute(isNested ? "reply-timeout" : "default-reply-timeout"));
 		gatewayAttributes.put("defaultRequestTimeout",
@@ -27,6 +27,7 @@ import org.springframework.integration.channel.FixedSubscriberChannel;
 import org.springframework.integration.channel.PriorityChannel;
 import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.channel.RendezvousChannel;
+import org.springframework.integration.channel.RingBufferChannel;
 import org.springframework.integration.store.MessageGroupQueue;
 import org.springframework.util.StringUtils;
 import org.springframework.util.xml.DomUtils;
@@ -89,6 +90,15 @@ public class PointToPointChannelParser extends AbstractChannelParser {
 		else if ((queueElement = DomUtils.getChildElementByTagName(element, "rendezvous-queue")) != null) {
 			builder = BeanDefinitionBuilder.genericBeanDefinition(RendezvousChannel.class);
 		}
+		else if ((queueElement = DomUtils.getChildElementByTagName(element, "ring-buffer-queue")) != null) {
+			builder = BeanDefinitionBuilder.genericBeanDefinition(RingBufferChannel.class);
+			this.parseQueueCapacity(builder, queueElement);
+			String producerType = queueElement.getAttribute("producer-type");
+			if (StringUtils.hasText(producerType)) {
+				builder.addConstructorArgValue(producerType);
+			}
+			IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, queueElement, "wait-strategy");
+		}
 
 		Element dispatcherElement = DomUtils.getChildElementByTagName(element, "dispatcher");
 
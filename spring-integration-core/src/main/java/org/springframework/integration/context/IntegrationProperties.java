@@ -1,5 +1,5 @@
 /*
- * Copyright 2014 the original author or authors.
+ * Copyright 2014-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -66,6 +66,15 @@ public final class IntegrationProperties {
 	 */
 	public static final String THROW_EXCEPTION_ON_LATE_REPLY = INTEGRATION_PROPERTIES_PREFIX + "messagingTemplate.throwExceptionOnLateReply";
 
+	/**
+	 * Specifies the {@link org.springframework.expression.spel.SpelCompilerMode} (OFF, IMMEDIATE
+	 * or MIXED) for expressions evaluated by expression-evaluating components that do not set
+	 * a compiler mode explicitly.
+	 * @since 4.2
+	 * @see org.springframework.integration.util.AbstractExpressionEvaluator#setCompilerMode
+	 */
+	public static final String SPEL_COMPILER_MODE = INTEGRATION_PROPERTIES_PREFIX + "spel.compilerMode";
+
 	private static Properties defaults;
 
 	static {
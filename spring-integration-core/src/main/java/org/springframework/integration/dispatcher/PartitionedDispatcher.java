@@ -0,0 +1,261 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.dispatcher;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.util.Function;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * A {@link MessageDispatcher} that dispatches each message on one of a fixed number of
+ * serial partitions, chosen by the hash of a key of the message, so that messages with
+ * the same key are handled one at a time, in the order they were dispatched, while
+ * messages with different keys are handled in parallel.
+ * <p>
+ * The partitions do not own threads: each has a queue and, while it has messages, one
+ * task on the shared {@link Executor} that handles them (up to
+ * {@code maxMessagesPerTask} at a time, then resubmits itself so that the partitions
+ * share the threads fairly). A work-stealing
+ * {@link java.util.concurrent.ForkJoinPool} in async mode is a good fit: a resubmitted
+ * task goes to the local queue of its worker, and idle workers steal from busy ones.
+ * <p>
+ * The key is the {@code correlationId} header by default; messages without a key are
+ * spread over the partitions with no ordering guarantee. Within a partition, the
+ * handlers are invoked as by a {@link UnicastingDispatcher} (load-balancing and
+ * failover); an exception is passed to the {@link ErrorHandler} (or logged) and the
+ * partition carries on with its next message.
+ *
+ * @since 4.2
+ */
+public class PartitionedDispatcher implements MessageDispatcher {
+
+	private static final Log logger = LogFactory.getLog(PartitionedDispatcher.class);
+
+	private final UnicastingDispatcher delegate = new UnicastingDispatcher();
+
+	private final Executor executor;
+
+	private final Partition[] partitions;
+
+	private final AtomicInteger nextPartition = new AtomicInteger();
+
+	private volatile Function<Message<?>, Object> partitionKeyFunction = new Function<Message<?>, Object>() {
+
+		@Override
+		public Object apply(Message<?> message) {
+			return message.getHeaders().get(IntegrationMessageHeaderAccessor.CORRELATION_ID);
+		}
+
+	};
+
+	private volatile ErrorHandler errorHandler;
+
+	private volatile int maxMessagesPerTask = 64;
+
+	public PartitionedDispatcher(Executor executor, int partitionCount) {
+		Assert.notNull(executor, "'executor' must not be null");
+		Assert.isTrue(partitionCount > 0, "'partitionCount' must be greater than 0");
+		this.executor = executor;
+		this.partitions = new Partition[partitionCount];
+		for (int i = 0; i < partitionCount; i++) {
+			this.partitions[i] = new Partition();
+		}
+	}
+
+	/**
+	 * Set the function that returns the key of a message; messages with the same key
+	 * are dispatched on the same partition. Default: the {@code correlationId} header.
+	 * @param partitionKeyFunction the function.
+	 */
+	public void setPartitionKeyFunction(Function<Message<?>, Object> partitionKeyFunction) {
+		Assert.notNull(partitionKeyFunction, "'partitionKeyFunction' must not be null");
+		this.partitionKeyFunction = partitionKeyFunction;
+	}
+
+	/**
+	 * Set the handler for exceptions thrown by the handlers; by default they are
+	 * logged.
+	 * @param errorHandler the error handler.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	/**
+	 * Set the maximum number of messages a partition handles in one executor task
+	 * before resubmitting itself. Default 64.
+	 * @param maxMessagesPerTask the maximum number of messages.
+	 */
+	public void setMaxMessagesPerTask(int maxMessagesPerTask) {
+		Assert.isTrue(maxMessagesPerTask > 0, "'maxMessagesPerTask' must be greater than 0");
+		this.maxMessagesPerTask = maxMessagesPerTask;
+	}
+
+	/**
+	 * @param failover The failover boolean.
+	 * @see UnicastingDispatcher#setFailover(boolean)
+	 */
+	public void setFailover(boolean failover) {
+		this.delegate.setFailover(failover);
+	}
+
+	/**
+	 * @param loadBalancingStrategy The load balancing strategy implementation.
+	 * @see UnicastingDispatcher#setLoadBalancingStrategy(LoadBalancingStrategy)
+	 */
+	public void setLoadBalancingStrategy(LoadBalancingStrategy loadBalancingStrategy) {
+		this.delegate.setLoadBalancingStrategy(loadBalancingStrategy);
+	}
+
+	/**
+	 * @param maxSubscribers The maximum number of subscribers allowed.
+	 * @see AbstractDispatcher#setMaxSubscribers(int)
+	 */
+	public void setMaxSubscribers(int maxSubscribers) {
+		this.delegate.setMaxSubscribers(maxSubscribers);
+	}
+
+	public int getPartitionCount() {
+		return this.partitions.length;
+	}
+
+	public int getHandlerCount() {
+		return this.delegate.getHandlerCount();
+	}
+
+	@Override
+	public boolean addHandler(MessageHandler handler) {
+		return this.delegate.addHandler(handler);
+	}
+
+	@Override
+	public boolean removeHandler(MessageHandler handler) {
+		return this.delegate.removeHandler(handler);
+	}
+
+	@Override
+	public boolean dispatch(Message<?> message) {
+		Object key = this.partitionKeyFunction.apply(message);
+		int index;
+		if (key == null) {
+			index = (this.nextPartition.getAndIncrement() & Integer.MAX_VALUE) % this.partitions.length;
+		}
+		else {
+			int hash = key.hashCode();
+			index = ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % this.partitions.length;
+		}
+		this.partitions[index].add(message);
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "PartitionedDispatcher with " + this.partitions.length + " partitions and handlers: "
+				+ this.delegate.getHandlers();
+	}
+
+
+	/**
+	 * A serial queue of messages, drained by at most one executor task at a time.
+	 */
+	private final class Partition implements Runnable {
+
+		private final Queue<Message<?>> messages = new ConcurrentLinkedQueue<Message<?>>();
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		private void add(Message<?> message) {
+			this.messages.add(message);
+			try {
+				schedule();
+			}
+			catch (RuntimeException e) {
+				if (this.messages.remove(message)) {
+					throw new MessageDeliveryException(message,
+							"Failed to submit the partition of the message to the executor", e);
+				}
+				// already handled by a task scheduled meanwhile
+			}
+		}
+
+		private void schedule() {
+			if (this.scheduled.compareAndSet(false, true)) {
+				try {
+					PartitionedDispatcher.this.executor.execute(this);
+				}
+				catch (RuntimeException e) {
+					this.scheduled.set(false);
+					throw e;
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				int count = 0;
+				Message<?> message;
+				while (count++ < PartitionedDispatcher.this.maxMessagesPerTask
+						&& (message = this.messages.poll()) != null) {
+					handle(message);
+				}
+			}
+			finally {
+				this.scheduled.set(false);
+			}
+			if (!this.messages.isEmpty()) {
+				try {
+					schedule();
+				}
+				catch (RuntimeException e) {
+					// the next dispatch on this partition retries
+					logger.error("Failed to resubmit a partition of " + PartitionedDispatcher.this, e);
+				}
+			}
+		}
+
+		private void handle(Message<?> message) {
+			try {
+				PartitionedDispatcher.this.delegate.dispatch(message);
+			}
+			catch (Throwable t) {//NOSONAR
+				ErrorHandler errorHandler = PartitionedDispatcher.this.errorHandler;
+				if (errorHandler != null) {
+					errorHandler.handleError(t);
+				}
+				else {
+					logger.error("Failed to handle " + message, t);
+				}
+			}
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,16 +16,27 @@
 
 package org.springframework.integration.endpoint;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.context.Lifecycle;
+import org.springframework.integration.channel.BatchPollableChannel;
+import org.springframework.integration.dispatcher.AggregateMessageDeliveryException;
+import org.springframework.integration.transaction.IntegrationResourceHolder;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.PollableChannel;
-import org.springframework.integration.transaction.IntegrationResourceHolder;
+import org.springframework.messaging.support.GenericMessage;
 import org.springframework.util.Assert;
 
 /**
  * Message Endpoint that connects any {@link MessageHandler} implementation
  * to a {@link PollableChannel}.
+ * <p>
+ * When a {@link #setBatchSize(int) batch size} greater than 1 is configured and the
+ * channel implements {@link BatchPollableChannel}, each poll drains up to that many
+ * messages from the channel in one operation. The messages are then passed to the
+ * handler one by one or, with {@link #setHandleBatch(boolean)}, in one invocation.
  *
  * @author Mark Fisher
  * @author Oleg Zhurakousky
@@ -39,6 +50,10 @@ public class PollingConsumer extends AbstractPollingEndpoint {
 
 	private volatile long receiveTimeout = 1000;
 
+	private volatile int batchSize = 1;
+
+	private volatile boolean handleBatch;
+
 	public PollingConsumer(PollableChannel inputChannel, MessageHandler handler) {
 		Assert.notNull(inputChannel, "inputChannel must not be null");
 		Assert.notNull(handler, "handler must not be null");
@@ -51,6 +66,35 @@ public class PollingConsumer extends AbstractPollingEndpoint {
 		this.receiveTimeout = receiveTimeout;
 	}
 
+	/**
+	 * Set the maximum number of messages to take from the channel in one receive
+	 * operation; default 1. Only honored when the input channel implements
+	 * {@link BatchPollableChannel}. The whole batch is received and handled within
+	 * one poll (and therefore one transaction, if the poller is transactional) and
+	 * counts as a single message towards {@code maxMessagesPerPoll}. Without a
+	 * transaction, when the handler fails for some messages of a batch, the remaining
+	 * messages are still handled and the failure(s) are then rethrown; see
+	 * {@link AggregateMessageDeliveryException}.
+	 * @param batchSize the batch size.
+	 * @since 4.2
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "'batchSize' must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * When true, and batching is in effect (see {@link #setBatchSize(int)}), invoke the
+	 * handler once per batch with a message whose payload is the
+	 * {@code List<Message<?>>} that was received, rather than once per message.
+	 * Default false.
+	 * @param handleBatch true to hand the batch to the handler in one invocation.
+	 * @since 4.2
+	 */
+	public void setHandleBatch(boolean handleBatch) {
+		this.handleBatch = handleBatch;
+	}
+
 	@Override
 	protected void doStart() {
 		if (this.handler instanceof Lifecycle) {
@@ -71,11 +115,45 @@ public class PollingConsumer extends AbstractPollingEndpoint {
 
 	@Override
 	protected void handleMessage(Message<?> message) {
-		this.handler.handleMessage(message);
+		if (message instanceof MessageBatch && !this.handleBatch) {
+			List<Exception> exceptions = null;
+			for (Message<?> batchMessage : ((MessageBatch) message).getPayload()) {
+				try {
+					this.handler.handleMessage(batchMessage);
+				}
+				catch (RuntimeException e) {
+					if (exceptions == null) {
+						exceptions = new ArrayList<Exception>();
+					}
+					exceptions.add(e);
+				}
+			}
+			if (exceptions != null) {
+				if (exceptions.size() == 1) {
+					throw (RuntimeException) exceptions.get(0);
+				}
+				throw new AggregateMessageDeliveryException(message,
+						"Failed to handle " + exceptions.size() + " messages of a batch.", exceptions);
+			}
+		}
+		else {
+			this.handler.handleMessage(message);
+		}
 	}
 
 	@Override
 	protected Message<?> receiveMessage() {
+		if (this.batchSize > 1 && this.inputChannel instanceof BatchPollableChannel) {
+			List<Message<?>> messages = ((BatchPollableChannel) this.inputChannel)
+					.receive(this.batchSize, this.receiveTimeout);
+			if (messages.isEmpty()) {
+				return null;
+			}
+			if (messages.size() == 1 && !this.handleBatch) {
+				return messages.get(0);
+			}
+			return new MessageBatch(messages);
+		}
 		Message<?> message = (this.receiveTimeout >= 0)
 				? this.inputChannel.receive(this.receiveTimeout)
 				: this.inputChannel.receive();
@@ -91,4 +169,18 @@ public class PollingConsumer extends AbstractPollingEndpoint {
 	protected String getResourceKey() {
 		return IntegrationResourceHolder.INPUT_CHANNEL;
 	}
+
+	/**
+	 * The messages received by one batch poll; distinguishes a batch from an
+	 * application message that happens to carry a {@code List} payload.
+	 */
+	@SuppressWarnings("serial")
+	private static final class MessageBatch extends GenericMessage<List<Message<?>>> {
+
+		private MessageBatch(List<Message<?>> messages) {
+			super(messages);
+		}
+
+	}
+
 }
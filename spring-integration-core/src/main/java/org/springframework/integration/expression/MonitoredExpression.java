@@ -0,0 +1,277 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.expression;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.util.Assert;
+
+/**
+ * Evaluates an {@link Expression} on behalf of a component, compiling it to bytecode
+ * according to a {@link SpelCompilerMode} and keeping counters for its evaluations.
+ * <p>
+ * Only {@link SpelExpression}s can be compiled; other expressions are always
+ * interpreted but are still counted. With {@link SpelCompilerMode#IMMEDIATE}, compilation
+ * is attempted after the first evaluation (SpEL needs one interpreted evaluation to
+ * determine the types involved); with {@link SpelCompilerMode#MIXED}, after
+ * {@value #INTERPRETED_COUNT_THRESHOLD} interpreted evaluations. In both modes, if the
+ * compiled expression fails, it is reverted to interpretation and the evaluation is
+ * repeated in interpreted mode; compilation is retried later, until compilation or
+ * compiled evaluation has failed {@value #FAILED_ATTEMPTS_THRESHOLD} times.
+ *
+ * @since 4.2
+ */
+public class MonitoredExpression {
+
+	/**
+	 * The number of interpreted evaluations before compilation is attempted in
+	 * {@link SpelCompilerMode#MIXED} mode.
+	 */
+	public static final int INTERPRETED_COUNT_THRESHOLD = 100;
+
+	/**
+	 * The number of failed compilations or compiled evaluations after which the
+	 * expression is no longer compiled.
+	 */
+	public static final int FAILED_ATTEMPTS_THRESHOLD = 100;
+
+	private static final Log logger = LogFactory.getLog(MonitoredExpression.class);
+
+	private final Expression expression;
+
+	private final SpelExpression spelExpression;
+
+	private final SpelCompilerMode compilerMode;
+
+	private final AtomicLong evaluationCount = new AtomicLong();
+
+	private final AtomicLong compiledEvaluationCount = new AtomicLong();
+
+	private final AtomicLong evaluationTime = new AtomicLong();
+
+	private final AtomicInteger compilationFailures = new AtomicInteger();
+
+	private final AtomicInteger fallbacks = new AtomicInteger();
+
+	private volatile boolean compiled;
+
+	private volatile int interpretedCount;
+
+	public MonitoredExpression(Expression expression, SpelCompilerMode compilerMode) {
+		Assert.notNull(expression, "'expression' must not be null");
+		Assert.notNull(compilerMode, "'compilerMode' must not be null");
+		this.expression = expression;
+		this.spelExpression = expression instanceof SpelExpression ? (SpelExpression) expression : null;
+		this.compilerMode = compilerMode;
+	}
+
+	public Expression getExpression() {
+		return this.expression;
+	}
+
+	public String getExpressionString() {
+		return this.expression.getExpressionString();
+	}
+
+	public SpelCompilerMode getCompilerMode() {
+		return this.compilerMode;
+	}
+
+	/**
+	 * @return true if the expression can be compiled at all (it is a SpEL expression and
+	 * the compiler mode is not {@link SpelCompilerMode#OFF}).
+	 */
+	public boolean isCompilable() {
+		return this.spelExpression != null && this.compilerMode != SpelCompilerMode.OFF;
+	}
+
+	/**
+	 * @return true if the expression is currently evaluated in compiled form.
+	 */
+	public boolean isCompiled() {
+		return this.compiled;
+	}
+
+	/**
+	 * @return true if compilation is no longer attempted because of repeated failures.
+	 */
+	public boolean isCompilationAbandoned() {
+		return this.compilationFailures.get() + this.fallbacks.get() >= FAILED_ATTEMPTS_THRESHOLD;
+	}
+
+	public long getEvaluationCount() {
+		return this.evaluationCount.get();
+	}
+
+	/**
+	 * @return the number of evaluations performed by the compiled expression.
+	 */
+	public long getCompiledEvaluationCount() {
+		return this.compiledEvaluationCount.get();
+	}
+
+	/**
+	 * @return the total time spent evaluating the expression, in nanoseconds.
+	 */
+	public long getEvaluationTime() {
+		return this.evaluationTime.get();
+	}
+
+	/**
+	 * @return the mean evaluation time in nanoseconds.
+	 */
+	public double getMeanEvaluationTime() {
+		long count = this.evaluationCount.get();
+		return count == 0 ? 0 : (double) this.evaluationTime.get() / count;
+	}
+
+	/**
+	 * @return the number of compilation attempts that failed.
+	 */
+	public int getCompilationFailureCount() {
+		return this.compilationFailures.get();
+	}
+
+	/**
+	 * @return the number of times a compiled evaluation failed and the expression was
+	 * evaluated again in interpreted mode.
+	 */
+	public int getFallbackCount() {
+		return this.fallbacks.get();
+	}
+
+	public Object getValue(EvaluationContext context) {
+		return getValue(context, false, null, null);
+	}
+
+	public <T> T getValue(EvaluationContext context, Class<T> expectedType) {
+		return getValue(context, false, null, expectedType);
+	}
+
+	public <T> T getValue(EvaluationContext context, Object rootObject, Class<T> expectedType) {
+		return getValue(context, true, rootObject, expectedType);
+	}
+
+	private <T> T getValue(EvaluationContext context, boolean withRoot, Object rootObject, Class<T> expectedType) {
+		long start = System.nanoTime();
+		try {
+			if (this.compiled) {
+				try {
+					T value = evaluate(context, withRoot, rootObject, expectedType);
+					this.compiledEvaluationCount.incrementAndGet();
+					return value;
+				}
+				catch (SpelEvaluationException e) {
+					if (!SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION.equals(e.getMessageCode())) {
+						throw e;
+					}
+					fallBack(e);
+				}
+			}
+			T value = evaluate(context, withRoot, rootObject, expectedType);
+			if (isCompilable() && !this.compiled) {
+				compileIfNecessary();
+			}
+			return value;
+		}
+		finally {
+			this.evaluationTime.addAndGet(System.nanoTime() - start);
+			this.evaluationCount.incrementAndGet();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T evaluate(EvaluationContext context, boolean withRoot, Object rootObject, Class<T> expectedType) {
+		if (withRoot) {
+			return this.expression.getValue(context, rootObject, expectedType);
+		}
+		else if (expectedType != null) {
+			return this.expression.getValue(context, expectedType);
+		}
+		else {
+			return (T) this.expression.getValue(context);
+		}
+	}
+
+	private void compileIfNecessary() {
+		if (isCompilationAbandoned()) {
+			return;
+		}
+		if (SpelCompilerMode.MIXED.equals(this.compilerMode)
+				&& ++this.interpretedCount < INTERPRETED_COUNT_THRESHOLD) {
+			return;
+		}
+		synchronized (this) {
+			if (this.compiled) {
+				return;
+			}
+			boolean success;
+			try {
+				success = this.spelExpression.compileExpression();
+			}
+			catch (RuntimeException e) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Failed to compile expression [" + getExpressionString() + "]", e);
+				}
+				success = false;
+			}
+			if (success) {
+				this.compiled = true;
+				if (logger.isDebugEnabled()) {
+					logger.debug("Compiled expression [" + getExpressionString() + "]");
+				}
+			}
+			else {
+				this.compilationFailures.incrementAndGet();
+				this.interpretedCount = 0;
+			}
+		}
+	}
+
+	private synchronized void fallBack(SpelEvaluationException e) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Compiled expression [" + getExpressionString()
+					+ "] failed; reverting to interpreted mode", e);
+		}
+		this.spelExpression.revertToInterpreted();
+		this.compiled = false;
+		this.interpretedCount = 0;
+		this.fallbacks.incrementAndGet();
+	}
+
+	@Override
+	public String toString() {
+		return "MonitoredExpression [expression=" + getExpressionString()
+				+ ", compilerMode=" + this.compilerMode
+				+ ", compiled=" + this.compiled
+				+ ", evaluations=" + this.evaluationCount.get()
+				+ ", meanEvaluationTime=" + getMeanEvaluationTime() + "ns"
+				+ ", compilationFailures=" + this.compilationFailures.get()
+				+ ", fallbacks=" + this.fallbacks.get() + "]";
+	}
+
+}
@@ -23,11 +23,16 @@ import java.lang.reflect.UndeclaredThrowableException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.aop.support.AopUtils;
@@ -62,6 +67,9 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.SettableListenableFuture;
 
 import reactor.Environment;
 import reactor.rx.Promise;
@@ -89,6 +97,12 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 	private static final boolean reactorPresent = ClassUtils.isPresent("reactor.Environment",
 			GatewayProxyFactoryBean.class.getClassLoader());
 
+	private static final boolean completableFuturePresent = ClassUtils.isPresent(
+			"java.util.concurrent.CompletableFuture", GatewayProxyFactoryBean.class.getClassLoader());
+
+	private static final boolean reactiveStreamsPresent = ClassUtils.isPresent("org.reactivestreams.Publisher",
+			GatewayProxyFactoryBean.class.getClassLoader());
+
 	private volatile Class<?> serviceInterface;
 
 	private volatile MessageChannel defaultRequestChannel;
@@ -121,6 +135,8 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 
 	private volatile Object reactorEnvironment;
 
+	private volatile boolean nonBlockingReplies;
+
 	private volatile boolean initialized;
 
 	private final Object initializationMonitor = new Object();
@@ -265,6 +281,21 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 		this.reactorEnvironment = reactorEnvironment;
 	}
 
+	/**
+	 * Set to true to return the future of methods with a {@link Future},
+	 * {@link ListenableFuture}, {@code CompletableFuture} ({@code CompletionStage}) or
+	 * Reactive Streams {@code Publisher} return type without holding a thread until the
+	 * reply arrives: the request is sent on the calling thread, with a temporary reply
+	 * channel that completes the future on the thread that sends the reply. When false
+	 * (default), methods returning a {@link Future} run on the {@link #setAsyncExecutor(Executor)
+	 * async executor}, whose thread waits for the reply.
+	 * @param nonBlockingReplies true to correlate the replies without waiting threads.
+	 * @since 4.2
+	 */
+	public void setNonBlockingReplies(boolean nonBlockingReplies) {
+		this.nonBlockingReplies = nonBlockingReplies;
+	}
+
 	@Override
 	public void setBeanClassLoader(ClassLoader beanClassLoader) {
 		this.beanClassLoader = beanClassLoader;
@@ -344,6 +375,12 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 	@Override
 	public Object invoke(final MethodInvocation invocation) throws Throwable {
 		final Class<?> returnType = invocation.getMethod().getReturnType();
+		if (this.nonBlockingReplies && !Object.class.equals(returnType)) {
+			Object future = this.invokeNonBlocking(invocation);
+			if (future != null) {
+				return future;
+			}
+		}
 		if (this.asyncExecutor != null && !Object.class.equals(returnType)) {
 			if (returnType.isAssignableFrom(this.asyncSubmitType)) {
 				return this.asyncExecutor.submit(new AsyncInvocationTask(invocation));
@@ -395,16 +432,7 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 		boolean shouldReply = returnType != void.class;
 		int paramCount = method.getParameterTypes().length;
 		Object response = null;
-		@SuppressWarnings("deprecation")
-		boolean hasPayloadExpression =
-				method.isAnnotationPresent(org.springframework.integration.annotation.Payload.class)
-				|| method.isAnnotationPresent(Payload.class);
-		if (!hasPayloadExpression && this.methodMetadataMap != null) {
-			// check for the method metadata next
-			GatewayMethodMetadata metadata = this.methodMetadataMap.get(method.getName());
-			hasPayloadExpression = (metadata != null) && StringUtils.hasText(metadata.getPayloadExpression());
-		}
-		if (paramCount == 0 && !hasPayloadExpression) {
+		if (paramCount == 0 && !this.hasPayloadExpression(method)) {
 			if (shouldReply) {
 				if (shouldReturnMessage) {
 					return gateway.receive();
@@ -425,6 +453,55 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 		return (response != null) ? this.convert(response, returnType) : null;
 	}
 
+	/**
+	 * Send the request of a method returning a future (or a publisher) and return it
+	 * before the reply arrives.
+	 * @return the future, or null if the return type is not supported or the method
+	 * receives rather than sends a request.
+	 */
+	private Object invokeNonBlocking(MethodInvocation invocation) {
+		Method method = invocation.getMethod();
+		Class<?> returnType = method.getReturnType();
+		boolean listenable = returnType.isAssignableFrom(SettableListenableFuture.class);
+		boolean completable = !listenable && completableFuturePresent
+				&& CompletableFutureAdapter.isAssignable(returnType);
+		boolean publisher = !listenable && !completable && reactiveStreamsPresent
+				&& ReactiveStreamsAdapter.isAssignable(returnType);
+		if (!(listenable || completable || publisher)
+				|| (method.getParameterTypes().length == 0 && !this.hasPayloadExpression(method))) {
+			return null;
+		}
+		if (!this.initialized) {
+			this.afterPropertiesSet();
+		}
+		MethodInvocationGateway gateway = this.gatewayMap.get(method);
+		Object[] args = invocation.getArguments();
+		@SuppressWarnings("unchecked")
+		ListenableFuture<Object> future = hasReturnParameterizedWithMessage(method)
+				? (ListenableFuture<Object>) (ListenableFuture<?>) gateway.sendAndReceiveMessageAsync(args)
+				: gateway.sendAndReceiveAsync(args);
+		if (completable) {
+			return CompletableFutureAdapter.adapt(future);
+		}
+		if (publisher) {
+			return ReactiveStreamsAdapter.adapt(future);
+		}
+		return future;
+	}
+
+	private boolean hasPayloadExpression(Method method) {
+		@SuppressWarnings("deprecation")
+		boolean hasPayloadExpression =
+				method.isAnnotationPresent(org.springframework.integration.annotation.Payload.class)
+				|| method.isAnnotationPresent(Payload.class);
+		if (!hasPayloadExpression && this.methodMetadataMap != null) {
+			// check for the method metadata next
+			GatewayMethodMetadata metadata = this.methodMetadataMap.get(method.getName());
+			hasPayloadExpression = (metadata != null) && StringUtils.hasText(metadata.getPayloadExpression());
+		}
+		return hasPayloadExpression;
+	}
+
 	private void rethrowExceptionCauseIfPossible(Throwable originalException, Method method) throws Throwable {
 		Class<?>[] exceptionTypes = method.getExceptionTypes();
 		Throwable t = originalException;
@@ -594,8 +671,11 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 	}
 
 	private static boolean hasReturnParameterizedWithMessage(Method method) {
-		if (Future.class.isAssignableFrom(method.getReturnType())
-				|| (reactorPresent && Promise.class.isAssignableFrom(method.getReturnType()))) {
+		Class<?> returnClass = method.getReturnType();
+		if (Future.class.isAssignableFrom(returnClass)
+				|| (reactorPresent && Promise.class.isAssignableFrom(returnClass))
+				|| (completableFuturePresent && CompletableFutureAdapter.isAssignable(returnClass))
+				|| (reactiveStreamsPresent && ReactiveStreamsAdapter.isPublisher(returnClass))) {
 			Type returnType = method.getGenericReturnType();
 			if (returnType instanceof ParameterizedType) {
 				Type[] typeArgs = ((ParameterizedType) returnType).getActualTypeArguments();
@@ -649,4 +729,122 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 
 	}
 
+
+
+	/**
+	 * Adapts the future of a non-blocking invocation to a {@link CompletableFuture};
+	 * only loaded on Java 8.
+	 */
+	private static final class CompletableFutureAdapter {
+
+		private static boolean isAssignable(Class<?> returnType) {
+			return returnType.isAssignableFrom(CompletableFuture.class);
+		}
+
+		private static CompletableFuture<Object> adapt(ListenableFuture<Object> future) {
+			final CompletableFuture<Object> completableFuture = new CompletableFuture<Object>();
+			future.addCallback(new ListenableFutureCallback<Object>() {
+
+				@Override
+				public void onSuccess(Object result) {
+					completableFuture.complete(result);
+				}
+
+				@Override
+				public void onFailure(Throwable ex) {
+					completableFuture.completeExceptionally(ex);
+				}
+
+			});
+			return completableFuture;
+		}
+
+	}
+
+
+	/**
+	 * Adapts the future of a non-blocking invocation to a Reactive Streams
+	 * {@link Publisher}; only loaded when the Reactive Streams API is on the classpath.
+	 */
+	private static final class ReactiveStreamsAdapter {
+
+		private static boolean isAssignable(Class<?> returnType) {
+			return returnType.isAssignableFrom(ListenableFuturePublisher.class);
+		}
+
+		private static boolean isPublisher(Class<?> returnType) {
+			return Publisher.class.isAssignableFrom(returnType);
+		}
+
+		private static Publisher<Object> adapt(ListenableFuture<Object> future) {
+			return new ListenableFuturePublisher(future);
+		}
+
+	}
+
+
+	/**
+	 * A Reactive Streams {@link Publisher} of the reply of a non-blocking invocation:
+	 * each subscriber receives the reply (if any) and completion once it has requested
+	 * an element; the request is sent when the method is invoked, not on subscription.
+	 */
+	private static final class ListenableFuturePublisher implements Publisher<Object> {
+
+		private final ListenableFuture<Object> future;
+
+		private ListenableFuturePublisher(ListenableFuture<Object> future) {
+			this.future = future;
+		}
+
+		@Override
+		public void subscribe(final Subscriber<? super Object> subscriber) {
+			if (subscriber == null) {
+				throw new NullPointerException("'subscriber' must not be null");
+			}
+			final AtomicBoolean requested = new AtomicBoolean();
+			final AtomicBoolean terminated = new AtomicBoolean();
+			subscriber.onSubscribe(new Subscription() {
+
+				@Override
+				public void request(long n) {
+					if (n <= 0) {
+						if (terminated.compareAndSet(false, true)) {
+							subscriber.onError(new IllegalArgumentException(
+									"The number of elements requested must be positive (Reactive Streams rule 3.9)"));
+						}
+					}
+					else if (requested.compareAndSet(false, true)) {
+						ListenableFuturePublisher.this.future.addCallback(new ListenableFutureCallback<Object>() {
+
+							@Override
+							public void onSuccess(Object result) {
+								if (terminated.compareAndSet(false, true)) {
+									if (result != null) {
+										subscriber.onNext(result);
+									}
+									subscriber.onComplete();
+								}
+							}
+
+							@Override
+							public void onFailure(Throwable ex) {
+								if (terminated.compareAndSet(false, true)) {
+									subscriber.onError(ex);
+								}
+							}
+
+						});
+					}
+				}
+
+				@Override
+				public void cancel() {
+					terminated.set(true);
+				}
+
+			});
+		}
+
+	}
+
 }
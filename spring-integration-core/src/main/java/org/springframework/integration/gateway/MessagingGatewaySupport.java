@@ -16,6 +16,9 @@
 
 package org.springframework.integration.gateway;
 
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+
 import org.springframework.integration.core.MessagingTemplate;
 import org.springframework.integration.endpoint.AbstractEndpoint;
 import org.springframework.integration.endpoint.EventDrivenConsumer;
@@ -30,11 +33,16 @@ import org.springframework.integration.support.MessageBuilderFactory;
 import org.springframework.integration.support.converter.SimpleMessageConverter;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.PollableChannel;
 import org.springframework.messaging.SubscribableChannel;
 import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
 
 /**
  * A convenient base class for connecting application code to
@@ -372,6 +380,71 @@ public abstract class MessagingGatewaySupport extends AbstractEndpoint implement
 		return reply;
 	}
 
+	/**
+	 * Send the request and return a future for the reply, without waiting for it: the
+	 * reply channel of the request is a callback that completes the future on the thread
+	 * that sends the reply, so no thread is held while the request is in flight.
+	 * Exceptions (including those of the error channel flow) fail the future instead of
+	 * being thrown. As {@link #sendAndReceive(Object)} returns {@code null}, the future
+	 * is completed with {@code null} if no reply arrives within the reply timeout,
+	 * counted from when the request has been sent;
+	 * the timeout is scheduled on the {@link TaskScheduler} of the gateway, or on a shared
+	 * daemon scheduler when none is available (e.g. outside an application context).
+	 * @param object the request payload or message.
+	 * @return the future reply, converted by the reply mapper.
+	 * @since 4.2
+	 */
+	protected ListenableFuture<Object> sendAndReceiveAsync(Object object) {
+		return this.doSendAndReceiveAsync(object, true);
+	}
+
+	/**
+	 * Send the request and return a future for the reply message, without waiting for it.
+	 * @param object the request payload or message.
+	 * @return the future reply message.
+	 * @since 4.2
+	 * @see #sendAndReceiveAsync(Object)
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	protected ListenableFuture<Message<?>> sendAndReceiveMessageAsync(Object object) {
+		return (ListenableFuture) this.doSendAndReceiveAsync(object, false);
+	}
+
+	private ListenableFuture<Object> doSendAndReceiveAsync(Object object, boolean shouldConvert) {
+		this.initializeIfNecessary();
+		Assert.notNull(object, "request must not be null");
+		MessageChannel requestChannel = getRequestChannel();
+		if (requestChannel == null) {
+			throw new MessagingException("No request channel available. Cannot send request message.");
+		}
+		MessageChannel replyChannel = getReplyChannel();
+		if (replyChannel != null && this.replyMessageCorrelator == null) {
+			this.registerReplyMessageCorrelator();
+		}
+		SettableListenableFuture<Object> future = new SettableListenableFuture<Object>();
+		AsyncReplyChannel asyncReplyChannel = new AsyncReplyChannel(future, shouldConvert, false);
+		try {
+			Message<?> requestMessage;
+			if (shouldConvert) {
+				requestMessage = this.messageConverter.toMessage(object, null);
+			}
+			else {
+				requestMessage = (object instanceof Message<?>)
+						? (Message<?>) object : this.requestMapper.toMessage(object);
+			}
+			requestMessage = this.historyWritingPostProcessor.postProcessMessage(requestMessage);
+			this.messagingTemplate.send(requestChannel, asyncReplyChannel.prepareRequest(requestMessage));
+			asyncReplyChannel.startTimeout();
+		}
+		catch (Exception e) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("failure occurred in gateway sendAndReceiveAsync: " + e.getMessage());
+			}
+			asyncReplyChannel.failed(e);
+		}
+		return future;
+	}
+
 	private void rethrow(Throwable t, String description) {
 		if (t instanceof RuntimeException) {
 			throw (RuntimeException) t;
@@ -427,6 +500,175 @@ public abstract class MessagingGatewaySupport extends AbstractEndpoint implement
 	}
 
 
+	/**
+	 * The temporary reply and error channel of a request sent by
+	 * {@link #sendAndReceiveAsync(Object)}: completes the future of the request with the
+	 * reply, or sends an error to the error channel flow, whose reply completes the same
+	 * future. Also scheduled to complete the future when the reply times out.
+	 */
+	private final class AsyncReplyChannel implements MessageChannel, Runnable {
+
+		private final SettableListenableFuture<Object> future;
+
+		private final boolean shouldConvert;
+
+		private final boolean errorFlow;
+
+		private volatile Object originalReplyChannelHeader;
+
+		private volatile Object originalErrorChannelHeader;
+
+		private volatile ScheduledFuture<?> timeout;
+
+		private AsyncReplyChannel(SettableListenableFuture<Object> future, boolean shouldConvert, boolean errorFlow) {
+			this.future = future;
+			this.shouldConvert = shouldConvert;
+			this.errorFlow = errorFlow;
+		}
+
+		private Message<?> prepareRequest(Message<?> message) {
+			this.originalReplyChannelHeader = message.getHeaders().getReplyChannel();
+			this.originalErrorChannelHeader = message.getHeaders().getErrorChannel();
+			return getMessageBuilderFactory().fromMessage(message)
+					.setReplyChannel(this)
+					.setErrorChannel(this)
+					.build();
+		}
+
+		/**
+		 * Start the reply timeout once the request has been sent, as the blocking
+		 * gateway does, so that a synchronous flow that takes longer than the reply
+		 * timeout still completes the future with its reply.
+		 */
+		private void startTimeout() {
+			long replyTimeout = MessagingGatewaySupport.this.replyTimeout;
+			if (replyTimeout >= 0 && !this.future.isDone()) {
+				TaskScheduler taskScheduler = getTaskScheduler();
+				if (taskScheduler == null) {
+					taskScheduler = DefaultTimeoutScheduler.INSTANCE;
+				}
+				this.timeout = taskScheduler.schedule(this, new Date(System.currentTimeMillis() + replyTimeout));
+			}
+		}
+
+		@Override
+		public boolean send(Message<?> message) {
+			return this.send(message, -1);
+		}
+
+		@Override
+		public boolean send(Message<?> message, long timeout) {
+			if (this.future.isDone()) {
+				if (logger.isWarnEnabled()) {
+					logger.warn("Reply message received but the request has already timed out, failed "
+							+ "or been cancelled: " + message);
+				}
+				return true;
+			}
+			this.cancelTimeout();
+			if (!(message instanceof ErrorMessage)) {
+				message = getMessageBuilderFactory().fromMessage(message)
+						.setHeader(MessageHeaders.REPLY_CHANNEL, this.originalReplyChannelHeader)
+						.setHeader(MessageHeaders.ERROR_CHANNEL, this.originalErrorChannelHeader)
+						.build();
+			}
+			if (this.errorFlow) {
+				this.errorFlowReplied(message);
+			}
+			else {
+				this.replied(message);
+			}
+			return true;
+		}
+
+		@Override
+		public void run() {
+			if (this.future.set(null) && logger.isDebugEnabled()) {
+				logger.debug("No reply received within the reply timeout of the gateway");
+			}
+		}
+
+		private void replied(Message<?> reply) {
+			if (reply instanceof ErrorMessage) {
+				this.failed(((ErrorMessage) reply).getPayload());
+			}
+			else if (this.shouldConvert) {
+				Object result;
+				try {
+					result = MessagingGatewaySupport.this.messageConverter.fromMessage(reply, null);
+				}
+				catch (Exception e) {
+					this.failed(e);
+					return;
+				}
+				if (result instanceof Throwable) {
+					this.failed((Throwable) result);
+				}
+				else {
+					this.future.set(result);
+				}
+			}
+			else {
+				this.future.set(reply);
+			}
+		}
+
+		private void errorFlowReplied(Message<?> reply) {
+			if (reply.getPayload() instanceof Throwable) {
+				this.future.setException((Throwable) reply.getPayload());
+			}
+			else {
+				this.future.set(this.shouldConvert ? reply.getPayload() : reply);
+			}
+		}
+
+		private void failed(Throwable error) {
+			this.cancelTimeout();
+			MessageChannel errorChannel = getErrorChannel();
+			if (errorChannel == null || this.errorFlow) {
+				this.future.setException(error);
+				return;
+			}
+			Message<?> errorMessage = new ErrorMessage(error);
+			AsyncReplyChannel errorFlowReplyChannel = new AsyncReplyChannel(this.future, this.shouldConvert, true);
+			try {
+				MessagingGatewaySupport.this.messagingTemplate.send(errorChannel,
+						errorFlowReplyChannel.prepareRequest(errorMessage));
+				errorFlowReplyChannel.startTimeout();
+			}
+			catch (Exception errorFlowFailure) {
+				errorFlowReplyChannel.cancelTimeout();
+				this.future.setException(new MessagingException(errorMessage,
+						"failure occurred in error-handling flow", errorFlowFailure));
+			}
+		}
+
+		private void cancelTimeout() {
+			ScheduledFuture<?> timeout = this.timeout;
+			if (timeout != null) {
+				timeout.cancel(false);
+			}
+		}
+
+	}
+
+
+	/**
+	 * Lazily creates the daemon scheduler used for the reply timeouts of asynchronous
+	 * requests when the gateway has no {@link TaskScheduler}.
+	 */
+	private static final class DefaultTimeoutScheduler {
+
+		private static final ThreadPoolTaskScheduler INSTANCE = new ThreadPoolTaskScheduler();
+
+		static {
+			INSTANCE.setThreadNamePrefix("gateway-reply-timeout-");
+			INSTANCE.setDaemon(true);
+			INSTANCE.initialize();
+		}
+
+	}
+
 	private static class DefaultRequestMapper implements InboundMessageMapper<Object> {
 
 		private volatile MessageBuilderFactory messageBuilderFactory = new DefaultMessageBuilderFactory();
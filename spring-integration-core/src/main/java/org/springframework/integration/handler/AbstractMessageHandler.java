@@ -25,7 +25,9 @@ import org.springframework.integration.handler.management.MessageHandlerMetrics;
 import org.springframework.integration.history.MessageHistory;
 import org.springframework.integration.history.TrackableComponent;
 import org.springframework.integration.support.management.ConfigurableMetricsAware;
+import org.springframework.integration.support.management.HistogramMetrics;
 import org.springframework.integration.support.management.IntegrationManagedResource;
+import org.springframework.integration.support.management.LatencyHistogram;
 import org.springframework.integration.support.management.MetricsContext;
 import org.springframework.integration.support.management.Statistics;
 import org.springframework.messaging.Message;
@@ -46,7 +48,8 @@ import org.springframework.util.Assert;
  */
 @IntegrationManagedResource
 public abstract class AbstractMessageHandler extends IntegrationObjectSupport implements MessageHandler,
-		MessageHandlerMetrics, ConfigurableMetricsAware<AbstractMessageHandlerMetrics>, TrackableComponent, Orderable {
+		MessageHandlerMetrics, ConfigurableMetricsAware<AbstractMessageHandlerMetrics>, HistogramMetrics,
+		TrackableComponent, Orderable {
 
 	private volatile boolean shouldTrack = false;
 
@@ -54,6 +57,8 @@ public abstract class AbstractMessageHandler extends IntegrationObjectSupport im
 
 	private volatile AbstractMessageHandlerMetrics handlerMetrics = new DefaultMessageHandlerMetrics();
 
+	private volatile LatencyHistogram durationHistogram;
+
 	private volatile boolean statsEnabled;
 
 	private volatile boolean countsEnabled;
@@ -105,6 +110,7 @@ public abstract class AbstractMessageHandler extends IntegrationObjectSupport im
 		MetricsContext start = null;
 		boolean countsEnabled = this.countsEnabled;
 		AbstractMessageHandlerMetrics handlerMetrics = this.handlerMetrics;
+		LatencyHistogram histogram = this.durationHistogram;
 		try {
 			if (message != null && this.shouldTrack) {
 				message = MessageHistory.write(message, this, this.getMessageBuilderFactory());
@@ -112,7 +118,11 @@ public abstract class AbstractMessageHandler extends IntegrationObjectSupport im
 			if (countsEnabled) {
 				start = handlerMetrics.beforeHandle(message);
 			}
+			long histogramStart = histogram != null ? System.nanoTime() : 0;
 			this.handleMessageInternal(message);
+			if (histogram != null) {
+				histogram.record(System.nanoTime() - histogramStart);
+			}
 			if (countsEnabled) {
 				handlerMetrics.afterHandle(start, true);
 			}
@@ -133,6 +143,10 @@ public abstract class AbstractMessageHandler extends IntegrationObjectSupport im
 	@Override
 	public void reset() {
 		this.handlerMetrics.reset();
+		LatencyHistogram histogram = this.durationHistogram;
+		if (histogram != null) {
+			histogram.reset();
+		}
 	}
 
 	@Override
@@ -206,6 +220,44 @@ public abstract class AbstractMessageHandler extends IntegrationObjectSupport im
 		return this.statsEnabled;
 	}
 
+	@Override
+	public void enableHistogram(boolean histogramEnabled) {
+		if (!histogramEnabled) {
+			this.durationHistogram = null;
+		}
+		else if (this.durationHistogram == null) {
+			this.durationHistogram = new LatencyHistogram();
+		}
+	}
+
+	@Override
+	public boolean isHistogramEnabled() {
+		return this.durationHistogram != null;
+	}
+
+	@Override
+	public double getMedianDuration() {
+		LatencyHistogram histogram = this.durationHistogram;
+		return histogram != null ? histogram.getMedian() : 0;
+	}
+
+	@Override
+	public double getDuration99thPercentile() {
+		LatencyHistogram histogram = this.durationHistogram;
+		return histogram != null ? histogram.get99thPercentile() : 0;
+	}
+
+	@Override
+	public double getDuration999thPercentile() {
+		LatencyHistogram histogram = this.durationHistogram;
+		return histogram != null ? histogram.get999thPercentile() : 0;
+	}
+
+	@Override
+	public LatencyHistogram getDurationHistogram() {
+		return this.durationHistogram;
+	}
+
 	@Override
 	public void enableCounts(boolean countsEnabled) {
 		this.countsEnabled = countsEnabled;
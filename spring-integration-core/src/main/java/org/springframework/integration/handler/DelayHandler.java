@@ -36,6 +36,7 @@ import org.springframework.integration.expression.ExpressionUtils;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.store.MessageGroupStore;
 import org.springframework.integration.store.MessageStore;
+import org.springframework.integration.store.ShardedMessageStore;
 import org.springframework.integration.store.SimpleMessageGroup;
 import org.springframework.integration.store.SimpleMessageStore;
 import org.springframework.integration.support.management.IntegrationManagedResource;
@@ -369,6 +370,10 @@ public class DelayHandler extends AbstractReplyProducingMessageHandler implement
 					(SimpleMessageGroup) this.messageStore.getMessageGroup(this.messageGroupId);
 			return messageGroup.remove(message);
 		}
+		else if (this.messageStore instanceof ShardedMessageStore) {
+			return ((ShardedMessageStore) this.messageStore).removeMessageFromGroupIfPresent(this.messageGroupId,
+					message);
+		}
 		else {
 			return ((MessageStore) this.messageStore).removeMessage(message.getHeaders().getId()) != null;
 		}
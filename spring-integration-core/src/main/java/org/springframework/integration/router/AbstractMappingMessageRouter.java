@@ -51,8 +51,14 @@ import org.springframework.util.StringUtils;
  */
 public abstract class AbstractMappingMessageRouter extends AbstractMessageRouter implements MappingMessageRouterManagement {
 
+	private static final int DEFAULT_DYNAMIC_CHANNEL_LIMIT = 100;
+
 	private volatile Map<String, String> channelMappings = new ConcurrentHashMap<String, String>();
 
+	private volatile Map<String, MessageChannel> resolvedChannels = new ConcurrentHashMap<String, MessageChannel>();
+
+	private volatile int dynamicChannelLimit = DEFAULT_DYNAMIC_CHANNEL_LIMIT;
+
 	private volatile String prefix;
 
 	private volatile String suffix;
@@ -80,6 +86,7 @@ public abstract class AbstractMappingMessageRouter extends AbstractMessageRouter
 	 */
 	public void setPrefix(String prefix) {
 		this.prefix = prefix;
+		this.channelMappingsChanged();
 	}
 
 	/**
@@ -88,6 +95,7 @@ public abstract class AbstractMappingMessageRouter extends AbstractMessageRouter
 	 */
 	public void setSuffix(String suffix) {
 		this.suffix = suffix;
+		this.channelMappingsChanged();
 	}
 
 	/**
@@ -99,6 +107,18 @@ public abstract class AbstractMappingMessageRouter extends AbstractMessageRouter
 		this.resolutionRequired = resolutionRequired;
 	}
 
+	/**
+	 * Set the maximum number of channel keys that are not present in the channel mappings
+	 * (e.g. header values used as channel names) whose resolved channels are cached.
+	 * Channels resolved for mapped keys are always cached, until the mappings change.
+	 * Default 100; 0 disables caching of unmapped keys.
+	 * @param dynamicChannelLimit the limit.
+	 * @since 4.2
+	 */
+	public void setDynamicChannelLimit(int dynamicChannelLimit) {
+		this.dynamicChannelLimit = dynamicChannelLimit;
+	}
+
 	/**
 	 * Returns an unmodifiable version of the channel mappings.
 	 * This is intended for use by subclasses only.
@@ -119,6 +139,7 @@ public abstract class AbstractMappingMessageRouter extends AbstractMessageRouter
 	@ManagedOperation
 	public void setChannelMapping(String key, String channelName) {
 		this.channelMappings.put(key, channelName);
+		this.channelMappingsChanged();
 	}
 
 	/**
@@ -129,6 +150,7 @@ public abstract class AbstractMappingMessageRouter extends AbstractMessageRouter
 	@ManagedOperation
 	public void removeChannelMapping(String key) {
 		this.channelMappings.remove(key);
+		this.channelMappingsChanged();
 	}
 
 	/**
@@ -140,6 +162,17 @@ public abstract class AbstractMappingMessageRouter extends AbstractMessageRouter
 	 */
 	protected abstract List<Object> getChannelKeys(Message<?> message);
 
+	/**
+	 * Invoked after the channel mappings, the prefix or the suffix have changed; discards
+	 * the cached channel resolutions. Subclasses that cache results derived from the
+	 * channel mappings must override this method to discard them too, and call
+	 * {@code super.channelMappingsChanged()}.
+	 * @since 4.2
+	 */
+	protected void channelMappingsChanged() {
+		this.resolvedChannels = new ConcurrentHashMap<String, MessageChannel>();
+	}
+
 
 	@Override
 	protected Collection<MessageChannel> determineTargetChannels(Message<?> message) {
@@ -174,6 +207,7 @@ public abstract class AbstractMappingMessageRouter extends AbstractMessageRouter
 	private void doSetChannelMappings(Map<String, String> newChannelMappings) {
 		Map<String, String> oldChannelMappings = this.channelMappings;
 		this.channelMappings = newChannelMappings;
+		this.channelMappingsChanged();
 		if (logger.isDebugEnabled()) {
 			logger.debug("Channel mappings:" + oldChannelMappings
 					+ " replaced with:" + newChannelMappings);
@@ -197,6 +231,16 @@ public abstract class AbstractMappingMessageRouter extends AbstractMessageRouter
 	}
 
 	private void addChannelFromString(Collection<MessageChannel> channels, String channelKey, Message<?> message) {
+		/*
+		 * The cache must be read before the mappings, so that a resolution made with
+		 * mappings that have since changed is only ever added to a discarded cache.
+		 */
+		Map<String, MessageChannel> resolvedChannels = this.resolvedChannels;
+		MessageChannel resolved = resolvedChannels.get(channelKey);
+		if (resolved != null) {
+			channels.add(resolved);
+			return;
+		}
 		if (channelKey.indexOf(',') != -1) {
 			for (String name : StringUtils.tokenizeToStringArray(channelKey, ",")) {
 				addChannelFromString(channels, name, message);
@@ -207,8 +251,10 @@ public abstract class AbstractMappingMessageRouter extends AbstractMessageRouter
 		// if the channelMappings contains a mapping, we'll use the mapped value
 		// otherwise, the String-based channelKey itself will be used as the channel name
 		String channelName = channelKey;
-		if (this.channelMappings.containsKey(channelKey)) {
-			channelName = this.channelMappings.get(channelKey);
+		Map<String, String> channelMappings = this.channelMappings;
+		String mappedName = channelMappings.get(channelKey);
+		if (mappedName != null) {
+			channelName = mappedName;
 		}
 		if (this.prefix != null) {
 			channelName = this.prefix + channelName;
@@ -219,9 +265,22 @@ public abstract class AbstractMappingMessageRouter extends AbstractMessageRouter
 		MessageChannel channel = resolveChannelForName(channelName, message);
 		if (channel != null) {
 			channels.add(channel);
+			if (isCacheable(channelName)
+					&& (mappedName != null || resolvedChannels.size() < channelMappings.size() + this.dynamicChannelLimit)) {
+				resolvedChannels.put(channelKey, channel);
+			}
 		}
 	}
 
+	/**
+	 * Only channels that are beans are cached; others, such as the temporary channels of
+	 * the header channel registry, may go away.
+	 */
+	private boolean isCacheable(String channelName) {
+		BeanFactory beanFactory = this.getBeanFactory();
+		return beanFactory != null && beanFactory.containsBean(channelName);
+	}
+
 	private void addToCollection(Collection<MessageChannel> channels, Collection<?> channelKeys, Message<?> message) {
 		if (channelKeys == null) {
 			return;
@@ -19,6 +19,8 @@ package org.springframework.integration.router;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
@@ -27,6 +29,8 @@ import org.springframework.util.CollectionUtils;
 /**
  * A Message Router that resolves the {@link MessageChannel} based on the
  * {@link Message Message's} payload type.
+ * <p>
+ * The closest match is cached per payload type, until the channel mappings change.
  *
  * @author Mark Fisher
  * @author Oleg Zhurakousky
@@ -36,6 +40,12 @@ public class PayloadTypeRouter extends AbstractMappingMessageRouter {
 
 	private static final String ARRAY_SUFFIX = "[]";
 
+	private static final int MAX_CACHED_TYPES = 256;
+
+	private static final Object NO_MATCH = new Object();
+
+	private volatile Map<Class<?>, Object> closestMatches = new ConcurrentHashMap<Class<?>, Object>();
+
 	/**
 	 * Selects the most appropriate channel name matching channel identifiers which are the
 	 * fully qualified class names encountered while traversing the payload type hierarchy.
@@ -46,17 +56,33 @@ public class PayloadTypeRouter extends AbstractMappingMessageRouter {
 	 *    preferring direct interface over indirect subclass
 	 */
 	@Override
+	@SuppressWarnings("unchecked")
 	protected List<Object> getChannelKeys(Message<?> message) {
 		if (CollectionUtils.isEmpty(this.getChannelMappings())) {
 			return null;
 		}
-		Class<?> type = message.getPayload().getClass();
-		boolean isArray = type.isArray();
-		if (isArray) {
-			type = type.getComponentType();
+		Class<?> payloadType = message.getPayload().getClass();
+		Map<Class<?>, Object> closestMatches = this.closestMatches;
+		Object cached = closestMatches.get(payloadType);
+		if (cached == null) {
+			Class<?> type = payloadType;
+			boolean isArray = type.isArray();
+			if (isArray) {
+				type = type.getComponentType();
+			}
+			String closestMatch = this.findClosestMatch(type, isArray);
+			cached = (closestMatch != null) ? Collections.<Object>singletonList(closestMatch) : NO_MATCH;
+			if (closestMatches.size() < MAX_CACHED_TYPES) {
+				closestMatches.put(payloadType, cached);
+			}
 		}
-		String closestMatch =  this.findClosestMatch(type, isArray);
-		return (closestMatch != null) ? Collections.<Object>singletonList(closestMatch) : null;
+		return (cached != NO_MATCH) ? (List<Object>) cached : null;
+	}
+
+	@Override
+	protected void channelMappingsChanged() {
+		this.closestMatches = new ConcurrentHashMap<Class<?>, Object>();
+		super.channelMappingsChanged();
 	}
 
 
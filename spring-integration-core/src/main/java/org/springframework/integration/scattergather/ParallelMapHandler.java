@@ -0,0 +1,336 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.scattergather;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.integration.MessageTimeoutException;
+import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.integration.handler.AbstractMessageProcessor;
+import org.springframework.integration.handler.AbstractReplyProducingMessageHandler;
+import org.springframework.integration.handler.MessageProcessor;
+import org.springframework.integration.handler.MethodInvokingMessageProcessor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandlingException;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.MessagingException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * A {@link org.springframework.messaging.MessageHandler} that splits a message, maps
+ * each part in parallel and replies with the list of the results, in the order of the
+ * parts: the equivalent of a splitter, an executor channel and an aggregator, for
+ * CPU-bound work within one request.
+ * <p>
+ * The parts are produced by the optional {@code splitter} processor, or taken from the
+ * payload by default; as with a splitter, a {@link Collection}, array, {@link Iterable}
+ * or {@link Iterator} result provides the parts, any other result is a single part. Each
+ * part is mapped by the {@code mapper} processor, with the headers of the request
+ * message; a {@link Message} result contributes its payload and a {@code null} result
+ * is kept as a {@code null} element, so that the position of each result in the reply
+ * is the index of its part.
+ * <p>
+ * The results are gathered in an array for the request rather than in a
+ * {@link org.springframework.integration.store.MessageGroupStore}, so there is no
+ * correlation, locking or store access for the parts. The calling thread waits for the
+ * results, mapping the last part itself; the other parts run on the {@link Executor},
+ * which is a fixed pool with one thread per available processor by default (on Java 7
+ * or later, a work-stealing {@link java.util.concurrent.ForkJoinPool} can be provided
+ * instead). If a part fails,
+ * the parts that have not yet started are skipped and the exception is thrown to the
+ * caller.
+ *
+ * @since 4.2
+ */
+public class ParallelMapHandler extends AbstractReplyProducingMessageHandler implements DisposableBean {
+
+	private final MessageProcessor<?> mapper;
+
+	private volatile MessageProcessor<?> splitter;
+
+	private volatile Executor executor;
+
+	private volatile long timeout = -1;
+
+	private volatile ThreadPoolTaskExecutor defaultExecutor;
+
+	public ParallelMapHandler(Object mapper) {
+		this(new MethodInvokingMessageProcessor<Object>(mapper, ServiceActivator.class));
+	}
+
+	public ParallelMapHandler(Object mapper, String methodName) {
+		this(new MethodInvokingMessageProcessor<Object>(mapper, methodName));
+	}
+
+	public ParallelMapHandler(MessageProcessor<?> mapper) {
+		Assert.notNull(mapper, "'mapper' must not be null");
+		this.mapper = mapper;
+	}
+
+	/**
+	 * Set the processor that produces the parts from the request message; by default,
+	 * the payload provides the parts.
+	 * @param splitter the splitter.
+	 */
+	public void setSplitter(MessageProcessor<?> splitter) {
+		this.splitter = splitter;
+	}
+
+	/**
+	 * Set the executor for the parts; by default, a fixed pool with one thread per
+	 * available processor is created for this handler and shut down when it is destroyed.
+	 * @param executor the executor.
+	 */
+	public void setExecutor(Executor executor) {
+		Assert.notNull(executor, "'executor' must not be null");
+		this.executor = executor;
+	}
+
+	/**
+	 * Set how long to wait for the results of a request, after which a
+	 * {@link MessageTimeoutException} is thrown and the parts that have not yet started
+	 * are skipped. Default -1: wait indefinitely.
+	 * @param timeout the timeout in milliseconds.
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	@Override
+	public String getComponentType() {
+		return "parallel-map";
+	}
+
+	@Override
+	protected void doInit() {
+		initProcessor(this.mapper);
+		if (this.splitter != null) {
+			initProcessor(this.splitter);
+		}
+		if (this.executor == null) {
+			ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+			int processors = Runtime.getRuntime().availableProcessors();
+			executor.setCorePoolSize(processors);
+			executor.setMaxPoolSize(processors);
+			executor.setThreadNamePrefix(this.getComponentName() != null ? this.getComponentName() + "-"
+					: "parallel-map-");
+			executor.initialize();
+			this.defaultExecutor = executor;
+			this.executor = executor;
+		}
+	}
+
+	private void initProcessor(MessageProcessor<?> processor) {
+		if (processor instanceof AbstractMessageProcessor) {
+			((AbstractMessageProcessor<?>) processor).setConversionService(this.getConversionService());
+		}
+		if (processor instanceof BeanFactoryAware && this.getBeanFactory() != null) {
+			((BeanFactoryAware) processor).setBeanFactory(this.getBeanFactory());
+		}
+	}
+
+	@Override
+	public void destroy() {
+		if (this.defaultExecutor != null) {
+			this.defaultExecutor.shutdown();
+		}
+	}
+
+	@Override
+	protected Object handleRequestMessage(Message<?> requestMessage) {
+		Object result = this.splitter != null ? this.splitter.processMessage(requestMessage)
+				: requestMessage.getPayload();
+		if (result == null) {
+			return null;
+		}
+		List<?> parts = toList(result);
+		if (parts.isEmpty()) {
+			return null;
+		}
+		Results results = new Results(requestMessage.getHeaders(), parts);
+		int last = parts.size() - 1;
+		for (int i = 0; i < last; i++) {
+			try {
+				this.executor.execute(new PartTask(results, i));
+			}
+			catch (RejectedExecutionException e) {
+				results.fail(new MessageHandlingException(requestMessage,
+						"Failed to submit a part to the executor of " + this, e));
+				results.skip(last - i);
+				break;
+			}
+		}
+		results.run(last);
+		results.await(requestMessage, this.timeout);
+		return results.toList();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<?> toList(Object result) {
+		if (result instanceof List && result instanceof RandomAccess) {
+			return (List<?>) result;
+		}
+		else if (result instanceof Collection) {
+			return new ArrayList<Object>((Collection<?>) result);
+		}
+		else if (result.getClass().isArray()) {
+			// primitive arrays are boxed
+			return Arrays.asList(ObjectUtils.toObjectArray(result));
+		}
+		else if (result instanceof Iterable || result instanceof Iterator) {
+			Iterator<Object> iterator = result instanceof Iterable ? ((Iterable<Object>) result).iterator()
+					: (Iterator<Object>) result;
+			List<Object> parts = new ArrayList<Object>();
+			while (iterator.hasNext()) {
+				parts.add(iterator.next());
+			}
+			return parts;
+		}
+		else {
+			return Collections.singletonList(result);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ParallelMapHandler for [" + this.mapper + "]"
+				+ (this.getComponentName() == null ? "" : " (" + this.getComponentName() + ")");
+	}
+
+
+	/**
+	 * The state of one request: the parts, the results by index and the first failure.
+	 */
+	private final class Results {
+
+		private final MessageHeaders headers;
+
+		private final List<?> parts;
+
+		private final Object[] values;
+
+		private final CountDownLatch remaining;
+
+		private final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+
+		private Results(MessageHeaders headers, List<?> parts) {
+			this.headers = headers;
+			this.parts = parts;
+			this.values = new Object[parts.size()];
+			this.remaining = new CountDownLatch(parts.size());
+		}
+
+		private void run(int index) {
+			try {
+				if (this.failure.get() == null) {
+					Object part = this.parts.get(index);
+					Message<?> partMessage = part instanceof Message ? (Message<?>) part
+							: getMessageBuilderFactory().withPayload(part).copyHeaders(this.headers).build();
+					Object value = ParallelMapHandler.this.mapper.processMessage(partMessage);
+					this.values[index] = value instanceof Message ? ((Message<?>) value).getPayload() : value;
+				}
+			}
+			catch (RuntimeException e) {
+				fail(e);
+			}
+			finally {
+				this.remaining.countDown();
+			}
+		}
+
+		private void fail(RuntimeException e) {
+			this.failure.compareAndSet(null, e);
+		}
+
+		private void skip(int count) {
+			for (int i = 0; i < count; i++) {
+				this.remaining.countDown();
+			}
+		}
+
+		private void await(Message<?> requestMessage, long timeout) {
+			try {
+				if (timeout < 0) {
+					this.remaining.await();
+				}
+				else if (!this.remaining.await(timeout, TimeUnit.MILLISECONDS)) {
+					MessageTimeoutException e = new MessageTimeoutException(requestMessage, "Timed out after "
+							+ timeout + "ms waiting for the parts of the request to be mapped by "
+							+ ParallelMapHandler.this);
+					fail(e);
+					throw e;
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				MessageHandlingException interrupted = new MessageHandlingException(requestMessage,
+						"Interrupted while waiting for the parts of the request to be mapped by "
+								+ ParallelMapHandler.this, e);
+				fail(interrupted);
+				throw interrupted;
+			}
+			RuntimeException e = this.failure.get();
+			if (e instanceof MessagingException) {
+				throw e;
+			}
+			else if (e != null) {
+				throw new MessageHandlingException(requestMessage, "Failed to map a part of the request in "
+						+ ParallelMapHandler.this, e);
+			}
+		}
+
+		private List<Object> toList() {
+			return new ArrayList<Object>(Arrays.asList(this.values));
+		}
+
+	}
+
+
+	private static final class PartTask implements Runnable {
+
+		private final Results results;
+
+		private final int index;
+
+		private PartTask(Results results, int index) {
+			this.results = results;
+			this.index = index;
+		}
+
+		@Override
+		public void run() {
+			this.results.run(this.index);
+		}
+
+	}
+
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.scheduling;
+
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.integration.channel.QueueChannelOperations;
+import org.springframework.integration.util.DynamicPeriodicTrigger;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * An advice for a poller's advice chain that adapts the polling to the load, based on
+ * the outcome of each poll, the depth of a queue and the time taken to handle a message.
+ * <p>
+ * The period of the {@link DynamicPeriodicTrigger} of the poller is multiplied (by 2 by
+ * default) on each poll that returns no message, up to the {@code maxPeriod}, so that an
+ * idle endpoint polls less and less often; a poll that returns a message resets the
+ * period to the {@code minPeriod} (the initial period of the trigger by default).
+ * <p>
+ * When a {@link ThreadPoolTaskExecutor} is provided (the poller's task executor), its
+ * pool size is adjusted between the {@code minConcurrency} and {@code maxConcurrency}: by
+ * Little's law, the number of threads needed to drain the current depth of the
+ * {@code queue} (e.g. the input {@link org.springframework.integration.channel.QueueChannel}
+ * of a polling consumer) within the {@code drainTime}, at the average time taken by a poll
+ * that returned a message. Without a queue, the pool grows by one thread for each poll
+ * that returns a message and shrinks by one for each poll that does not. Since the
+ * poller submits one polling task per trigger, the executor should have no queue
+ * capacity and discard rejected tasks, so that the pool size limits the concurrent
+ * polling tasks.
+ * <p>
+ * A poll (and so the time measured) includes handling the message, unless the poller
+ * hands off to another executor.
+ *
+ * @since 4.2
+ * @see PollSkipAdvice
+ */
+public class AdaptivePollingAdvice implements MethodInterceptor {
+
+	private static final Log logger = LogFactory.getLog(AdaptivePollingAdvice.class);
+
+	private final DynamicPeriodicTrigger trigger;
+
+	private final Object monitor = new Object();
+
+	private volatile long minPeriod;
+
+	private long period;
+
+	private volatile long maxPeriod = 10000;
+
+	private volatile double multiplier = 2.0;
+
+	private volatile QueueChannelOperations queue;
+
+	private volatile ThreadPoolTaskExecutor taskExecutor;
+
+	private volatile int minConcurrency = 1;
+
+	private volatile int maxConcurrency = 1;
+
+	private volatile long drainTime = 1000;
+
+	private volatile long averageLatency;
+
+	private volatile int concurrency;
+
+	public AdaptivePollingAdvice(DynamicPeriodicTrigger trigger) {
+		Assert.notNull(trigger, "'trigger' must not be null");
+		this.trigger = trigger;
+		this.period = trigger.getTimeUnit().toMillis(trigger.getPeriod());
+		this.minPeriod = this.period;
+		this.maxPeriod = Math.max(this.maxPeriod, this.minPeriod);
+	}
+
+	/**
+	 * Set the period while messages are received. Defaults to the trigger's period.
+	 * @param minPeriod the period in milliseconds.
+	 */
+	public void setMinPeriod(long minPeriod) {
+		Assert.isTrue(minPeriod >= 0, "'minPeriod' must not be negative");
+		this.minPeriod = minPeriod;
+	}
+
+	/**
+	 * Set the longest period when no messages are received. Default 10 seconds (or the
+	 * trigger's period, if longer).
+	 * @param maxPeriod the period in milliseconds.
+	 */
+	public void setMaxPeriod(long maxPeriod) {
+		Assert.isTrue(maxPeriod >= 0, "'maxPeriod' must not be negative");
+		this.maxPeriod = maxPeriod;
+	}
+
+	/**
+	 * Set the factor applied to the period on each poll that returns no message.
+	 * Default 2.
+	 * @param multiplier the multiplier.
+	 */
+	public void setMultiplier(double multiplier) {
+		Assert.isTrue(multiplier >= 1, "'multiplier' must be at least 1");
+		this.multiplier = multiplier;
+	}
+
+	/**
+	 * Set the queue whose depth is the backlog of the endpoint.
+	 * @param queue the queue.
+	 */
+	public void setQueue(QueueChannelOperations queue) {
+		this.queue = queue;
+	}
+
+	/**
+	 * Set the executor of the poller, whose pool size is adjusted between the
+	 * {@code minConcurrency} and the {@code maxConcurrency}.
+	 * @param taskExecutor the task executor.
+	 */
+	public void setTaskExecutor(ThreadPoolTaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Set the pool size of the task executor when idle. Default 1.
+	 * @param minConcurrency the minimum concurrency.
+	 */
+	public void setMinConcurrency(int minConcurrency) {
+		Assert.isTrue(minConcurrency > 0, "'minConcurrency' must be greater than 0");
+		this.minConcurrency = minConcurrency;
+	}
+
+	/**
+	 * Set the largest pool size of the task executor. Default 1.
+	 * @param maxConcurrency the maximum concurrency.
+	 */
+	public void setMaxConcurrency(int maxConcurrency) {
+		Assert.isTrue(maxConcurrency > 0, "'maxConcurrency' must be greater than 0");
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * Set the time within which the backlog of the queue should be drained, used to
+	 * compute the concurrency. Default 1 second.
+	 * @param drainTime the time in milliseconds.
+	 */
+	public void setDrainTime(long drainTime) {
+		Assert.isTrue(drainTime > 0, "'drainTime' must be greater than 0");
+		this.drainTime = drainTime;
+	}
+
+	/**
+	 * @return the average time taken by a poll that returned a message, in nanoseconds.
+	 */
+	public long getAverageLatency() {
+		return this.averageLatency;
+	}
+
+	/**
+	 * @return the current pool size set on the task executor; 0 if there is none.
+	 */
+	public int getConcurrency() {
+		return this.concurrency;
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		if (!"call".equals(invocation.getMethod().getName())) {
+			return invocation.proceed();
+		}
+		long start = System.nanoTime();
+		Object result = invocation.proceed();
+		if (Boolean.TRUE.equals(result)) {
+			received(System.nanoTime() - start);
+		}
+		else {
+			idle();
+		}
+		return result;
+	}
+
+	private void received(long latency) {
+		synchronized (this.monitor) {
+			this.averageLatency = this.averageLatency == 0 ? latency
+					: this.averageLatency + (latency - this.averageLatency) / 8;
+			setPeriod(this.minPeriod);
+			if (this.taskExecutor != null) {
+				QueueChannelOperations queue = this.queue;
+				if (queue != null) {
+					long drainTime = TimeUnit.MILLISECONDS.toNanos(this.drainTime);
+					long needed = (queue.getQueueSize() * this.averageLatency + drainTime - 1) / drainTime;
+					setConcurrency((int) Math.min(needed, Integer.MAX_VALUE));
+				}
+				else {
+					setConcurrency(currentConcurrency() + 1);
+				}
+			}
+		}
+	}
+
+	private void idle() {
+		synchronized (this.monitor) {
+			long period = Math.max(this.period, 1);
+			setPeriod(Math.max(this.minPeriod, Math.min(this.maxPeriod, (long) (period * this.multiplier))));
+			if (this.taskExecutor != null) {
+				setConcurrency(currentConcurrency() - 1);
+			}
+		}
+	}
+
+	/**
+	 * Set the period, computed in milliseconds, on the trigger in its own time unit,
+	 * rounding up so that a coarser unit never truncates the period (and stalls the
+	 * back-off); the unrounded period is kept as the basis of the next step.
+	 */
+	private void setPeriod(long period) {
+		if (this.period != period) {
+			this.period = period;
+			TimeUnit timeUnit = this.trigger.getTimeUnit();
+			long triggerPeriod = timeUnit.convert(period, TimeUnit.MILLISECONDS);
+			if (timeUnit.toMillis(triggerPeriod) < period) {
+				triggerPeriod++;
+			}
+			this.trigger.setPeriod(triggerPeriod);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Poll period changed to " + triggerPeriod + " " + timeUnit.name().toLowerCase());
+			}
+		}
+	}
+
+	private int currentConcurrency() {
+		return this.concurrency > 0 ? this.concurrency : this.taskExecutor.getCorePoolSize();
+	}
+
+	private void setConcurrency(int concurrency) {
+		int newConcurrency = Math.max(this.minConcurrency, Math.min(this.maxConcurrency, concurrency));
+		if (newConcurrency == this.concurrency) {
+			return;
+		}
+		ThreadPoolTaskExecutor taskExecutor = this.taskExecutor;
+		// the maximum pool size must never be less than the core pool size
+		if (newConcurrency > taskExecutor.getMaxPoolSize()) {
+			taskExecutor.setMaxPoolSize(newConcurrency);
+			taskExecutor.setCorePoolSize(newConcurrency);
+		}
+		else {
+			taskExecutor.setCorePoolSize(newConcurrency);
+			taskExecutor.setMaxPoolSize(newConcurrency);
+		}
+		this.concurrency = newConcurrency;
+		if (logger.isDebugEnabled()) {
+			logger.debug("Poller concurrency changed to " + newConcurrency);
+		}
+	}
+
+}
@@ -0,0 +1,700 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.scheduling;
+
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.support.PeriodicTrigger;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+import org.springframework.scheduling.support.TaskUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * A {@link TaskScheduler} based on a hashed timing wheel, for a large number of
+ * outstanding one-shot tasks such as the delayed messages of a
+ * {@link org.springframework.integration.handler.DelayHandler} or the group timeouts of
+ * an aggregator.
+ * <p>
+ * Scheduling and cancelling a task are constant time: a task is appended to a lock-free
+ * queue and moved by the wheel thread to the bucket of the tick in which it is due, in
+ * a doubly linked list; a cancelled task is unlinked from its bucket. On each tick, the
+ * wheel thread expires the due tasks of one bucket in a single pass. A
+ * {@link java.util.concurrent.ScheduledThreadPoolExecutor}, in contrast, keeps one
+ * entry per task in a heap, with logarithmic cost per operation under a single lock.
+ * <p>
+ * The price is precision: a task runs at the end of the tick in which it is due, never
+ * early, but up to one {@code tickDuration} late (plus the time taken by the tasks
+ * ahead of it). By default, tasks run on the wheel thread, so they should not block;
+ * otherwise provide an {@link #setExecutor(Executor) executor}. Periodic tasks are
+ * supported by rescheduling the task after each execution. Exceptions thrown by tasks
+ * are handed to the {@link #setErrorHandler(ErrorHandler) error handler}, which logs
+ * them by default.
+ * <p>
+ * The wheel thread is started when the first task is scheduled and stopped by
+ * {@link #destroy()}; tasks that have not run by then are cancelled.
+ *
+ * @since 4.2
+ */
+public class HashedWheelTaskScheduler implements TaskScheduler, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(HashedWheelTaskScheduler.class);
+
+	private static final int STATE_INIT = 0;
+
+	private static final int STATE_STARTED = 1;
+
+	private static final int STATE_SHUTDOWN = 2;
+
+	private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+	private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+
+	private final long tickNanos;
+
+	private final Bucket[] wheel;
+
+	private final int mask;
+
+	private final Queue<WheelTimeout> scheduledTimeouts = new ConcurrentLinkedQueue<WheelTimeout>();
+
+	private final Queue<WheelTimeout> cancelledTimeouts = new ConcurrentLinkedQueue<WheelTimeout>();
+
+	private final AtomicLong pendingTasks = new AtomicLong();
+
+	private final CountDownLatch startTimeInitialized = new CountDownLatch(1);
+
+	private volatile ThreadFactory threadFactory = new CustomizableThreadFactory("wheel-scheduler-");
+
+	private volatile Executor executor;
+
+	private volatile ErrorHandler errorHandler = TaskUtils.LOG_AND_SUPPRESS_ERROR_HANDLER;
+
+	private volatile long startTime;
+
+	private volatile Thread workerThread;
+
+	/**
+	 * Accessed by the wheel thread only.
+	 */
+	private long tick;
+
+	/**
+	 * Create a scheduler with a tick duration of 10 milliseconds and 512 ticks per wheel.
+	 */
+	public HashedWheelTaskScheduler() {
+		this(10, 512);
+	}
+
+	/**
+	 * Create a scheduler with the given tick duration and number of ticks per wheel.
+	 * @param tickDuration the tick duration in milliseconds: the precision of the
+	 * scheduler.
+	 * @param ticksPerWheel the number of buckets, rounded up to a power of two; tasks that
+	 * are due more than one wheel revolution ahead share buckets with nearer tasks.
+	 */
+	public HashedWheelTaskScheduler(long tickDuration, int ticksPerWheel) {
+		Assert.isTrue(tickDuration > 0, "'tickDuration' must be greater than 0");
+		Assert.isTrue(ticksPerWheel > 0 && ticksPerWheel <= 1 << 30, "'ticksPerWheel' must be between 1 and 2^30");
+		this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickDuration);
+		int size = ticksPerWheel == 1 ? 1 : Integer.highestOneBit(ticksPerWheel - 1) << 1;
+		this.wheel = new Bucket[size];
+		for (int i = 0; i < size; i++) {
+			this.wheel[i] = new Bucket();
+		}
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Set the factory for the wheel thread.
+	 * @param threadFactory the thread factory.
+	 */
+	public void setThreadFactory(ThreadFactory threadFactory) {
+		Assert.notNull(threadFactory, "'threadFactory' must not be null");
+		this.threadFactory = threadFactory;
+	}
+
+	/**
+	 * Set the executor that runs due tasks; by default they run on the wheel thread.
+	 * @param executor the executor.
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Set the handler for exceptions thrown by tasks; by default they are logged.
+	 * @param errorHandler the error handler.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		Assert.notNull(errorHandler, "'errorHandler' must not be null");
+		this.errorHandler = errorHandler;
+	}
+
+	/**
+	 * @return the number of tasks that are scheduled and have not yet run or been
+	 * cancelled.
+	 */
+	public long getPendingTaskCount() {
+		return this.pendingTasks.get();
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+		Assert.notNull(task, "'task' must not be null");
+		Assert.notNull(startTime, "'startTime' must not be null");
+		return doSchedule(task, startTime.getTime() - System.currentTimeMillis());
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+		Assert.notNull(task, "'task' must not be null");
+		Assert.notNull(trigger, "'trigger' must not be null");
+		return new TriggerTask(task, trigger).schedule();
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+		return schedule(task, periodicTrigger(startTime.getTime() - System.currentTimeMillis(), period, true));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+		return schedule(task, periodicTrigger(0, period, true));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+		return schedule(task, periodicTrigger(startTime.getTime() - System.currentTimeMillis(), delay, false));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+		return schedule(task, periodicTrigger(0, delay, false));
+	}
+
+	private static Trigger periodicTrigger(long initialDelay, long period, boolean fixedRate) {
+		PeriodicTrigger trigger = new PeriodicTrigger(period);
+		trigger.setInitialDelay(Math.max(0, initialDelay));
+		trigger.setFixedRate(fixedRate);
+		return trigger;
+	}
+
+	private WheelTimeout doSchedule(Runnable task, long delayMillis) {
+		start();
+		long delay = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+		long deadline = System.nanoTime() - this.startTime + delay;
+		if (deadline < 0) {
+			// overflow
+			deadline = Long.MAX_VALUE;
+		}
+		WheelTimeout timeout = new WheelTimeout(this, task, deadline);
+		this.pendingTasks.incrementAndGet();
+		this.scheduledTimeouts.add(timeout);
+		if (this.state.get() == STATE_SHUTDOWN) {
+			// shut down after start(): the worker may have drained the queue already
+			this.scheduledTimeouts.remove(timeout);
+			timeout.cancel(false);
+			throw new TaskRejectedException("HashedWheelTaskScheduler has been shut down");
+		}
+		return timeout;
+	}
+
+	private void start() {
+		int state = this.state.get();
+		if (state == STATE_INIT && this.state.compareAndSet(STATE_INIT, STATE_STARTED)) {
+			Thread thread = this.threadFactory.newThread(new Worker());
+			this.workerThread = thread;
+			thread.start();
+		}
+		else if (state == STATE_SHUTDOWN) {
+			throw new TaskRejectedException("HashedWheelTaskScheduler has been shut down");
+		}
+		boolean interrupted = false;
+		while (this.startTimeInitialized.getCount() > 0) {
+			try {
+				this.startTimeInitialized.await();
+			}
+			catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Stop the wheel thread and cancel the tasks that have not run.
+	 */
+	@Override
+	public void destroy() {
+		if (this.state.getAndSet(STATE_SHUTDOWN) != STATE_STARTED) {
+			return;
+		}
+		Thread thread = this.workerThread;
+		if (thread != Thread.currentThread()) {
+			thread.interrupt();
+			try {
+				thread.join(TimeUnit.NANOSECONDS.toMillis(this.tickNanos) * 10 + 1000);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "HashedWheelTaskScheduler [tickDuration=" + TimeUnit.NANOSECONDS.toMillis(this.tickNanos)
+				+ "ms, ticksPerWheel=" + this.wheel.length + ", pendingTasks=" + this.pendingTasks.get() + "]";
+	}
+
+
+	private final class Worker implements Runnable {
+
+		@Override
+		public void run() {
+			HashedWheelTaskScheduler.this.startTime = System.nanoTime();
+			HashedWheelTaskScheduler.this.startTimeInitialized.countDown();
+			while (HashedWheelTaskScheduler.this.state.get() == STATE_STARTED) {
+				long now = waitForNextTick();
+				if (now >= 0) {
+					processCancelled();
+					transferScheduled();
+					Bucket bucket = HashedWheelTaskScheduler.this.wheel[(int) (HashedWheelTaskScheduler.this.tick
+							& HashedWheelTaskScheduler.this.mask)];
+					bucket.expire();
+					HashedWheelTaskScheduler.this.tick++;
+				}
+			}
+			for (Bucket bucket : HashedWheelTaskScheduler.this.wheel) {
+				bucket.cancelAll();
+			}
+			WheelTimeout timeout;
+			while ((timeout = HashedWheelTaskScheduler.this.scheduledTimeouts.poll()) != null) {
+				timeout.cancel(false);
+			}
+			HashedWheelTaskScheduler.this.cancelledTimeouts.clear();
+		}
+
+		/**
+		 * Wait for the end of the current tick.
+		 * @return the time since the start, or -1 if interrupted by a shutdown.
+		 */
+		private long waitForNextTick() {
+			long deadline = HashedWheelTaskScheduler.this.tickNanos * (HashedWheelTaskScheduler.this.tick + 1);
+			while (true) {
+				long now = System.nanoTime() - HashedWheelTaskScheduler.this.startTime;
+				long sleepMillis = (deadline - now + 999999) / 1000000;
+				if (sleepMillis <= 0) {
+					return now;
+				}
+				try {
+					Thread.sleep(sleepMillis);
+				}
+				catch (InterruptedException e) {
+					if (HashedWheelTaskScheduler.this.state.get() == STATE_SHUTDOWN) {
+						return -1;
+					}
+				}
+			}
+		}
+
+		private void processCancelled() {
+			WheelTimeout timeout;
+			while ((timeout = HashedWheelTaskScheduler.this.cancelledTimeouts.poll()) != null) {
+				Bucket bucket = timeout.bucket;
+				if (bucket != null) {
+					bucket.remove(timeout);
+				}
+			}
+		}
+
+		private void transferScheduled() {
+			long tick = HashedWheelTaskScheduler.this.tick;
+			Bucket[] wheel = HashedWheelTaskScheduler.this.wheel;
+			for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+				WheelTimeout timeout = HashedWheelTaskScheduler.this.scheduledTimeouts.poll();
+				if (timeout == null) {
+					break;
+				}
+				if (timeout.state != WheelTimeout.STATE_PENDING) {
+					continue;
+				}
+				long dueTick = timeout.deadline / HashedWheelTaskScheduler.this.tickNanos;
+				timeout.remainingRounds = (dueTick - tick) / wheel.length;
+				wheel[(int) (Math.max(dueTick, tick) & HashedWheelTaskScheduler.this.mask)].add(timeout);
+			}
+		}
+
+	}
+
+
+	/**
+	 * The tasks due in one tick of each revolution of the wheel; accessed by the wheel
+	 * thread only.
+	 */
+	private final class Bucket {
+
+		private WheelTimeout head;
+
+		private WheelTimeout tail;
+
+		private void add(WheelTimeout timeout) {
+			timeout.bucket = this;
+			if (this.head == null) {
+				this.head = timeout;
+				this.tail = timeout;
+			}
+			else {
+				this.tail.next = timeout;
+				timeout.prev = this.tail;
+				this.tail = timeout;
+			}
+		}
+
+		private void expire() {
+			WheelTimeout timeout = this.head;
+			while (timeout != null) {
+				WheelTimeout next = timeout.next;
+				if (timeout.remainingRounds <= 0) {
+					// a timeout is placed in the bucket of the tick in which it is due
+					remove(timeout);
+					run(timeout);
+				}
+				else if (timeout.state != WheelTimeout.STATE_PENDING) {
+					remove(timeout);
+				}
+				else {
+					timeout.remainingRounds--;
+				}
+				timeout = next;
+			}
+		}
+
+		private void run(WheelTimeout timeout) {
+			if (!WheelTimeout.STATE_UPDATER.compareAndSet(timeout, WheelTimeout.STATE_PENDING,
+					WheelTimeout.STATE_EXPIRED)) {
+				return;
+			}
+			HashedWheelTaskScheduler.this.pendingTasks.decrementAndGet();
+			Executor executor = HashedWheelTaskScheduler.this.executor;
+			if (executor == null) {
+				timeout.run();
+			}
+			else {
+				try {
+					executor.execute(timeout);
+				}
+				catch (RejectedExecutionException e) {
+					logger.error("Executor rejected a scheduled task; running it on the wheel thread instead", e);
+					timeout.run();
+				}
+			}
+		}
+
+		private void remove(WheelTimeout timeout) {
+			WheelTimeout next = timeout.next;
+			if (timeout.prev != null) {
+				timeout.prev.next = next;
+			}
+			if (next != null) {
+				next.prev = timeout.prev;
+			}
+			if (timeout == this.head) {
+				this.head = next;
+			}
+			if (timeout == this.tail) {
+				this.tail = timeout.prev;
+			}
+			timeout.prev = null;
+			timeout.next = null;
+			timeout.bucket = null;
+		}
+
+		private void cancelAll() {
+			WheelTimeout timeout = this.head;
+			while (timeout != null) {
+				WheelTimeout next = timeout.next;
+				remove(timeout);
+				timeout.cancel(false);
+				timeout = next;
+			}
+		}
+
+	}
+
+
+	/**
+	 * A one-shot task and its future.
+	 */
+	private static final class WheelTimeout implements ScheduledFuture<Object>, Runnable {
+
+		private static final int STATE_PENDING = 0;
+
+		private static final int STATE_CANCELLED = 1;
+
+		private static final int STATE_EXPIRED = 2;
+
+		@SuppressWarnings("rawtypes")
+		private static final AtomicIntegerFieldUpdater<WheelTimeout> STATE_UPDATER =
+				AtomicIntegerFieldUpdater.newUpdater((Class) WheelTimeout.class, "state");
+
+		private final HashedWheelTaskScheduler scheduler;
+
+		private final Runnable task;
+
+		private final long deadline;
+
+		private volatile int state;
+
+		private volatile boolean done;
+
+		private volatile Throwable failure;
+
+		/*
+		 * Accessed by the wheel thread only.
+		 */
+
+		private long remainingRounds;
+
+		private Bucket bucket;
+
+		private WheelTimeout prev;
+
+		private WheelTimeout next;
+
+		private WheelTimeout(HashedWheelTaskScheduler scheduler, Runnable task, long deadline) {
+			this.scheduler = scheduler;
+			this.task = task;
+			this.deadline = deadline;
+		}
+
+		@Override
+		public void run() {
+			try {
+				this.task.run();
+			}
+			catch (Throwable e) {
+				this.failure = e;
+				this.scheduler.errorHandler.handleError(e);
+			}
+			finally {
+				completed();
+			}
+		}
+
+		private synchronized void completed() {
+			this.done = true;
+			notifyAll();
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			if (!STATE_UPDATER.compareAndSet(this, STATE_PENDING, STATE_CANCELLED)) {
+				return false;
+			}
+			this.scheduler.pendingTasks.decrementAndGet();
+			if (this.scheduler.state.get() == STATE_STARTED) {
+				this.scheduler.cancelledTimeouts.add(this);
+			}
+			completed();
+			return true;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return this.state == STATE_CANCELLED;
+		}
+
+		@Override
+		public boolean isDone() {
+			return this.done;
+		}
+
+		@Override
+		public Object get() throws InterruptedException, ExecutionException {
+			synchronized (this) {
+				while (!this.done) {
+					wait();
+				}
+			}
+			return result();
+		}
+
+		@Override
+		public Object get(long timeout, TimeUnit unit)
+				throws InterruptedException, ExecutionException, TimeoutException {
+			long deadline = System.nanoTime() + unit.toNanos(timeout);
+			synchronized (this) {
+				while (!this.done) {
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0) {
+						throw new TimeoutException();
+					}
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				}
+			}
+			return result();
+		}
+
+		private Object result() throws ExecutionException {
+			if (isCancelled()) {
+				throw new CancellationException();
+			}
+			if (this.failure != null) {
+				throw new ExecutionException(this.failure);
+			}
+			return null;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(this.deadline - (System.nanoTime() - this.scheduler.startTime),
+					TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			if (other == this) {
+				return 0;
+			}
+			long diff = getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+			return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+		}
+
+	}
+
+
+	/**
+	 * A task that is rescheduled according to a {@link Trigger} after each execution.
+	 */
+	private final class TriggerTask implements ScheduledFuture<Object>, Runnable {
+
+		private final Runnable task;
+
+		private final Trigger trigger;
+
+		private final SimpleTriggerContext triggerContext = new SimpleTriggerContext();
+
+		private Date scheduledExecutionTime;
+
+		private volatile WheelTimeout current;
+
+		private volatile boolean cancelled;
+
+		private TriggerTask(Runnable task, Trigger trigger) {
+			this.task = task;
+			this.trigger = trigger;
+		}
+
+		private synchronized ScheduledFuture<?> schedule() {
+			this.scheduledExecutionTime = this.trigger.nextExecutionTime(this.triggerContext);
+			if (this.scheduledExecutionTime == null) {
+				return null;
+			}
+			this.current = doSchedule(this, this.scheduledExecutionTime.getTime() - System.currentTimeMillis());
+			return this;
+		}
+
+		@Override
+		public void run() {
+			Date actualExecutionTime = new Date();
+			try {
+				this.task.run();
+			}
+			catch (Throwable e) {
+				HashedWheelTaskScheduler.this.errorHandler.handleError(e);
+			}
+			Date completionTime = new Date();
+			synchronized (this) {
+				this.triggerContext.update(this.scheduledExecutionTime, actualExecutionTime, completionTime);
+				if (!this.cancelled && HashedWheelTaskScheduler.this.state.get() == STATE_STARTED) {
+					try {
+						schedule();
+					}
+					catch (TaskRejectedException e) {
+						// shut down concurrently
+					}
+				}
+			}
+		}
+
+		@Override
+		public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+			this.cancelled = true;
+			return this.current.cancel(mayInterruptIfRunning);
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return this.cancelled;
+		}
+
+		@Override
+		public boolean isDone() {
+			return this.current.isDone();
+		}
+
+		@Override
+		public Object get() throws InterruptedException, ExecutionException {
+			return this.current.get();
+		}
+
+		@Override
+		public Object get(long timeout, TimeUnit unit)
+				throws InterruptedException, ExecutionException, TimeoutException {
+			return this.current.get(timeout, unit);
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return this.current.getDelay(unit);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			return this.current.compareTo(other);
+		}
+
+	}
+
+}
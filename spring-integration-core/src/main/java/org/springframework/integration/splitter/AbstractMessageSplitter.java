@@ -20,13 +20,17 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.handler.AbstractReplyProducingMessageHandler;
 import org.springframework.integration.support.AbstractIntegrationMessageBuilder;
 import org.springframework.integration.util.Function;
 import org.springframework.integration.util.FunctionIterator;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandlingException;
 import org.springframework.messaging.MessageHeaders;
 
 /**
@@ -38,8 +42,14 @@ import org.springframework.messaging.MessageHeaders;
  */
 public abstract class AbstractMessageSplitter extends AbstractReplyProducingMessageHandler {
 
+	private static final long DEFAULT_IN_FLIGHT_TIMEOUT = 60000;
+
 	private boolean applySequence = true;
 
+	private volatile int maxInFlight;
+
+	private volatile long inFlightTimeout = DEFAULT_IN_FLIGHT_TIMEOUT;
+
 	/**
 	 * Set the applySequence flag to the specified value. Defaults to true.
 	 * @param applySequence true to apply sequence information.
@@ -48,6 +58,43 @@ public abstract class AbstractMessageSplitter extends AbstractReplyProducingMess
 		this.applySequence = applySequence;
 	}
 
+	/**
+	 * Limit the number of messages of one split that may be in flight, i.e. sent but not
+	 * yet acknowledged. When set, each message carries a {@link SplitAcknowledgment} in the
+	 * {@link IntegrationMessageHeaderAccessor#SPLIT_ACKNOWLEDGMENT} header, which a
+	 * downstream component must acknowledge; once the limit is reached, the splitter
+	 * stops iterating over the split result until a message is acknowledged. With a lazy
+	 * result (an {@link Iterator} or {@link Iterable}), a split of any size is then
+	 * produced in constant memory, even when the output channel buffers messages (e.g.
+	 * an executor or queue channel). Default 0: no limit and no acknowledgments.
+	 * <p>
+	 * <b>Every message must be acknowledged</b>, including messages that are filtered,
+	 * discarded or fail downstream; an unacknowledged message holds its permit until the
+	 * {@link #setInFlightTimeout(long) inFlightTimeout} fails the split. A
+	 * {@link SplitAcknowledgment} that has been serialized (e.g. with the message, in a
+	 * persistent message store) cannot acknowledge; acknowledge such messages before
+	 * they are persisted.
+	 * @param maxInFlight the maximum number of unacknowledged messages.
+	 * @since 4.2
+	 * @see #setInFlightTimeout(long)
+	 */
+	public void setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Set how long to wait for an acknowledgment when the
+	 * {@link #setMaxInFlight(int) maxInFlight} limit is reached, after which a
+	 * {@link MessageHandlingException} is thrown and the remaining messages of the split
+	 * are not produced. Default 60 seconds; a negative value waits indefinitely, in
+	 * which case a message that is never acknowledged blocks the splitter thread forever.
+	 * @param inFlightTimeout the timeout in milliseconds.
+	 * @since 4.2
+	 */
+	public void setInFlightTimeout(long inFlightTimeout) {
+		this.inFlightTimeout = inFlightTimeout;
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	protected final Object handleRequestMessage(Message<?> message) {
@@ -124,12 +171,57 @@ public abstract class AbstractMessageSplitter extends AbstractReplyProducingMess
 	@Override
 	protected void produceOutput(Object result, Message<?> requestMessage) {
 		Iterator<?> iterator = (Iterator<?>) result;
+		int maxInFlight = this.maxInFlight;
+		if (maxInFlight > 0) {
+			produceAcknowledgedOutput(iterator, requestMessage, new Semaphore(maxInFlight));
+			return;
+		}
 		while (iterator.hasNext()) {
 			super.produceOutput(iterator.next(), requestMessage);
 
 		}
 	}
 
+	private void produceAcknowledgedOutput(Iterator<?> iterator, Message<?> requestMessage, Semaphore inFlight) {
+		while (iterator.hasNext() && awaitAcknowledgment(inFlight, requestMessage)) {
+			Object reply = iterator.next();
+			SplitAcknowledgment acknowledgment = new SplitAcknowledgment(inFlight);
+			if (reply instanceof AbstractIntegrationMessageBuilder) {
+				((AbstractIntegrationMessageBuilder<?>) reply)
+						.setHeader(IntegrationMessageHeaderAccessor.SPLIT_ACKNOWLEDGMENT, acknowledgment);
+			}
+			else {
+				acknowledgment.acknowledge();
+			}
+			try {
+				super.produceOutput(reply, requestMessage);
+			}
+			catch (RuntimeException e) {
+				acknowledgment.acknowledge();
+				throw e;
+			}
+		}
+	}
+
+	private boolean awaitAcknowledgment(Semaphore inFlight, Message<?> requestMessage) {
+		try {
+			long timeout = this.inFlightTimeout;
+			if (timeout < 0) {
+				inFlight.acquire();
+			}
+			else if (!inFlight.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+				throw new MessageHandlingException(requestMessage, "Timed out after " + timeout
+						+ "ms waiting for the acknowledgment of a split message by " + this);
+			}
+			return true;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MessageHandlingException(requestMessage, "Interrupted while waiting for the acknowledgment "
+					+ "of a split message by " + this, e);
+		}
+	}
+
 	@Override
 	public String getComponentType() {
 		return "splitter";
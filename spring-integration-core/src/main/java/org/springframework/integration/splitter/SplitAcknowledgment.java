@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.splitter;
+
+import java.io.Serializable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The value of the {@link org.springframework.integration.IntegrationMessageHeaderAccessor#SPLIT_ACKNOWLEDGMENT}
+ * header of the messages produced by a splitter with a
+ * {@link AbstractMessageSplitter#setMaxInFlight(int) maxInFlight} limit. A downstream
+ * component must {@link #acknowledge()} each such message once it has been processed,
+ * allowing the splitter to produce the next one.
+ * <p>
+ * It is {@link Serializable} so that messages carrying it can be stored in a persistent
+ * message store, but only the original instance can acknowledge: a deserialized copy
+ * reports its acknowledged state as of serialization and {@link #acknowledge()} has no
+ * effect on the splitter.
+ *
+ * @since 4.2
+ */
+public final class SplitAcknowledgment implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final transient Semaphore inFlight;
+
+	private final AtomicBoolean acknowledged = new AtomicBoolean();
+
+	SplitAcknowledgment(Semaphore inFlight) {
+		this.inFlight = inFlight;
+	}
+
+	/**
+	 * Acknowledge the message; subsequent calls have no effect.
+	 */
+	public void acknowledge() {
+		if (this.acknowledged.compareAndSet(false, true) && this.inFlight != null) {
+			this.inFlight.release();
+		}
+	}
+
+	/**
+	 * @return true if the message has been acknowledged.
+	 */
+	public boolean isAcknowledged() {
+		return this.acknowledged.get();
+	}
+
+	@Override
+	public String toString() {
+		return "SplitAcknowledgment [acknowledged=" + this.acknowledged.get() + "]";
+	}
+
+}
@@ -111,7 +111,7 @@ public abstract class AbstractMessageGroupStore implements MessageGroupStore, It
 	public int expireMessageGroups(long timeout) {
 		int count = 0;
 		long threshold = System.currentTimeMillis() - timeout;
-		for (MessageGroup group : this) {
+		for (MessageGroup group : getExpiryCandidates(threshold)) {
 
 			long timestamp = group.getTimestamp();
 			if (this.isTimeoutOnIdle() && group.getLastModified() > 0) {
@@ -126,6 +126,22 @@ public abstract class AbstractMessageGroupStore implements MessageGroupStore, It
 		return count;
 	}
 
+	/**
+	 * Return the groups that {@link #expireMessageGroups(long)} checks against the
+	 * threshold: by default, all groups. Stores that can look up groups by their creation
+	 * time (or, with {@link #isTimeoutOnIdle() timeoutOnIdle}, their last modification
+	 * time), e.g. with a database index, override this method to return only the groups
+	 * at or before the threshold, so that the cost of an expiry run is proportional to the
+	 * number of expired groups rather than to the size of the store.
+	 * @param threshold the time (in milliseconds since the epoch) at or before which a
+	 * group is expired.
+	 * @return the candidate groups.
+	 * @since 4.2
+	 */
+	protected Iterable<MessageGroup> getExpiryCandidates(long threshold) {
+		return this;
+	}
+
 	/**
 	 * Used by expireMessageGroups. We need to return a snapshot of the group
 	 * at the time the reaper runs, so we can properly detect if the
@@ -0,0 +1,407 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.store;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.messaging.Message;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * A thread safe, mutable {@link MessageGroup} that keeps its messages in a plain array
+ * rather than a linked queue, so that a group costs one object and one array instead
+ * of a queue with a node per message.
+ * <p>
+ * {@link #size()}, {@link #getOne()}, {@link #getSequenceSize()} and
+ * {@link #containsSequenceNumber(int)} are constant time, as are adding a message and
+ * removing the first message. {@link #getMessages()} returns an immutable snapshot
+ * without copying: the array is never modified below the snapshot's bounds; a new array
+ * is allocated instead when a message other than the first is removed, when the first
+ * message is removed while a snapshot may still use the array, or when the array is
+ * full. Otherwise, the slot of a removed first message is cleared so that the message
+ * is not retained.
+ * <p>
+ * Sequence numbers up to the message's sequence size are tracked in a bit set; any
+ * others (or all, when there is no sequence size) above a small bound go to a hash
+ * set, so that a single message with a very large sequence number does not allocate
+ * a correspondingly large bit set.
+ *
+ * @since 4.2
+ * @see ShardedMessageStore
+ */
+public class CompactMessageGroup implements MessageGroup {
+
+	private static final Message<?>[] NO_MESSAGES = new Message<?>[0];
+
+	private static final int MIN_CAPACITY = 4;
+
+	private static final int MAX_UNSIZED_SEQUENCE_NUMBER = 64;
+
+	private final Object groupId;
+
+	private final long timestamp;
+
+	private volatile long lastModified;
+
+	private volatile boolean complete;
+
+	private volatile int lastReleasedMessageSequence;
+
+	private volatile int size;
+
+	private Message<?>[] messages = NO_MESSAGES;
+
+	private int head;
+
+	private boolean shared;
+
+	private BitSet sequenceNumbers;
+
+	private Set<Integer> sparseSequenceNumbers;
+
+	private boolean duplicateSequenceNumbers;
+
+	public CompactMessageGroup(Object groupId) {
+		this(groupId, System.currentTimeMillis());
+	}
+
+	public CompactMessageGroup(Object groupId, long timestamp) {
+		this.groupId = groupId;
+		this.timestamp = timestamp;
+	}
+
+	public CompactMessageGroup(MessageGroup messageGroup) {
+		this(messageGroup.getGroupId(), messageGroup.getTimestamp());
+		for (Message<?> message : messageGroup.getMessages()) {
+			add(message);
+		}
+		this.complete = messageGroup.isComplete();
+		this.lastReleasedMessageSequence = messageGroup.getLastReleasedMessageSequenceNumber();
+		this.lastModified = messageGroup.getLastModified();
+	}
+
+	@Override
+	public boolean canAdd(Message<?> message) {
+		return true;
+	}
+
+	/**
+	 * Equivalent to the check applied by a sequence aware correlating handler: a message
+	 * with a sequence number can only be added to a non-empty group if its sequence size
+	 * matches that of the group and no message with the same sequence number is present.
+	 * @param message the message.
+	 * @return true if the message can be added.
+	 */
+	public boolean canAddInSequence(Message<?> message) {
+		if (this.size == 0) {
+			return true;
+		}
+		Integer sequenceNumber = message.getHeaders().get(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER,
+				Integer.class);
+		if (sequenceNumber != null && sequenceNumber > 0) {
+			Integer sequenceSize = message.getHeaders().get(IntegrationMessageHeaderAccessor.SEQUENCE_SIZE,
+					Integer.class);
+			return (sequenceSize != null ? sequenceSize : 0) == getSequenceSize()
+					&& !containsSequenceNumber(sequenceNumber);
+		}
+		return true;
+	}
+
+	public synchronized void add(Message<?> message) {
+		int tail = this.head + this.size;
+		if (tail == this.messages.length) {
+			Message<?>[] newMessages = new Message<?>[Math.max(MIN_CAPACITY, this.size * 2)];
+			System.arraycopy(this.messages, this.head, newMessages, 0, this.size);
+			this.messages = newMessages;
+			this.head = 0;
+			this.shared = false;
+			tail = this.size;
+		}
+		this.messages[tail] = message;
+		int sequenceNumber = sequenceNumber(message);
+		if (sequenceNumber > 0) {
+			if (containsSequenceNumber(sequenceNumber)) {
+				this.duplicateSequenceNumbers = true;
+			}
+			else {
+				addSequenceNumber(sequenceNumber, message);
+			}
+		}
+		this.size++;
+	}
+
+	public synchronized boolean remove(Message<?> message) {
+		int index = indexOf(message);
+		if (index < 0) {
+			return false;
+		}
+		if (index == this.head) {
+			removeHead();
+		}
+		else {
+			Message<?>[] newMessages = new Message<?>[Math.max(MIN_CAPACITY, this.size)];
+			System.arraycopy(this.messages, this.head, newMessages, 0, index - this.head);
+			System.arraycopy(this.messages, index + 1, newMessages, index - this.head,
+					this.head + this.size - index - 1);
+			this.messages = newMessages;
+			this.head = 0;
+			this.shared = false;
+		}
+		removed(message);
+		return true;
+	}
+
+	/**
+	 * Remove and return the first message.
+	 * @return the first message, or null if the group is empty.
+	 */
+	public synchronized Message<?> poll() {
+		if (this.size == 0) {
+			return null;
+		}
+		Message<?> message = this.messages[this.head];
+		removeHead();
+		removed(message);
+		return message;
+	}
+
+	public synchronized void clear() {
+		this.messages = NO_MESSAGES;
+		this.head = 0;
+		this.shared = false;
+		this.sequenceNumbers = null;
+		this.sparseSequenceNumbers = null;
+		this.duplicateSequenceNumbers = false;
+		this.size = 0;
+	}
+
+	@Override
+	public synchronized Collection<Message<?>> getMessages() {
+		if (this.size > 0) {
+			this.shared = true;
+		}
+		return new Snapshot(this.messages, this.head, this.size);
+	}
+
+	@Override
+	public synchronized Message<?> getOne() {
+		return this.size > 0 ? this.messages[this.head] : null;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public int getSequenceSize() {
+		Message<?> one = getOne();
+		if (one == null) {
+			return 0;
+		}
+		Integer sequenceSize = one.getHeaders().get(IntegrationMessageHeaderAccessor.SEQUENCE_SIZE, Integer.class);
+		return sequenceSize != null ? sequenceSize : 0;
+	}
+
+	/**
+	 * @param sequenceNumber the sequence number.
+	 * @return true if the group contains a message with this sequence number.
+	 */
+	public synchronized boolean containsSequenceNumber(int sequenceNumber) {
+		if (sequenceNumber <= 0) {
+			return false;
+		}
+		return (this.sequenceNumbers != null && this.sequenceNumbers.get(sequenceNumber))
+				|| (this.sparseSequenceNumbers != null && this.sparseSequenceNumbers.contains(sequenceNumber));
+	}
+
+	@Override
+	public Object getGroupId() {
+		return this.groupId;
+	}
+
+	@Override
+	public int getLastReleasedMessageSequenceNumber() {
+		return this.lastReleasedMessageSequence;
+	}
+
+	public void setLastReleasedMessageSequenceNumber(int sequenceNumber) {
+		this.lastReleasedMessageSequence = sequenceNumber;
+	}
+
+	@Override
+	public boolean isComplete() {
+		return this.complete;
+	}
+
+	@Override
+	public void complete() {
+		this.complete = true;
+	}
+
+	@Override
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	public void setLastModified(long lastModified) {
+		this.lastModified = lastModified;
+	}
+
+	@Override
+	public long getLastModified() {
+		return this.lastModified;
+	}
+
+	private int indexOf(Message<?> message) {
+		int tail = this.head + this.size;
+		for (int i = this.head; i < tail; i++) {
+			if (this.messages[i] == message) {
+				return i;
+			}
+		}
+		for (int i = this.head; i < tail; i++) {
+			if (ObjectUtils.nullSafeEquals(this.messages[i], message)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Drop the first message from the array: clear its slot or, if a snapshot may still
+	 * cover it, move the remaining messages to a new array.
+	 */
+	private void removeHead() {
+		if (this.shared) {
+			int remaining = this.size - 1;
+			Message<?>[] newMessages = remaining == 0 ? NO_MESSAGES
+					: new Message<?>[Math.max(MIN_CAPACITY, remaining)];
+			System.arraycopy(this.messages, this.head + 1, newMessages, 0, remaining);
+			this.messages = newMessages;
+			this.head = 0;
+			this.shared = false;
+		}
+		else {
+			this.messages[this.head++] = null;
+		}
+	}
+
+	private void addSequenceNumber(int sequenceNumber, Message<?> message) {
+		Integer sequenceSize = message.getHeaders().get(IntegrationMessageHeaderAccessor.SEQUENCE_SIZE,
+				Integer.class);
+		int bound = Math.max(MAX_UNSIZED_SEQUENCE_NUMBER, sequenceSize != null ? sequenceSize : 0);
+		if (sequenceNumber <= bound) {
+			if (this.sequenceNumbers == null) {
+				this.sequenceNumbers = new BitSet();
+			}
+			this.sequenceNumbers.set(sequenceNumber);
+		}
+		else {
+			if (this.sparseSequenceNumbers == null) {
+				this.sparseSequenceNumbers = new HashSet<Integer>();
+			}
+			this.sparseSequenceNumbers.add(sequenceNumber);
+		}
+	}
+
+	private void removed(Message<?> message) {
+		this.size--;
+		if (this.size == 0) {
+			this.messages = NO_MESSAGES;
+			this.head = 0;
+			this.shared = false;
+			this.sequenceNumbers = null;
+			this.sparseSequenceNumbers = null;
+			this.duplicateSequenceNumbers = false;
+			return;
+		}
+		int sequenceNumber = sequenceNumber(message);
+		if (sequenceNumber > 0) {
+			if (this.duplicateSequenceNumbers) {
+				int tail = this.head + this.size;
+				for (int i = this.head; i < tail; i++) {
+					if (sequenceNumber(this.messages[i]) == sequenceNumber) {
+						return;
+					}
+				}
+			}
+			if (this.sequenceNumbers != null) {
+				this.sequenceNumbers.clear(sequenceNumber);
+			}
+			if (this.sparseSequenceNumbers != null) {
+				this.sparseSequenceNumbers.remove(sequenceNumber);
+			}
+		}
+	}
+
+	private static int sequenceNumber(Message<?> message) {
+		Integer sequenceNumber = message.getHeaders().get(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER,
+				Integer.class);
+		return sequenceNumber != null ? sequenceNumber : 0;
+	}
+
+	@Override
+	public String toString() {
+		return "CompactMessageGroup{" +
+				"groupId=" + this.groupId +
+				", messages=" + getMessages() +
+				", timestamp=" + this.timestamp +
+				", lastModified=" + this.lastModified +
+				'}';
+	}
+
+
+	/**
+	 * An immutable view of a range of the message array.
+	 */
+	private static final class Snapshot extends AbstractList<Message<?>> implements RandomAccess {
+
+		private final Message<?>[] messages;
+
+		private final int offset;
+
+		private final int size;
+
+		private Snapshot(Message<?>[] messages, int offset, int size) {
+			this.messages = messages;
+			this.offset = offset;
+			this.size = size;
+		}
+
+		@Override
+		public Message<?> get(int index) {
+			if (index < 0 || index >= this.size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+			}
+			return this.messages[this.offset + index];
+		}
+
+		@Override
+		public int size() {
+			return this.size;
+		}
+
+	}
+
+}
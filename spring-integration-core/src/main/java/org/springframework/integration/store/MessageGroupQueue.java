@@ -200,10 +200,10 @@ public class MessageGroupQueue extends AbstractQueue<Message<?>> implements Bloc
 		try {
 			storeLock.lockInterruptibly();
 			try {
-				Message<?> message = this.messageGroupStore.pollMessageFromGroup(groupId);
-				for (int i = 0; i < maxElements && message != null; i++) {
+				Message<?> message = null;
+				for (int i = 0; i < maxElements
+						&& (message = this.messageGroupStore.pollMessageFromGroup(groupId)) != null; i++) {
 					list.add(message);
-					message = this.messageGroupStore.pollMessageFromGroup(groupId);
 				}
 				this.messageStoreNotFull.signal();
 			}
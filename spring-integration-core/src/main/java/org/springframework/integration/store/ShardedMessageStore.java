@@ -0,0 +1,379 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.integration.util.UpperBound;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.util.Assert;
+
+/**
+ * In-memory implementation of {@link MessageStore} and {@link MessageGroupStore} for a
+ * large number of concurrently open groups, e.g. for aggregators and resequencers with
+ * a high correlation key cardinality.
+ * <p>
+ * Unlike the {@link SimpleMessageStore}, which keeps all groups in one map and guards
+ * them with the locks of a {@link org.springframework.integration.support.locks.LockRegistry},
+ * this store partitions groups and messages by key into independent shards; each shard
+ * is a plain map guarded by its own monitor, so an operation takes a single lock and no
+ * lock objects are created per key. Groups are {@link CompactMessageGroup}s, so
+ * {@link #messageGroupSize(Object)}, {@link #getOneMessageFromGroup(Object)} and
+ * {@link #pollMessageFromGroup(Object)} are constant time.
+ * <p>
+ * By default, the number of shards is four times the number of available processors
+ * (at least 16), rounded up to a power of two. As with the {@link SimpleMessageStore},
+ * optional capacities limit the number of individual and grouped messages.
+ * {@link #getMessageGroup(Object)} returns the live group. Groups are kept in creation
+ * order, so that {@link #expireMessageGroups(long)} (e.g. by a
+ * {@link MessageGroupStoreReaper}) only visits the expired groups, unless the store
+ * {@link #setTimeoutOnIdle(boolean) times out on idle}.
+ *
+ * @since 4.2
+ */
+public class ShardedMessageStore extends AbstractMessageGroupStore
+		implements MessageStore, ChannelMessageStore {
+
+	private static final int DEFAULT_SHARDS = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+
+	private final Shard[] shards;
+
+	private final int mask;
+
+	private final UpperBound individualUpperBound;
+
+	private final UpperBound groupUpperBound;
+
+	/**
+	 * Create a store with unlimited capacity and the default number of shards.
+	 */
+	public ShardedMessageStore() {
+		this(0);
+	}
+
+	/**
+	 * Create a store with the same capacity for individual and grouped messages.
+	 * @param capacity The capacity; unlimited if less than 1.
+	 */
+	public ShardedMessageStore(int capacity) {
+		this(capacity, capacity);
+	}
+
+	/**
+	 * Create a store with the given capacities and the default number of shards.
+	 * @param individualCapacity The message capacity; unlimited if less than 1.
+	 * @param groupCapacity The capacity for grouped messages; unlimited if less than 1.
+	 * @see SimpleMessageStore#SimpleMessageStore(int, int)
+	 */
+	public ShardedMessageStore(int individualCapacity, int groupCapacity) {
+		this(individualCapacity, groupCapacity, DEFAULT_SHARDS);
+	}
+
+	/**
+	 * Create a store with the given capacities and number of shards.
+	 * @param individualCapacity The message capacity; unlimited if less than 1.
+	 * @param groupCapacity The capacity for grouped messages; unlimited if less than 1.
+	 * @param shards The number of shards; rounded up to a power of two.
+	 */
+	public ShardedMessageStore(int individualCapacity, int groupCapacity, int shards) {
+		Assert.isTrue(shards > 0 && shards <= 1 << 16, "'shards' must be between 1 and 65536");
+		int size = shards == 1 ? 1 : Integer.highestOneBit(shards - 1) << 1;
+		this.shards = new Shard[size];
+		for (int i = 0; i < size; i++) {
+			this.shards[i] = new Shard();
+		}
+		this.mask = size - 1;
+		this.individualUpperBound = new UpperBound(individualCapacity);
+		this.groupUpperBound = new UpperBound(groupCapacity);
+	}
+
+	/**
+	 * @return the number of shards.
+	 */
+	public int getShardCount() {
+		return this.shards.length;
+	}
+
+	@Override
+	@ManagedAttribute
+	public long getMessageCount() {
+		long count = 0;
+		for (Shard shard : this.shards) {
+			synchronized (shard) {
+				count += shard.messages.size();
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public <T> Message<T> addMessage(Message<T> message) {
+		if (!this.individualUpperBound.tryAcquire(0)) {
+			throw new MessagingException(this.getClass().getSimpleName()
+					+ " was out of capacity at, try constructing it with a larger capacity.");
+		}
+		UUID id = message.getHeaders().getId();
+		Shard shard = shardFor(id);
+		Message<?> previous;
+		synchronized (shard) {
+			previous = shard.messages.put(id, message);
+		}
+		if (previous != null) {
+			this.individualUpperBound.release();
+		}
+		return message;
+	}
+
+	@Override
+	public Message<?> getMessage(UUID key) {
+		if (key == null) {
+			return null;
+		}
+		Shard shard = shardFor(key);
+		synchronized (shard) {
+			return shard.messages.get(key);
+		}
+	}
+
+	@Override
+	public Message<?> removeMessage(UUID key) {
+		if (key == null) {
+			return null;
+		}
+		Shard shard = shardFor(key);
+		Message<?> removed;
+		synchronized (shard) {
+			removed = shard.messages.remove(key);
+		}
+		if (removed != null) {
+			this.individualUpperBound.release();
+		}
+		return removed;
+	}
+
+	@Override
+	public MessageGroup getMessageGroup(Object groupId) {
+		Assert.notNull(groupId, "'groupId' must not be null");
+		Shard shard = shardFor(groupId);
+		CompactMessageGroup group;
+		synchronized (shard) {
+			group = shard.groups.get(groupId);
+		}
+		return group != null ? group : new CompactMessageGroup(groupId);
+	}
+
+	@Override
+	protected MessageGroup copy(MessageGroup group) {
+		return new CompactMessageGroup(group);
+	}
+
+	@Override
+	public MessageGroup addMessageToGroup(Object groupId, Message<?> message) {
+		if (!this.groupUpperBound.tryAcquire(0)) {
+			throw new MessagingException(this.getClass().getSimpleName()
+					+ " was out of capacity at, try constructing it with a larger capacity.");
+		}
+		Shard shard = shardFor(groupId);
+		synchronized (shard) {
+			CompactMessageGroup group = shard.groups.get(groupId);
+			if (group == null) {
+				group = new CompactMessageGroup(groupId);
+				shard.groups.put(groupId, group);
+			}
+			group.add(message);
+			group.setLastModified(System.currentTimeMillis());
+			return group;
+		}
+	}
+
+	@Override
+	public void removeMessageGroup(Object groupId) {
+		Shard shard = shardFor(groupId);
+		CompactMessageGroup group;
+		synchronized (shard) {
+			group = shard.groups.remove(groupId);
+		}
+		if (group != null) {
+			this.groupUpperBound.release(group.size());
+		}
+	}
+
+	@Override
+	public MessageGroup removeMessageFromGroup(Object groupId, Message<?> messageToRemove) {
+		Shard shard = shardFor(groupId);
+		synchronized (shard) {
+			CompactMessageGroup group = getExistingGroup(shard, groupId, "remove Message from the MessageGroup");
+			if (group.remove(messageToRemove)) {
+				this.groupUpperBound.release();
+			}
+			group.setLastModified(System.currentTimeMillis());
+			return group;
+		}
+	}
+
+	/**
+	 * Remove the message from the group if it is present.
+	 * @param groupId The group id.
+	 * @param messageToRemove The message to remove.
+	 * @return true if the message was present (and so removed by this call).
+	 */
+	public boolean removeMessageFromGroupIfPresent(Object groupId, Message<?> messageToRemove) {
+		Shard shard = shardFor(groupId);
+		synchronized (shard) {
+			CompactMessageGroup group = shard.groups.get(groupId);
+			if (group != null && group.remove(messageToRemove)) {
+				this.groupUpperBound.release();
+				group.setLastModified(System.currentTimeMillis());
+				return true;
+			}
+			return false;
+		}
+	}
+
+	@Override
+	public Iterator<MessageGroup> iterator() {
+		List<MessageGroup> groups = new ArrayList<MessageGroup>();
+		for (Shard shard : this.shards) {
+			synchronized (shard) {
+				groups.addAll(shard.groups.values());
+			}
+		}
+		return groups.iterator();
+	}
+
+	/**
+	 * Groups are kept in creation order within each shard, so unless the store times
+	 * out on idle, only the groups created at or before the threshold are visited.
+	 */
+	@Override
+	protected Iterable<MessageGroup> getExpiryCandidates(long threshold) {
+		if (isTimeoutOnIdle()) {
+			return this;
+		}
+		List<MessageGroup> candidates = new ArrayList<MessageGroup>();
+		for (Shard shard : this.shards) {
+			synchronized (shard) {
+				for (CompactMessageGroup group : shard.groups.values()) {
+					if (group.getTimestamp() > threshold) {
+						break;
+					}
+					candidates.add(group);
+				}
+			}
+		}
+		return candidates;
+	}
+
+	@Override
+	@ManagedAttribute
+	public int getMessageGroupCount() {
+		int count = 0;
+		for (Shard shard : this.shards) {
+			synchronized (shard) {
+				count += shard.groups.size();
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public void setLastReleasedSequenceNumberForGroup(Object groupId, int sequenceNumber) {
+		Shard shard = shardFor(groupId);
+		synchronized (shard) {
+			CompactMessageGroup group = getExistingGroup(shard, groupId, "set 'lastReleasedSequenceNumber'");
+			group.setLastReleasedMessageSequenceNumber(sequenceNumber);
+			group.setLastModified(System.currentTimeMillis());
+		}
+	}
+
+	@Override
+	public void completeGroup(Object groupId) {
+		Shard shard = shardFor(groupId);
+		synchronized (shard) {
+			CompactMessageGroup group = getExistingGroup(shard, groupId, "complete the MessageGroup");
+			group.complete();
+			group.setLastModified(System.currentTimeMillis());
+		}
+	}
+
+	@Override
+	public Message<?> pollMessageFromGroup(Object groupId) {
+		Shard shard = shardFor(groupId);
+		synchronized (shard) {
+			CompactMessageGroup group = shard.groups.get(groupId);
+			if (group == null) {
+				return null;
+			}
+			Message<?> message = group.poll();
+			if (message != null) {
+				this.groupUpperBound.release();
+				group.setLastModified(System.currentTimeMillis());
+			}
+			return message;
+		}
+	}
+
+	@Override
+	public int messageGroupSize(Object groupId) {
+		return this.getMessageGroup(groupId).size();
+	}
+
+	@Override
+	public MessageGroupMetadata getGroupMetadata(Object groupId) {
+		return new MessageGroupMetadata(this.getMessageGroup(groupId));
+	}
+
+	@Override
+	public Message<?> getOneMessageFromGroup(Object groupId) {
+		return this.getMessageGroup(groupId).getOne();
+	}
+
+	private CompactMessageGroup getExistingGroup(Shard shard, Object groupId, String operation) {
+		CompactMessageGroup group = shard.groups.get(groupId);
+		Assert.notNull(group, "MessageGroup for groupId '" + groupId + "' " +
+				"can not be located while attempting to " + operation);
+		return group;
+	}
+
+	private Shard shardFor(Object key) {
+		int hash = key.hashCode();
+		hash ^= hash >>> 16;
+		hash *= 0x9E3779B9;
+		return this.shards[(hash ^ (hash >>> 16)) & this.mask];
+	}
+
+
+	private static final class Shard {
+
+		/**
+		 * In creation order (groups are created under the shard's monitor).
+		 */
+		private final Map<Object, CompactMessageGroup> groups = new LinkedHashMap<Object, CompactMessageGroup>();
+
+		private final Map<UUID, Message<?>> messages = new HashMap<UUID, Message<?>>();
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2013 the original author or authors.
+ * Copyright 2013-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,11 @@
 
 package org.springframework.integration.support;
 
+import java.lang.management.ManagementFactory;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.springframework.util.Assert;
 import org.springframework.util.IdGenerator;
 
 
@@ -64,4 +66,77 @@ public class IdGenerators {
         }
 
     }
+
+	/**
+	 * Generates unique ids without random numbers or contended state: the most
+	 * significant bits are a 24-bit node id and the (40 least significant bits of the)
+	 * time in milliseconds when the generator was created; the least significant bits
+	 * are a sequence number. Each thread reserves blocks of 2^20 sequence numbers from a
+	 * shared counter and increments a thread-local counter within its block.
+	 * <p>
+	 * Ids are unique across nodes with different node ids and across restarts (that are
+	 * at least one millisecond apart) of the same node. By default, the node id is derived
+	 * from the host name and process id; declare the generator with an explicit node id
+	 * to guarantee uniqueness across a cluster.
+	 *
+	 * @since 4.2
+	 */
+	public static class NodeSequenceIdGenerator implements IdGenerator {
+
+		private static final int NODE_ID_BITS = 24;
+
+		private static final int TIME_BITS = 40;
+
+		private static final int BLOCK_BITS = 20;
+
+		private final long mostSigBits;
+
+		private final AtomicLong blocks = new AtomicLong();
+
+		private final ThreadLocal<long[]> sequence = new ThreadLocal<long[]>() {
+
+			@Override
+			protected long[] initialValue() {
+				return new long[2];
+			}
+
+		};
+
+		/**
+		 * Create a generator with a node id derived from the host name and process id.
+		 */
+		public NodeSequenceIdGenerator() {
+			this(defaultNodeId());
+		}
+
+		/**
+		 * Create a generator with the given node id.
+		 * @param nodeId the node id; between 0 and 2^24 - 1.
+		 */
+		public NodeSequenceIdGenerator(int nodeId) {
+			Assert.isTrue(nodeId >= 0 && nodeId < 1 << NODE_ID_BITS, "'nodeId' must be between 0 and 2^24 - 1");
+			this.mostSigBits = ((long) nodeId << TIME_BITS)
+					| (System.currentTimeMillis() & ((1L << TIME_BITS) - 1));
+		}
+
+		@Override
+		public UUID generateId() {
+			long[] sequence = this.sequence.get();
+			long next = sequence[0];
+			if (next == sequence[1]) {
+				next = this.blocks.getAndIncrement() << BLOCK_BITS;
+				sequence[1] = next + (1L << BLOCK_BITS);
+			}
+			sequence[0] = next + 1;
+			return new UUID(this.mostSigBits, next);
+		}
+
+		private static int defaultNodeId() {
+			int hash = ManagementFactory.getRuntimeMXBean().getName().hashCode();
+			hash ^= hash >>> NODE_ID_BITS;
+			return hash & ((1 << NODE_ID_BITS) - 1);
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,12 @@
 
 package org.springframework.integration.support;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.messaging.Message;
@@ -27,11 +30,18 @@ import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.ErrorMessage;
 import org.springframework.messaging.support.GenericMessage;
 import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.PatternMatchUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * The default message builder; creates immutable {@link GenericMessage}s.
  * Named MessageBuilder instead of DefaultMessageBuilder for backwards
  * compatibility.
+ * <p>
+ * Since 4.2, a message built {@link #fromMessage(Message) from another message} does
+ * not copy the headers of that message; its headers only hold the headers that were
+ * changed, and share the remaining ones with the original message.
  *
  * @author Arjen Poutsma
  * @author Mark Fisher
@@ -41,14 +51,24 @@ import org.springframework.util.Assert;
  */
 public final class MessageBuilder<T> extends AbstractIntegrationMessageBuilder<T> {
 
-	private final T payload;
+	private static final HeaderValidator headerValidator = new HeaderValidator();
 
-	private final IntegrationMessageHeaderAccessor headerAccessor;
+	private final T payload;
 
 	private final Message<T> originalMessage;
 
+	private final MessageHeaders originalHeaders;
+
+	/*
+	 * All headers when there is no original message; otherwise the headers changed from
+	 * those of the original message, with removed headers mapped to OverlayMessageHeaders.REMOVED.
+	 */
+	private final Map<String, Object> headers = new HashMap<String, Object>();
+
 	private volatile boolean modified;
 
+	private volatile boolean headersModified;
+
 	/**
 	 * Private constructor to be invoked from the static factory methods only.
 	 */
@@ -56,10 +76,13 @@ public final class MessageBuilder<T> extends AbstractIntegrationMessageBuilder<T
 		Assert.notNull(payload, "payload must not be null");
 		this.payload = payload;
 		this.originalMessage = originalMessage;
-		this.headerAccessor = new IntegrationMessageHeaderAccessor(originalMessage);
 		if (originalMessage != null) {
+			this.originalHeaders = originalMessage.getHeaders();
 			this.modified = (!this.payload.equals(originalMessage.getPayload()));
 		}
+		else {
+			this.originalHeaders = null;
+		}
 	}
 
 	/**
@@ -97,7 +120,19 @@ public final class MessageBuilder<T> extends AbstractIntegrationMessageBuilder<T
 	 */
 	@Override
 	public MessageBuilder<T> setHeader(String headerName, Object headerValue) {
-		this.headerAccessor.setHeader(headerName,  headerValue);
+		headerValidator.validate(headerName, headerValue);
+		if (!ObjectUtils.nullSafeEquals(headerValue, getHeader(headerName))) {
+			this.headersModified = true;
+			if (headerValue != null) {
+				this.headers.put(headerName, headerValue);
+			}
+			else if (this.originalHeaders != null && this.originalHeaders.containsKey(headerName)) {
+				this.headers.put(headerName, OverlayMessageHeaders.REMOVED);
+			}
+			else {
+				this.headers.remove(headerName);
+			}
+		}
 		return this;
 	}
 
@@ -110,7 +145,9 @@ public final class MessageBuilder<T> extends AbstractIntegrationMessageBuilder<T
 	 */
 	@Override
 	public MessageBuilder<T> setHeaderIfAbsent(String headerName, Object headerValue) {
-		this.headerAccessor.setHeaderIfAbsent(headerName, headerValue);
+		if (getHeader(headerName) == null) {
+			setHeader(headerName, headerValue);
+		}
 		return this;
 	}
 
@@ -124,7 +161,23 @@ public final class MessageBuilder<T> extends AbstractIntegrationMessageBuilder<T
 	 */
 	@Override
 	public MessageBuilder<T> removeHeaders(String... headerPatterns) {
-		this.headerAccessor.removeHeaders(headerPatterns);
+		List<String> headersToRemove = new ArrayList<String>();
+		for (String pattern : headerPatterns) {
+			if (StringUtils.hasLength(pattern)) {
+				if (pattern.contains("*")) {
+					addMatchingHeaderNames(pattern, this.headers.keySet(), headersToRemove);
+					if (this.originalHeaders != null) {
+						addMatchingHeaderNames(pattern, this.originalHeaders.keySet(), headersToRemove);
+					}
+				}
+				else {
+					headersToRemove.add(pattern);
+				}
+			}
+		}
+		for (String headerToRemove : headersToRemove) {
+			removeHeader(headerToRemove);
+		}
 		return this;
 	}
 	/**
@@ -134,7 +187,9 @@ public final class MessageBuilder<T> extends AbstractIntegrationMessageBuilder<T
 	 */
 	@Override
 	public MessageBuilder<T> removeHeader(String headerName) {
-		this.headerAccessor.removeHeader(headerName);
+		if (StringUtils.hasLength(headerName) && !headerValidator.isReadOnly(headerName)) {
+			setHeader(headerName, null);
+		}
 		return this;
 	}
 
@@ -151,7 +206,13 @@ public final class MessageBuilder<T> extends AbstractIntegrationMessageBuilder<T
 	 */
 	@Override
 	public MessageBuilder<T> copyHeaders(Map<String, ?> headersToCopy) {
-		this.headerAccessor.copyHeaders(headersToCopy);
+		if (headersToCopy != null) {
+			for (Map.Entry<String, ?> entry : headersToCopy.entrySet()) {
+				if (!headerValidator.isReadOnly(entry.getKey())) {
+					setHeader(entry.getKey(), entry.getValue());
+				}
+			}
+		}
 		return this;
 	}
 
@@ -163,29 +224,70 @@ public final class MessageBuilder<T> extends AbstractIntegrationMessageBuilder<T
 	 */
 	@Override
 	public MessageBuilder<T> copyHeadersIfAbsent(Map<String, ?> headersToCopy) {
-		this.headerAccessor.copyHeadersIfAbsent(headersToCopy);
+		if (headersToCopy != null) {
+			for (Map.Entry<String, ?> entry : headersToCopy.entrySet()) {
+				if (!headerValidator.isReadOnly(entry.getKey())) {
+					setHeaderIfAbsent(entry.getKey(), entry.getValue());
+				}
+			}
+		}
 		return this;
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	protected List<List<Object>> getSequenceDetails() {
-		return (List<List<Object>>) this.headerAccessor.getHeader(IntegrationMessageHeaderAccessor.SEQUENCE_DETAILS);
+		return (List<List<Object>>) getHeader(IntegrationMessageHeaderAccessor.SEQUENCE_DETAILS);
 	}
 
 	@Override
 	protected Object getCorrelationId() {
-		return this.headerAccessor.getCorrelationId();
+		return getHeader(IntegrationMessageHeaderAccessor.CORRELATION_ID);
 	}
 
 	@Override
 	protected Object getSequenceNumber() {
-		return this.headerAccessor.getSequenceNumber();
+		Integer sequenceNumber = getHeader(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER, Integer.class);
+		return (sequenceNumber != null ? sequenceNumber : 0);
 	}
 
 	@Override
 	protected Object getSequenceSize() {
-		return this.headerAccessor.getSequenceSize();
+		Integer sequenceSize = getHeader(IntegrationMessageHeaderAccessor.SEQUENCE_SIZE, Integer.class);
+		return (sequenceSize != null ? sequenceSize : 0);
+	}
+
+	/*
+	 * As with a header accessor, the id and timestamp of the original message are not
+	 * carried over.
+	 */
+	private Object getHeader(String headerName) {
+		Object value = this.headers.get(headerName);
+		if (value == null && this.originalHeaders != null && !headerValidator.isReadOnly(headerName)) {
+			return this.originalHeaders.get(headerName);
+		}
+		return value != OverlayMessageHeaders.REMOVED ? value : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <V> V getHeader(String headerName, Class<V> type) {
+		Object value = getHeader(headerName);
+		if (value == null) {
+			return null;
+		}
+		if (!type.isAssignableFrom(value.getClass())) {
+			throw new IllegalArgumentException("Incorrect type specified for header '" + headerName
+					+ "'. Expected [" + type + "] but actual type is [" + value.getClass() + "]");
+		}
+		return (V) value;
+	}
+
+	private static void addMatchingHeaderNames(String pattern, Set<String> headerNames, List<String> matches) {
+		for (String headerName : headerNames) {
+			if (PatternMatchUtils.simpleMatch(pattern, headerName)) {
+				matches.add(headerName);
+			}
+		}
 	}
 
 	/*
@@ -268,13 +370,40 @@ public final class MessageBuilder<T> extends AbstractIntegrationMessageBuilder<T
 	@Override
 	@SuppressWarnings("unchecked")
 	public Message<T> build() {
-		if (!this.modified && !this.headerAccessor.isModified() && this.originalMessage != null) {
+		if (!this.modified && !this.headersModified && this.originalMessage != null) {
 			return this.originalMessage;
 		}
+		MessageHeaders messageHeaders = this.originalHeaders != null
+				? OverlayMessageHeaders.create(this.originalHeaders, this.headers)
+				: new MessageHeaders(this.headers);
 		if (this.payload instanceof Throwable) {
-			return (Message<T>) new ErrorMessage((Throwable) this.payload, this.headerAccessor.toMap());
+			return (Message<T>) new ErrorMessage((Throwable) this.payload, messageHeaders);
+		}
+		return new GenericMessage<T>(this.payload, messageHeaders);
+	}
+
+
+	/**
+	 * Exposes the read-only and type checks of the {@link IntegrationMessageHeaderAccessor}.
+	 */
+	private static final class HeaderValidator extends IntegrationMessageHeaderAccessor {
+
+		private HeaderValidator() {
+			super(null);
 		}
-		return new GenericMessage<T>(this.payload, this.headerAccessor.toMap());
+
+		private void validate(String headerName, Object headerValue) {
+			if (isReadOnly(headerName)) {
+				throw new IllegalArgumentException("'" + headerName + "' header is read-only");
+			}
+			verifyType(headerName, headerValue);
+		}
+
+		@Override
+		protected boolean isReadOnly(String headerName) {
+			return super.isReadOnly(headerName);
+		}
+
 	}
 
 }
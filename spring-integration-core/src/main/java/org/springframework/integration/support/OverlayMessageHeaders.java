@@ -0,0 +1,420 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * Immutable {@link MessageHeaders} of a message derived from another one, sharing the
+ * headers of the original message instead of copying them: only the headers that were
+ * added, changed or removed are held by this object; all others are read from the
+ * original (base) headers. Like any new {@link MessageHeaders}, it has its own id and
+ * timestamp.
+ * <p>
+ * Deriving from an {@code OverlayMessageHeaders} merges the changes with its own, so
+ * lookups never go through more than one level. When the changes grow beyond a quarter
+ * of the base headers, or when the base is small or not a plain (immutable)
+ * {@link MessageHeaders}, {@link #create(MessageHeaders, Map)} copies the headers into
+ * a plain {@link MessageHeaders} instead.
+ * <p>
+ * Note that {@link MessageHeaders#equals(Object)} compares the internal maps of
+ * both objects, so a plain {@link MessageHeaders} never equals an
+ * {@code OverlayMessageHeaders}. To keep equality symmetric, an
+ * {@code OverlayMessageHeaders} is therefore only equal to another
+ * {@code OverlayMessageHeaders} with the same effective headers (such as a deserialized
+ * copy). Since every {@link MessageHeaders} has its own id, this only matters for copies.
+ *
+ * @since 4.2
+ */
+final class OverlayMessageHeaders extends MessageHeaders {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The value marking a header of the base headers as removed.
+	 */
+	static final Object REMOVED = new Object();
+
+	private static final int MIN_SHARED_SIZE = 8;
+
+	private final MessageHeaders base;
+
+	private final Map<String, Object> changes;
+
+	private final UUID id;
+
+	private final Long timestamp;
+
+	private final int size;
+
+	private transient Map<String, Object> view;
+
+	private OverlayMessageHeaders(MessageHeaders base, Map<String, Object> changes, UUID id, Long timestamp) {
+		super(null, ID_VALUE_NONE, -1L);
+		this.base = base;
+		this.changes = changes;
+		this.id = id;
+		this.timestamp = timestamp;
+		int size = base.size() + 2;
+		if (base.containsKey(ID)) {
+			size--;
+		}
+		if (base.containsKey(TIMESTAMP)) {
+			size--;
+		}
+		for (Map.Entry<String, Object> entry : changes.entrySet()) {
+			boolean inBase = base.containsKey(entry.getKey());
+			if (entry.getValue() == REMOVED) {
+				if (inBase) {
+					size--;
+				}
+			}
+			else if (!inBase) {
+				size++;
+			}
+		}
+		this.size = size;
+	}
+
+	/**
+	 * Create the headers of a message derived from a message with the given headers.
+	 * @param headers the headers of the original message.
+	 * @param changes the added and changed headers, and the removed ones (mapped to
+	 * {@link #REMOVED}); must not contain the id or timestamp.
+	 * @return the new headers, with a new id and timestamp.
+	 */
+	static MessageHeaders create(MessageHeaders headers, Map<String, Object> changes) {
+		MessageHeaders base = headers;
+		Map<String, Object> merged;
+		if (headers instanceof OverlayMessageHeaders) {
+			OverlayMessageHeaders overlay = (OverlayMessageHeaders) headers;
+			base = overlay.base;
+			merged = new HashMap<String, Object>(overlay.changes);
+		}
+		else {
+			merged = new HashMap<String, Object>(changes.size());
+		}
+		for (Map.Entry<String, Object> entry : changes.entrySet()) {
+			String key = entry.getKey();
+			if (entry.getValue() == REMOVED && !base.containsKey(key)) {
+				merged.remove(key);
+			}
+			else {
+				merged.put(key, entry.getValue());
+			}
+		}
+		if (base.getClass() != MessageHeaders.class || base.size() < MIN_SHARED_SIZE
+				|| merged.size() > base.size() / 4) {
+			Map<String, Object> flat = new HashMap<String, Object>(base);
+			for (Map.Entry<String, Object> entry : merged.entrySet()) {
+				if (entry.getValue() == REMOVED) {
+					flat.remove(entry.getKey());
+				}
+				else {
+					flat.put(entry.getKey(), entry.getValue());
+				}
+			}
+			return new MessageHeaders(flat);
+		}
+		return new OverlayMessageHeaders(base, merged, getIdGenerator().generateId(), System.currentTimeMillis());
+	}
+
+	@Override
+	public UUID getId() {
+		return this.id;
+	}
+
+	@Override
+	public Long getTimestamp() {
+		return this.timestamp;
+	}
+
+	@Override
+	public Object getReplyChannel() {
+		return get(REPLY_CHANNEL);
+	}
+
+	@Override
+	public Object getErrorChannel() {
+		return get(ERROR_CHANNEL);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Class<T> type) {
+		Object value = get(key);
+		if (value == null) {
+			return null;
+		}
+		if (!type.isAssignableFrom(value.getClass())) {
+			throw new IllegalArgumentException("Incorrect type specified for header '" +
+					key + "'. Expected [" + type + "] but actual type is [" + value.getClass() + "]");
+		}
+		return (T) value;
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (ID.equals(key)) {
+			return this.id;
+		}
+		if (TIMESTAMP.equals(key)) {
+			return this.timestamp;
+		}
+		Object value = this.changes.get(key);
+		if (value == null) {
+			return this.base.get(key);
+		}
+		return value != REMOVED ? value : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (ID.equals(key) || TIMESTAMP.equals(key)) {
+			return true;
+		}
+		Object value = this.changes.get(key);
+		if (value == null) {
+			return this.base.containsKey(key);
+		}
+		return value != REMOVED;
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		return getView().containsValue(value);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return Collections.unmodifiableSet(getView().entrySet());
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return Collections.unmodifiableSet(getView().keySet());
+	}
+
+	@Override
+	public Collection<Object> values() {
+		return Collections.unmodifiableCollection(getView().values());
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return this == other || (other instanceof OverlayMessageHeaders
+				&& getView().equals(((OverlayMessageHeaders) other).getView()));
+	}
+
+	@Override
+	public int hashCode() {
+		return getView().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return getView().toString();
+	}
+
+	private Map<String, Object> getView() {
+		if (this.view == null) {
+			this.view = new View();
+		}
+		return this.view;
+	}
+
+	private Object writeReplace() {
+		return new SerializedForm(this);
+	}
+
+
+	/**
+	 * A read-only map over the effective headers; iterates over the id and timestamp,
+	 * the unchanged base headers and the changed headers, without copying.
+	 */
+	private final class View extends AbstractMap<String, Object> {
+
+		private final Set<Map.Entry<String, Object>> entries = new AbstractSet<Map.Entry<String, Object>>() {
+
+			@Override
+			public Iterator<Map.Entry<String, Object>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return OverlayMessageHeaders.this.size;
+			}
+
+		};
+
+		@Override
+		public Set<Map.Entry<String, Object>> entrySet() {
+			return this.entries;
+		}
+
+		@Override
+		public Object get(Object key) {
+			return OverlayMessageHeaders.this.get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return OverlayMessageHeaders.this.containsKey(key);
+		}
+
+		@Override
+		public int size() {
+			return OverlayMessageHeaders.this.size;
+		}
+
+	}
+
+
+	private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+		private final Iterator<Map.Entry<String, Object>> baseEntries = OverlayMessageHeaders.this.base.entrySet()
+				.iterator();
+
+		private final Iterator<Map.Entry<String, Object>> changedEntries = OverlayMessageHeaders.this.changes
+				.entrySet().iterator();
+
+		private int fixedEntries;
+
+		private Map.Entry<String, Object> next = advance();
+
+		@Override
+		public boolean hasNext() {
+			return this.next != null;
+		}
+
+		@Override
+		public Map.Entry<String, Object> next() {
+			Map.Entry<String, Object> next = this.next;
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			this.next = advance();
+			return next;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("MessageHeaders is immutable");
+		}
+
+		private Map.Entry<String, Object> advance() {
+			if (this.fixedEntries == 0) {
+				this.fixedEntries++;
+				return new AbstractMap.SimpleImmutableEntry<String, Object>(ID, OverlayMessageHeaders.this.id);
+			}
+			if (this.fixedEntries == 1) {
+				this.fixedEntries++;
+				return new AbstractMap.SimpleImmutableEntry<String, Object>(TIMESTAMP,
+						OverlayMessageHeaders.this.timestamp);
+			}
+			while (this.baseEntries.hasNext()) {
+				Map.Entry<String, Object> entry = this.baseEntries.next();
+				String key = entry.getKey();
+				if (!ID.equals(key) && !TIMESTAMP.equals(key)
+						&& !OverlayMessageHeaders.this.changes.containsKey(key)) {
+					return entry;
+				}
+			}
+			while (this.changedEntries.hasNext()) {
+				Map.Entry<String, Object> entry = this.changedEntries.next();
+				if (entry.getValue() != REMOVED) {
+					return entry;
+				}
+			}
+			return null;
+		}
+
+	}
+
+
+	/**
+	 * Serializes the effective headers with serializable values (as a plain
+	 * {@link MessageHeaders} would), and the original id and timestamp; no new id is
+	 * generated on either side.
+	 */
+	private static final class SerializedForm implements Serializable {
+
+		private static final long serialVersionUID = 2L;
+
+		private final HashMap<String, Object> headers = new HashMap<String, Object>();
+
+		private final UUID id;
+
+		private final Long timestamp;
+
+		private SerializedForm(OverlayMessageHeaders headers) {
+			for (Map.Entry<String, Object> entry : headers.entrySet()) {
+				String key = entry.getKey();
+				if (!ID.equals(key) && !TIMESTAMP.equals(key) && entry.getValue() instanceof Serializable) {
+					this.headers.put(key, entry.getValue());
+				}
+			}
+			this.id = headers.id;
+			this.timestamp = headers.timestamp;
+		}
+
+		private Object readResolve() {
+			return new OverlayMessageHeaders(new BaseHeaders(this.headers), Collections.<String, Object>emptyMap(),
+					this.id, this.timestamp);
+		}
+
+	}
+
+
+	/**
+	 * The base of deserialized headers: holds the headers without an id or timestamp of
+	 * its own.
+	 */
+	private static final class BaseHeaders extends MessageHeaders {
+
+		private static final long serialVersionUID = 1L;
+
+		private BaseHeaders(Map<String, Object> headers) {
+			super(headers, ID_VALUE_NONE, -1L);
+		}
+
+	}
+
+}
@@ -92,13 +92,17 @@ public class ExponentialMovingAverage {
 		count++;//NOSONAR - false positive, we're synchronized
 	}
 
-	private Statistics calc() {
+	Statistics calc() {
 		List<Double> copy;
 		long count;
 		synchronized (this) {
 			copy = new ArrayList<Double>(this.samples);
 			count = this.count;
 		}
+		return calc(copy, count);
+	}
+
+	Statistics calc(List<Double> copy, long count) {
 		double sum = 0;
 		double decay = 1 - 1. / this.window;
 		double sumSquares = 0;
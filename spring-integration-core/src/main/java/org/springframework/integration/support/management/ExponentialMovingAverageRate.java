@@ -115,13 +115,17 @@ public class ExponentialMovingAverageRate {
 		this.count++;//NOSONAR - false positive, we're synchronized
 	}
 
-	private Statistics calc() {
+	Statistics calc() {
 		List<Long> copy;
 		long count;
 		synchronized (this) {
 			copy = new ArrayList<Long>(this.times);
 			count = this.count;
 		}
+		return calc(copy, count);
+	}
+
+	Statistics calc(List<Long> copy, long count) {
 		ExponentialMovingAverage rates = new ExponentialMovingAverage(window);
 		double t0 = 0;
 		double sum = 0;
@@ -191,7 +195,7 @@ public class ExponentialMovingAverageRate {
 	 * @return the mean value
 	 */
 	public double getMean() {
-		long count = this.count;
+		long count = getCountLong();
 		count = count > this.retention ? this.retention : count;
 		if (count == 0) {
 			return 0;
@@ -202,7 +206,7 @@ public class ExponentialMovingAverageRate {
 		return count / (count / calc().getMean() + value);
 	}
 
-	private double lastTime() {
+	double lastTime() {
 		if (this.times.size() > 0) {
 			synchronized (this) {
 				return this.times.get(this.times.size() - 1) / this.factor;
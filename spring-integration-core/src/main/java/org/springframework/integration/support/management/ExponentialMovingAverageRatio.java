@@ -122,7 +122,7 @@ public class ExponentialMovingAverageRatio {
 		this.min = Double.MAX_VALUE;
 	}
 
-	private synchronized void append(int value, long t) {
+	synchronized void append(int value, long t) {
 		if (this.times.size() == this.retention) {
 			this.times.remove(0);
 			this.values.remove(0);
@@ -132,7 +132,7 @@ public class ExponentialMovingAverageRatio {
 		this.count++;//NOSONAR - false positive, we're synchronized
 	}
 
-	private Statistics calc() {
+	Statistics calc() {
 		List<Long> copyTimes;
 		List<Integer> copyValues;
 		long count;
@@ -141,6 +141,10 @@ public class ExponentialMovingAverageRatio {
 			copyValues = new ArrayList<Integer>(this.values);
 			count = this.count;
 		}
+		return calc(copyTimes, copyValues, count);
+	}
+
+	Statistics calc(List<Long> copyTimes, List<Integer> copyValues, long count) {
 		ExponentialMovingAverage cumulative = new ExponentialMovingAverage(window);
 		double t0 = 0;
 		double sum = 0;
@@ -210,7 +214,7 @@ public class ExponentialMovingAverageRatio {
 	 * @return the mean success rate
 	 */
 	public double getMean() {
-		if (this.count == 0) {
+		if (getCountLong() == 0) {
 			// Optimistic to start: success rate is 100%
 			return 1;
 		}
@@ -221,7 +225,7 @@ public class ExponentialMovingAverageRatio {
 		return alpha * mean + 1 - alpha;
 	}
 
-	private double lastTime() {
+	double lastTime() {
 		if (this.times.size() > 0) {
 			synchronized (this) {
 				return this.times.get(this.times.size() - 1);
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedMetric;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.support.MetricType;
+
+/**
+ * Implemented by components that can record the distribution of their durations (the
+ * send duration of a channel, the handle duration of a handler) in a
+ * {@link LatencyHistogram}. Recording is disabled by default and independent of
+ * {@link MetricsEnablement#enableStats(boolean)}.
+ *
+ * @since 4.2
+ *
+ */
+public interface HistogramMetrics {
+
+	@ManagedOperation(description = "Enable the duration histogram")
+	void enableHistogram(boolean histogramEnabled);
+
+	@ManagedAttribute
+	boolean isHistogramEnabled();
+
+	/**
+	 * @return the median duration (milliseconds), or 0 if the histogram is not enabled.
+	 */
+	@ManagedMetric(metricType = MetricType.GAUGE, displayName = "Median Duration in Milliseconds")
+	double getMedianDuration();
+
+	/**
+	 * @return the 99th percentile duration (milliseconds), or 0 if the histogram is not
+	 * enabled.
+	 */
+	@ManagedMetric(metricType = MetricType.GAUGE, displayName = "99th Percentile Duration in Milliseconds")
+	double getDuration99thPercentile();
+
+	/**
+	 * @return the 99.9th percentile duration (milliseconds), or 0 if the histogram is not
+	 * enabled.
+	 */
+	@ManagedMetric(metricType = MetricType.GAUGE, displayName = "99.9th Percentile Duration in Milliseconds")
+	double getDuration999thPercentile();
+
+	/**
+	 * @return the histogram, or null if it is not enabled.
+	 */
+	LatencyHistogram getDurationHistogram();
+
+}
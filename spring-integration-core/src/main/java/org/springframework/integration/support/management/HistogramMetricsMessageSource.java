@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.integration.endpoint.AbstractMessageSource;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link org.springframework.integration.core.MessageSource} that reports the
+ * percentiles of the {@link HistogramMetrics} components (channels and handlers) in the
+ * application context that have their histogram enabled, e.g. to ship them to a metrics
+ * system with an inbound channel adapter.
+ * <p>
+ * The payload maps each bean name to a map with the entries {@code count},
+ * {@code median}, {@code p99} and {@code p999} (milliseconds). When
+ * {@link #setIntervalHistograms(boolean) intervalHistograms} is true, each receive reports
+ * the durations recorded since the previous receive and resets the histograms; otherwise
+ * the cumulative histograms are reported. No message is produced if no histogram is
+ * enabled. The components are looked up on each receive, so components registered or
+ * initialized after the first receive are reported too.
+ *
+ * @since 4.2
+ */
+public class HistogramMetricsMessageSource extends AbstractMessageSource<Map<String, Map<String, Object>>> {
+
+	private volatile boolean intervalHistograms;
+
+	/**
+	 * Set to true to report (and reset) the durations recorded since the previous
+	 * receive, instead of the cumulative histograms.
+	 * @param intervalHistograms true for interval histograms.
+	 */
+	public void setIntervalHistograms(boolean intervalHistograms) {
+		this.intervalHistograms = intervalHistograms;
+	}
+
+	@Override
+	public String getComponentType() {
+		return "inbound-channel-adapter";
+	}
+
+	@Override
+	protected Object doReceive() {
+		Map<String, Map<String, Object>> percentiles = new LinkedHashMap<String, Map<String, Object>>();
+		for (Entry<String, HistogramMetrics> entry : getComponents().entrySet()) {
+			LatencyHistogram histogram = entry.getValue().getDurationHistogram();
+			if (histogram != null) {
+				if (this.intervalHistograms) {
+					histogram = histogram.copyAndReset();
+				}
+				Map<String, Object> values = new LinkedHashMap<String, Object>();
+				values.put("count", histogram.getCount());
+				values.put("median", histogram.getMedian());
+				values.put("p99", histogram.get99thPercentile());
+				values.put("p999", histogram.get999thPercentile());
+				percentiles.put(entry.getKey(), values);
+			}
+		}
+		return percentiles.isEmpty() ? null : percentiles;
+	}
+
+	private Map<String, HistogramMetrics> getComponents() {
+		BeanFactory beanFactory = getBeanFactory();
+		Assert.state(beanFactory instanceof ListableBeanFactory,
+				"A ListableBeanFactory is required to locate the components");
+		return ((ListableBeanFactory) beanFactory).getBeansOfType(HistogramMetrics.class, false, false);
+	}
+
+}
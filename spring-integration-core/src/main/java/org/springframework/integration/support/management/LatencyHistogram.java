@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations, from which percentiles (e.g. the 99th) can be
+ * retrieved; unlike the {@link ExponentialMovingAverage}, it retains the tail of the
+ * distribution.
+ * <p>
+ * As with an HDR histogram, the buckets are log-linear: durations below 128 nanoseconds
+ * are counted exactly and each higher power of two is divided into 64 buckets, so a
+ * reported percentile is within 1.6% of the recorded duration. Durations longer than
+ * about 73 minutes are counted in the last bucket. Recording a duration is a single
+ * atomic increment; percentiles are calculated when retrieved and reported in
+ * milliseconds.
+ *
+ * @since 4.2
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 7;
+
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+
+	private static final int MAX_EXPONENT = 41;
+
+	private static final long MAX_TRACKABLE_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+	private static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_VALUE) + 1;
+
+	private static final double NANOS_PER_MILLI = 1000000.;
+
+	private final AtomicLongArray counts;
+
+	public LatencyHistogram() {
+		this.counts = new AtomicLongArray(BUCKET_COUNT);
+	}
+
+	private LatencyHistogram(AtomicLongArray counts) {
+		this.counts = counts;
+	}
+
+	/**
+	 * Record a duration.
+	 * @param nanos the duration in nanoseconds.
+	 */
+	public void record(long nanos) {
+		this.counts.incrementAndGet(bucketIndex(nanos < 0 ? 0 : Math.min(nanos, MAX_TRACKABLE_VALUE)));
+	}
+
+	/**
+	 * @return the number of durations recorded.
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			count += this.counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Return the duration at or below which the given percentage of the recorded
+	 * durations fall.
+	 * @param percentile the percentile, between 0 and 100; e.g. {@code 99.9}.
+	 * @return the duration in milliseconds, or 0 if nothing has been recorded.
+	 */
+	public double getValueAtPercentile(double percentile) {
+		long[] snapshot = new long[BUCKET_COUNT];
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			snapshot[i] = this.counts.get(i);
+			count += snapshot[i];
+		}
+		if (count == 0) {
+			return 0;
+		}
+		double fraction = Math.min(Math.max(percentile, 0), 100) / 100;
+		long target = Math.max(1, (long) Math.ceil(fraction * count));
+		long cumulative = 0;
+		int index = 0;
+		for (; index < BUCKET_COUNT - 1; index++) {
+			cumulative += snapshot[index];
+			if (cumulative >= target) {
+				break;
+			}
+		}
+		return highestEquivalentValue(index) / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @return the median duration in milliseconds.
+	 */
+	public double getMedian() {
+		return getValueAtPercentile(50);
+	}
+
+	/**
+	 * @return the 99th percentile duration in milliseconds.
+	 */
+	public double get99thPercentile() {
+		return getValueAtPercentile(99);
+	}
+
+	/**
+	 * @return the 99.9th percentile duration in milliseconds.
+	 */
+	public double get999thPercentile() {
+		return getValueAtPercentile(99.9);
+	}
+
+	/**
+	 * Clear the histogram.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			this.counts.set(i, 0);
+		}
+	}
+
+	/**
+	 * Move the recorded durations to a new histogram, leaving this one empty; each
+	 * concurrently recorded duration is counted in exactly one of the two. Use this to
+	 * obtain the distribution for an interval.
+	 * @return the new histogram.
+	 */
+	public LatencyHistogram copyAndReset() {
+		AtomicLongArray copy = new AtomicLongArray(BUCKET_COUNT);
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			if (this.counts.get(i) != 0) {
+				copy.set(i, this.counts.getAndSet(i, 0));
+			}
+		}
+		return new LatencyHistogram(copy);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[N=%d, p50=%f, p99=%f, p99.9=%f]",
+				getCount(), getMedian(), get99thPercentile(), get999thPercentile());
+	}
+
+	private static int bucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+		return shift * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift);
+	}
+
+	private static long highestEquivalentValue(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = (index - SUB_BUCKET_HALF_COUNT) / SUB_BUCKET_HALF_COUNT;
+		long subBucket = index - shift * SUB_BUCKET_HALF_COUNT;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free storage for the samples of the {@code Striped*} moving averages. Each thread
+ * records into one of several stripes, chosen by thread id, so concurrent writers rarely
+ * touch the same memory; each stripe retains its most recent samples in a ring. Readers
+ * merge the stripes into a single series ordered by time. The stripe counters are spread
+ * over separate cache lines.
+ *
+ * @since 4.2
+ */
+final class SampleStripes {
+
+	private static final int MAX_STRIPES = 64;
+
+	private static final int COUNTER_SPACING = 8;
+
+	private static final Comparator<Sample> TIME_ORDER = new Comparator<Sample>() {
+
+		@Override
+		public int compare(Sample sample1, Sample sample2) {
+			long delta = sample1.time - sample2.time;
+			return delta < 0 ? -1 : (delta > 0 ? 1 : 0);
+		}
+
+	};
+
+	private final AtomicReferenceArray<Sample>[] stripes;
+
+	private final AtomicLongArray counts;
+
+	private final int mask;
+
+	private final int retention;
+
+	SampleStripes(int retention) {
+		this(retention, Runtime.getRuntime().availableProcessors());
+	}
+
+	SampleStripes(int retention, int stripes) {
+		int size = Math.min(MAX_STRIPES, stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1);
+		@SuppressWarnings("unchecked")
+		AtomicReferenceArray<Sample>[] stripeArray = new AtomicReferenceArray[size];
+		for (int i = 0; i < size; i++) {
+			stripeArray[i] = new AtomicReferenceArray<Sample>(retention);
+		}
+		this.stripes = stripeArray;
+		this.counts = new AtomicLongArray(size * COUNTER_SPACING);
+		this.mask = size - 1;
+		this.retention = retention;
+	}
+
+	void add(long time, double value) {
+		long id = Thread.currentThread().getId();
+		int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+		int stripe = (hash ^ (hash >>> 16)) & this.mask;
+		long index = this.counts.getAndIncrement(stripe * COUNTER_SPACING);
+		this.stripes[stripe].lazySet((int) (index % this.retention), new Sample(time, value));
+	}
+
+	long getCount() {
+		long count = 0;
+		for (int i = 0; i < this.stripes.length; i++) {
+			count += this.counts.get(i * COUNTER_SPACING);
+		}
+		return count;
+	}
+
+	/**
+	 * @return the most recent samples (at most the retention), oldest first.
+	 */
+	List<Sample> getSamples() {
+		List<Sample> samples = new ArrayList<Sample>();
+		for (AtomicReferenceArray<Sample> stripe : this.stripes) {
+			for (int i = 0; i < this.retention; i++) {
+				Sample sample = stripe.get(i);
+				if (sample != null) {
+					samples.add(sample);
+				}
+			}
+		}
+		Collections.sort(samples, TIME_ORDER);
+		int size = samples.size();
+		return size > this.retention ? samples.subList(size - this.retention, size) : samples;
+	}
+
+	/**
+	 * @return the most recent sample, or null if there is none.
+	 */
+	Sample getLast() {
+		Sample last = null;
+		for (int i = 0; i < this.stripes.length; i++) {
+			long count = this.counts.get(i * COUNTER_SPACING);
+			if (count > 0) {
+				Sample sample = this.stripes[i].get((int) ((count - 1) % this.retention));
+				if (sample != null && (last == null || TIME_ORDER.compare(sample, last) > 0)) {
+					last = sample;
+				}
+			}
+		}
+		return last;
+	}
+
+	void reset() {
+		for (int i = 0; i < this.stripes.length; i++) {
+			this.counts.set(i * COUNTER_SPACING, 0);
+			for (int j = 0; j < this.retention; j++) {
+				this.stripes[i].set(j, null);
+			}
+		}
+	}
+
+
+	static final class Sample {
+
+		final long time;
+
+		final double value;
+
+		Sample(long time, double value) {
+			this.time = time;
+			this.value = value;
+		}
+
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.integration.support.management.SampleStripes.Sample;
+
+/**
+ * An {@link ExponentialMovingAverage} that does not synchronize when a measurement is
+ * appended. Measurements are recorded in per-thread stripes (see the class javadocs of
+ * the superclass for the retention) and the statistics are calculated from the merged,
+ * time-ordered stripes when retrieved. Use this variant when many threads append
+ * concurrently, e.g. the send duration of a busy channel.
+ *
+ * @since 4.2
+ */
+public class StripedExponentialMovingAverage extends ExponentialMovingAverage {
+
+	private final SampleStripes samples;
+
+	/**
+	 * Create a moving average accumulator with decay lapse window provided.
+	 * @param window the exponential lapse window (number of measurements)
+	 * @see ExponentialMovingAverage#ExponentialMovingAverage(int)
+	 */
+	public StripedExponentialMovingAverage(int window) {
+		this(window, 1);
+	}
+
+	/**
+	 * Create a moving average accumulator with decay lapse window provided.
+	 * @param window the exponential lapse window (number of measurements)
+	 * @param factor a factor by which raw values are reduced during analysis; e.g. to analyze in ms and
+	 * raw values are ns, set the factor to 1000000.0.
+	 * @see ExponentialMovingAverage#ExponentialMovingAverage(int, double)
+	 */
+	public StripedExponentialMovingAverage(int window, double factor) {
+		super(window, factor);
+		this.samples = new SampleStripes(window * 5);
+	}
+
+	@Override
+	public synchronized void reset() {
+		super.reset();
+		this.samples.reset();
+	}
+
+	@Override
+	public void append(double value) {
+		this.samples.add(System.nanoTime(), value);
+	}
+
+	@Override
+	Statistics calc() {
+		long count = this.samples.getCount();
+		List<Sample> samples = this.samples.getSamples();
+		List<Double> values = new ArrayList<Double>(samples.size());
+		for (Sample sample : samples) {
+			values.add(sample.value);
+		}
+		return calc(values, count);
+	}
+
+	@Override
+	public int getCount() {
+		return (int) this.samples.getCount();
+	}
+
+	@Override
+	public long getCountLong() {
+		return this.samples.getCount();
+	}
+
+}
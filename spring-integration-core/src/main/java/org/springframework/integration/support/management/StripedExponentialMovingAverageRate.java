@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.integration.support.management.SampleStripes.Sample;
+
+/**
+ * An {@link ExponentialMovingAverageRate} that does not synchronize when an event is
+ * recorded. Event times are kept in per-thread stripes and the statistics are calculated
+ * from the merged, time-ordered stripes when retrieved.
+ *
+ * @since 4.2
+ */
+public class StripedExponentialMovingAverageRate extends ExponentialMovingAverageRate {
+
+	private final SampleStripes times;
+
+	private final double factor;
+
+	/**
+	 * @param period the period to base the rate measurement (in seconds)
+	 * @param lapsePeriod the exponential lapse rate for the rate average (in seconds)
+	 * @param window the exponential lapse window (number of measurements)
+	 * @param millis when true, analyze the data as milliseconds instead of the native nanoseconds
+	 * @see ExponentialMovingAverageRate#ExponentialMovingAverageRate(double, double, int, boolean)
+	 */
+	public StripedExponentialMovingAverageRate(double period, double lapsePeriod, int window, boolean millis) {
+		super(period, lapsePeriod, window, millis);
+		this.times = new SampleStripes(window * 5);
+		this.factor = millis ? 1000000 : 1;
+	}
+
+	@Override
+	public synchronized void reset() {
+		super.reset();
+		this.times.reset();
+	}
+
+	@Override
+	public void increment() {
+		increment(System.nanoTime());
+	}
+
+	@Override
+	public void increment(long t) {
+		this.times.add(t, 0);
+	}
+
+	@Override
+	Statistics calc() {
+		long count = this.times.getCount();
+		List<Sample> samples = this.times.getSamples();
+		List<Long> times = new ArrayList<Long>(samples.size());
+		for (Sample sample : samples) {
+			times.add(sample.time);
+		}
+		return calc(times, count);
+	}
+
+	@Override
+	double lastTime() {
+		Sample last = this.times.getLast();
+		return last != null ? last.time / this.factor : super.lastTime();
+	}
+
+	@Override
+	public int getCount() {
+		return (int) this.times.getCount();
+	}
+
+	@Override
+	public long getCountLong() {
+		return this.times.getCount();
+	}
+
+}
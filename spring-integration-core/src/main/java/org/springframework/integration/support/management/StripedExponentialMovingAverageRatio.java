@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.integration.support.management.SampleStripes.Sample;
+
+/**
+ * An {@link ExponentialMovingAverageRatio} that does not synchronize when an outcome is
+ * recorded. Outcomes are kept in per-thread stripes and the statistics are calculated
+ * from the merged, time-ordered stripes when retrieved.
+ *
+ * @since 4.2
+ */
+public class StripedExponentialMovingAverageRatio extends ExponentialMovingAverageRatio {
+
+	private final SampleStripes outcomes;
+
+	/**
+	 * @param lapsePeriod the exponential lapse rate for the rate average (in seconds)
+	 * @param window the exponential lapse window (number of measurements)
+	 * @param millis when true, analyze the data as milliseconds instead of the native nanoseconds
+	 * @see ExponentialMovingAverageRatio#ExponentialMovingAverageRatio(double, int, boolean)
+	 */
+	public StripedExponentialMovingAverageRatio(double lapsePeriod, int window, boolean millis) {
+		super(lapsePeriod, window, millis);
+		this.outcomes = new SampleStripes(window * 5);
+	}
+
+	@Override
+	public synchronized void reset() {
+		super.reset();
+		this.outcomes.reset();
+	}
+
+	@Override
+	void append(int value, long t) {
+		this.outcomes.add(t, value);
+	}
+
+	@Override
+	Statistics calc() {
+		long count = this.outcomes.getCount();
+		List<Sample> samples = this.outcomes.getSamples();
+		List<Long> times = new ArrayList<Long>(samples.size());
+		List<Integer> values = new ArrayList<Integer>(samples.size());
+		for (Sample sample : samples) {
+			times.add(sample.time);
+			values.add((int) sample.value);
+		}
+		return calc(times, values, count);
+	}
+
+	@Override
+	double lastTime() {
+		Sample last = this.outcomes.getLast();
+		return last != null ? last.time : super.lastTime();
+	}
+
+	@Override
+	public int getCount() {
+		return (int) this.outcomes.getCount();
+	}
+
+	@Override
+	public long getCountLong() {
+		return this.outcomes.getCount();
+	}
+
+}
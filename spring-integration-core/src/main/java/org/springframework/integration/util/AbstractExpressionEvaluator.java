@@ -16,6 +16,11 @@ package org.springframework.integration.util;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.InitializingBean;
@@ -24,16 +29,35 @@ import org.springframework.core.convert.ConversionService;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.integration.context.IntegrationProperties;
 import org.springframework.integration.expression.ExpressionUtils;
+import org.springframework.integration.expression.MonitoredExpression;
 import org.springframework.integration.support.DefaultMessageBuilderFactory;
 import org.springframework.integration.support.MessageBuilderFactory;
 import org.springframework.integration.support.utils.IntegrationUtils;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHandlingException;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
 /**
+ * Base class for components that evaluate SpEL expressions.
+ * <p>
+ * Since 4.2, expressions can be compiled to bytecode: when the {@link SpelCompilerMode}
+ * (set with {@link #setCompilerMode(SpelCompilerMode)} or, by default, the
+ * {@code spring.integraton.spel.compilerMode} integration property) is not
+ * {@link SpelCompilerMode#OFF}, each expression is evaluated through a
+ * {@link MonitoredExpression}, which compiles it, falls back to interpretation if the
+ * compiled form fails, and counts evaluations and their duration; see
+ * {@link #getMonitoredExpressions()}.
+ *
  * @author Mark Fisher
  * @author Dave Syer
  * @author Oleg Zhurakousky
@@ -56,6 +80,13 @@ public abstract class AbstractExpressionEvaluator implements BeanFactoryAware, I
 
 	private volatile MessageBuilderFactory messageBuilderFactory = new DefaultMessageBuilderFactory();
 
+	private final ConcurrentMap<Expression, MonitoredExpression> monitoredExpressions =
+			new ConcurrentHashMap<Expression, MonitoredExpression>();
+
+	private volatile MonitoredExpression lastMonitoredExpression;
+
+	private volatile SpelCompilerMode compilerMode;
+
 	/**
 	 * Specify a BeanFactory in order to enable resolution via <code>@beanName</code> in the expression.
 	 */
@@ -80,6 +111,48 @@ public abstract class AbstractExpressionEvaluator implements BeanFactoryAware, I
 		}
 	}
 
+	/**
+	 * Set the mode in which SpEL expressions are compiled. By default, the
+	 * {@code spring.integraton.spel.compilerMode} integration property is used (OFF unless
+	 * configured otherwise).
+	 * @param compilerMode the compiler mode.
+	 * @since 4.2
+	 */
+	public void setCompilerMode(SpelCompilerMode compilerMode) {
+		Assert.notNull(compilerMode, "'compilerMode' must not be null");
+		this.compilerMode = compilerMode;
+	}
+
+	/**
+	 * @return the compiler mode; if not set explicitly, the mode configured by the
+	 * integration properties, or OFF if there is no bean factory (yet).
+	 * @since 4.2
+	 */
+	public SpelCompilerMode getCompilerMode() {
+		SpelCompilerMode compilerMode = this.compilerMode;
+		if (compilerMode == null) {
+			if (this.beanFactory == null) {
+				return SpelCompilerMode.OFF;
+			}
+			String mode = IntegrationContextUtils.getIntegrationProperties(this.beanFactory)
+					.getProperty(IntegrationProperties.SPEL_COMPILER_MODE);
+			compilerMode = StringUtils.hasText(mode)
+					? SpelCompilerMode.valueOf(mode.trim().toUpperCase())
+					: SpelCompilerMode.OFF;
+			this.compilerMode = compilerMode;
+		}
+		return compilerMode;
+	}
+
+	/**
+	 * @return the compilation status and evaluation counters of the expressions evaluated by
+	 * this component so far; empty when the compiler mode is OFF.
+	 * @since 4.2
+	 */
+	public Collection<MonitoredExpression> getMonitoredExpressions() {
+		return Collections.unmodifiableCollection(this.monitoredExpressions.values());
+	}
+
 	protected MessageBuilderFactory getMessageBuilderFactory() {
 		return this.messageBuilderFactory;
 	}
@@ -155,15 +228,78 @@ public abstract class AbstractExpressionEvaluator implements BeanFactoryAware, I
 	}
 
 	protected <T> T evaluateExpression(Expression expression, Class<T> expectedType) {
-		return expression.getValue(this.getEvaluationContext(), expectedType);
+		MonitoredExpression monitoredExpression = getMonitoredExpression(expression);
+		if (monitoredExpression != null) {
+			return monitoredExpression.getValue(this.getEvaluationContext(), expectedType);
+		}
+		try {
+			return expression.getValue(this.getEvaluationContext(), expectedType);
+		}
+		catch (SpelEvaluationException e) {
+			revertToInterpreted(expression, e);
+			return expression.getValue(this.getEvaluationContext(), expectedType);
+		}
 	}
 
 	protected Object evaluateExpression(Expression expression) {
-		return expression.getValue(this.getEvaluationContext());
+		MonitoredExpression monitoredExpression = getMonitoredExpression(expression);
+		if (monitoredExpression != null) {
+			return monitoredExpression.getValue(this.getEvaluationContext());
+		}
+		try {
+			return expression.getValue(this.getEvaluationContext());
+		}
+		catch (SpelEvaluationException e) {
+			revertToInterpreted(expression, e);
+			return expression.getValue(this.getEvaluationContext());
+		}
 	}
 
 	protected <T> T evaluateExpression(Expression expression, Object input, Class<T> expectedType) {
-		return expression.getValue(this.getEvaluationContext(), input, expectedType);
+		MonitoredExpression monitoredExpression = getMonitoredExpression(expression);
+		if (monitoredExpression != null) {
+			return monitoredExpression.getValue(this.getEvaluationContext(), input, expectedType);
+		}
+		try {
+			return expression.getValue(this.getEvaluationContext(), input, expectedType);
+		}
+		catch (SpelEvaluationException e) {
+			revertToInterpreted(expression, e);
+			return expression.getValue(this.getEvaluationContext(), input, expectedType);
+		}
+	}
+
+	private MonitoredExpression getMonitoredExpression(Expression expression) {
+		MonitoredExpression monitoredExpression = this.lastMonitoredExpression;
+		if (monitoredExpression != null && monitoredExpression.getExpression() == expression) {
+			return monitoredExpression;
+		}
+		SpelCompilerMode compilerMode = getCompilerMode();
+		if (SpelCompilerMode.OFF.equals(compilerMode)) {
+			return null;
+		}
+		monitoredExpression = this.monitoredExpressions.get(expression);
+		if (monitoredExpression == null) {
+			monitoredExpression = new MonitoredExpression(expression, compilerMode);
+			MonitoredExpression existing = this.monitoredExpressions.putIfAbsent(expression, monitoredExpression);
+			if (existing != null) {
+				monitoredExpression = existing;
+			}
+		}
+		this.lastMonitoredExpression = monitoredExpression;
+		return monitoredExpression;
+	}
+
+	/*
+	 * An expression shared with a component that compiles it can fail in compiled form;
+	 * since this component does not compile expressions, evaluate it interpreted instead.
+	 */
+	private void revertToInterpreted(Expression expression, SpelEvaluationException e) {
+		if (!(expression instanceof SpelExpression)
+				|| !SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION.equals(e.getMessageCode())) {
+			throw e;
+		}
+		((SpelExpression) expression).revertToInterpreted();
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -113,7 +113,7 @@ public class BeanFactoryTypeConverter implements TypeConverter, BeanFactoryAware
 		if (sourceType != null) {
 			Class<?> sourceClass = sourceType.getType();
 			Class<?> targetClass = targetType.getType();
-			if ((sourceClass == MessageHeaders.class && targetClass == MessageHeaders.class) ||
+			if ((MessageHeaders.class.isAssignableFrom(sourceClass) && targetClass == MessageHeaders.class) ||
 				(sourceClass == MessageHistory.class && targetClass == MessageHistory.class) ||
 				(sourceType.isAssignableTo(targetType) && ClassUtils.isPrimitiveArray(sourceClass))) {
 				return value;
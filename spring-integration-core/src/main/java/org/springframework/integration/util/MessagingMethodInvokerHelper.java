@@ -17,6 +17,7 @@
 package org.springframework.integration.util;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
@@ -33,6 +34,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.logging.Log;
@@ -75,6 +77,12 @@ import org.springframework.util.StringUtils;
  * the method-selection will be dynamic, based on the underlying SpEL method resolution.
  * Alternatively, an annotation type may be provided so that the candidates for SpEL's
  * method resolution are determined by the presence of that annotation rather than the method name.
+ * <p>
+ * When there are several candidate methods, the method selected for a payload type is cached.
+ * A method with a single parameter that receives the message or its payload, and that has no
+ * overloads with one parameter, is invoked directly (without SpEL) whenever the argument does
+ * not require conversion; a payload parameter that is generic, or a collection, map or array,
+ * is always invoked with SpEL, so that its elements are converted.
  *
  * @author Mark Fisher
  * @author Oleg Zhurakousky
@@ -106,6 +114,9 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 
 	private final LinkedList<Map<Class<?>, HandlerMethod>> handlerMethodsList;
 
+	private final Map<Class<?>, HandlerMethod> resolvedHandlerMethods =
+			new ConcurrentHashMap<Class<?>, HandlerMethod>();
+
 	private final HandlerMethod handlerMethod;
 
 	private final Class<?> expectedType;
@@ -207,6 +218,7 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 		catch (IneligibleMethodException e) {
 			throw new IllegalArgumentException(e);
 		}
+		this.handlerMethod.enableDirectInvocation(targetObject);
 		this.handlerMethods = null;
 		this.handlerMessageMethods = null;
 		this.handlerMethodsList = null;
@@ -248,9 +260,36 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 			this.handlerMethodsList.add(this.handlerMethods);
 			this.handlerMethodsList.add(this.handlerMessageMethods);
 		}
+		Class<?> targetClass = getTargetClass(targetObject);
+		if (this.handlerMethod != null) {
+			enableDirectInvocationIfUnambiguous(this.handlerMethod, targetClass);
+		}
+		else {
+			for (Map<Class<?>, HandlerMethod> candidates : this.handlerMethodsList) {
+				for (HandlerMethod candidate : candidates.values()) {
+					enableDirectInvocationIfUnambiguous(candidate, targetClass);
+				}
+			}
+		}
 		this.setDisplayString(targetObject, methodName);
 	}
 
+	/*
+	 * SpEL selects the method to invoke by name and argument type; invoking the handler
+	 * method directly is only equivalent if there is no other public single-argument method
+	 * with that name.
+	 */
+	private void enableDirectInvocationIfUnambiguous(HandlerMethod handlerMethod, Class<?> targetClass) {
+		Method method = handlerMethod.method;
+		for (Method candidate : targetClass.getMethods()) {
+			if (!candidate.isBridge() && candidate.getName().equals(method.getName())
+					&& candidate.getParameterTypes().length == 1 && !candidate.equals(method)) {
+				return;
+			}
+		}
+		handlerMethod.enableDirectInvocation(this.targetObject);
+	}
+
 	private void setDisplayString(Object targetObject, Object targetMethod) {
 		StringBuilder sb = new StringBuilder(targetObject.getClass().getName());
 		if (targetMethod instanceof Method) {
@@ -310,11 +349,18 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 		}
 		HandlerMethod candidate = this.findHandlerMethodForParameters(parameters);
 		Assert.notNull(candidate, "No candidate methods found for messages.");
-		Expression expression = candidate.getExpression();
 		Class<?> expectedType = this.expectedType != null ? this.expectedType : candidate.method.getReturnType();
 		try {
-			@SuppressWarnings("unchecked")
-			T result = (T) this.evaluateExpression(expression, parameters, expectedType);
+			T result;
+			Object argument = candidate.getDirectArgument(parameters.getMessage());
+			if (argument != null) {
+				result = invokeDirectly(candidate, argument, expectedType);
+			}
+			else {
+				@SuppressWarnings("unchecked")
+				T evaluated = (T) this.evaluateExpression(candidate.getExpression(), parameters, expectedType);
+				result = evaluated;
+			}
 			if (this.requiresReply) {
 				Assert.notNull(result,
 						"Expression evaluation result was null, but this processor requires a reply.");
@@ -335,6 +381,29 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 		}
 	}
 
+	@SuppressWarnings("unchecked")
+	private T invokeDirectly(HandlerMethod candidate, Object argument, Class<?> expectedType) throws Exception {
+		Object result;
+		try {
+			result = candidate.method.invoke(this.targetObject, argument);
+		}
+		catch (InvocationTargetException e) {
+			Throwable targetException = e.getTargetException();
+			if (targetException instanceof Exception) {
+				throw (Exception) targetException;
+			}
+			if (targetException instanceof Error) {
+				throw (Error) targetException;
+			}
+			throw new IllegalStateException("Cannot process message", targetException);
+		}
+		if (result == null || org.springframework.util.ClassUtils.isAssignableValue(expectedType, result)) {
+			return (T) result;
+		}
+		return (T) getEvaluationContext().getTypeConverter().convertValue(result, TypeDescriptor.forObject(result),
+				TypeDescriptor.valueOf(expectedType));
+	}
+
 	private Map<String, Map<Class<?>, HandlerMethod>> findHandlerMethodsForTarget(final Object targetObject,
 			final Class<? extends Annotation> annotationType, final String methodName, final boolean requiresReply) {
 
@@ -534,19 +603,22 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 
 		final Class<?> payloadType = parameters.getFirstParameterType();
 
-		HandlerMethod closestMatch = this.findClosestMatch(payloadType);
-		if (closestMatch != null) {
-			return closestMatch;
-
-		}
-
-		if (Iterable.class.isAssignableFrom(payloadType) && this.handlerMethods.containsKey(Iterator.class)) {
-			return this.handlerMethods.get(Iterator.class);
-		}
-		else {
-			return this.handlerMethods.get(Void.class);
+		HandlerMethod handlerMethod = this.resolvedHandlerMethods.get(payloadType);
+		if (handlerMethod == null) {
+			handlerMethod = this.findClosestMatch(payloadType);
+			if (handlerMethod == null) {
+				if (Iterable.class.isAssignableFrom(payloadType) && this.handlerMethods.containsKey(Iterator.class)) {
+					handlerMethod = this.handlerMethods.get(Iterator.class);
+				}
+				else {
+					handlerMethod = this.handlerMethods.get(Void.class);
+				}
+			}
+			if (handlerMethod != null) {
+				this.resolvedHandlerMethods.put(payloadType, handlerMethod);
+			}
 		}
-
+		return handlerMethod;
 	}
 
 	private HandlerMethod findClosestMatch(Class<?> payloadType) {
@@ -611,6 +683,16 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 
 		private volatile boolean messageMethod;
 
+		/*
+		 * The type of the single parameter if it receives the message (Message) or its
+		 * payload, and the method can therefore be invoked without SpEL.
+		 */
+		private volatile Class<?> directParameterType;
+
+		private volatile boolean directMessageArgument;
+
+		private volatile boolean directInvocation;
+
 		HandlerMethod(Method method, boolean canProcessMessageList) {
 			this.method = method;
 			this.canProcessMessageList = canProcessMessageList;
@@ -626,6 +708,26 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 			return this.targetParameterType;
 		}
 
+		void enableDirectInvocation(Object targetObject) {
+			if (this.directParameterType != null && this.method.getDeclaringClass().isInstance(targetObject)) {
+				ReflectionUtils.makeAccessible(this.method);
+				this.directInvocation = true;
+			}
+		}
+
+		/**
+		 * @param message the message, or null when processing a collection of messages.
+		 * @return the argument if the method can be invoked directly for this message,
+		 * i.e. the message or its payload is assignable to the parameter type; null otherwise.
+		 */
+		Object getDirectArgument(Message<?> message) {
+			if (!this.directInvocation || message == null) {
+				return null;
+			}
+			Object argument = this.directMessageArgument ? message : message.getPayload();
+			return this.directParameterType.isInstance(argument) ? argument : null;
+		}
+
 		private boolean isMessageMethod() {
 			return messageMethod;
 		}
@@ -641,10 +743,12 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 			Class<?>[] parameterTypes = method.getParameterTypes();
 			Annotation[][] parameterAnnotations = method.getParameterAnnotations();
 			boolean hasUnqualifiedMapParameter = false;
+			String firstArgumentExpression = null;
 			for (int i = 0; i < parameterTypes.length; i++) {
 				if (i != 0) {
 					sb.append(", ");
 				}
+				int argumentStart = sb.length();
 				MethodParameter methodParameter = new MethodParameter(method, i);
 				TypeDescriptor parameterTypeDescriptor = new TypeDescriptor(methodParameter);
 				Class<?> parameterType = parameterTypeDescriptor.getObjectType();
@@ -743,6 +847,9 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 					sb.append("payload");
 					this.setExclusiveTargetParameterType(parameterTypeDescriptor, methodParameter);
 				}
+				if (i == 0) {
+					firstArgumentExpression = sb.substring(argumentStart);
+				}
 			}
 			if (hasUnqualifiedMapParameter) {
 				if (targetParameterType != null && Map.class.isAssignableFrom(this.targetParameterType)) {
@@ -752,12 +859,32 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 				}
 			}
 			sb.append(")");
+			if (parameterTypes.length == 1
+					&& ("message".equals(firstArgumentExpression)
+						|| ("payload".equals(firstArgumentExpression) && isDirectPayloadType(method)))) {
+				this.directParameterType = org.springframework.util.ClassUtils.resolvePrimitiveIfNecessary(
+						parameterTypes[0]);
+				this.directMessageArgument = "message".equals(firstArgumentExpression);
+			}
 			if (this.targetParameterTypeDescriptor == null) {
 				this.targetParameterTypeDescriptor = TypeDescriptor.valueOf(Void.class);
 			}
 			return EXPRESSION_PARSER.parseExpression(sb.toString());
 		}
 
+		/**
+		 * A payload can only be passed directly to a parameter whose type is not generic,
+		 * nor a collection, map or array: for those, the SpEL invocation converts the
+		 * elements with the conversion service, which an instance check cannot replace.
+		 */
+		private boolean isDirectPayloadType(Method method) {
+			Class<?> parameterType = method.getParameterTypes()[0];
+			return method.getGenericParameterTypes()[0] instanceof Class
+					&& !parameterType.isArray()
+					&& !Collection.class.isAssignableFrom(parameterType)
+					&& !Map.class.isAssignableFrom(parameterType);
+		}
+
 		private String determineHeaderExpression(Annotation headerAnnotation, MethodParameter methodParameter) {
 			methodParameter.initParameterNameDiscovery(PARAMETER_NAME_DISCOVERER);
 			String headerName = null;
@@ -390,6 +390,24 @@ public class AggregatorTests {
 		assertThat(((Integer) reply.getPayload()), is(105));
 	}
 
+	@Test
+	public void testReleaseStrategyStateClearedAfterRelease() {
+		SequenceSizeReleaseStrategy releaseStrategy = new SequenceSizeReleaseStrategy();
+		this.aggregator.setReleaseStrategy(releaseStrategy);
+		QueueChannel replyChannel = new QueueChannel();
+		QueueChannel discardChannel = new QueueChannel();
+		this.aggregator.setDiscardChannel(discardChannel);
+		this.aggregator.handleMessage(createMessage(3, "ABC", 3, 1, replyChannel, null));
+		this.aggregator.handleMessage(createMessage(5, "ABC", 3, 2, replyChannel, null));
+		assertEquals(1, releaseStrategy.getStateCount());
+		this.aggregator.handleMessage(createMessage(5, "ABC", 3, 2, replyChannel, null));
+		assertNotNull(discardChannel.receive(0));
+		this.aggregator.handleMessage(createMessage(7, "ABC", 3, 3, replyChannel, null));
+		assertEquals(105, replyChannel.receive(0).getPayload());
+		assertEquals(0, releaseStrategy.getStateCount());
+		assertEquals(0, this.store.getMessageGroup("ABC").size());
+	}
+
 
 	private static Message<?> createMessage(Object payload, Object correlationId, int sequenceSize, int sequenceNumber,
 			MessageChannel replyChannel, String predefinedId) {
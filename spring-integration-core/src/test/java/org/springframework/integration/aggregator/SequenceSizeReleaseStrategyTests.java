@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2011 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,18 @@
 
 package org.springframework.integration.aggregator;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.BitSet;
+
 import org.junit.Test;
 import org.springframework.messaging.Message;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.store.SimpleMessageGroup;
 import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.test.util.TestUtils;
 
 /**
  * @author Mark Fisher
@@ -133,4 +137,93 @@ public class SequenceSizeReleaseStrategyTests {
 		assertTrue(releaseStrategy.canRelease(messages));
 	}
 
+	@Test
+	public void testIncrementalStateFollowsAddedMessages() {
+		SequenceSizeReleaseStrategy releaseStrategy = new SequenceSizeReleaseStrategy(true);
+		SimpleMessageGroup messages = new SimpleMessageGroup("FOO");
+		Message<String> message3 = MessageBuilder.withPayload("test3").setSequenceSize(3).setSequenceNumber(3).build();
+		Message<String> message2 = MessageBuilder.withPayload("test2").setSequenceSize(3).setSequenceNumber(2).build();
+		Message<String> message1 = MessageBuilder.withPayload("test1").setSequenceSize(3).setSequenceNumber(1).build();
+		messages.add(message3);
+		releaseStrategy.messageAdded(messages, message3);
+		assertFalse(releaseStrategy.canRelease(messages));
+		messages.add(message2);
+		releaseStrategy.messageAdded(messages, message2);
+		assertFalse(releaseStrategy.canRelease(messages));
+		assertFalse(releaseStrategy.canAdd(messages, message2));
+		assertTrue(releaseStrategy.canAdd(messages, message1));
+		messages.add(message1);
+		releaseStrategy.messageAdded(messages, message1);
+		assertTrue(releaseStrategy.canRelease(messages));
+		assertEquals(1, releaseStrategy.getStateCount());
+
+		// partial release - the state is rebuilt from the remaining messages
+		messages.remove(message1);
+		messages.setLastReleasedMessageSequenceNumber(1);
+		assertTrue(releaseStrategy.canRelease(messages));
+		messages.remove(message2);
+		assertFalse(releaseStrategy.canRelease(messages));
+		assertTrue(releaseStrategy.canAdd(messages, message2));
+
+		releaseStrategy.clearState("FOO");
+		assertEquals(0, releaseStrategy.getStateCount());
+	}
+
+	@Test
+	public void testIdleStateEvicted() throws Exception {
+		SequenceSizeReleaseStrategy releaseStrategy = new SequenceSizeReleaseStrategy() {
+
+			@Override
+			public boolean canRelease(MessageGroup messageGroup) {
+				return messageGroup.size() > 0 && super.canRelease(messageGroup);
+			}
+
+		};
+		releaseStrategy.setStateIdleTimeout(20);
+		SimpleMessageGroup foo = new SimpleMessageGroup("FOO");
+		Message<String> message = MessageBuilder.withPayload("test").setSequenceSize(2).setSequenceNumber(1).build();
+		foo.add(message);
+		releaseStrategy.messageAdded(foo, message);
+		assertFalse(releaseStrategy.canRelease(foo));
+		assertEquals(1, releaseStrategy.getStateCount());
+		Thread.sleep(50);
+		// FOO was removed from the store without the strategy being told
+		SimpleMessageGroup bar = new SimpleMessageGroup("BAR");
+		bar.add(message);
+		releaseStrategy.messageAdded(bar, message);
+		assertEquals(1, releaseStrategy.getStateCount());
+		assertFalse(releaseStrategy.canRelease(new SimpleMessageGroup("BAZ")));
+	}
+
+	@Test
+	public void testCanAddRejectsDifferentSequenceSize() {
+		SequenceSizeReleaseStrategy releaseStrategy = new SequenceSizeReleaseStrategy();
+		SimpleMessageGroup messages = new SimpleMessageGroup("FOO");
+		Message<String> message1 = MessageBuilder.withPayload("test1").setSequenceSize(2).setSequenceNumber(1).build();
+		assertTrue(releaseStrategy.canAdd(messages, message1));
+		messages.add(message1);
+		assertFalse(releaseStrategy.canAdd(messages,
+				MessageBuilder.withPayload("test2").setSequenceSize(3).setSequenceNumber(2).build()));
+		assertTrue(releaseStrategy.canAdd(messages, MessageBuilder.withPayload("test3").build()));
+	}
+
+	@Test
+	public void testHugeSequenceNumberIsSparse() {
+		SequenceSizeReleaseStrategy releaseStrategy = new SequenceSizeReleaseStrategy();
+		SimpleMessageGroup messages = new SimpleMessageGroup("FOO");
+		Message<String> message1 = MessageBuilder.withPayload("test1").setSequenceSize(2)
+				.setSequenceNumber(Integer.MAX_VALUE).build();
+		messages.add(message1);
+		releaseStrategy.messageAdded(messages, message1);
+		SequenceSizeReleaseStrategy.SequenceState state = releaseStrategy.getState(messages);
+		assertTrue(TestUtils.getPropertyValue(state, "sequenceNumbers", BitSet.class).size() <= 64);
+		assertFalse(releaseStrategy.canAdd(messages, MessageBuilder.withPayload("test2").setSequenceSize(2)
+				.setSequenceNumber(Integer.MAX_VALUE).build()));
+		Message<String> message2 = MessageBuilder.withPayload("test3").setSequenceSize(2).setSequenceNumber(1).build();
+		assertTrue(releaseStrategy.canAdd(messages, message2));
+		messages.add(message2);
+		releaseStrategy.messageAdded(messages, message2);
+		assertTrue(releaseStrategy.canRelease(messages));
+	}
+
 }
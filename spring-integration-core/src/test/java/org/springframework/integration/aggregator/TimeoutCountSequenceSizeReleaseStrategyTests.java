@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2008 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -78,4 +78,23 @@ public class TimeoutCountSequenceSizeReleaseStrategyTests {
 		assertTrue(releaseStrategy.canRelease(new SimpleMessageGroup("FOO")));
 	}
 
+	@Test
+	public void testEarliestTimestampKeptIncrementally() throws Exception {
+		TimeoutCountSequenceSizeReleaseStrategy releaseStrategy =
+				new TimeoutCountSequenceSizeReleaseStrategy(TimeoutCountSequenceSizeReleaseStrategy.DEFAULT_THRESHOLD, 50);
+		SimpleMessageGroup messages = new SimpleMessageGroup("FOO");
+		Message<String> message1 = MessageBuilder.withPayload("test1").build();
+		messages.add(message1);
+		releaseStrategy.messageAdded(messages, message1);
+		Thread.sleep(100);
+		Message<String> message2 = MessageBuilder.withPayload("test2").build();
+		messages.add(message2);
+		releaseStrategy.messageAdded(messages, message2);
+		assertTrue(releaseStrategy.canRelease(messages));
+
+		// the earliest message is gone - the state is rebuilt
+		messages.remove(message1);
+		assertFalse(releaseStrategy.canRelease(messages));
+	}
+
 }
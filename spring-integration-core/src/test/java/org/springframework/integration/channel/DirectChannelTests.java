@@ -46,6 +46,8 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ChannelInterceptorAdapter;
 import org.springframework.messaging.support.GenericMessage;
 import org.springframework.util.ReflectionUtils;
 
@@ -183,6 +185,56 @@ public class DirectChannelTests {
 		assertEquals("test-thread", target.threadName);
 	}
 
+	@Test
+	public void testDirectSendReevaluated() {
+		DirectChannel channel = new DirectChannel();
+		final AtomicInteger count = new AtomicInteger();
+		channel.subscribe(new MessageHandler() {
+
+			@Override
+			public void handleMessage(Message<?> message) throws MessagingException {
+				count.incrementAndGet();
+			}
+		});
+		assertTrue(channel.isDirectSend());
+		final AtomicInteger intercepted = new AtomicInteger();
+		ChannelInterceptor interceptor = new ChannelInterceptorAdapter() {
+
+			@Override
+			public Message<?> preSend(Message<?> message, MessageChannel channel) {
+				intercepted.incrementAndGet();
+				return message;
+			}
+
+		};
+		channel.addInterceptor(interceptor);
+		assertFalse(channel.isDirectSend());
+		assertTrue(channel.send(new GenericMessage<String>("test")));
+		assertEquals(1, intercepted.get());
+		channel.removeInterceptor(interceptor);
+		assertTrue(channel.isDirectSend());
+		assertTrue(channel.send(new GenericMessage<String>("test")));
+		assertEquals(1, intercepted.get());
+
+		channel.enableCounts(true);
+		assertFalse(channel.isDirectSend());
+		assertTrue(channel.send(new GenericMessage<String>("test")));
+		assertEquals(1, channel.getSendCount());
+		channel.enableCounts(false);
+		assertTrue(channel.isDirectSend());
+
+		channel.setShouldTrack(true);
+		assertFalse(channel.isDirectSend());
+		channel.setShouldTrack(false);
+		assertTrue(channel.isDirectSend());
+
+		channel.setDatatypes(String.class);
+		assertFalse(channel.isDirectSend());
+		channel.setDatatypes();
+		assertTrue(channel.isDirectSend());
+		assertEquals(3, count.get());
+	}
+
 	@Test //  See INT-2434
 	public void testChannelCreationWithBeanDefinitionOverrideTrue() throws Exception {
 		ClassPathXmlApplicationContext parentContext = new ClassPathXmlApplicationContext("parent-config.xml", this.getClass());
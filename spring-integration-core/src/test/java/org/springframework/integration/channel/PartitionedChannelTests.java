@@ -0,0 +1,206 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.channel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.test.util.TestUtils;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * @since 4.2
+ */
+public class PartitionedChannelTests {
+
+	@Test
+	public void testOrderPerKey() throws Exception {
+		final int keys = 8;
+		final int perKey = 500;
+		final PartitionedChannel channel = new PartitionedChannel(4);
+		channel.setPartitionKeyHeader("customer");
+		channel.setMaxMessagesPerTask(5);
+		channel.afterPropertiesSet();
+		final ConcurrentMap<Object, List<Integer>> received = new ConcurrentHashMap<Object, List<Integer>>();
+		final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+		final Set<Object> busy = Collections.synchronizedSet(new HashSet<Object>());
+		final List<Object> overlaps = Collections.synchronizedList(new ArrayList<Object>());
+		final CountDownLatch latch = new CountDownLatch(keys * perKey);
+		channel.subscribe(new MessageHandler() {
+
+			@Override
+			public void handleMessage(Message<?> message) throws MessagingException {
+				Object customer = message.getHeaders().get("customer");
+				if (!busy.add(customer)) {
+					overlaps.add(customer);
+				}
+				threads.add(Thread.currentThread());
+				List<Integer> list = received.get(customer);
+				if (list == null) {
+					list = new ArrayList<Integer>();
+					received.put(customer, list);
+				}
+				list.add((Integer) message.getPayload());
+				busy.remove(customer);
+				latch.countDown();
+			}
+
+		});
+		ExecutorService senders = Executors.newFixedThreadPool(keys);
+		for (int k = 0; k < keys; k++) {
+			final String customer = "customer" + k;
+			senders.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int i = 0; i < perKey; i++) {
+						channel.send(MessageBuilder.withPayload(i).setHeader("customer", customer).build());
+					}
+				}
+
+			});
+		}
+		assertTrue(latch.await(30, TimeUnit.SECONDS));
+		assertEquals(keys, received.size());
+		for (List<Integer> list : received.values()) {
+			assertEquals(perKey, list.size());
+			for (int i = 0; i < perKey; i++) {
+				assertEquals(Integer.valueOf(i), list.get(i));
+			}
+		}
+		assertEquals(0, overlaps.size());
+		if (Runtime.getRuntime().availableProcessors() > 1) {
+			assertTrue(threads.size() > 1);
+		}
+		senders.shutdown();
+		channel.destroy();
+	}
+
+	@Test
+	public void testDefaultExecutorLifecycle() throws Exception {
+		PartitionedChannel channel = new PartitionedChannel(2);
+		assertNull(TestUtils.getPropertyValue(channel, "defaultExecutor.delegate"));
+		channel.afterPropertiesSet();
+		ThreadPoolTaskExecutor executor = TestUtils.getPropertyValue(channel, "defaultExecutor.delegate",
+				ThreadPoolTaskExecutor.class);
+		assertNotNull(executor);
+		channel.destroy();
+		assertTrue(executor.getThreadPoolExecutor().isShutdown());
+		assertNull(TestUtils.getPropertyValue(channel, "defaultExecutor.delegate"));
+	}
+
+	@Test
+	public void testExpressionKeyAndErrorChannel() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		PartitionedChannel channel = new PartitionedChannel(executor, 2);
+		channel.setPartitionKeyExpression(new SpelExpressionParser().parseExpression("payload % 2"));
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		QueueChannel errorChannel = new QueueChannel();
+		beanFactory.registerSingleton(IntegrationContextUtils.ERROR_CHANNEL_BEAN_NAME, errorChannel);
+		channel.setBeanFactory(beanFactory);
+		channel.afterPropertiesSet();
+		final List<Integer> odd = Collections.synchronizedList(new ArrayList<Integer>());
+		channel.subscribe(new MessageHandler() {
+
+			@Override
+			public void handleMessage(Message<?> message) throws MessagingException {
+				int value = (Integer) message.getPayload();
+				if (value == 3) {
+					throw new MessagingException(message, "bad value");
+				}
+				if (value % 2 == 1) {
+					odd.add(value);
+				}
+			}
+
+		});
+		for (int i = 0; i < 10; i++) {
+			channel.send(MessageBuilder.withPayload(i).build());
+		}
+		Message<?> error = errorChannel.receive(10000);
+		assertNotNull(error);
+		assertEquals(3, ((MessagingException) ((ErrorMessage) error).getPayload()).getFailedMessage().getPayload());
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(4, odd.size());
+		assertEquals(Integer.valueOf(9), odd.get(3));
+	}
+
+	@Test
+	public void testPartitionRescheduledAfterExecutorFailure() throws Exception {
+		final AtomicBoolean fail = new AtomicBoolean(true);
+		PartitionedChannel channel = new PartitionedChannel(new Executor() {
+
+			@Override
+			public void execute(Runnable task) {
+				if (fail.getAndSet(false)) {
+					throw new IllegalStateException("executor failure");
+				}
+				task.run();
+			}
+
+		}, 1);
+		channel.afterPropertiesSet();
+		final List<Object> received = new ArrayList<Object>();
+		channel.subscribe(new MessageHandler() {
+
+			@Override
+			public void handleMessage(Message<?> message) throws MessagingException {
+				received.add(message.getPayload());
+			}
+
+		});
+		try {
+			channel.send(MessageBuilder.withPayload("foo").build());
+			fail("Expected MessageDeliveryException");
+		}
+		catch (MessageDeliveryException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		assertTrue(channel.send(MessageBuilder.withPayload("bar").build()));
+		assertEquals(Collections.singletonList("bar"), received);
+	}
+
+}
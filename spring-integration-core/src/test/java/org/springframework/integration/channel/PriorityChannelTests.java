@@ -17,6 +17,7 @@
 package org.springframework.integration.channel;
 
 import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
@@ -51,6 +52,31 @@ public class PriorityChannelTests {
 		assertTrue(channel.send(new GenericMessage<String>("test5")));
 	}
 	
+	@Test
+	public void testBatchReceive() {
+		PriorityChannel channel = new PriorityChannel(3);
+		channel.send(createPriorityMessage(1), 0);
+		channel.send(createPriorityMessage(5), 0);
+		channel.send(createPriorityMessage(3), 0);
+		assertFalse(channel.send(createPriorityMessage(9), 0));
+		List<Message<?>> messages = channel.receive(2, 0);
+		assertEquals(2, messages.size());
+		assertEquals("test:5", messages.get(0).getPayload());
+		assertEquals("test:3", messages.get(1).getPayload());
+		assertFalse(messages.get(0).getClass().getName().contains("MessageWrapper"));
+		assertTrue(channel.send(createPriorityMessage(2), 0));
+		assertTrue(channel.send(createPriorityMessage(4), 0));
+		assertFalse(channel.send(createPriorityMessage(9), 0));
+		messages = channel.receive(5, 10);
+		assertEquals(3, messages.size());
+		assertEquals("test:4", messages.get(0).getPayload());
+		assertEquals("test:1", messages.get(2).getPayload());
+		assertTrue(channel.send(createPriorityMessage(6), 0));
+		messages = channel.receive(5, 100);
+		assertEquals(1, messages.size());
+		assertEquals(0, channel.receive(5, 10).size());
+	}
+
 	@Test
 	public void testDefaultComparatorWithTimestampFallback() throws Exception{
 		PriorityChannel channel = new PriorityChannel();
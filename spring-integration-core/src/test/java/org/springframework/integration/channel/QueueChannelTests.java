@@ -28,11 +28,13 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.junit.Ignore;
@@ -46,6 +48,8 @@ import org.springframework.integration.selector.UnexpiredMessageSelector;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.ChannelInterceptorAdapter;
 import org.springframework.messaging.support.GenericMessage;
 
 import reactor.io.codec.JavaSerializationCodec;
@@ -274,6 +278,69 @@ public class QueueChannelTests {
 		assertTrue(channel.send(new GenericMessage<String>("roomAvailable"), 0));
 	}
 
+	@Test
+	public void testBatchReceive() throws Exception {
+		QueueChannel channel = new QueueChannel();
+		channel.enableCounts(true);
+		assertEquals(0, channel.receive(3, 0).size());
+		for (int i = 0; i < 5; i++) {
+			channel.send(new GenericMessage<Integer>(i));
+		}
+		List<Message<?>> messages = channel.receive(3, 0);
+		assertEquals(3, messages.size());
+		assertEquals(0, messages.get(0).getPayload());
+		assertEquals(2, messages.get(2).getPayload());
+		messages = channel.receive(3, 0);
+		assertEquals(2, messages.size());
+		assertEquals(4, messages.get(1).getPayload());
+		assertEquals(6, channel.getReceiveCount());
+		assertEquals(0, channel.getQueueSize());
+
+		final QueueChannel nonBlocking = new QueueChannel(new ConcurrentLinkedQueue<Message<?>>());
+		Executors.newSingleThreadExecutor().execute(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(100);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				nonBlocking.send(new GenericMessage<String>("foo"));
+			}
+
+		});
+		messages = nonBlocking.receive(10, 10000);
+		assertEquals(1, messages.size());
+		assertEquals("foo", messages.get(0).getPayload());
+		assertEquals(0, nonBlocking.receive(10, 10).size());
+	}
+
+	@Test
+	public void testBatchReceiveWithInterceptor() {
+		QueueChannel channel = new QueueChannel();
+		final AtomicInteger intercepted = new AtomicInteger();
+		channel.addInterceptor(new ChannelInterceptorAdapter() {
+
+			@Override
+			public Message<?> postReceive(Message<?> message, MessageChannel channel) {
+				if (message != null) {
+					intercepted.incrementAndGet();
+				}
+				return message;
+			}
+
+		});
+		for (int i = 0; i < 5; i++) {
+			channel.send(new GenericMessage<Integer>(i));
+		}
+		assertEquals(4, channel.receive(4, 0).size());
+		assertEquals(4, intercepted.get());
+		assertEquals(1, channel.receive(4, 0).size());
+		assertEquals(5, intercepted.get());
+	}
+
 	@Rule
 	public final TemporaryFolder tempFolder = new TemporaryFolder();
 
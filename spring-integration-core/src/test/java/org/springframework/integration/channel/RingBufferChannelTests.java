@@ -0,0 +1,218 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.channel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import org.springframework.integration.channel.RingBufferChannel.ProducerType;
+import org.springframework.integration.channel.RingBufferChannel.WaitStrategy;
+import org.springframework.integration.core.MessageSelector;
+import org.springframework.integration.test.util.TestUtils;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @since 4.2
+ */
+public class RingBufferChannelTests {
+
+	@Test
+	public void testCapacityRoundedUp() {
+		assertEquals(1, new RingBufferChannel(1).getCapacity());
+		assertEquals(2, new RingBufferChannel(2).getCapacity());
+		assertEquals(1024, new RingBufferChannel(1000).getCapacity());
+		assertEquals(1024, new RingBufferChannel(1024).getCapacity());
+	}
+
+	@Test
+	public void testSendAndReceiveInOrderWrappingAround() {
+		RingBufferChannel channel = new RingBufferChannel(4);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(channel.send(new GenericMessage<Integer>(i * 2)));
+			assertTrue(channel.send(new GenericMessage<Integer>(i * 2 + 1)));
+			assertEquals(2, channel.getQueueSize());
+			assertEquals(2, channel.getRemainingCapacity());
+			assertEquals(i * 2, channel.receive(0).getPayload());
+			assertEquals(i * 2 + 1, channel.receive(0).getPayload());
+		}
+		assertNull(channel.receive(0));
+		assertEquals(0, channel.getQueueSize());
+	}
+
+	@Test
+	public void testFullAndEmptyWithTimeouts() {
+		RingBufferChannel channel = new RingBufferChannel(2, ProducerType.SINGLE);
+		channel.setWaitStrategy(WaitStrategy.YIELD);
+		assertTrue(channel.send(new GenericMessage<String>("foo"), 0));
+		assertTrue(channel.send(new GenericMessage<String>("bar"), 0));
+		assertEquals(0, channel.getRemainingCapacity());
+		assertFalse(channel.send(new GenericMessage<String>("baz"), 0));
+		long start = System.currentTimeMillis();
+		assertFalse(channel.send(new GenericMessage<String>("baz"), 50));
+		assertTrue(System.currentTimeMillis() - start >= 50);
+		channel.clear();
+		start = System.currentTimeMillis();
+		assertNull(channel.receive(50));
+		assertTrue(System.currentTimeMillis() - start >= 50);
+	}
+
+	@Test
+	public void testBlockingReceiveWokenBySend() throws Exception {
+		final RingBufferChannel channel = new RingBufferChannel(8);
+		final AtomicReference<Message<?>> received = new AtomicReference<Message<?>>();
+		final CountDownLatch latch = new CountDownLatch(1);
+		Thread thread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				received.set(channel.receive());
+				latch.countDown();
+			}
+
+		});
+		thread.start();
+		Thread.sleep(50);
+		channel.send(new GenericMessage<String>("foo"));
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertEquals("foo", received.get().getPayload());
+	}
+
+	@Test
+	public void testBlockingSendWokenByReceive() throws Exception {
+		final RingBufferChannel channel = new RingBufferChannel(1);
+		assertTrue(channel.send(new GenericMessage<String>("foo")));
+		final CountDownLatch latch = new CountDownLatch(1);
+		Thread thread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				if (channel.send(new GenericMessage<String>("bar"))) {
+					latch.countDown();
+				}
+			}
+
+		});
+		thread.start();
+		Thread.sleep(50);
+		assertEquals(1, TestUtils.getPropertyValue(channel, "waitingProducers", AtomicInteger.class).get());
+		assertEquals("foo", channel.receive(0).getPayload());
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertEquals("bar", channel.receive(0).getPayload());
+	}
+
+	@Test
+	public void testBlockingReceiveInterrupted() throws Exception {
+		final RingBufferChannel channel = new RingBufferChannel(8);
+		final AtomicReference<Message<?>> received = new AtomicReference<Message<?>>(new GenericMessage<String>("x"));
+		final CountDownLatch latch = new CountDownLatch(1);
+		Thread thread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				received.set(channel.receive());
+				latch.countDown();
+			}
+
+		});
+		thread.start();
+		thread.interrupt();
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertNull(received.get());
+	}
+
+	@Test
+	public void testPurgeAndClear() {
+		RingBufferChannel channel = new RingBufferChannel(8);
+		for (int i = 0; i < 6; i++) {
+			channel.send(new GenericMessage<Integer>(i));
+		}
+		List<Message<?>> purged = channel.purge(new MessageSelector() {
+
+			@Override
+			public boolean accept(Message<?> message) {
+				return (Integer) message.getPayload() % 2 == 0;
+			}
+
+		});
+		assertEquals(3, purged.size());
+		assertEquals(3, channel.getQueueSize());
+		assertEquals(0, channel.receive(0).getPayload());
+		assertEquals(2, channel.receive(0).getPayload());
+		assertEquals(1, channel.clear().size());
+		assertEquals(0, channel.getQueueSize());
+	}
+
+	@Test
+	public void testMultipleProducersAndConsumers() throws Exception {
+		final int producers = 4;
+		final int perProducer = 50000;
+		final RingBufferChannel channel = new RingBufferChannel(64);
+		final AtomicIntegerArray seen = new AtomicIntegerArray(producers * perProducer);
+		final CountDownLatch consumed = new CountDownLatch(producers * perProducer);
+		ExecutorService exec = Executors.newCachedThreadPool();
+		for (int i = 0; i < 2; i++) {
+			exec.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					while (!Thread.currentThread().isInterrupted()) {
+						Message<?> message = channel.receive(100);
+						if (message != null) {
+							seen.incrementAndGet((Integer) message.getPayload());
+							consumed.countDown();
+						}
+					}
+				}
+
+			});
+		}
+		for (int i = 0; i < producers; i++) {
+			final int producer = i;
+			exec.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int j = 0; j < perProducer; j++) {
+						channel.send(new GenericMessage<Integer>(producer * perProducer + j));
+					}
+				}
+
+			});
+		}
+		assertTrue(consumed.await(30, TimeUnit.SECONDS));
+		exec.shutdownNow();
+		for (int i = 0; i < seen.length(); i++) {
+			assertEquals(1, seen.get(i));
+		}
+		assertEquals(0, channel.getQueueSize());
+	}
+
+}
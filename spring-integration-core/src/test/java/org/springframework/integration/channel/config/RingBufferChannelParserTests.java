@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.channel.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.integration.channel.RingBufferChannel;
+import org.springframework.integration.channel.RingBufferChannel.WaitStrategy;
+import org.springframework.integration.test.util.TestUtils;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @since 4.2
+ */
+public class RingBufferChannelParserTests {
+
+	@Test
+	public void testRingBufferChannels() {
+		ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext(
+				"ringBufferChannelParserTests.xml", RingBufferChannelParserTests.class);
+		RingBufferChannel channel = context.getBean("defaultChannel", RingBufferChannel.class);
+		assertEquals(128, channel.getCapacity());
+		assertFalse(TestUtils.getPropertyValue(channel, "singleProducer", Boolean.class));
+		assertEquals(WaitStrategy.BLOCK, TestUtils.getPropertyValue(channel, "waitStrategy"));
+		assertTrue(channel.send(new GenericMessage<String>("foo")));
+		assertEquals("foo", channel.receive(0).getPayload());
+
+		channel = context.getBean("singleProducerChannel", RingBufferChannel.class);
+		assertEquals(16, channel.getCapacity());
+		assertTrue(TestUtils.getPropertyValue(channel, "singleProducer", Boolean.class));
+		assertEquals(WaitStrategy.YIELD, TestUtils.getPropertyValue(channel, "waitStrategy"));
+		context.close();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,9 +19,16 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Test;
@@ -30,6 +37,7 @@ import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.integration.support.IdGenerators.JdkIdGenerator;
+import org.springframework.integration.support.IdGenerators.NodeSequenceIdGenerator;
 import org.springframework.integration.support.IdGenerators.SimpleIncrementingIdGenerator;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.MessageHeaders;
@@ -203,6 +211,44 @@ public class IdGeneratorConfigurerTests {
 		context.destroy();
 	}
 
+	@Test
+	public void testNodeSequence() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBeanDefinition("bfpp", new RootBeanDefinition(DefaultConfiguringBeanFactoryPostProcessor.class));
+		RootBeanDefinition generator = new RootBeanDefinition(NodeSequenceIdGenerator.class);
+		generator.getConstructorArgumentValues().addGenericArgumentValue(0xabcdef);
+		context.registerBeanDefinition("foo", generator);
+		context.refresh();
+		MessageHeaders headers = new MessageHeaders(null);
+		assertSame(context.getBean(IdGenerator.class), TestUtils.getPropertyValue(headers, "idGenerator"));
+		assertEquals(0xabcdef, headers.getId().getMostSignificantBits() >>> 40);
+		long first = headers.getId().getLeastSignificantBits();
+		assertEquals(first + 1, new MessageHeaders(null).getId().getLeastSignificantBits());
+
+		final Set<UUID> ids = Collections.synchronizedSet(new HashSet<UUID>());
+		final int perThread = 300000;
+		ExecutorService exec = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < 4; i++) {
+			exec.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int j = 0; j < perThread; j++) {
+						ids.add(new MessageHeaders(null).getId());
+					}
+				}
+
+			});
+		}
+		exec.shutdown();
+		assertTrue(exec.awaitTermination(30, TimeUnit.SECONDS));
+		assertEquals(4 * perThread, ids.size());
+		assertNotEquals(new NodeSequenceIdGenerator(0xabcdef).generateId().getMostSignificantBits() >>> 40,
+				new NodeSequenceIdGenerator(0xabcdee).generateId().getMostSignificantBits() >>> 40);
+
+		context.destroy();
+	}
+
 	public static class MyIdGenerator implements IdGenerator {
 
 		@Override
@@ -19,6 +19,7 @@ package org.springframework.integration.config.xml;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
@@ -117,6 +118,19 @@ public class GatewayParserTests {
 		assertNotNull(TestUtils.getPropertyValue(context.getBean("&promise"), "asyncExecutor"));
 	}
 
+	@Test
+	public void testNonBlockingGateway() throws Exception {
+		PollableChannel requestChannel = context.getBean("requestChannel", PollableChannel.class);
+		MessageChannel replyChannel = context.getBean("replyChannel", MessageChannel.class);
+		this.startResponder(requestChannel, replyChannel);
+		TestService service = context.getBean("nonBlocking", TestService.class);
+		Future<Message<?>> result = service.async("foo");
+		Message<?> reply = result.get(1, TimeUnit.SECONDS);
+		assertEquals("foo", reply.getPayload());
+		assertNull(reply.getHeaders().get("executor"));
+		assertTrue(TestUtils.getPropertyValue(context.getBean("&nonBlocking"), "nonBlockingReplies", Boolean.class));
+	}
+
 	private void startResponder(final PollableChannel requestChannel, final MessageChannel replyChannel) {
 		Executors.newSingleThreadExecutor().execute(new Runnable() {
 			@Override
@@ -17,16 +17,19 @@
 package org.springframework.integration.endpoint;
 
 import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -35,6 +38,8 @@ import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.integration.aop.AbstractMessageSourceAdvice;
@@ -42,6 +47,7 @@ import org.springframework.integration.aop.SimpleActiveIdleMessageSourceAdvice;
 import org.springframework.integration.channel.NullChannel;
 import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.core.MessageSource;
+import org.springframework.integration.scheduling.AdaptivePollingAdvice;
 import org.springframework.integration.scheduling.PollSkipAdvice;
 import org.springframework.integration.scheduling.PollSkipStrategy;
 import org.springframework.integration.util.DynamicPeriodicTrigger;
@@ -49,6 +55,7 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.support.GenericMessage;
 import org.springframework.scheduling.Trigger;
 import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
@@ -237,6 +244,107 @@ public class PollerAdviceTests {
 		assertThat(triggerPeriods, Matchers.contains(10L, 12L, 11L, 12L, 11L));
 	}
 
+	@Test
+	public void testAdaptiveBackOff() throws Exception {
+		SourcePollingChannelAdapter adapter = new SourcePollingChannelAdapter();
+		final CountDownLatch latch = new CountDownLatch(9);
+		final List<Long> triggerPeriods = Collections.synchronizedList(new ArrayList<Long>());
+		final DynamicPeriodicTrigger trigger = new DynamicPeriodicTrigger(10);
+		adapter.setSource(new MessageSource<Object>() {
+
+			@Override
+			public Message<Object> receive() {
+				triggerPeriods.add(trigger.getPeriod());
+				Message<Object> m = null;
+				if (latch.getCount() > 6 || latch.getCount() == 2) {
+					m = new GenericMessage<Object>("foo");
+				}
+				latch.countDown();
+				return m;
+			}
+		});
+		adapter.setTrigger(trigger);
+		AdaptivePollingAdvice advice = new AdaptivePollingAdvice(trigger);
+		advice.setMaxPeriod(80);
+		adapter.setAdviceChain(Collections.<Advice>singletonList(advice));
+		configure(adapter);
+		adapter.afterPropertiesSet();
+		adapter.start();
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		adapter.stop();
+		assertThat(triggerPeriods.subList(0, 9), Matchers.contains(10L, 10L, 10L, 10L, 20L, 40L, 80L, 80L, 10L));
+	}
+
+	@Test
+	public void testAdaptivePeriodInSeconds() throws Throwable {
+		DynamicPeriodicTrigger trigger = new DynamicPeriodicTrigger(1, TimeUnit.SECONDS);
+		AdaptivePollingAdvice advice = new AdaptivePollingAdvice(trigger);
+		advice.setMultiplier(1.5);
+		MethodInvocation invocation = mock(MethodInvocation.class);
+		when(invocation.getMethod()).thenReturn(Callable.class.getMethod("call"));
+		when(invocation.proceed()).thenReturn(false);
+		List<Long> periods = new ArrayList<Long>();
+		for (int i = 0; i < 4; i++) {
+			advice.invoke(invocation);
+			periods.add(trigger.getPeriod());
+		}
+		// 1500ms, 2250ms, 3375ms, 5062ms, rounded up
+		assertThat(periods, Matchers.contains(2L, 3L, 4L, 6L));
+		assertEquals(TimeUnit.SECONDS, trigger.getTimeUnit());
+
+		when(invocation.proceed()).thenReturn(true);
+		advice.invoke(invocation);
+		assertEquals(1L, trigger.getPeriod());
+	}
+
+	@Test
+	public void testAdaptiveConcurrency() throws Throwable {
+		DynamicPeriodicTrigger trigger = new DynamicPeriodicTrigger(10);
+		AdaptivePollingAdvice advice = new AdaptivePollingAdvice(trigger);
+		QueueChannel queue = new QueueChannel();
+		for (int i = 0; i < 100; i++) {
+			queue.send(new GenericMessage<Integer>(i));
+		}
+		ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+		taskExecutor.setQueueCapacity(0);
+		taskExecutor.afterPropertiesSet();
+		advice.setQueue(queue);
+		advice.setTaskExecutor(taskExecutor);
+		advice.setMaxConcurrency(4);
+		advice.setDrainTime(100);
+		MethodInvocation invocation = mock(MethodInvocation.class);
+		when(invocation.getMethod()).thenReturn(Callable.class.getMethod("call"));
+		when(invocation.proceed()).thenAnswer(new Answer<Boolean>() {
+
+			@Override
+			public Boolean answer(InvocationOnMock invocation) throws Throwable {
+				Thread.sleep(10);
+				return true;
+			}
+
+		});
+		// 100 messages at 10ms each within 100ms needs at least 10 threads
+		assertEquals(Boolean.TRUE, advice.invoke(invocation));
+		assertTrue(advice.getAverageLatency() >= TimeUnit.MILLISECONDS.toNanos(10));
+		assertEquals(4, advice.getConcurrency());
+		assertEquals(4, taskExecutor.getCorePoolSize());
+		assertEquals(4, taskExecutor.getMaxPoolSize());
+
+		when(invocation.proceed()).thenReturn(false);
+		assertEquals(Boolean.FALSE, advice.invoke(invocation));
+		assertEquals(3, advice.getConcurrency());
+		assertEquals(3, taskExecutor.getMaxPoolSize());
+		assertEquals(20L, trigger.getPeriod());
+
+		queue.clear();
+		when(invocation.proceed()).thenReturn(true);
+		assertEquals(Boolean.TRUE, advice.invoke(invocation));
+		assertEquals(1, advice.getConcurrency());
+		assertEquals(1, taskExecutor.getCorePoolSize());
+		assertEquals(10L, trigger.getPeriod());
+		taskExecutor.destroy();
+	}
+
 	private void configure(SourcePollingChannelAdapter adapter) {
 		adapter.setOutputChannel(new NullChannel());
 		adapter.setBeanFactory(mock(BeanFactory.class));
@@ -16,10 +16,15 @@
 
 package org.springframework.integration.endpoint;
 
+import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -33,6 +38,8 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.messaging.Message;
 import org.springframework.integration.MessageRejectedException;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.dispatcher.AggregateMessageDeliveryException;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.PollableChannel;
 import org.springframework.messaging.support.GenericMessage;
@@ -171,6 +178,67 @@ public class PollingConsumerEndpointTests {
 		assertEquals(1, consumer.counter.get());
 	}
 
+	@Test
+	public void batchOfMessages() {
+		QueueChannel channel = new QueueChannel();
+		for (int i = 0; i < 5; i++) {
+			channel.send(i % 2 == 0 ? message : badMessage);
+		}
+		PollingConsumer batchEndpoint = createBatchEndpoint(channel, consumer);
+		batchEndpoint.setMaxMessagesPerPoll(1);
+		batchEndpoint.start();
+		trigger.await();
+		batchEndpoint.stop();
+		assertEquals(5, consumer.counter.get());
+		assertEquals(0, channel.getQueueSize());
+		try {
+			errorHandler.throwLastErrorIfAvailable();
+			fail("expected AggregateMessageDeliveryException");
+		}
+		catch (Throwable t) {
+			assertThat(t, instanceOf(AggregateMessageDeliveryException.class));
+			assertEquals(2, ((AggregateMessageDeliveryException) t).getAggregatedExceptions().size());
+		}
+	}
+
+	@Test
+	public void batchHandledInOneInvocation() {
+		QueueChannel channel = new QueueChannel();
+		for (int i = 0; i < 7; i++) {
+			channel.send(new GenericMessage<Integer>(i));
+		}
+		final List<Object> payloads = new ArrayList<Object>();
+		PollingConsumer batchEndpoint = createBatchEndpoint(channel, new MessageHandler() {
+
+			@Override
+			public void handleMessage(Message<?> message) {
+				payloads.add(message.getPayload());
+			}
+
+		});
+		batchEndpoint.setHandleBatch(true);
+		batchEndpoint.setMaxMessagesPerPoll(2);
+		batchEndpoint.start();
+		trigger.await();
+		batchEndpoint.stop();
+		assertEquals(2, payloads.size());
+		assertEquals(5, ((List<?>) payloads.get(0)).size());
+		assertEquals(2, ((List<?>) payloads.get(1)).size());
+		assertEquals(6, ((Message<?>) ((List<?>) payloads.get(1)).get(1)).getPayload());
+	}
+
+	private PollingConsumer createBatchEndpoint(QueueChannel channel, MessageHandler handler) {
+		PollingConsumer batchEndpoint = new PollingConsumer(channel, handler);
+		batchEndpoint.setErrorHandler(errorHandler);
+		batchEndpoint.setTaskScheduler(taskScheduler);
+		batchEndpoint.setTrigger(trigger);
+		batchEndpoint.setBeanFactory(mock(BeanFactory.class));
+		batchEndpoint.setReceiveTimeout(0);
+		batchEndpoint.setBatchSize(5);
+		batchEndpoint.afterPropertiesSet();
+		return batchEndpoint;
+	}
+
 
 	private static class TestConsumer implements MessageHandler {
 
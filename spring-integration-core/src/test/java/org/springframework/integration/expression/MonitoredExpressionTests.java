@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @since 4.2
+ */
+public class MonitoredExpressionTests {
+
+	private final SpelExpressionParser parser = new SpelExpressionParser();
+
+	private final EvaluationContext context = new StandardEvaluationContext();
+
+	@Test
+	public void testImmediateCompilation() {
+		MonitoredExpression expression = new MonitoredExpression(
+				this.parser.parseExpression("payload.toUpperCase()"), SpelCompilerMode.IMMEDIATE);
+		assertTrue(expression.isCompilable());
+		assertFalse(expression.isCompiled());
+		assertEquals("FOO", expression.getValue(this.context, new GenericMessage<String>("foo"), String.class));
+		assertTrue(expression.isCompiled());
+		assertEquals("BAR", expression.getValue(this.context, new GenericMessage<String>("bar"), String.class));
+		assertEquals(2, expression.getEvaluationCount());
+		assertEquals(1, expression.getCompiledEvaluationCount());
+		assertTrue(expression.getEvaluationTime() > 0);
+		assertEquals(0, expression.getCompilationFailureCount());
+	}
+
+	@Test
+	public void testMixedCompilationAfterThreshold() {
+		MonitoredExpression expression = new MonitoredExpression(
+				this.parser.parseExpression("payload + 1"), SpelCompilerMode.MIXED);
+		GenericMessage<Integer> message = new GenericMessage<Integer>(1);
+		for (int i = 1; i < MonitoredExpression.INTERPRETED_COUNT_THRESHOLD; i++) {
+			assertEquals(Integer.valueOf(2), expression.getValue(this.context, message, Integer.class));
+			assertFalse(expression.isCompiled());
+		}
+		expression.getValue(this.context, message, Integer.class);
+		assertTrue(expression.isCompiled());
+		assertEquals(Integer.valueOf(2), expression.getValue(this.context, message, Integer.class));
+		assertEquals(1, expression.getCompiledEvaluationCount());
+	}
+
+	@Test
+	public void testFallbackToInterpretation() {
+		MonitoredExpression expression = new MonitoredExpression(
+				this.parser.parseExpression("payload.length()"), SpelCompilerMode.IMMEDIATE);
+		assertEquals(Integer.valueOf(3), expression.getValue(this.context, new GenericMessage<String>("foo"),
+				Integer.class));
+		assertTrue(expression.isCompiled());
+		// the compiled expression casts the payload to String
+		assertEquals(Integer.valueOf(6), expression.getValue(this.context,
+				new GenericMessage<StringBuilder>(new StringBuilder("foobar")), Integer.class));
+		assertEquals(1, expression.getFallbackCount());
+		assertEquals(2, expression.getEvaluationCount());
+		assertEquals(0, expression.getCompiledEvaluationCount());
+	}
+
+	@Test
+	public void testNotCompilable() {
+		Expression literal = new LiteralExpression("foo");
+		MonitoredExpression expression = new MonitoredExpression(literal, SpelCompilerMode.IMMEDIATE);
+		assertFalse(expression.isCompilable());
+		assertEquals("foo", expression.getValue(this.context));
+		assertEquals("foo", expression.getValue(this.context, String.class));
+		assertFalse(expression.isCompiled());
+		assertEquals(2, expression.getEvaluationCount());
+
+		expression = new MonitoredExpression(this.parser.parseExpression("'foo'"), SpelCompilerMode.OFF);
+		assertFalse(expression.isCompilable());
+		assertEquals("foo", expression.getValue(this.context));
+		assertFalse(expression.isCompiled());
+	}
+
+}
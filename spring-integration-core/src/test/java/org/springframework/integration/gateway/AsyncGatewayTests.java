@@ -17,13 +17,17 @@
 package org.springframework.integration.gateway;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -33,6 +37,9 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.integration.annotation.Gateway;
@@ -41,9 +48,12 @@ import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.channel.QueueChannel;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.PollableChannel;
 import org.springframework.messaging.support.ChannelInterceptorAdapter;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.util.concurrent.ListenableFutureCallback;
 
@@ -346,6 +356,206 @@ public class AsyncGatewayTests {
 		}
 	}
 
+	@Test
+	public void nonBlockingListenableFutureReturned() throws Exception {
+		QueueChannel requestChannel = new QueueChannel();
+		startResponder(requestChannel);
+		GatewayProxyFactoryBean proxyFactory = new GatewayProxyFactoryBean();
+		proxyFactory.setDefaultRequestChannel(requestChannel);
+		proxyFactory.setServiceInterface(TestEchoService.class);
+		proxyFactory.setBeanName("testGateway");
+		proxyFactory.setBeanFactory(mock(BeanFactory.class));
+		proxyFactory.setAsyncExecutor(null);
+		proxyFactory.setNonBlockingReplies(true);
+		proxyFactory.afterPropertiesSet();
+		TestEchoService service = (TestEchoService) proxyFactory.getObject();
+		ListenableFuture<Message<?>> f = service.returnMessageListenable("foo");
+		assertFalse(f.isDone());
+		final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+		final CountDownLatch latch = new CountDownLatch(1);
+		f.addCallback(new ListenableFutureCallback<Message<?>>() {
+
+			@Override
+			public void onSuccess(Message<?> result) {
+				thread.set(Thread.currentThread());
+				latch.countDown();
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+			}
+
+		});
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertNotEquals(Thread.currentThread(), thread.get());
+		Message<?> result = f.get();
+		assertEquals("foobar", result.getPayload());
+		assertNull(result.getHeaders().getReplyChannel());
+		assertNull(result.getHeaders().getErrorChannel());
+		startResponder(requestChannel);
+		assertEquals("foobar", service.returnString("foo").get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void nonBlockingCompletableFutureAndPublisherReturned() throws Exception {
+		QueueChannel requestChannel = new QueueChannel();
+		startResponder(requestChannel);
+		startResponder(requestChannel);
+		GatewayProxyFactoryBean proxyFactory = new GatewayProxyFactoryBean();
+		proxyFactory.setDefaultRequestChannel(requestChannel);
+		proxyFactory.setServiceInterface(TestEchoService.class);
+		proxyFactory.setBeanName("testGateway");
+		proxyFactory.setBeanFactory(mock(BeanFactory.class));
+		proxyFactory.setNonBlockingReplies(true);
+		proxyFactory.afterPropertiesSet();
+		TestEchoService service = (TestEchoService) proxyFactory.getObject();
+		CompletableFuture<String> completableFuture = service.returnStringCompletable("foo");
+		Publisher<String> publisher = service.returnStringPublisher("baz");
+		assertEquals("foobar", completableFuture.get(10, TimeUnit.SECONDS));
+		final AtomicReference<Object> received = new AtomicReference<Object>();
+		final CountDownLatch latch = new CountDownLatch(1);
+		publisher.subscribe(new Subscriber<String>() {
+
+			@Override
+			public void onSubscribe(Subscription subscription) {
+				subscription.request(1);
+			}
+
+			@Override
+			public void onNext(String item) {
+				received.set(item);
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				received.set(t);
+				latch.countDown();
+			}
+
+			@Override
+			public void onComplete() {
+				latch.countDown();
+			}
+
+		});
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertEquals("bazbar", received.get());
+	}
+
+	@Test
+	public void nonBlockingReplyTimeout() throws Exception {
+		ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+		taskScheduler.afterPropertiesSet();
+		GatewayProxyFactoryBean proxyFactory = new GatewayProxyFactoryBean();
+		proxyFactory.setDefaultRequestChannel(new QueueChannel());
+		proxyFactory.setDefaultReplyTimeout(100L);
+		proxyFactory.setServiceInterface(TestEchoService.class);
+		proxyFactory.setBeanName("testGateway");
+		proxyFactory.setBeanFactory(mock(BeanFactory.class));
+		proxyFactory.setTaskScheduler(taskScheduler);
+		proxyFactory.setNonBlockingReplies(true);
+		proxyFactory.afterPropertiesSet();
+		TestEchoService service = (TestEchoService) proxyFactory.getObject();
+		assertNull(service.returnMessageListenable("foo").get(10, TimeUnit.SECONDS));
+		taskScheduler.destroy();
+	}
+
+	@Test
+	public void nonBlockingReplyTimeoutWithoutTaskScheduler() throws Exception {
+		GatewayProxyFactoryBean proxyFactory = new GatewayProxyFactoryBean();
+		proxyFactory.setDefaultRequestChannel(new QueueChannel());
+		proxyFactory.setDefaultReplyTimeout(100L);
+		proxyFactory.setServiceInterface(TestEchoService.class);
+		proxyFactory.setBeanName("testGateway");
+		proxyFactory.setBeanFactory(mock(BeanFactory.class));
+		proxyFactory.setNonBlockingReplies(true);
+		proxyFactory.afterPropertiesSet();
+		TestEchoService service = (TestEchoService) proxyFactory.getObject();
+		assertNull(service.returnMessageListenable("foo").get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void nonBlockingReplyTimeoutStartsAfterSend() throws Exception {
+		DirectChannel requestChannel = new DirectChannel();
+		requestChannel.subscribe(new MessageHandler() {
+
+			@Override
+			public void handleMessage(Message<?> message) throws MessagingException {
+				try {
+					Thread.sleep(300);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				((MessageChannel) message.getHeaders().getReplyChannel())
+						.send(MessageBuilder.withPayload("slow").build());
+			}
+
+		});
+		GatewayProxyFactoryBean proxyFactory = new GatewayProxyFactoryBean();
+		proxyFactory.setDefaultRequestChannel(requestChannel);
+		proxyFactory.setDefaultReplyTimeout(100L);
+		proxyFactory.setServiceInterface(TestEchoService.class);
+		proxyFactory.setBeanName("testGateway");
+		proxyFactory.setBeanFactory(mock(BeanFactory.class));
+		proxyFactory.setNonBlockingReplies(true);
+		proxyFactory.afterPropertiesSet();
+		TestEchoService service = (TestEchoService) proxyFactory.getObject();
+		assertEquals("slow", service.returnString("foo").get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void nonBlockingErrors() throws Exception {
+		final RuntimeException failure = new RuntimeException("failed");
+		DirectChannel requestChannel = new DirectChannel();
+		requestChannel.subscribe(new MessageHandler() {
+
+			@Override
+			public void handleMessage(Message<?> message) throws MessagingException {
+				throw failure;
+			}
+
+		});
+		GatewayProxyFactoryBean proxyFactory = new GatewayProxyFactoryBean();
+		proxyFactory.setDefaultRequestChannel(requestChannel);
+		proxyFactory.setServiceInterface(TestEchoService.class);
+		proxyFactory.setBeanName("testGateway");
+		proxyFactory.setBeanFactory(mock(BeanFactory.class));
+		proxyFactory.setNonBlockingReplies(true);
+		proxyFactory.afterPropertiesSet();
+		TestEchoService service = (TestEchoService) proxyFactory.getObject();
+		Future<String> f = service.returnString("foo");
+		assertTrue(f.isDone());
+		try {
+			f.get();
+			fail("Expected Exception");
+		}
+		catch (ExecutionException e) {
+			assertSame(failure, e.getCause().getCause());
+		}
+
+		DirectChannel errorChannel = new DirectChannel();
+		errorChannel.subscribe(new MessageHandler() {
+
+			@Override
+			public void handleMessage(Message<?> message) throws MessagingException {
+				((MessageChannel) message.getHeaders().getReplyChannel())
+						.send(MessageBuilder.withPayload("handled").build());
+			}
+
+		});
+		proxyFactory = new GatewayProxyFactoryBean();
+		proxyFactory.setDefaultRequestChannel(requestChannel);
+		proxyFactory.setErrorChannel(errorChannel);
+		proxyFactory.setServiceInterface(TestEchoService.class);
+		proxyFactory.setBeanName("testGateway");
+		proxyFactory.setBeanFactory(mock(BeanFactory.class));
+		proxyFactory.setNonBlockingReplies(true);
+		proxyFactory.afterPropertiesSet();
+		service = (TestEchoService) proxyFactory.getObject();
+		assertEquals("handled", service.returnString("foo").get(10, TimeUnit.SECONDS));
+	}
+
 	private static void startResponder(final PollableChannel requestChannel) {
 		new Thread(new Runnable() {
 
@@ -399,6 +609,10 @@ public class AsyncGatewayTests {
 
 		Promise<?> returnSomethingPromise(String s);
 
+		CompletableFuture<String> returnStringCompletable(String s);
+
+		Publisher<String> returnStringPublisher(String s);
+
 	}
 
 	private static class CustomFuture implements Future<String> {
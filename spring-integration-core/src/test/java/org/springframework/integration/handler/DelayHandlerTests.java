@@ -49,6 +49,7 @@ import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.context.IntegrationContextUtils;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.store.MessageGroupStore;
+import org.springframework.integration.store.ShardedMessageStore;
 import org.springframework.integration.store.SimpleMessageStore;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.integration.test.util.TestUtils;
@@ -130,6 +131,19 @@ public class DelayHandlerTests {
 		assertNotSame(Thread.currentThread(), resultHandler.lastThread);
 	}
 
+	@Test
+	public void delayedMessageReleasedFromShardedMessageStore() throws Exception {
+		ShardedMessageStore messageStore = new ShardedMessageStore();
+		delayHandler.setMessageStore(messageStore);
+		delayHandler.setDefaultDelay(10);
+		this.startDelayerHandler();
+		Message<?> message = MessageBuilder.withPayload("test").build();
+		input.send(message);
+		this.waitForLatch(1000);
+		assertSame(message.getPayload(), resultHandler.lastMessage.getPayload());
+		assertEquals(0, messageStore.messageGroupSize(DELAYER_MESSAGE_GROUP_ID));
+	}
+
 	@Test
 	public void delayHeaderAndDefaultDelayWouldTimeout() throws Exception {
 		delayHandler.setDefaultDelay(5000);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
  * the License. You may obtain a copy of the License at
@@ -18,6 +18,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 import java.util.Arrays;
+import java.util.Properties;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -38,10 +39,13 @@ import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
 import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.integration.config.IntegrationEvaluationContextFactoryBean;
 import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.integration.context.IntegrationProperties;
+import org.springframework.integration.expression.MonitoredExpression;
 import org.springframework.messaging.support.GenericMessage;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.integration.test.util.TestUtils;
@@ -267,6 +271,40 @@ public class ExpressionEvaluatingMessageProcessorTests {
 		assertEquals("foo", processor.processMessage(new GenericMessage<TestPayload>(new TestPayload())));
 	}
 
+	@Test
+	public void testCompiledExpression() {
+		Expression expression = expressionParser.parseExpression("payload.toUpperCase()");
+		ExpressionEvaluatingMessageProcessor<String> processor =
+				new ExpressionEvaluatingMessageProcessor<String>(expression, String.class);
+		processor.setBeanFactory(mock(BeanFactory.class));
+		processor.setCompilerMode(SpelCompilerMode.IMMEDIATE);
+		assertEquals("FOO", processor.processMessage(new GenericMessage<String>("foo")));
+		assertEquals("BAR", processor.processMessage(new GenericMessage<String>("bar")));
+		assertEquals(1, processor.getMonitoredExpressions().size());
+		MonitoredExpression monitoredExpression = processor.getMonitoredExpressions().iterator().next();
+		assertTrue(monitoredExpression.isCompiled());
+		assertEquals(2, monitoredExpression.getEvaluationCount());
+		assertEquals(1, monitoredExpression.getCompiledEvaluationCount());
+	}
+
+	@Test
+	public void testCompilerModeFromIntegrationProperties() {
+		StaticApplicationContext context = new StaticApplicationContext();
+		Properties properties = new Properties();
+		properties.setProperty(IntegrationProperties.SPEL_COMPILER_MODE, "mixed");
+		context.getBeanFactory().registerSingleton(IntegrationContextUtils.INTEGRATION_GLOBAL_PROPERTIES_BEAN_NAME,
+				properties);
+		context.refresh();
+		ExpressionEvaluatingMessageProcessor<Object> processor =
+				new ExpressionEvaluatingMessageProcessor<Object>(expressionParser.parseExpression("payload"));
+		assertEquals(SpelCompilerMode.OFF, processor.getCompilerMode());
+		processor.setBeanFactory(context);
+		assertEquals(SpelCompilerMode.MIXED, processor.getCompilerMode());
+		assertEquals("foo", processor.processMessage(new GenericMessage<String>("foo")));
+		assertEquals(1, processor.getMonitoredExpressions().size());
+		context.close();
+	}
+
 
 	@SuppressWarnings("unused")
 	private static class TestPayload {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2011 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,16 @@
 
 package org.springframework.integration.router;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.factory.support.ManagedMap;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.context.support.StaticApplicationContext;
@@ -86,6 +92,41 @@ public class HeaderValueRouterTests {
 		assertSame(message, result);
 	}
 
+	@Test
+	public void dynamicChannelLimit() {
+		final Map<String, QueueChannel> channels = new HashMap<String, QueueChannel>();
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		for (String name : new String[] { "a", "b", "c" }) {
+			channels.put(name, new QueueChannel());
+			if (!"c".equals(name)) {
+				beanFactory.registerSingleton(name, channels.get(name));
+			}
+		}
+		final AtomicInteger resolutions = new AtomicInteger();
+		HeaderValueRouter router = new HeaderValueRouter("testHeaderName");
+		router.setBeanFactory(beanFactory);
+		router.setChannelResolver(new DestinationResolver<MessageChannel>() {
+
+			@Override
+			public MessageChannel resolveDestination(String name) {
+				resolutions.incrementAndGet();
+				return channels.get(name);
+			}
+
+		});
+		router.setDynamicChannelLimit(1);
+		for (int i = 0; i < 2; i++) {
+			for (String name : new String[] { "a", "b", "c" }) {
+				router.handleMessage(MessageBuilder.withPayload("test").setHeader("testHeaderName", name).build());
+			}
+		}
+		assertEquals(2, channels.get("a").getQueueSize());
+		assertEquals(2, channels.get("b").getQueueSize());
+		assertEquals(2, channels.get("c").getQueueSize());
+		// 'a' is cached; 'b' exceeds the limit and 'c' is not a bean
+		assertEquals(5, resolutions.get());
+	}
+
 	@Test
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public void resolveChannelNameFromMap() {
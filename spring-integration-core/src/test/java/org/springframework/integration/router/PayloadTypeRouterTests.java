@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,13 +23,17 @@ import static org.junit.Assert.assertNull;
 
 import java.io.Serializable;
 import java.util.Map;
+import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandlingException;
+import org.springframework.messaging.core.DestinationResolver;
 import org.springframework.integration.channel.QueueChannel;
 import org.springframework.messaging.support.GenericMessage;
 
@@ -566,6 +570,52 @@ public class PayloadTypeRouterTests {
 		router.handleMessage(message);
 	}
 
+	@Test
+	public void resolutionCachedUntilMappingsChange() {
+		final QueueChannel stringChannel = new QueueChannel();
+		final QueueChannel charSequenceChannel = new QueueChannel();
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerSingleton("stringChannel", stringChannel);
+		beanFactory.registerSingleton("charSequenceChannel", charSequenceChannel);
+		final AtomicInteger resolutions = new AtomicInteger();
+		PayloadTypeRouter router = new PayloadTypeRouter();
+		router.setChannelMapping(CharSequence.class.getName(), "stringChannel");
+		router.setBeanFactory(beanFactory);
+		router.setChannelResolver(new DestinationResolver<MessageChannel>() {
+
+			@Override
+			public MessageChannel resolveDestination(String name) {
+				resolutions.incrementAndGet();
+				return "stringChannel".equals(name) ? stringChannel : charSequenceChannel;
+			}
+
+		});
+		for (int i = 0; i < 3; i++) {
+			router.handleMessage(new GenericMessage<String>("foo"));
+			router.handleMessage(new GenericMessage<StringBuilder>(new StringBuilder("bar")));
+		}
+		assertEquals(6, stringChannel.getQueueSize());
+		assertEquals(1, resolutions.get());
+
+		Properties mappings = new Properties();
+		mappings.setProperty(CharSequence.class.getName(), "charSequenceChannel");
+		mappings.setProperty(String.class.getName(), "stringChannel");
+		router.replaceChannelMappings(mappings);
+		stringChannel.clear();
+		for (int i = 0; i < 3; i++) {
+			router.handleMessage(new GenericMessage<String>("foo"));
+			router.handleMessage(new GenericMessage<StringBuilder>(new StringBuilder("bar")));
+		}
+		assertEquals(3, stringChannel.getQueueSize());
+		assertEquals(3, charSequenceChannel.getQueueSize());
+		assertEquals(3, resolutions.get());
+
+		router.setPrefix("foo.");
+		router.handleMessage(new GenericMessage<String>("foo"));
+		assertEquals(4, charSequenceChannel.getQueueSize());
+		assertEquals(4, resolutions.get());
+	}
+
 	@SuppressWarnings("serial")
 	public static class C1 extends C2 implements I1A, I1B {}
 
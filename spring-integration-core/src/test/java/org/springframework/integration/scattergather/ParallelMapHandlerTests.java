@@ -0,0 +1,211 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.scattergather;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.MessageTimeoutException;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.handler.MessageProcessor;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.test.util.TestUtils;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandlingException;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * @since 4.2
+ */
+public class ParallelMapHandlerTests {
+
+	@Test
+	public void testResultsInOrder() throws Exception {
+		final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+		ParallelMapHandler handler = new ParallelMapHandler(new MessageProcessor<Object>() {
+
+			@Override
+			public Object processMessage(Message<?> message) {
+				threads.add(Thread.currentThread());
+				int value = (Integer) message.getPayload();
+				if (value % 3 == 0) {
+					try {
+						Thread.sleep(5);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return value % 10 == 0 ? null : value * 2 + (Integer) message.getHeaders().get("offset");
+			}
+
+		});
+		ExecutorService exec = Executors.newFixedThreadPool(4);
+		handler.setExecutor(exec);
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+		QueueChannel replyChannel = new QueueChannel();
+		handler.setOutputChannel(replyChannel);
+		List<Integer> parts = new ArrayList<Integer>();
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 1; i <= 100; i++) {
+			parts.add(i);
+			expected.add(i % 10 == 0 ? null : i * 2 + 1);
+		}
+		handler.handleMessage(MessageBuilder.withPayload(parts)
+				.setHeader("offset", 1)
+				.build());
+		Message<?> reply = replyChannel.receive(0);
+		assertEquals(expected, reply.getPayload());
+		assertTrue(threads.size() > 1);
+		exec.shutdownNow();
+	}
+
+	@Test
+	public void testSplitterAndArrayParts() {
+		ParallelMapHandler handler = new ParallelMapHandler(new Mapper(), "upperCase");
+		handler.setSplitter(new MessageProcessor<Object>() {
+
+			@Override
+			public Object processMessage(Message<?> message) {
+				Object payload = message.getPayload();
+				return payload instanceof String ? ((String) payload).split(",") : payload;
+			}
+
+		});
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+		QueueChannel replyChannel = new QueueChannel();
+		handler.setOutputChannel(replyChannel);
+		handler.handleMessage(new GenericMessage<String>("foo,bar,baz"));
+		assertEquals(Arrays.asList("FOO", "BAR", "BAZ"), replyChannel.receive(0).getPayload());
+		handler.handleMessage(new GenericMessage<String>("qux"));
+		assertEquals(Collections.singletonList("QUX"), replyChannel.receive(0).getPayload());
+		handler.handleMessage(new GenericMessage<List<String>>(Collections.<String>emptyList()));
+		assertNull(replyChannel.receive(0));
+		ThreadPoolTaskExecutor executor = TestUtils.getPropertyValue(handler, "executor", ThreadPoolTaskExecutor.class);
+		handler.destroy();
+		assertTrue(executor.getThreadPoolExecutor().isShutdown());
+	}
+
+	@Test
+	public void testPrimitiveArrayParts() {
+		ParallelMapHandler handler = new ParallelMapHandler(new MessageProcessor<Object>() {
+
+			@Override
+			public Object processMessage(Message<?> message) {
+				return ((Integer) message.getPayload()) * 2;
+			}
+
+		});
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+		QueueChannel replyChannel = new QueueChannel();
+		handler.setOutputChannel(replyChannel);
+		handler.handleMessage(new GenericMessage<int[]>(new int[] { 1, 2, 3 }));
+		assertEquals(Arrays.asList(2, 4, 6), replyChannel.receive(0).getPayload());
+		handler.destroy();
+	}
+
+	@Test
+	public void testFailure() {
+		final RuntimeException failure = new IllegalStateException("bad part");
+		ParallelMapHandler handler = new ParallelMapHandler(new MessageProcessor<Object>() {
+
+			@Override
+			public Object processMessage(Message<?> message) {
+				if ((Integer) message.getPayload() == 2) {
+					throw failure;
+				}
+				return message.getPayload();
+			}
+
+		});
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+		try {
+			handler.handleMessage(new GenericMessage<List<Integer>>(Arrays.asList(1, 2, 3)));
+			fail("MessageHandlingException expected");
+		}
+		catch (MessageHandlingException e) {
+			assertSame(failure, e.getCause());
+		}
+		handler.destroy();
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		ParallelMapHandler handler = new ParallelMapHandler(new MessageProcessor<Object>() {
+
+			@Override
+			public Object processMessage(Message<?> message) {
+				if ((Integer) message.getPayload() == 1) {
+					try {
+						latch.await(10, TimeUnit.SECONDS);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return message.getPayload();
+			}
+
+		});
+		handler.setTimeout(50);
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+		try {
+			handler.handleMessage(new GenericMessage<List<Integer>>(Arrays.asList(1, 2)));
+			fail("MessageTimeoutException expected");
+		}
+		catch (MessageTimeoutException e) {
+			assertTrue(e.getMessage().contains("Timed out after 50ms"));
+		}
+		latch.countDown();
+		handler.destroy();
+	}
+
+
+	public static class Mapper {
+
+		public String upperCase(String part) {
+			return part.toUpperCase();
+		}
+
+	}
+
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.scheduling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.integration.aggregator.AggregatingMessageHandler;
+import org.springframework.integration.aggregator.DefaultAggregatingMessageGroupProcessor;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.handler.DelayHandler;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * @since 4.2
+ */
+public class HashedWheelTaskSchedulerTests {
+
+	private final HashedWheelTaskScheduler scheduler = new HashedWheelTaskScheduler(5, 8);
+
+	@After
+	public void tearDown() {
+		this.scheduler.destroy();
+	}
+
+	@Test
+	public void testNeverEarly() throws Exception {
+		final int count = 200;
+		final CountDownLatch latch = new CountDownLatch(count);
+		final AtomicInteger early = new AtomicInteger();
+		for (int i = 0; i < count; i++) {
+			// up to 3 revolutions of the wheel
+			final long due = System.currentTimeMillis() + (i % 120);
+			this.scheduler.schedule(new Runnable() {
+
+				@Override
+				public void run() {
+					if (System.currentTimeMillis() < due) {
+						early.incrementAndGet();
+					}
+					latch.countDown();
+				}
+
+			}, new Date(due));
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertEquals(0, early.get());
+		assertEquals(0, this.scheduler.getPendingTaskCount());
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		final AtomicInteger runs = new AtomicInteger();
+		Runnable task = new Runnable() {
+
+			@Override
+			public void run() {
+				runs.incrementAndGet();
+			}
+
+		};
+		ScheduledFuture<?> cancelled = this.scheduler.schedule(task, new Date(System.currentTimeMillis() + 50));
+		ScheduledFuture<?> kept = this.scheduler.schedule(task, new Date(System.currentTimeMillis() + 50));
+		assertEquals(2, this.scheduler.getPendingTaskCount());
+		assertTrue(cancelled.getDelay(TimeUnit.MILLISECONDS) > 0);
+		assertTrue(cancelled.cancel(false));
+		assertFalse(cancelled.cancel(false));
+		assertTrue(cancelled.isCancelled());
+		assertTrue(cancelled.isDone());
+		assertEquals(1, this.scheduler.getPendingTaskCount());
+		assertNull(kept.get(10, TimeUnit.SECONDS));
+		assertTrue(kept.isDone());
+		assertFalse(kept.cancel(false));
+		try {
+			cancelled.get();
+			fail("CancellationException expected");
+		}
+		catch (CancellationException e) {
+			// expected
+		}
+		Thread.sleep(50);
+		assertEquals(1, runs.get());
+		assertEquals(0, this.scheduler.getPendingTaskCount());
+	}
+
+	@Test
+	public void testFailureAndErrorHandler() throws Exception {
+		final AtomicReference<Throwable> handled = new AtomicReference<Throwable>();
+		this.scheduler.setErrorHandler(new ErrorHandler() {
+
+			@Override
+			public void handleError(Throwable t) {
+				handled.set(t);
+			}
+
+		});
+		final RuntimeException failure = new IllegalStateException("bad task");
+		ScheduledFuture<?> future = this.scheduler.schedule(new Runnable() {
+
+			@Override
+			public void run() {
+				throw failure;
+			}
+
+		}, new Date());
+		try {
+			future.get(10, TimeUnit.SECONDS);
+			fail("ExecutionException expected");
+		}
+		catch (ExecutionException e) {
+			assertSame(failure, e.getCause());
+		}
+		assertSame(failure, handled.get());
+	}
+
+	@Test
+	public void testFixedRateAndShutdown() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(5);
+		ScheduledFuture<?> future = this.scheduler.scheduleAtFixedRate(new Runnable() {
+
+			@Override
+			public void run() {
+				latch.countDown();
+			}
+
+		}, 10);
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertTrue(future.cancel(false));
+		assertTrue(future.isCancelled());
+
+		ScheduledFuture<?> pending = this.scheduler.schedule(new Runnable() {
+
+			@Override
+			public void run() {
+			}
+
+		}, new Date(System.currentTimeMillis() + 60000));
+		this.scheduler.destroy();
+		assertTrue(pending.isCancelled());
+		try {
+			this.scheduler.schedule(new Runnable() {
+
+				@Override
+				public void run() {
+				}
+
+			}, new Date());
+			fail("TaskRejectedException expected");
+		}
+		catch (TaskRejectedException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testScheduleConcurrentWithShutdown() throws Exception {
+		final Collection<ScheduledFuture<?>> futures = new ConcurrentLinkedQueue<ScheduledFuture<?>>();
+		final CountDownLatch started = new CountDownLatch(4);
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					started.countDown();
+					try {
+						while (true) {
+							futures.add(HashedWheelTaskSchedulerTests.this.scheduler.schedule(new Runnable() {
+
+								@Override
+								public void run() {
+								}
+
+							}, new Date(System.currentTimeMillis() + 60000)));
+						}
+					}
+					catch (TaskRejectedException e) {
+						// shut down
+					}
+				}
+
+			});
+			threads[i].start();
+		}
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		Thread.sleep(20);
+		this.scheduler.destroy();
+		for (Thread thread : threads) {
+			thread.join(10000);
+			assertFalse(thread.isAlive());
+		}
+		for (ScheduledFuture<?> future : futures) {
+			assertTrue(future.isCancelled());
+		}
+		assertEquals(0, this.scheduler.getPendingTaskCount());
+	}
+
+	@Test
+	public void testDelayHandler() throws Exception {
+		DelayHandler delayHandler = new DelayHandler("foo", this.scheduler);
+		QueueChannel output = new QueueChannel();
+		delayHandler.setOutputChannel(output);
+		delayHandler.setDefaultDelay(20);
+		delayHandler.setBeanFactory(mock(BeanFactory.class));
+		delayHandler.afterPropertiesSet();
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < 100; i++) {
+			delayHandler.handleMessage(new GenericMessage<Integer>(i));
+		}
+		for (int i = 0; i < 100; i++) {
+			Message<?> message = output.receive(10000);
+			assertNotNull(message);
+		}
+		assertTrue(System.currentTimeMillis() - start >= 20);
+	}
+
+	@Test
+	public void testAggregatorGroupTimeout() throws Exception {
+		AggregatingMessageHandler handler =
+				new AggregatingMessageHandler(new DefaultAggregatingMessageGroupProcessor());
+		QueueChannel output = new QueueChannel();
+		handler.setOutputChannel(output);
+		handler.setTaskScheduler(this.scheduler);
+		handler.setGroupTimeoutExpression(new SpelExpressionParser().parseExpression("20"));
+		handler.setIntegrationEvaluationContext(new StandardEvaluationContext());
+		handler.setSendPartialResultOnExpiry(true);
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+		long start = System.currentTimeMillis();
+		handler.handleMessage(MessageBuilder.withPayload("foo").setCorrelationId("x").setSequenceSize(3).build());
+		handler.handleMessage(MessageBuilder.withPayload("bar").setCorrelationId("x").setSequenceSize(3).build());
+		Message<?> result = output.receive(10000);
+		assertNotNull(result);
+		assertEquals(2, ((Collection<?>) result.getPayload()).size());
+		assertTrue(System.currentTimeMillis() - start >= 20);
+	}
+
+}
@@ -16,8 +16,10 @@
 
 package org.springframework.integration.splitter;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -34,6 +36,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandlingException;
 import org.springframework.integration.annotation.MessageEndpoint;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.integration.annotation.Splitter;
@@ -66,6 +69,9 @@ public class SplitterIntegrationTests {
 	@Autowired
 	MessageChannel inDelimiters;
 
+	@Autowired
+	MessageChannel inMaxInFlight;
+
 	@Autowired
 	@Qualifier("splitter.handler")
 	MethodInvokingSplitter splitter;
@@ -107,6 +113,18 @@ public class SplitterIntegrationTests {
 		// just checking the parsing
 	}
 
+	@Test
+	public void maxInFlight() throws Exception {
+		try {
+			inMaxInFlight.send(new GenericMessage<List<String>>(words));
+			fail("MessageHandlingException expected");
+		}
+		catch (MessageHandlingException e) {
+			assertTrue(e.getMessage().contains("Timed out after 10ms"));
+		}
+		assertEquals(words.subList(0, 2), this.receiver.receivedWords);
+	}
+
 	@Test
 	public void annotated() throws Exception {
 		inAnnotated.send(new GenericMessage<String>(sentence));
@@ -19,11 +19,17 @@ package org.springframework.integration.splitter;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
@@ -216,6 +222,84 @@ public class StreamingSplitterTests {
 		}
 	}
 
+	@Test
+	public void splitWithMaxInFlight() throws Exception {
+		int messageQuantity = 20;
+		final IteratorTestBean splitterBean = new IteratorTestBean(messageQuantity);
+		final MethodInvokingSplitter splitter = new MethodInvokingSplitter(splitterBean);
+		splitter.setMaxInFlight(3);
+		final QueueChannel replyChannel = new QueueChannel();
+		splitter.setOutputChannel(replyChannel);
+		final CountDownLatch done = new CountDownLatch(1);
+		new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				splitter.handleMessage(message);
+				done.countDown();
+			}
+
+		}).start();
+		for (int i = 1; i <= messageQuantity; i++) {
+			Message<?> reply = replyChannel.receive(10000);
+			assertNotNull(reply);
+			assertEquals(String.valueOf(i), reply.getPayload());
+			Thread.sleep(5);
+			assertThat(splitterBean.counter.get(), lessThanOrEqualTo(i + 2));
+			SplitAcknowledgment acknowledgment = reply.getHeaders()
+					.get(IntegrationMessageHeaderAccessor.SPLIT_ACKNOWLEDGMENT, SplitAcknowledgment.class);
+			assertFalse(acknowledgment.isAcknowledged());
+			acknowledgment.acknowledge();
+			acknowledgment.acknowledge();
+			assertTrue(acknowledgment.isAcknowledged());
+		}
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertNull(replyChannel.receive(0));
+	}
+
+	@Test
+	public void splitWithMaxInFlightTimeout() {
+		IteratorTestBean splitterBean = new IteratorTestBean(5);
+		MethodInvokingSplitter splitter = new MethodInvokingSplitter(splitterBean);
+		splitter.setMaxInFlight(2);
+		splitter.setInFlightTimeout(10);
+		QueueChannel replyChannel = new QueueChannel();
+		splitter.setOutputChannel(replyChannel);
+		try {
+			splitter.handleMessage(message);
+			fail("MessageHandlingException expected");
+		}
+		catch (MessageHandlingException e) {
+			assertThat(e.getMessage(), containsString("Timed out after 10ms"));
+		}
+		assertEquals(2, replyChannel.getQueueSize());
+		assertEquals(2, splitterBean.counter.get());
+	}
+
+	@Test
+	public void splitWithMaxInFlightCompletesWithoutFurtherAcknowledgments() throws Exception {
+		IteratorTestBean splitterBean = new IteratorTestBean(2);
+		MethodInvokingSplitter splitter = new MethodInvokingSplitter(splitterBean);
+		splitter.setMaxInFlight(2);
+		splitter.setInFlightTimeout(10);
+		QueueChannel replyChannel = new QueueChannel();
+		splitter.setOutputChannel(replyChannel);
+		splitter.handleMessage(message);
+		assertEquals(2, replyChannel.getQueueSize());
+
+		SplitAcknowledgment acknowledgment = replyChannel.receive(0).getHeaders()
+				.get(IntegrationMessageHeaderAccessor.SPLIT_ACKNOWLEDGMENT, SplitAcknowledgment.class);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(acknowledgment);
+		out.close();
+		SplitAcknowledgment copy = (SplitAcknowledgment) new ObjectInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertFalse(copy.isAcknowledged());
+		copy.acknowledge();
+		assertTrue(copy.isAcknowledged());
+	}
+
 	static class IterableTestBean {
 
 		final int max;
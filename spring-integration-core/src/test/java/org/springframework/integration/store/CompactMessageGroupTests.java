@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.test.util.TestUtils;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @since 4.2
+ */
+public class CompactMessageGroupTests {
+
+	@Test
+	public void testAddPollAndSnapshots() {
+		CompactMessageGroup group = new CompactMessageGroup("foo");
+		assertNull(group.getOne());
+		assertNull(group.poll());
+		List<Message<?>> messages = new ArrayList<Message<?>>();
+		for (int i = 0; i < 10; i++) {
+			Message<Integer> message = new GenericMessage<Integer>(i);
+			messages.add(message);
+			group.add(message);
+		}
+		Collection<Message<?>> snapshot = group.getMessages();
+		assertEquals(messages, new ArrayList<Message<?>>(snapshot));
+		assertSame(messages.get(0), group.poll());
+		assertSame(messages.get(1), group.getOne());
+		assertEquals(9, group.size());
+		assertTrue(group.remove(messages.get(5)));
+		assertFalse(group.remove(messages.get(5)));
+		for (int i = 10; i < 20; i++) {
+			group.add(new GenericMessage<Integer>(i));
+		}
+		assertEquals(18, group.size());
+		// earlier snapshots are not affected by later changes
+		assertEquals(messages, new ArrayList<Message<?>>(snapshot));
+		List<Object> payloads = new ArrayList<Object>();
+		for (Message<?> message : group.getMessages()) {
+			payloads.add(message.getPayload());
+		}
+		assertEquals(1, payloads.get(0));
+		assertEquals(6, payloads.get(4));
+		assertEquals(19, payloads.get(17));
+		group.clear();
+		assertEquals(0, group.size());
+		assertEquals(0, group.getMessages().size());
+	}
+
+	@Test
+	public void testRemoveByEquality() {
+		CompactMessageGroup group = new CompactMessageGroup("foo");
+		Message<String> message = MessageBuilder.withPayload("foo").build();
+		group.add(message);
+		assertTrue(group.remove(new GenericMessage<String>("foo", message.getHeaders())));
+		assertEquals(0, group.size());
+	}
+
+	@Test
+	public void testSequenceBookkeeping() {
+		CompactMessageGroup group = new CompactMessageGroup("foo");
+		Message<?> first = sequenceMessage(1, 3);
+		assertTrue(group.canAddInSequence(first));
+		group.add(first);
+		assertEquals(3, group.getSequenceSize());
+		assertTrue(group.containsSequenceNumber(1));
+		assertFalse(group.containsSequenceNumber(2));
+		assertFalse(group.canAddInSequence(sequenceMessage(1, 3)));
+		assertFalse(group.canAddInSequence(sequenceMessage(2, 4)));
+		assertTrue(group.canAddInSequence(sequenceMessage(2, 3)));
+		assertTrue(group.canAddInSequence(new GenericMessage<String>("no sequence")));
+
+		Message<?> duplicate = sequenceMessage(1, 3);
+		group.add(duplicate);
+		group.remove(first);
+		assertTrue(group.containsSequenceNumber(1));
+		group.add(sequenceMessage(2, 3));
+		group.remove(duplicate);
+		assertFalse(group.containsSequenceNumber(1));
+		assertTrue(group.containsSequenceNumber(2));
+	}
+
+	@Test
+	public void testPolledMessagesNotRetained() {
+		CompactMessageGroup group = new CompactMessageGroup("foo");
+		group.add(new GenericMessage<String>("foo"));
+		group.add(new GenericMessage<String>("bar"));
+		group.add(new GenericMessage<String>("baz"));
+		Message<?>[] array = TestUtils.getPropertyValue(group, "messages", Message[].class);
+		assertEquals("foo", group.poll().getPayload());
+		assertNull(array[0]);
+		Collection<Message<?>> snapshot = group.getMessages();
+		assertEquals("bar", group.poll().getPayload());
+		assertEquals(2, snapshot.size());
+		assertEquals("bar", snapshot.iterator().next().getPayload());
+		array = TestUtils.getPropertyValue(group, "messages", Message[].class);
+		assertEquals("baz", group.poll().getPayload());
+		assertNull(array[0]);
+	}
+
+	@Test
+	public void testLargeSequenceNumbersAreSparse() {
+		CompactMessageGroup group = new CompactMessageGroup("foo");
+		group.add(sequenceMessage(Integer.MAX_VALUE - 1, 3));
+		group.add(sequenceMessage(2, 3));
+		assertTrue(group.containsSequenceNumber(Integer.MAX_VALUE - 1));
+		assertTrue(group.containsSequenceNumber(2));
+		assertTrue(TestUtils.getPropertyValue(group, "sequenceNumbers", BitSet.class).size() <= 64);
+		assertFalse(group.canAddInSequence(sequenceMessage(Integer.MAX_VALUE - 1, 3)));
+		group.poll();
+		assertFalse(group.containsSequenceNumber(Integer.MAX_VALUE - 1));
+		assertTrue(group.containsSequenceNumber(2));
+	}
+
+	@Test
+	public void testCopy() {
+		CompactMessageGroup group = new CompactMessageGroup("foo", 42);
+		group.add(sequenceMessage(1, 2));
+		group.setLastReleasedMessageSequenceNumber(1);
+		group.complete();
+		CompactMessageGroup copy = new CompactMessageGroup(group);
+		group.add(sequenceMessage(2, 2));
+		assertEquals(1, copy.size());
+		assertEquals(42, copy.getTimestamp());
+		assertTrue(copy.isComplete());
+		assertEquals(1, copy.getLastReleasedMessageSequenceNumber());
+		assertTrue(copy.containsSequenceNumber(1));
+	}
+
+	private static Message<?> sequenceMessage(int sequenceNumber, int sequenceSize) {
+		return MessageBuilder.withPayload("foo")
+				.setSequenceNumber(sequenceNumber)
+				.setSequenceSize(sequenceSize)
+				.build();
+	}
+
+}
@@ -16,7 +16,9 @@
 
 package org.springframework.integration.store;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
@@ -62,6 +64,18 @@ public class MessageGroupQueueTests {
 		assertEquals(0, queue.size());
 	}
 
+	@Test
+	public void testDrainToMaxElements() throws Exception {
+		MessageGroupQueue queue = new MessageGroupQueue(new SimpleMessageStore(), "FOO");
+		queue.put(new GenericMessage<String>("foo"));
+		queue.put(new GenericMessage<String>("bar"));
+		queue.put(new GenericMessage<String>("baz"));
+		List<Message<?>> drained = new ArrayList<Message<?>>();
+		assertEquals(2, queue.drainTo(drained, 2));
+		assertEquals(1, queue.size());
+		assertEquals("baz", queue.poll().getPayload());
+	}
+
 	@Test
 	public void testCapacityAfterExpiry() throws Exception {
 		SimpleMessageStore messageGroupStore = new SimpleMessageStore();
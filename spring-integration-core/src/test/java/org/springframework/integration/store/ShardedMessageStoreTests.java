@@ -0,0 +1,232 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.aggregator.ResequencingMessageGroupProcessor;
+import org.springframework.integration.aggregator.ResequencingMessageHandler;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.store.MessageGroupStore.MessageGroupCallback;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @since 4.2
+ */
+public class ShardedMessageStoreTests {
+
+	@Test
+	public void testShardCountRoundedUp() {
+		assertEquals(1, new ShardedMessageStore(0, 0, 1).getShardCount());
+		assertEquals(8, new ShardedMessageStore(0, 0, 5).getShardCount());
+		assertTrue(new ShardedMessageStore().getShardCount() >= 16);
+	}
+
+	@Test
+	public void testIndividualMessages() {
+		ShardedMessageStore store = new ShardedMessageStore(2, 0);
+		Message<String> message1 = MessageBuilder.withPayload("foo").build();
+		Message<String> message2 = MessageBuilder.withPayload("bar").build();
+		store.addMessage(message1);
+		store.addMessage(message2);
+		assertSame(message1, store.getMessage(message1.getHeaders().getId()));
+		assertEquals(2, store.getMessageCount());
+		try {
+			store.addMessage(MessageBuilder.withPayload("baz").build());
+			fail("Expected MessagingException");
+		}
+		catch (MessagingException e) {
+			// expected - out of capacity
+		}
+		assertSame(message2, store.removeMessage(message2.getHeaders().getId()));
+		assertNull(store.removeMessage(message2.getHeaders().getId()));
+		store.addMessage(MessageBuilder.withPayload("baz").build());
+		assertEquals(2, store.getMessageCount());
+	}
+
+	@Test(expected = MessagingException.class)
+	public void testGroupCapacity() {
+		ShardedMessageStore store = new ShardedMessageStore(0, 1);
+		store.addMessageToGroup("foo", new GenericMessage<String>("foo"));
+		store.addMessageToGroup("bar", new GenericMessage<String>("bar"));
+	}
+
+	@Test
+	public void testGroupCapacityReleasedOnRemoveAndPoll() {
+		ShardedMessageStore store = new ShardedMessageStore(0, 2);
+		Message<String> message = new GenericMessage<String>("foo");
+		store.addMessageToGroup("foo", message);
+		store.addMessageToGroup("foo", new GenericMessage<String>("bar"));
+		store.removeMessageFromGroup("foo", message);
+		assertEquals("bar", store.pollMessageFromGroup("foo").getPayload());
+		assertNull(store.pollMessageFromGroup("foo"));
+		store.addMessageToGroup("foo", new GenericMessage<String>("baz"));
+		store.addMessageToGroup("bar", new GenericMessage<String>("qux"));
+		store.removeMessageGroup("foo");
+		store.addMessageToGroup("bar", new GenericMessage<String>("fiz"));
+		assertEquals(2, store.messageGroupSize("bar"));
+		assertEquals(1, store.getMessageGroupCount());
+		assertEquals(2, store.getMessageCountForAllMessageGroups());
+	}
+
+	@Test
+	public void testGroupOperations() {
+		ShardedMessageStore store = new ShardedMessageStore();
+		Message<String> message = new GenericMessage<String>("foo");
+		MessageGroup group = store.addMessageToGroup("foo", message);
+		assertSame(group, store.getMessageGroup("foo"));
+		assertSame(message, store.getOneMessageFromGroup("foo"));
+		assertEquals(0, store.getMessageGroup("bar").size());
+		store.setLastReleasedSequenceNumberForGroup("foo", 3);
+		store.completeGroup("foo");
+		assertEquals(3, group.getLastReleasedMessageSequenceNumber());
+		assertTrue(group.isComplete());
+		MessageGroupMetadata metadata = store.getGroupMetadata("foo");
+		assertEquals(message.getHeaders().getId(), metadata.firstId());
+		assertTrue(store.removeMessageFromGroupIfPresent("foo", message));
+		assertFalse(store.removeMessageFromGroupIfPresent("foo", message));
+		assertFalse(store.removeMessageFromGroupIfPresent("bar", message));
+	}
+
+	@Test
+	public void testExpiry() {
+		ShardedMessageStore store = new ShardedMessageStore();
+		final List<MessageGroup> expired = new ArrayList<MessageGroup>();
+		store.registerMessageGroupExpiryCallback(new MessageGroupCallback() {
+
+			@Override
+			public void execute(MessageGroupStore messageGroupStore, MessageGroup group) {
+				expired.add(group);
+				messageGroupStore.removeMessageGroup(group.getGroupId());
+			}
+
+		});
+		store.addMessageToGroup("foo", new GenericMessage<String>("foo"));
+		store.addMessageToGroup("bar", new GenericMessage<String>("bar"));
+		assertEquals(2, store.expireMessageGroups(-10000));
+		assertEquals(2, expired.size());
+		assertEquals(0, store.getMessageGroupCount());
+	}
+
+	@Test
+	public void testExpiryCandidates() throws Exception {
+		ShardedMessageStore store = new ShardedMessageStore();
+		final List<Object> expired = new ArrayList<Object>();
+		store.registerMessageGroupExpiryCallback(new MessageGroupCallback() {
+
+			@Override
+			public void execute(MessageGroupStore messageGroupStore, MessageGroup group) {
+				expired.add(group.getGroupId());
+				messageGroupStore.removeMessageGroup(group.getGroupId());
+			}
+
+		});
+		for (int i = 0; i < 10; i++) {
+			store.addMessageToGroup("old" + i, new GenericMessage<String>("foo"));
+		}
+		Thread.sleep(100);
+		long threshold = System.currentTimeMillis() - 50;
+		for (int i = 0; i < 10; i++) {
+			store.addMessageToGroup("new" + i, new GenericMessage<String>("foo"));
+		}
+		int candidates = 0;
+		for (MessageGroup group : store.getExpiryCandidates(threshold)) {
+			assertTrue(group.getGroupId().toString().startsWith("old"));
+			candidates++;
+		}
+		assertEquals(10, candidates);
+		assertEquals(10, store.expireMessageGroups(50));
+		assertEquals(10, expired.size());
+		assertEquals(10, store.getMessageGroupCount());
+
+		store.setTimeoutOnIdle(true);
+		assertSame(store, store.getExpiryCandidates(threshold));
+	}
+
+	@Test
+	public void testConcurrentGroups() throws Exception {
+		final ShardedMessageStore store = new ShardedMessageStore();
+		final int threads = 4;
+		final int groups = 1000;
+		ExecutorService exec = Executors.newFixedThreadPool(threads);
+		final CountDownLatch latch = new CountDownLatch(threads);
+		for (int i = 0; i < threads; i++) {
+			exec.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int j = 0; j < groups; j++) {
+						store.addMessageToGroup(j, new GenericMessage<Integer>(j));
+					}
+					latch.countDown();
+				}
+
+			});
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		exec.shutdown();
+		assertEquals(groups, store.getMessageGroupCount());
+		for (int j = 0; j < groups; j++) {
+			assertEquals(threads, store.messageGroupSize(j));
+		}
+	}
+
+	@Test
+	public void testResequencer() {
+		ResequencingMessageHandler resequencer = new ResequencingMessageHandler(
+				new ResequencingMessageGroupProcessor(), new ShardedMessageStore(), null, null);
+		resequencer.setBeanFactory(mock(BeanFactory.class));
+		resequencer.afterPropertiesSet();
+		QueueChannel replyChannel = new QueueChannel();
+		QueueChannel discardChannel = new QueueChannel();
+		resequencer.setDiscardChannel(discardChannel);
+		int[] order = { 3, 1, 3, 2 };
+		for (int sequenceNumber : order) {
+			resequencer.handleMessage(MessageBuilder.withPayload(sequenceNumber)
+					.setCorrelationId("foo")
+					.setSequenceNumber(sequenceNumber)
+					.setSequenceSize(3)
+					.setReplyChannel(replyChannel)
+					.build());
+		}
+		assertEquals(1, replyChannel.receive(0).getPayload());
+		assertEquals(2, replyChannel.receive(0).getPayload());
+		assertEquals(3, replyChannel.receive(0).getPayload());
+		assertNull(replyChannel.receive(0));
+		assertEquals(3, discardChannel.receive(0).getPayload());
+	}
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @since 4.2
+ */
+public class OverlayMessageHeadersTests {
+
+	@Test
+	public void testDerivedHeadersShareOriginal() {
+		Message<String> original = messageWithHeaders(20);
+		Message<String> derived = MessageBuilder.fromMessage(original)
+				.setHeader("header1", "changed")
+				.setHeader("added", "new")
+				.removeHeader("header2")
+				.build();
+		MessageHeaders headers = derived.getHeaders();
+		assertTrue(headers instanceof OverlayMessageHeaders);
+		assertNotEquals(original.getHeaders().getId(), headers.getId());
+		assertEquals(headers.getId(), headers.get(MessageHeaders.ID));
+		assertEquals(headers.getTimestamp(), headers.get(MessageHeaders.TIMESTAMP));
+		assertEquals("changed", headers.get("header1"));
+		assertEquals("new", headers.get("added"));
+		assertNull(headers.get("header2"));
+		assertFalse(headers.containsKey("header2"));
+		assertEquals("value3", headers.get("header3", String.class));
+		assertEquals(22, headers.size());
+
+		Map<String, Object> expected = new HashMap<String, Object>(original.getHeaders());
+		expected.put(MessageHeaders.ID, headers.getId());
+		expected.put(MessageHeaders.TIMESTAMP, headers.getTimestamp());
+		expected.put("header1", "changed");
+		expected.put("added", "new");
+		expected.remove("header2");
+		assertEquals(expected, new HashMap<String, Object>(headers));
+		assertEquals(expected.keySet(), headers.keySet());
+		assertEquals(expected.hashCode(), headers.hashCode());
+		assertTrue(headers.containsValue("new"));
+		assertFalse(headers.containsValue("value2"));
+
+		assertEquals("value1", original.getHeaders().get("header1"));
+		assertEquals("value2", original.getHeaders().get("header2"));
+		assertFalse(original.getHeaders().containsKey("added"));
+	}
+
+	@Test
+	public void testChangesAreMergedAndFlattened() {
+		Message<String> original = messageWithHeaders(20);
+		Message<String> derived = MessageBuilder.fromMessage(original).setHeader("header0", "changed").build();
+		Message<String> derivedAgain = MessageBuilder.fromMessage(derived).removeHeader("header0")
+				.setHeader("header1", "changed").build();
+		MessageHeaders headers = derivedAgain.getHeaders();
+		assertTrue(headers instanceof OverlayMessageHeaders);
+		assertFalse(headers.containsKey("header0"));
+		assertEquals("changed", headers.get("header1"));
+		assertEquals(21, headers.size());
+
+		MessageBuilder<String> builder = MessageBuilder.fromMessage(derivedAgain);
+		for (int i = 2; i < 10; i++) {
+			builder.setHeader("header" + i, "changed");
+		}
+		headers = builder.build().getHeaders();
+		assertEquals(MessageHeaders.class, headers.getClass());
+		assertFalse(headers.containsKey("header0"));
+		assertEquals("changed", headers.get("header9"));
+		assertEquals("value10", headers.get("header10"));
+		assertEquals(21, headers.size());
+	}
+
+	@Test
+	public void testSmallHeadersAreCopied() {
+		Message<String> original = MessageBuilder.withPayload("foo").setHeader("bar", "baz").build();
+		Message<String> derived = MessageBuilder.fromMessage(original).setHeader("qux", "fiz").build();
+		assertEquals(MessageHeaders.class, derived.getHeaders().getClass());
+		assertEquals("baz", derived.getHeaders().get("bar"));
+	}
+
+	@Test
+	public void testBuilderSemantics() {
+		Message<String> original = MessageBuilder.fromMessage(messageWithHeaders(20))
+				.setCorrelationId("corr")
+				.setSequenceNumber(2)
+				.setSequenceSize(3)
+				.build();
+		assertSame(original, MessageBuilder.fromMessage(original).setHeader("header1", "value1").build());
+		assertSame(original, MessageBuilder.fromMessage(original).removeHeader("absent").build());
+
+		Message<String> derived = MessageBuilder.fromMessage(original)
+				.pushSequenceDetails("inner", 1, 1)
+				.setHeaderIfAbsent("header3", "ignored")
+				.removeHeaders("header1*")
+				.build();
+		assertEquals("inner", new IntegrationMessageHeaderAccessor(derived).getCorrelationId());
+		assertEquals("value3", derived.getHeaders().get("header3"));
+		assertFalse(derived.getHeaders().containsKey("header1"));
+		assertFalse(derived.getHeaders().containsKey("header12"));
+		assertTrue(derived.getHeaders().containsKey("header2"));
+
+		Message<String> popped = MessageBuilder.fromMessage(derived).popSequenceDetails().build();
+		IntegrationMessageHeaderAccessor accessor = new IntegrationMessageHeaderAccessor(popped);
+		assertEquals("corr", accessor.getCorrelationId());
+		assertEquals(Integer.valueOf(2), accessor.getSequenceNumber());
+		assertEquals(Integer.valueOf(3), accessor.getSequenceSize());
+		assertFalse(popped.getHeaders().containsKey(IntegrationMessageHeaderAccessor.SEQUENCE_DETAILS));
+	}
+
+	@Test
+	public void testSerialization() throws Exception {
+		Message<String> derived = MessageBuilder.fromMessage(messageWithHeaders(20))
+				.setHeader("added", "new")
+				.setReplyChannel(new QueueChannel())
+				.build();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(derived);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		@SuppressWarnings("unchecked")
+		Message<String> deserialized = (Message<String>) in.readObject();
+		MessageHeaders headers = deserialized.getHeaders();
+		assertEquals(derived.getHeaders().getId(), headers.getId());
+		assertEquals(derived.getHeaders().getTimestamp(), headers.getTimestamp());
+		assertEquals("new", headers.get("added"));
+		assertEquals("value19", headers.get("header19"));
+		assertNull(headers.getReplyChannel());
+		assertEquals(derived.getHeaders().size() - 1, headers.size());
+
+		Message<String> noReplyChannel = MessageBuilder.fromMessage(derived).removeHeader(MessageHeaders.REPLY_CHANNEL)
+				.build();
+		bytes = new ByteArrayOutputStream();
+		out = new ObjectOutputStream(bytes);
+		out.writeObject(noReplyChannel.getHeaders());
+		out.close();
+		in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		MessageHeaders copy = (MessageHeaders) in.readObject();
+		assertEquals(noReplyChannel.getHeaders(), copy);
+		assertEquals(copy, noReplyChannel.getHeaders());
+		assertEquals(noReplyChannel.getHeaders().hashCode(), copy.hashCode());
+	}
+
+	@Test
+	public void testEqualsIsSymmetric() {
+		Message<String> derived = MessageBuilder.fromMessage(messageWithHeaders(20)).setHeader("added", "new").build();
+		MessageHeaders overlay = derived.getHeaders();
+		assertTrue(overlay instanceof OverlayMessageHeaders);
+		MessageHeaders plain = new MessageHeaders(overlay, overlay.getId(), overlay.getTimestamp()) {
+
+			private static final long serialVersionUID = 1L;
+
+		};
+		assertEquals(new HashMap<String, Object>(overlay), new HashMap<String, Object>(plain));
+		assertFalse(overlay.equals(plain));
+		assertFalse(plain.equals(overlay));
+		assertEquals(overlay, overlay);
+	}
+
+	private Message<String> messageWithHeaders(int count) {
+		Map<String, Object> headers = new HashMap<String, Object>();
+		for (int i = 0; i < count; i++) {
+			headers.put("header" + i, "value" + i);
+		}
+		return new GenericMessage<String>("foo", headers);
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.handler.AbstractMessageHandler;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @since 4.2
+ */
+public class HistogramMetricsMessageSourceTests {
+
+	@Test
+	public void testChannelAndHandlerHistograms() throws Exception {
+		DirectChannel channel = new DirectChannel();
+		AbstractMessageHandler handler = new AbstractMessageHandler() {
+
+			@Override
+			protected void handleMessageInternal(Message<?> message) throws Exception {
+				Thread.sleep(2);
+			}
+
+		};
+		channel.subscribe(handler);
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerSingleton("channel", channel);
+		beanFactory.registerSingleton("handler", handler);
+		HistogramMetricsMessageSource source = new HistogramMetricsMessageSource();
+		source.setBeanFactory(beanFactory);
+		source.setIntervalHistograms(true);
+		source.afterPropertiesSet();
+
+		assertNull(source.receive());
+		assertFalse(channel.isHistogramEnabled());
+		assertEquals(0, channel.getMedianDuration(), 0);
+
+		channel.enableHistogram(true);
+		handler.enableHistogram(true);
+		assertTrue(channel.isHistogramEnabled());
+		for (int i = 0; i < 5; i++) {
+			channel.send(new GenericMessage<String>("foo"));
+		}
+		assertEquals(5, channel.getDurationHistogram().getCount());
+		assertEquals(5, handler.getDurationHistogram().getCount());
+		assertTrue(handler.getMedianDuration() >= 2);
+		assertTrue(channel.getDuration999thPercentile() >= handler.getMedianDuration());
+
+		Message<Map<String, Map<String, Object>>> message = source.receive();
+		assertNotNull(message);
+		Map<String, Object> channelPercentiles = message.getPayload().get("channel");
+		assertEquals(5L, channelPercentiles.get("count"));
+		assertTrue((Double) channelPercentiles.get("p99") >= 2);
+		assertEquals(5L, message.getPayload().get("handler").get("count"));
+		assertEquals(0, channel.getDurationHistogram().getCount());
+		assertEquals(0L, source.receive().getPayload().get("handler").get("count"));
+
+		DirectChannel lateChannel = new DirectChannel();
+		lateChannel.enableHistogram(true);
+		beanFactory.registerSingleton("lateChannel", lateChannel);
+		assertEquals(0L, source.receive().getPayload().get("lateChannel").get("count"));
+
+		channel.enableHistogram(false);
+		handler.enableHistogram(false);
+		lateChannel.enableHistogram(false);
+		assertNull(channel.getDurationHistogram());
+		assertNull(source.receive());
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @since 4.2
+ */
+public class LatencyHistogramTests {
+
+	@Test
+	public void testEmpty() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMedian(), 0);
+		assertEquals(0, histogram.get999thPercentile(), 0);
+	}
+
+	@Test
+	public void testExactBelow128Nanos() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i);
+		}
+		assertEquals(100, histogram.getCount());
+		assertEquals(50 / 1000000., histogram.getMedian(), 0);
+		assertEquals(99 / 1000000., histogram.get99thPercentile(), 0);
+		assertEquals(100 / 1000000., histogram.getValueAtPercentile(100), 0);
+		assertEquals(1 / 1000000., histogram.getValueAtPercentile(0), 0);
+	}
+
+	@Test
+	public void testRelativeErrorAndTail() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		Random random = new Random(42);
+		for (int i = 0; i < 99000; i++) {
+			histogram.record(1000000 + random.nextInt(1000000));
+		}
+		for (int i = 0; i < 1000; i++) {
+			histogram.record(50000000);
+		}
+		assertEquals(100000, histogram.getCount());
+		double median = histogram.getMedian();
+		assertTrue("median: " + median, median > 1.48 && median < 1.53);
+		double p99 = histogram.get99thPercentile();
+		assertTrue("p99: " + p99, p99 > 1.97 && p99 < 2.04);
+		assertEquals(50, histogram.get999thPercentile(), 50 * 0.016);
+	}
+
+	@Test
+	public void testOutOfRangeValues() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-1);
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(2, histogram.getCount());
+		assertEquals(0, histogram.getMedian(), 0);
+		assertTrue(histogram.getValueAtPercentile(100) > 4000000);
+	}
+
+	@Test
+	public void testCopyAndReset() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(1000);
+		histogram.record(2000);
+		LatencyHistogram copy = histogram.copyAndReset();
+		assertEquals(2, copy.getCount());
+		assertEquals(0, histogram.getCount());
+		histogram.record(3000);
+		assertEquals(1, histogram.getCount());
+		assertEquals(2, copy.getCount());
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * @since 4.2
+ */
+public class StripedExponentialMovingAverageTests {
+
+	@Test
+	public void testSameStatisticsAsSynchronizedAverage() {
+		ExponentialMovingAverage expected = new ExponentialMovingAverage(10);
+		StripedExponentialMovingAverage striped = new StripedExponentialMovingAverage(10);
+		for (int i = 0; i < 1000; i++) {
+			expected.append(i % 7);
+			striped.append(i % 7);
+		}
+		assertEquals(expected.getCountLong(), striped.getCountLong());
+		assertEquals(expected.getMean(), striped.getMean(), 0.0001);
+		assertEquals(expected.getStandardDeviation(), striped.getStandardDeviation(), 0.0001);
+		assertEquals(expected.getMin(), striped.getMin(), 0.0001);
+		assertEquals(expected.getMax(), striped.getMax(), 0.0001);
+		striped.reset();
+		assertEquals(0, striped.getCount());
+		assertEquals(String.format("[N=%d, min=%f, max=%f, mean=%f, sigma=%f]", 0, 0d, 0d, 0d, 0d),
+				striped.toString());
+	}
+
+	@Test
+	public void testConcurrentAppends() throws Exception {
+		final StripedExponentialMovingAverage average = new StripedExponentialMovingAverage(10);
+		final StripedExponentialMovingAverageRate rate = new StripedExponentialMovingAverageRate(1, 60, 10, true);
+		final StripedExponentialMovingAverageRatio ratio = new StripedExponentialMovingAverageRatio(60, 10, true);
+		int threads = 8;
+		final int perThread = 10000;
+		final CountDownLatch latch = new CountDownLatch(threads);
+		ExecutorService exec = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < threads; i++) {
+			exec.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int j = 0; j < perThread; j++) {
+						average.append(5);
+						rate.increment();
+						ratio.success();
+					}
+					latch.countDown();
+				}
+
+			});
+		}
+		assertTrue(latch.await(30, TimeUnit.SECONDS));
+		exec.shutdown();
+		assertEquals(threads * perThread, average.getCountLong());
+		assertEquals(threads * perThread, rate.getCountLong());
+		assertEquals(threads * perThread, ratio.getCountLong());
+		assertEquals(5, average.getMean(), 0.0001);
+		assertEquals(5, average.getMax(), 0.0001);
+		assertEquals(1, ratio.getMean(), 0.0001);
+		assertTrue(rate.getMean() > 0);
+		assertTrue(rate.getTimeSinceLastMeasurement() >= 0);
+	}
+
+	@Test
+	public void testRatioAndRate() throws Exception {
+		StripedExponentialMovingAverageRatio ratio = new StripedExponentialMovingAverageRatio(0.5, 10, true);
+		assertEquals(1, ratio.getMean(), 0.01);
+		ratio.failure();
+		assertEquals(0, ratio.getMean(), 0.01);
+		ratio.reset();
+		assertEquals(0, ratio.getCount());
+		assertEquals(1, ratio.getMean(), 0.01);
+
+		StripedExponentialMovingAverageRate rate = new StripedExponentialMovingAverageRate(1, 60, 10, true);
+		assertEquals(0, rate.getMean(), 0.01);
+		rate.increment();
+		Thread.sleep(20);
+		rate.increment();
+		assertEquals(2, rate.getCount());
+		assertTrue(rate.getMean() > 0);
+		assertTrue(rate.getTimeSinceLastMeasurement() < 1000);
+	}
+
+}
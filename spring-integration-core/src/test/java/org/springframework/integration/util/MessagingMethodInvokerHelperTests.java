@@ -0,0 +1,170 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.integration.test.util.TestUtils;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @since 4.2
+ */
+public class MessagingMethodInvokerHelperTests {
+
+	@Test
+	public void testPayloadMethodInvokedDirectly() throws Exception {
+		TestService service = new TestService();
+		MessagingMethodInvokerHelper<Object> helper =
+				new MessagingMethodInvokerHelper<Object>(service, "upperCase", false);
+		assertEquals("FOO", helper.process(new GenericMessage<String>("foo")));
+		assertFalse(service.invokedBySpel);
+	}
+
+	@Test
+	public void testMessageMethodInvokedDirectly() throws Exception {
+		TestService service = new TestService();
+		MessagingMethodInvokerHelper<Object> helper =
+				new MessagingMethodInvokerHelper<Object>(service, "message", false);
+		Message<String> message = new GenericMessage<String>("foo");
+		assertSame(message, helper.process(message));
+		assertFalse(service.invokedBySpel);
+	}
+
+	@Test
+	public void testConversionFallsBackToSpel() throws Exception {
+		TestService service = new TestService();
+		MessagingMethodInvokerHelper<Object> helper =
+				new MessagingMethodInvokerHelper<Object>(service, "increment", false);
+		assertEquals(43, helper.process(new GenericMessage<Integer>(42)));
+		assertFalse(service.invokedBySpel);
+		assertEquals(43, helper.process(new GenericMessage<String>("42")));
+		assertTrue(service.invokedBySpel);
+	}
+
+	@Test
+	public void testCollectionElementsConvertedBySpel() throws Exception {
+		TestService service = new TestService();
+		MessagingMethodInvokerHelper<Object> helper =
+				new MessagingMethodInvokerHelper<Object>(service, "sum", false);
+		assertEquals(3, helper.process(new GenericMessage<List<String>>(Arrays.asList("1", "2"))));
+		assertTrue(service.invokedBySpel);
+	}
+
+	@Test
+	public void testCheckedExceptionFromDirectInvocation() throws Exception {
+		MessagingMethodInvokerHelper<Object> helper =
+				new MessagingMethodInvokerHelper<Object>(new TestService(), "fail", false);
+		try {
+			helper.process(new GenericMessage<String>("foo"));
+			fail("Expected IOException");
+		}
+		catch (IOException e) {
+			assertEquals("foo", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testOverloadedMethodsResolvedOncePerPayloadType() throws Exception {
+		OverloadedService service = new OverloadedService();
+		MessagingMethodInvokerHelper<Object> helper =
+				new MessagingMethodInvokerHelper<Object>(service, "handle", false);
+		assertEquals("string", helper.process(new GenericMessage<String>("foo")));
+		assertEquals("number", helper.process(new GenericMessage<Integer>(1)));
+		assertEquals("number", helper.process(new GenericMessage<Long>(1L)));
+		assertEquals("string", helper.process(new GenericMessage<String>("bar")));
+		Map<?, ?> resolved = TestUtils.getPropertyValue(helper, "resolvedHandlerMethods", Map.class);
+		assertEquals(3, resolved.size());
+		assertTrue(resolved.containsKey(Long.class));
+		// overloads are resolved by SpEL
+		assertTrue(service.invokedBySpel);
+	}
+
+
+	private static boolean invokedBySpel() {
+		for (StackTraceElement element : new Exception().getStackTrace()) {
+			if (element.getClassName().startsWith("org.springframework.expression.")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public static class TestService {
+
+		private volatile boolean invokedBySpel;
+
+		public String upperCase(@Payload String payload) {
+			this.invokedBySpel = invokedBySpel();
+			return payload.toUpperCase();
+		}
+
+		public Message<?> message(Message<?> message) {
+			this.invokedBySpel = invokedBySpel();
+			return message;
+		}
+
+		public int increment(int value) {
+			this.invokedBySpel = invokedBySpel();
+			return value + 1;
+		}
+
+		public int sum(List<Integer> values) {
+			this.invokedBySpel = invokedBySpel();
+			int sum = 0;
+			for (Integer value : values) {
+				sum += value;
+			}
+			return sum;
+		}
+
+		public String fail(String payload) throws IOException {
+			throw new IOException(payload);
+		}
+
+	}
+
+	public static class OverloadedService {
+
+		private volatile boolean invokedBySpel;
+
+		public String handle(String payload) {
+			this.invokedBySpel = invokedBySpel();
+			return "string";
+		}
+
+		public String handle(Number payload) {
+			this.invokedBySpel = invokedBySpel();
+			return "number";
+		}
+
+	}
+
+}
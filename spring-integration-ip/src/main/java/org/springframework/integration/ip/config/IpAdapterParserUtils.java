@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -70,6 +70,16 @@ public abstract class IpAdapterParserUtils {
 
 	static final String USING_DIRECT_BUFFERS = "using-direct-buffers";
 
+	static final String READ_THREAD_FRAMING = "read-thread-framing";
+
+	static final String READ_SELECTOR_COUNT = "read-selector-count";
+
+	static final String READ_SELECTOR_BY_LOAD = "read-selector-by-load";
+
+	static final String WRITE_BATCH_SIZE = "write-batch-size";
+
+	static final String WRITE_LINGER = "write-linger";
+
 	static final String MESSAGE_FORMAT = "message-format";
 
 	static final String SO_LINGER = "so-linger";
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -103,6 +103,16 @@ public class TcpConnectionFactoryFactoryBean extends AbstractFactoryBean<Abstrac
 
 	private volatile boolean usingDirectBuffers;
 
+	private volatile boolean readThreadFraming;
+
+	private volatile int readSelectorCount = 1;
+
+	private volatile boolean readSelectorByLoad;
+
+	private volatile int writeBatchSize;
+
+	private volatile long writeLinger;
+
 	private volatile String beanName;
 
 	private volatile boolean applySequence;
@@ -143,6 +153,11 @@ public class TcpConnectionFactoryFactoryBean extends AbstractFactoryBean<Abstrac
 				this.setCommonAttributes(connectionFactory);
 				this.setServerAttributes(connectionFactory);
 				connectionFactory.setUsingDirectBuffers(this.usingDirectBuffers);
+				connectionFactory.setReadThreadFraming(this.readThreadFraming);
+				connectionFactory.setReadSelectorCount(this.readSelectorCount);
+				connectionFactory.setReadSelectorByLoad(this.readSelectorByLoad);
+				connectionFactory.setWriteBatchSize(this.writeBatchSize);
+				connectionFactory.setWriteLinger(this.writeLinger);
 				connectionFactory.setTcpNioConnectionSupport(this.obtainNioConnectionSupport());
 				this.connectionFactory = connectionFactory;
 			} else {
@@ -150,6 +165,11 @@ public class TcpConnectionFactoryFactoryBean extends AbstractFactoryBean<Abstrac
 						this.host, this.port);
 				this.setCommonAttributes(connectionFactory);
 				connectionFactory.setUsingDirectBuffers(this.usingDirectBuffers);
+				connectionFactory.setReadThreadFraming(this.readThreadFraming);
+				connectionFactory.setReadSelectorCount(this.readSelectorCount);
+				connectionFactory.setReadSelectorByLoad(this.readSelectorByLoad);
+				connectionFactory.setWriteBatchSize(this.writeBatchSize);
+				connectionFactory.setWriteLinger(this.writeLinger);
 				connectionFactory.setTcpNioConnectionSupport(this.obtainNioConnectionSupport());
 				this.connectionFactory = connectionFactory;
 			}
@@ -342,6 +362,51 @@ public class TcpConnectionFactoryFactoryBean extends AbstractFactoryBean<Abstrac
 		this.usingDirectBuffers = usingDirectBuffers;
 	}
 
+	/**
+	 * @param readThreadFraming the readThreadFraming to set.
+	 * @since 4.2
+	 * @see org.springframework.integration.ip.tcp.connection.TcpNioServerConnectionFactory#setReadThreadFraming(boolean)
+	 */
+	public void setReadThreadFraming(boolean readThreadFraming) {
+		this.readThreadFraming = readThreadFraming;
+	}
+
+	/**
+	 * @param readSelectorCount the readSelectorCount to set.
+	 * @since 4.2
+	 * @see org.springframework.integration.ip.tcp.connection.TcpNioServerConnectionFactory#setReadSelectorCount(int)
+	 */
+	public void setReadSelectorCount(int readSelectorCount) {
+		this.readSelectorCount = readSelectorCount;
+	}
+
+	/**
+	 * @param readSelectorByLoad the readSelectorByLoad to set.
+	 * @since 4.2
+	 * @see org.springframework.integration.ip.tcp.connection.TcpNioServerConnectionFactory#setReadSelectorByLoad(boolean)
+	 */
+	public void setReadSelectorByLoad(boolean readSelectorByLoad) {
+		this.readSelectorByLoad = readSelectorByLoad;
+	}
+
+	/**
+	 * @param writeBatchSize the writeBatchSize to set.
+	 * @since 4.2
+	 * @see org.springframework.integration.ip.tcp.connection.TcpNioServerConnectionFactory#setWriteBatchSize(int)
+	 */
+	public void setWriteBatchSize(int writeBatchSize) {
+		this.writeBatchSize = writeBatchSize;
+	}
+
+	/**
+	 * @param writeLinger the writeLinger to set.
+	 * @since 4.2
+	 * @see org.springframework.integration.ip.tcp.connection.TcpNioServerConnectionFactory#setWriteLinger(long)
+	 */
+	public void setWriteLinger(long writeLinger) {
+		this.writeLinger = writeLinger;
+	}
+
 	/**
 	 * @param taskExecutor The task executor.
 	 * @see org.springframework.integration.ip.tcp.connection.AbstractConnectionFactory#setTaskExecutor(java.util.concurrent.Executor)
@@ -21,9 +21,11 @@ import org.w3c.dom.Element;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.xml.ParserContext;
+import org.springframework.integration.aggregator.ExpressionEvaluatingCorrelationStrategy;
 import org.springframework.integration.config.xml.AbstractConsumerEndpointParser;
 import org.springframework.integration.config.xml.IntegrationNamespaceUtils;
 import org.springframework.integration.ip.tcp.TcpOutboundGateway;
+import org.springframework.util.StringUtils;
 
 /**
  * Parser for the &lt;outbound-gateway&gt; element of the integration 'jms' namespace.
@@ -55,6 +57,22 @@ public class TcpOutboundGatewayParser extends AbstractConsumerEndpointParser {
 		}
 		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element,
 				IpAdapterParserUtils.REPLY_TIMEOUT, "sendTimeout");
+		String requestCorrelationExpression = element.getAttribute("request-correlation-expression");
+		String replyCorrelationExpression = element.getAttribute("reply-correlation-expression");
+		if (StringUtils.hasText(requestCorrelationExpression) ^ StringUtils.hasText(replyCorrelationExpression)) {
+			parserContext.getReaderContext().error("'request-correlation-expression' and "
+					+ "'reply-correlation-expression' must be provided together", element);
+		}
+		if (StringUtils.hasText(requestCorrelationExpression)) {
+			builder.addPropertyValue("requestCorrelationStrategy", BeanDefinitionBuilder
+					.genericBeanDefinition(ExpressionEvaluatingCorrelationStrategy.class)
+					.addConstructorArgValue(requestCorrelationExpression)
+					.getBeanDefinition());
+			builder.addPropertyValue("replyCorrelationStrategy", BeanDefinitionBuilder
+					.genericBeanDefinition(ExpressionEvaluatingCorrelationStrategy.class)
+					.addConstructorArgValue(replyCorrelationExpression)
+					.getBeanDefinition());
+		}
 		return builder;
 	}
 
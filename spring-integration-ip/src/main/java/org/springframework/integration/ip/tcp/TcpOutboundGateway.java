@@ -18,6 +18,7 @@ package org.springframework.integration.ip.tcp;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -29,6 +30,7 @@ import org.springframework.expression.Expression;
 import org.springframework.expression.common.LiteralExpression;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.integration.MessageTimeoutException;
+import org.springframework.integration.aggregator.CorrelationStrategy;
 import org.springframework.integration.expression.IntegrationEvaluationContextAware;
 import org.springframework.integration.handler.AbstractReplyProducingMessageHandler;
 import org.springframework.integration.ip.IpHeaders;
@@ -45,10 +47,21 @@ import org.springframework.util.Assert;
 
 /**
  * TCP outbound gateway that uses a client connection factory. If the factory is configured
- * for single-use connections, each request is sent on a new connection; if the factory does not use
- * single use connections, each request is blocked until the previous response is received
- * (or times out). Asynchronous requests/responses over the same connection are not
- * supported - use a pair of outbound/inbound adapters for that use case.
+ * for single-use connections, each request is sent on a new connection. If the factory does not
+ * use single use connections, the gateway operates in one of two modes:
+ * <ul>
+ * <li>By default, requests over the shared connection are serialized: each request is
+ * blocked until the previous response is received (or times out).</li>
+ * <li>When both a {@link #setRequestCorrelationStrategy(CorrelationStrategy) request} and a
+ * {@link #setReplyCorrelationStrategy(CorrelationStrategy) reply} {@link CorrelationStrategy}
+ * are provided, the gateway is multiplexed: concurrent requests are written to the same
+ * connection without waiting, and each response is matched to its request by correlation key.
+ * The server must therefore echo, in each response, enough of the request for the reply
+ * strategy to return the same key as the request strategy; responses may then arrive in
+ * any order.</li>
+ * </ul>
+ * Unsolicited messages from the server are not supported in either mode - use a pair of
+ * outbound/inbound adapters for that use case.
  * <p>
  * {@link SmartLifecycle} methods delegate to the underlying {@link AbstractConnectionFactory}
  *
@@ -63,8 +76,15 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 
 	private final Map<String, AsyncReply> pendingReplies = new ConcurrentHashMap<String, AsyncReply>();
 
+	private final ConcurrentMap<String, ConcurrentMap<Object, AsyncReply>> multiplexedReplies =
+			new ConcurrentHashMap<String, ConcurrentMap<Object, AsyncReply>>();
+
 	private final Semaphore semaphore = new Semaphore(1, true);
 
+	private volatile CorrelationStrategy requestCorrelationStrategy;
+
+	private volatile CorrelationStrategy replyCorrelationStrategy;
+
 	private volatile Expression remoteTimeoutExpression = new LiteralExpression("10000");
 
 	private volatile long requestTimeout = 10000;
@@ -92,6 +112,40 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		this.remoteTimeoutExpression = remoteTimeoutExpression;
 	}
 
+	/**
+	 * Set the strategy that returns the correlation key of a request; with a
+	 * {@link #setReplyCorrelationStrategy(CorrelationStrategy) reply correlation strategy},
+	 * it makes the gateway multiplexed: a shared connection carries any number of
+	 * outstanding requests, instead of one at a time, and the replies are matched to their
+	 * requests by key, in any order. The protocol must carry the key in each request and
+	 * reply frame (e.g. a token that the server echoes, in the payload or in a header
+	 * mapped by the serializer), and keys must be unique among the outstanding requests.
+	 * Has no effect with single-use connections.
+	 * @param requestCorrelationStrategy the request correlation strategy.
+	 * @since 4.2
+	 */
+	public void setRequestCorrelationStrategy(CorrelationStrategy requestCorrelationStrategy) {
+		this.requestCorrelationStrategy = requestCorrelationStrategy;
+	}
+
+	/**
+	 * Set the strategy that returns the correlation key of a reply, matching the key of its
+	 * request.
+	 * @param replyCorrelationStrategy the reply correlation strategy.
+	 * @since 4.2
+	 * @see #setRequestCorrelationStrategy(CorrelationStrategy)
+	 */
+	public void setReplyCorrelationStrategy(CorrelationStrategy replyCorrelationStrategy) {
+		this.replyCorrelationStrategy = replyCorrelationStrategy;
+	}
+
+	@Override
+	protected void doInit() {
+		super.doInit();
+		Assert.state((this.requestCorrelationStrategy == null) == (this.replyCorrelationStrategy == null),
+				"'requestCorrelationStrategy' and 'replyCorrelationStrategy' must be provided together");
+	}
+
 	@Override
 	public void setIntegrationEvaluationContext(EvaluationContext evaluationContext) {
 		this.evaluationContext = evaluationContext;
@@ -101,6 +155,9 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 	protected Object handleRequestMessage(Message<?> requestMessage) {
 		Assert.notNull(connectionFactory, this.getClass().getName() +
 				" requires a client connection factory");
+		if (this.replyCorrelationStrategy != null && !this.connectionFactory.isSingleUse()) {
+			return this.handleMultiplexedRequestMessage(requestMessage);
+		}
 		boolean haveSemaphore = false;
 		String connectionId = null;
 		try {
@@ -158,6 +215,62 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		}
 	}
 
+	private Object handleMultiplexedRequestMessage(Message<?> requestMessage) {
+		Object correlationKey = this.requestCorrelationStrategy.getCorrelationKey(requestMessage);
+		if (correlationKey == null) {
+			throw new MessagingException(requestMessage, "No correlation key for the request");
+		}
+		TcpConnection connection = null;
+		ConcurrentMap<Object, AsyncReply> replies = null;
+		try {
+			connection = this.connectionFactory.getConnection();
+			AsyncReply reply = new AsyncReply(this.remoteTimeoutExpression.getValue(this.evaluationContext,
+					requestMessage, Long.class));
+			replies = this.multiplexedReplies.get(connection.getConnectionId());
+			if (replies == null) {
+				replies = new ConcurrentHashMap<Object, AsyncReply>();
+				ConcurrentMap<Object, AsyncReply> existing = this.multiplexedReplies.putIfAbsent(connection.getConnectionId(),
+						replies);
+				if (existing != null) {
+					replies = existing;
+				}
+			}
+			if (replies.putIfAbsent(correlationKey, reply) != null) {
+				replies = null;
+				throw new MessagingException(requestMessage, "A request with the correlation key '"
+						+ correlationKey + "' is already outstanding on " + connection.getConnectionId());
+			}
+			connection.send(requestMessage);
+			Message<?> replyMessage = reply.getReply();
+			if (replyMessage == null) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Remote Timeout for " + correlationKey + " on " + connection.getConnectionId());
+				}
+				// other requests are outstanding on the connection - don't close it
+				throw new MessageTimeoutException(requestMessage, "Timed out waiting for response");
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Response " + replyMessage);
+			}
+			return replyMessage;
+		}
+		catch (Exception e) {
+			logger.error("Tcp Gateway exception", e);
+			if (e instanceof MessagingException) {
+				throw (MessagingException) e;
+			}
+			throw new MessagingException("Failed to send or receive", e);
+		}
+		finally {
+			if (replies != null) {
+				replies.remove(correlationKey);
+				if (!connection.isOpen() && replies.isEmpty()) {
+					this.multiplexedReplies.remove(connection.getConnectionId(), replies);
+				}
+			}
+		}
+	}
+
 	@Override
 	public boolean onMessage(Message<?> message) {
 		String connectionId = (String) message.getHeaders().get(IpHeaders.CONNECTION_ID);
@@ -168,6 +281,9 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		if (logger.isTraceEnabled()) {
 			logger.trace("onMessage: " + connectionId + "(" + message + ")");
 		}
+		if (this.replyCorrelationStrategy != null && !this.connectionFactory.isSingleUse()) {
+			return this.onMultiplexedMessage(connectionId, message);
+		}
 		AsyncReply reply = pendingReplies.get(connectionId);
 		if (reply == null) {
 			if (message instanceof ErrorMessage) {
@@ -186,6 +302,28 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		return false;
 	}
 
+	private boolean onMultiplexedMessage(String connectionId, Message<?> message) {
+		Map<Object, AsyncReply> replies = this.multiplexedReplies.get(connectionId);
+		if (message instanceof ErrorMessage) {
+			// Socket errors are conveyed to all the requests outstanding on the connection.
+			if (replies != null) {
+				for (AsyncReply reply : replies.values()) {
+					reply.setReply(message);
+				}
+			}
+			return false;
+		}
+		Object correlationKey = this.replyCorrelationStrategy.getCorrelationKey(message);
+		AsyncReply reply = (replies != null && correlationKey != null) ? replies.get(correlationKey) : null;
+		if (reply == null) {
+			logger.error("Cannot correlate response - no pending reply for correlation key '"
+					+ correlationKey + "' on " + connectionId);
+			return false;
+		}
+		reply.setReply(message);
+		return false;
+	}
+
 	public void setConnectionFactory(AbstractConnectionFactory connectionFactory) {
 		// TODO: In 3.0 Change parameter type to AbstractClientConnectionFactory
 		Assert.isTrue(connectionFactory instanceof AbstractClientConnectionFactory,
@@ -202,7 +340,10 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 
 	@Override
 	public void removeDeadConnection(TcpConnection connection) {
-		// do nothing - no asynchronous multiplexing supported
+		Map<Object, AsyncReply> replies = this.multiplexedReplies.get(connection.getConnectionId());
+		if (replies != null && replies.isEmpty()) {
+			this.multiplexedReplies.remove(connection.getConnectionId(), replies);
+		}
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -49,6 +49,7 @@ import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
 import org.springframework.integration.context.IntegrationObjectSupport;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayCrLfSerializer;
+import org.springframework.integration.ip.util.BufferPool;
 import org.springframework.messaging.MessagingException;
 import org.springframework.util.Assert;
 
@@ -452,6 +453,8 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 		if (!this.mapperSet) {
 			this.mapper.setBeanFactory(this.getBeanFactory());
 		}
+		// the default serializers and NIO read buffers use the shared pool
+		BufferPool.registerSharedInstance(this.getBeanFactory());
 	}
 
 	@Override
@@ -561,7 +564,7 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 	protected void processNioSelections(int selectionCount, final Selector selector, ServerSocketChannel server,
 			Map<SocketChannel, TcpNioConnection> connections) throws IOException {
 		final long now = System.currentTimeMillis();
-		rescheduleDelayedReads(selector, now);
+		rescheduleDelayedReads(now);
 		if (this.soTimeout > 0 ||
 				now >= this.nextCheckForClosedNioConnections ||
 				selectionCount == 0) {
@@ -702,39 +705,27 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 
 	/**
 	 * If any reads were delayed due to insufficient threads, reschedule them if
-	 * the readDelay has passed.
-	 * @param selector the selector to wake if necessary.
+	 * the readDelay has passed. The delayed reads may belong to any of the factory's
+	 * selectors, so the selector of each rescheduled read is woken.
 	 * @param now the current time.
 	 */
-	private void rescheduleDelayedReads(Selector selector, long now) {
-		boolean wakeSelector = false;
-		try {
-			while (this.delayedReads.size() > 0) {
-				if (this.delayedReads.peek().failedAt + this.readDelay < now) {
-					PendingIO pendingRead = this.delayedReads.take();
-					if (pendingRead.key.channel().isOpen()) {
-						pendingRead.key.interestOps(SelectionKey.OP_READ);
-						wakeSelector = true;
-						if (logger.isDebugEnabled()) {
-							logger.debug("Rescheduling delayed read for " + ((TcpNioConnection) pendingRead.key.attachment()).getConnectionId());
-						}
-					}
-					else {
-						((TcpNioConnection) pendingRead.key.attachment()).sendExceptionToListener(new EOFException("Connection is closed"));
-					}
-				}
-				else {
-					// remaining delayed reads have not expired yet.
-					break;
+	private void rescheduleDelayedReads(long now) {
+		PendingIO next;
+		while ((next = this.delayedReads.peek()) != null && next.failedAt + this.readDelay < now) {
+			PendingIO pendingRead = this.delayedReads.poll();
+			if (pendingRead == null) {
+				// rescheduled by another selector
+				break;
+			}
+			if (pendingRead.key.channel().isOpen()) {
+				pendingRead.key.interestOps(SelectionKey.OP_READ);
+				pendingRead.key.selector().wakeup();
+				if (logger.isDebugEnabled()) {
+					logger.debug("Rescheduling delayed read for " + ((TcpNioConnection) pendingRead.key.attachment()).getConnectionId());
 				}
 			}
-		}
-		catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
-		}
-		finally {
-			if (wakeSelector) {
-				selector.wakeup();
+			else {
+				((TcpNioConnection) pendingRead.key.attachment()).sendExceptionToListener(new EOFException("Connection is closed"));
 			}
 		}
 	}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.tcp.connection;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * A group of selectors that read the connections of a NIO connection factory. Each
+ * selector runs on a thread of the factory's task executor, so that selecting a large
+ * number of connections is spread over several threads. A new connection is assigned to
+ * the next selector (round robin) or, when {@code byLoad} is true, to the selector with
+ * the fewest connections.
+ *
+ * @since 4.2
+ */
+class NioReadSelectorGroup {
+
+	private static final Log logger = LogFactory.getLog(NioReadSelectorGroup.class);
+
+	private final AbstractConnectionFactory factory;
+
+	private final ReadSelector[] readSelectors;
+
+	private final boolean byLoad;
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	NioReadSelectorGroup(AbstractConnectionFactory factory, int count, boolean byLoad) throws IOException {
+		Assert.isTrue(count > 0, "'count' must be greater than 0");
+		this.factory = factory;
+		this.byLoad = byLoad;
+		this.readSelectors = new ReadSelector[count];
+		try {
+			for (int i = 0; i < count; i++) {
+				this.readSelectors[i] = new ReadSelector(i, Selector.open());
+			}
+		}
+		catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Run the selectors on the executor.
+	 * @param executor the executor.
+	 */
+	void start(Executor executor) {
+		for (ReadSelector readSelector : this.readSelectors) {
+			executor.execute(readSelector);
+		}
+	}
+
+	/**
+	 * Assign a connected, non-blocking channel to a selector for reading.
+	 * @param channel the channel.
+	 * @param connection the connection.
+	 */
+	void register(SocketChannel channel, TcpNioConnection connection) {
+		ReadSelector readSelector = this.byLoad ? leastLoaded()
+				: this.readSelectors[(this.next.getAndIncrement() & Integer.MAX_VALUE) % this.readSelectors.length];
+		readSelector.register(channel, connection);
+	}
+
+	private ReadSelector leastLoaded() {
+		ReadSelector least = this.readSelectors[0];
+		for (int i = 1; i < this.readSelectors.length; i++) {
+			if (this.readSelectors[i].channelMap.size() < least.channelMap.size()) {
+				least = this.readSelectors[i];
+			}
+		}
+		return least;
+	}
+
+	/**
+	 * @return the number of connections assigned to each selector.
+	 */
+	int[] getConnectionCounts() {
+		int[] counts = new int[this.readSelectors.length];
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = this.readSelectors[i].channelMap.size();
+		}
+		return counts;
+	}
+
+	/**
+	 * @return a snapshot of the connections of all the selectors.
+	 */
+	Map<SocketChannel, TcpNioConnection> getConnections() {
+		Map<SocketChannel, TcpNioConnection> connections = new HashMap<SocketChannel, TcpNioConnection>();
+		for (ReadSelector readSelector : this.readSelectors) {
+			connections.putAll(readSelector.channelMap);
+		}
+		return connections;
+	}
+
+	/**
+	 * Close the selectors; each selector thread exits when the factory is no longer
+	 * active.
+	 */
+	void close() {
+		for (ReadSelector readSelector : this.readSelectors) {
+			if (readSelector != null) {
+				try {
+					readSelector.selector.close();
+				}
+				catch (Exception e) {
+					logger.error("Error closing selector", e);
+				}
+			}
+		}
+	}
+
+	private class ReadSelector implements Runnable {
+
+		private final int index;
+
+		private final Selector selector;
+
+		private final Map<SocketChannel, TcpNioConnection> channelMap =
+				new ConcurrentHashMap<SocketChannel, TcpNioConnection>();
+
+		private final BlockingQueue<SocketChannel> newChannels = new LinkedBlockingQueue<SocketChannel>();
+
+		ReadSelector(int index, Selector selector) {
+			this.index = index;
+			this.selector = selector;
+		}
+
+		void register(SocketChannel channel, TcpNioConnection connection) {
+			this.channelMap.put(channel, connection);
+			this.newChannels.add(channel);
+			this.selector.wakeup();
+		}
+
+		@Override
+		public void run() {
+			AbstractConnectionFactory factory = NioReadSelectorGroup.this.factory;
+			if (logger.isDebugEnabled()) {
+				logger.debug("Read selector " + this.index + " running for " + factory.getComponentName());
+			}
+			try {
+				while (factory.isActive()) {
+					SocketChannel newChannel;
+					int soTimeout = factory.getSoTimeout();
+					int selectionCount = 0;
+					try {
+						long timeout = soTimeout < 0 ? 0 : soTimeout;
+						if (factory.getDelayedReads().size() > 0 && (timeout == 0 || factory.getReadDelay() < timeout)) {
+							timeout = factory.getReadDelay();
+						}
+						selectionCount = this.selector.select(timeout);
+					}
+					catch (CancelledKeyException cke) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("CancelledKeyException during Selector.select()");
+						}
+					}
+					while ((newChannel = this.newChannels.poll()) != null) {
+						try {
+							newChannel.register(this.selector, SelectionKey.OP_READ, this.channelMap.get(newChannel));
+						}
+						catch (ClosedChannelException cce) {
+							if (logger.isDebugEnabled()) {
+								logger.debug("Channel closed before registering with selector for reading");
+							}
+						}
+					}
+					factory.processNioSelections(selectionCount, this.selector, null, this.channelMap);
+				}
+			}
+			catch (ClosedSelectorException cse) {
+				if (factory.isActive()) {
+					logger.error("Selector closed", cse);
+				}
+			}
+			catch (Exception e) {
+				logger.error("Exception in read selector thread", e);
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Read selector " + this.index + " exiting for " + factory.getComponentName());
+			}
+		}
+
+	}
+
+}
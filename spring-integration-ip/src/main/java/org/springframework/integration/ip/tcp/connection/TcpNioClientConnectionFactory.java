@@ -30,6 +30,7 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 
+import org.springframework.integration.ip.util.BufferPool;
 import org.springframework.scheduling.SchedulingAwareRunnable;
 import org.springframework.util.Assert;
 
@@ -46,8 +47,22 @@ public class TcpNioClientConnectionFactory extends
 
 	private volatile boolean usingDirectBuffers;
 
+	private volatile boolean readThreadFraming;
+
+	private volatile int writeBatchSize;
+
+	private volatile long writeLinger;
+
+	private volatile BufferPool bufferPool = BufferPool.getSharedInstance();
+
 	private volatile Selector selector;
 
+	private volatile int readSelectorCount = 1;
+
+	private volatile boolean readSelectorByLoad;
+
+	private volatile NioReadSelectorGroup readSelectors;
+
 	private final Map<SocketChannel, TcpNioConnection> channelMap = new ConcurrentHashMap<SocketChannel, TcpNioConnection>();
 
 	private final BlockingQueue<SocketChannel> newChannels = new LinkedBlockingQueue<SocketChannel>();
@@ -67,7 +82,7 @@ public class TcpNioClientConnectionFactory extends
 	protected void checkActive() throws IOException {
 		super.checkActive();
 		int n = 0;
-		while (this.selector == null) {
+		while (this.selector == null && this.readSelectors == null) {
 			try {
 				Thread.sleep(100);
 			} catch (InterruptedException e) {
@@ -86,16 +101,29 @@ public class TcpNioClientConnectionFactory extends
 		TcpNioConnection connection = this.tcpNioConnectionSupport.createNewConnection(
 				socketChannel, false, this.isLookupHost(), this.getApplicationEventPublisher(), this.getComponentName());
 		connection.setUsingDirectBuffers(this.usingDirectBuffers);
+		connection.setBufferPool(this.bufferPool);
 		connection.setTaskExecutor(this.getTaskExecutor());
 		TcpConnectionSupport wrappedConnection = wrapConnection(connection);
 		initializeConnection(wrappedConnection, socketChannel.socket());
+		connection.setReadThreadFraming(this.readThreadFraming);
+		connection.setWriteBatchSize(this.writeBatchSize);
+		connection.setWriteLinger(this.writeLinger);
+		if (this.writeBatchSize > 0 && this.getTaskScheduler() != null) {
+			connection.setTaskScheduler(this.getTaskScheduler());
+		}
 		socketChannel.configureBlocking(false);
 		if (this.getSoTimeout() > 0) {
 			connection.setLastRead(System.currentTimeMillis());
 		}
-		this.channelMap.put(socketChannel, connection);
-		newChannels.add(socketChannel);
-		selector.wakeup();
+		NioReadSelectorGroup readSelectors = this.readSelectors;
+		if (readSelectors != null) {
+			readSelectors.register(socketChannel, connection);
+		}
+		else {
+			this.channelMap.put(socketChannel, connection);
+			newChannels.add(socketChannel);
+			selector.wakeup();
+		}
 		return wrappedConnection;
 	}
 
@@ -109,6 +137,77 @@ public class TcpNioClientConnectionFactory extends
 		this.usingDirectBuffers = usingDirectBuffers;
 	}
 
+	/**
+	 * When set to true, connections created by this factory frame the data on the
+	 * thread that reads the socket and hand off complete frames only; requires a
+	 * {@link org.springframework.integration.ip.tcp.serializer.ByteBufferDeserializer}.
+	 * @param readThreadFraming true to frame data on the read thread.
+	 * @since 4.2
+	 * @see TcpNioConnection#setReadThreadFraming(boolean)
+	 */
+	public void setReadThreadFraming(boolean readThreadFraming) {
+		this.readThreadFraming = readThreadFraming;
+	}
+
+	/**
+	 * The pool of the read buffers of the connections created by this factory.
+	 * Default {@link BufferPool#getSharedInstance()}; null to allocate the buffers.
+	 * @param bufferPool the buffer pool.
+	 * @since 4.2
+	 * @see TcpNioConnection#setBufferPool(BufferPool)
+	 */
+	public void setBufferPool(BufferPool bufferPool) {
+		this.bufferPool = bufferPool;
+	}
+
+	/**
+	 * The number of selectors that read the connections (default 1). With more than 1,
+	 * each connection is assigned to one of the read selectors, each running on a thread
+	 * of the task executor, which must allow for them.
+	 * @param readSelectorCount the number of read selectors.
+	 * @since 4.2
+	 * @see #setReadSelectorByLoad(boolean)
+	 */
+	public void setReadSelectorCount(int readSelectorCount) {
+		Assert.isTrue(readSelectorCount > 0, "'readSelectorCount' must be greater than 0");
+		this.readSelectorCount = readSelectorCount;
+	}
+
+	/**
+	 * When there are several read selectors, a new connection is assigned to the next
+	 * one (round robin) by default; when set to true, it is assigned to the read selector
+	 * with the fewest connections.
+	 * @param readSelectorByLoad true to assign connections by load.
+	 * @since 4.2
+	 * @see #setReadSelectorCount(int)
+	 */
+	public void setReadSelectorByLoad(boolean readSelectorByLoad) {
+		this.readSelectorByLoad = readSelectorByLoad;
+	}
+
+	/**
+	 * When greater than 0, connections created by this factory queue the frames they
+	 * send and write them in batches of up to this number of bytes, with gathering
+	 * writes. Default 0 (each message is written on the sending thread).
+	 * @param writeBatchSize the maximum number of bytes written in one batch.
+	 * @since 4.2
+	 * @see TcpNioConnection#setWriteBatchSize(int)
+	 */
+	public void setWriteBatchSize(int writeBatchSize) {
+		this.writeBatchSize = writeBatchSize;
+	}
+
+	/**
+	 * The maximum time (milliseconds) a frame queued by a connection that uses write
+	 * batching waits for more frames before the batch is written. Default 0.
+	 * @param writeLinger the linger time.
+	 * @since 4.2
+	 * @see TcpNioConnection#setWriteLinger(long)
+	 */
+	public void setWriteLinger(long writeLinger) {
+		this.writeLinger = writeLinger;
+	}
+
 	public void setTcpNioConnectionSupport(TcpNioConnectionSupport tcpNioSupport) {
 		Assert.notNull(tcpNioSupport, "TcpNioSupport must not be null");
 		this.tcpNioConnectionSupport = tcpNioSupport;
@@ -129,6 +228,10 @@ public class TcpNioClientConnectionFactory extends
 				logger.error("Error closing selector", e);
 			}
 		}
+		if (this.readSelectors != null) {
+			this.readSelectors.close();
+			this.readSelectors = null;
+		}
 		super.stop();
 	}
 
@@ -137,7 +240,20 @@ public class TcpNioClientConnectionFactory extends
 		synchronized (this.lifecycleMonitor) {
 			if (!this.isActive()) {
 				this.setActive(true);
-				this.getTaskExecutor().execute(this);
+				if (this.readSelectorCount > 1) {
+					try {
+						this.readSelectors = new NioReadSelectorGroup(this, this.readSelectorCount,
+								this.readSelectorByLoad);
+					}
+					catch (IOException e) {
+						this.setActive(false);
+						throw new IllegalStateException("Failed to open the read selectors", e);
+					}
+					this.readSelectors.start(this.getTaskExecutor());
+				}
+				else {
+					this.getTaskExecutor().execute(this);
+				}
 			}
 		}
 		super.start();
@@ -201,9 +317,13 @@ public class TcpNioClientConnectionFactory extends
 	}
 
 	/**
-	 * @return the connections
+	 * @return the connections; a snapshot when there are several read selectors.
 	 */
 	protected Map<SocketChannel, TcpNioConnection> getConnections() {
+		NioReadSelectorGroup readSelectors = this.readSelectors;
+		if (readSelectors != null) {
+			return readSelectors.getConnections();
+		}
 		return channelMap;
 	}
 
@@ -17,6 +17,7 @@
 package org.springframework.integration.ip.tcp.connection;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -26,6 +27,9 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
@@ -33,14 +37,21 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
+import org.springframework.integration.ip.tcp.serializer.ByteBufferDeserializer;
 import org.springframework.integration.ip.tcp.serializer.SoftEndOfStreamException;
+import org.springframework.integration.ip.util.BufferPool;
 import org.springframework.integration.util.CompositeExecutor;
 import org.springframework.messaging.Message;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.util.Assert;
 
 /**
@@ -55,6 +66,16 @@ public class TcpNioConnection extends TcpConnectionSupport {
 
 	private static final long DEFAULT_PIPE_TIMEOUT = 60000;
 
+	private static final int FRAME_LIMIT = 1000;
+
+	private static final int BUFFER_IDLE = 0;
+
+	private static final int BUFFER_READING = 1;
+
+	private static final int BUFFER_RELEASING = 2;
+
+	private static final int BUFFER_RELEASED = 3;
+
 	private final SocketChannel socketChannel;
 
 	private final ChannelOutputStream channelOutputStream;
@@ -69,6 +90,10 @@ public class TcpNioConnection extends TcpConnectionSupport {
 
 	private volatile ByteBuffer rawBuffer;
 
+	private volatile BufferPool bufferPool = BufferPool.getSharedInstance();
+
+	private final AtomicInteger rawBufferState = new AtomicInteger(BUFFER_IDLE);
+
 	private volatile int maxMessageSize = 60 * 1024;
 
 	private volatile long lastRead;
@@ -83,6 +108,22 @@ public class TcpNioConnection extends TcpConnectionSupport {
 
 	private volatile long pipeTimeout = DEFAULT_PIPE_TIMEOUT;
 
+	private volatile boolean readThreadFraming;
+
+	private final FrameDispatcher frameDispatcher = new FrameDispatcher();
+
+	private ByteBuffer partialFrame;
+
+	private volatile Object currentFrame;
+
+	private volatile int writeBatchSize;
+
+	private volatile long writeLinger;
+
+	private volatile TaskScheduler taskScheduler;
+
+	private final WriteBatcher writeBatcher = new WriteBatcher();
+
 	/**
 	 * Constructs a TcpNetConnection for the SocketChannel.
 	 * @param socketChannel The socketChannel.
@@ -116,6 +157,21 @@ public class TcpNioConnection extends TcpConnectionSupport {
 	}
 
 	private void doClose() {
+		// write the queued frames first, on the task executor
+		boolean deferred = this.writeBatcher.close(new Runnable() {
+
+			@Override
+			public void run() {
+				closeChannel();
+			}
+
+		});
+		if (!deferred) {
+			closeChannel();
+		}
+	}
+
+	private void closeChannel() {
 		try {
 			channelInputStream.close();
 		}
@@ -124,9 +180,34 @@ public class TcpNioConnection extends TcpConnectionSupport {
 			this.socketChannel.close();
 		}
 		catch (Exception e) {}
+		releaseRawBufferOnClose();
 		super.close();
 	}
 
+	/**
+	 * Release the read buffer to the pool now, or, if a read is in progress, when it ends.
+	 */
+	private void releaseRawBufferOnClose() {
+		while (true) {
+			if (this.rawBufferState.compareAndSet(BUFFER_IDLE, BUFFER_RELEASED)) {
+				releaseRawBuffer();
+				return;
+			}
+			if (this.rawBufferState.compareAndSet(BUFFER_READING, BUFFER_RELEASING)
+					|| this.rawBufferState.get() >= BUFFER_RELEASING) {
+				return;
+			}
+		}
+	}
+
+	private void releaseRawBuffer() {
+		ByteBuffer rawBuffer = this.rawBuffer;
+		this.rawBuffer = null;
+		if (rawBuffer != null) {
+			release(rawBuffer);
+		}
+	}
+
 	@Override
 	public boolean isOpen() {
 		return this.socketChannel.isOpen();
@@ -135,6 +216,10 @@ public class TcpNioConnection extends TcpConnectionSupport {
 	@Override
 	@SuppressWarnings("unchecked")
 	public void send(Message<?> message) throws Exception {
+		if (this.writeBatchSize > 0 && !isSingleUse()) {
+			sendBatched(message);
+			return;
+		}
 		synchronized(this.socketChannel) {
 			if (this.bufferedOutputStream == null) {
 				int writeBufferSize = this.socketChannel.socket().getSendBufferSize();
@@ -156,8 +241,31 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		}
 	}
 
+	/**
+	 * Serialize the message and queue the frame for the {@link WriteBatcher}.
+	 */
+	@SuppressWarnings("unchecked")
+	private void sendBatched(Message<?> message) throws Exception {
+		try {
+			Object object = this.getMapper().fromMessage(message);
+			ByteArrayOutputStream frame = new ByteArrayOutputStream();
+			((Serializer<Object>) this.getSerializer()).serialize(object, frame);
+			this.lastSend = System.currentTimeMillis();
+			this.writeBatcher.add(ByteBuffer.wrap(frame.toByteArray()));
+		}
+		catch (Exception e) {
+			this.publishConnectionExceptionEvent(e);
+			this.closeConnection(true);
+			throw e;
+		}
+		this.afterSend(message);
+	}
+
 	@Override
 	public Object getPayload() throws Exception {
+		if (this.readThreadFraming) {
+			return this.currentFrame;
+		}
 		return this.getDeserializer().deserialize(this.channelInputStream);
 	}
 
@@ -173,12 +281,19 @@ public class TcpNioConnection extends TcpConnectionSupport {
 
 	/**
 	 * Allocates a ByteBuffer of the requested length using normal or
-	 * direct buffers, depending on the usingDirectBuffers field.
+	 * direct buffers, depending on the usingDirectBuffers field. The
+	 * buffer is acquired from the buffer pool, if any, and should be
+	 * released with {@link #release(ByteBuffer)}; its capacity may be
+	 * larger than the length, which is its limit.
 	 *
 	 * @param length The buffer length.
 	 * @return The buffer.
 	 */
 	protected ByteBuffer allocate(int length) {
+		BufferPool bufferPool = this.bufferPool;
+		if (bufferPool != null) {
+			return bufferPool.acquireBuffer(length, this.usingDirectBuffers);
+		}
 		ByteBuffer buffer;
 		if (this.usingDirectBuffers) {
 			buffer = ByteBuffer.allocateDirect(length);
@@ -188,6 +303,19 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		return buffer;
 	}
 
+	/**
+	 * Release a buffer obtained from {@link #allocate(int)} to the buffer pool, if any;
+	 * the buffer must not be used afterwards.
+	 * @param buffer The buffer.
+	 * @since 4.2
+	 */
+	protected void release(ByteBuffer buffer) {
+		BufferPool bufferPool = this.bufferPool;
+		if (bufferPool != null) {
+			bufferPool.release(buffer);
+		}
+	}
+
 	/**
 	 * If there is no listener, and this connection is not for single use,
 	 * this method exits. When there is a listener, this method assembles
@@ -388,14 +516,15 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		if (this.rawBuffer == null) {
 			this.rawBuffer = allocate(maxMessageSize);
 		}
+		ensureTaskExecutor();
+		if (this.readThreadFraming) {
+			doFramedRead();
+			return;
+		}
 
 		this.writingLatch = new CountDownLatch(1);
 		this.writingToPipe = true;
 		try {
-			if (this.taskExecutor == null) {
-				ExecutorService executor = Executors.newCachedThreadPool();
-				this.taskExecutor = new CompositeExecutor(executor, executor);
-			}
 			// If there is no assembler running, start one
 			checkForAssembler();
 
@@ -432,8 +561,34 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		}
 	}
 
+	private void doFramedRead() throws Exception {
+		try {
+			int len = this.socketChannel.read(this.rawBuffer);
+			this.rawBuffer.flip();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Read " + this.rawBuffer.remaining() + " into raw buffer");
+			}
+			this.sendToPipe(this.rawBuffer);
+			if (len < 0) {
+				decodeFrames(ByteBuffer.allocate(0), true);
+				// send the last frames before the factory reports the closure
+				this.frameDispatcher.drain();
+				this.closeConnection(true);
+			}
+		}
+		catch (Exception e) {
+			this.publishConnectionExceptionEvent(e);
+			throw e;
+		}
+	}
+
 	protected void sendToPipe(ByteBuffer rawBuffer) throws IOException {
 		Assert.notNull(rawBuffer, "rawBuffer cannot be null");
+		if (this.readThreadFraming) {
+			decodeFrames(rawBuffer, false);
+			rawBuffer.clear();
+			return;
+		}
 		if (logger.isTraceEnabled()) {
 			logger.trace(this.getConnectionId() + " Sending " + rawBuffer.limit() + " to pipe");
 		}
@@ -441,6 +596,81 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		rawBuffer.clear();
 	}
 
+	/**
+	 * Decode the complete frames in the data, preceded by the partial frame left by
+	 * the previous read, if any, and hand them off to the {@link FrameDispatcher}.
+	 * A trailing partial frame is kept for the next read. Frames are decoded in place
+	 * in the read buffer when there is no partial frame.
+	 */
+	@SuppressWarnings("unchecked")
+	private void decodeFrames(ByteBuffer data, boolean endOfStream) throws IOException {
+		ByteBuffer buffer = data;
+		if (this.partialFrame != null) {
+			this.partialFrame = append(this.partialFrame, data);
+			buffer = this.partialFrame;
+		}
+		ByteBufferDeserializer<Object> deserializer = (ByteBufferDeserializer<Object>) getDeserializer();
+		int frames = 0;
+		try {
+			Object frame;
+			while ((frame = deserializer.deserialize(buffer, endOfStream)) != null) {
+				this.frameDispatcher.add(frame);
+				frames++;
+			}
+		}
+		catch (IOException e) {
+			framingFailed(e);
+			throw e;
+		}
+		catch (RuntimeException e) {
+			framingFailed(e);
+			throw e;
+		}
+		if (!buffer.hasRemaining()) {
+			this.partialFrame = null;
+		}
+		else if (buffer != this.partialFrame) {
+			ByteBuffer partialFrame = ByteBuffer.allocate(Math.max(buffer.remaining() * 2, 1024));
+			partialFrame.limit(0);
+			this.partialFrame = append(partialFrame, buffer);
+		}
+		else if (frames > 0) {
+			buffer.compact();
+			buffer.flip();
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace(getConnectionId() + " decoded " + frames + " frames, partial frame: "
+					+ (this.partialFrame == null ? 0 : this.partialFrame.remaining()));
+		}
+	}
+
+	private void framingFailed(Exception e) {
+		// send the frames decoded before the bad data first
+		this.frameDispatcher.drain();
+		this.closeConnection(true);
+		this.sendExceptionToListener(e);
+	}
+
+	/**
+	 * Append the remaining data to the buffer, which starts at position 0, in a larger
+	 * buffer if needed.
+	 */
+	private ByteBuffer append(ByteBuffer buffer, ByteBuffer data) {
+		ByteBuffer result = buffer;
+		int length = buffer.limit() + data.remaining();
+		if (length > buffer.capacity()) {
+			result = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, length));
+			result.put(buffer);
+		}
+		else {
+			result.position(result.limit());
+			result.limit(result.capacity());
+		}
+		result.put(data);
+		result.flip();
+		return result;
+	}
+
 	private void checkForAssembler() {
 		synchronized(this.executionControl) {
 			if (this.executionControl.incrementAndGet() <= 1) {
@@ -474,6 +704,12 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		if (logger.isDebugEnabled()) {
 			logger.debug(this.getConnectionId() + " Reading...");
 		}
+		if (!this.rawBufferState.compareAndSet(BUFFER_IDLE, BUFFER_READING)) {
+			if (logger.isDebugEnabled()) {
+				logger.debug(this.getConnectionId() + " Channel is closed");
+			}
+			return;
+		}
 		try {
 			doRead();
 		}
@@ -492,6 +728,28 @@ public class TcpNioConnection extends TcpConnectionSupport {
 					     e.getMessage(), e);
 			this.closeConnection(true);
 		}
+		finally {
+			if (!this.rawBufferState.compareAndSet(BUFFER_READING, BUFFER_IDLE)) {
+				// closed during the read
+				this.rawBufferState.set(BUFFER_RELEASED);
+				releaseRawBuffer();
+			}
+		}
+	}
+
+	private CompositeExecutor ensureTaskExecutor() {
+		if (this.taskExecutor == null) {
+			ExecutorService executor = Executors.newCachedThreadPool();
+			this.taskExecutor = new CompositeExecutor(executor, executor);
+		}
+		return this.taskExecutor;
+	}
+
+	private TaskScheduler ensureTaskScheduler() {
+		if (this.taskScheduler == null) {
+			this.taskScheduler = DefaultLingerScheduler.INSTANCE;
+		}
+		return this.taskScheduler;
 	}
 
 	/**
@@ -514,6 +772,17 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		}
 	}
 
+	/**
+	 * The scheduler that re-arms the write batcher when the write linger time expires;
+	 * default a shared daemon scheduler.
+	 * @param taskScheduler the task scheduler.
+	 * @since 4.2
+	 * @see #setWriteLinger(long)
+	 */
+	public void setTaskScheduler(TaskScheduler taskScheduler) {
+		this.taskScheduler = taskScheduler;
+	}
+
 	/**
 	 * If true, connection will attempt to use direct buffers where
 	 * possible.
@@ -527,6 +796,74 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		return usingDirectBuffers;
 	}
 
+	/**
+	 * The pool of the read buffer, which is released when the connection is closed.
+	 * Default {@link BufferPool#getSharedInstance()}; null to allocate the buffer.
+	 * @param bufferPool the buffer pool.
+	 * @since 4.2
+	 */
+	public void setBufferPool(BufferPool bufferPool) {
+		this.bufferPool = bufferPool;
+	}
+
+	/**
+	 * If true, and the deserializer is a {@link ByteBufferDeserializer}, the data is
+	 * framed on the thread that reads the socket, directly from the read buffer, and
+	 * complete frames are handed off, in order, to a task on the task executor that
+	 * converts and sends them to the listener. This avoids the pipe between the read
+	 * thread and an assembler thread that blocks in the deserializer while a message
+	 * is incomplete. Default false.
+	 * @param readThreadFraming true to frame data on the read thread.
+	 * @since 4.2
+	 */
+	public void setReadThreadFraming(boolean readThreadFraming) {
+		Deserializer<?> deserializer = getDeserializer();
+		Assert.isTrue(!readThreadFraming || deserializer instanceof ByteBufferDeserializer,
+				"Read thread framing requires a ByteBufferDeserializer, not " + deserializer);
+		this.readThreadFraming = readThreadFraming;
+	}
+
+	protected boolean isReadThreadFraming() {
+		return this.readThreadFraming;
+	}
+
+	/**
+	 * When greater than 0, {@link #send(Message)} serializes the message and queues the
+	 * frame, instead of writing it; the queued frames are written together, with a
+	 * gathering write of up to this number of bytes, on a thread of the task executor.
+	 * A send blocks while this number of bytes is queued. Closing the connection writes
+	 * the queued frames first, on the task executor, within the socket timeout; the
+	 * channel is closed when they are written. A failed write, or frames that
+	 * could not be written when the connection is closed, publish a
+	 * {@link TcpConnectionExceptionEvent}, and the failure is thrown to the senders
+	 * waiting for queue space and to all subsequent sends; a failed write also closes
+	 * the connection. Ignored for single-use connections. Default 0 (write each message
+	 * on the sending thread).
+	 * @param writeBatchSize the maximum number of bytes written in one batch.
+	 * @since 4.2
+	 * @see #setWriteLinger(long)
+	 */
+	public void setWriteBatchSize(int writeBatchSize) {
+		Assert.isTrue(writeBatchSize >= 0, "'writeBatchSize' cannot be negative");
+		this.writeBatchSize = writeBatchSize;
+	}
+
+	/**
+	 * The maximum time (milliseconds) a queued frame waits for more frames before the
+	 * batch is written, unless the write batch size is reached first. Default 0 (the
+	 * queued frames are written as soon as possible; only the frames queued while a
+	 * previous batch is being written are coalesced). No thread waits while a batch
+	 * lingers; the batch is written by a task that the task scheduler submits when the
+	 * linger time expires.
+	 * @param writeLinger the linger time.
+	 * @since 4.2
+	 * @see #setWriteBatchSize(int)
+	 */
+	public void setWriteLinger(long writeLinger) {
+		Assert.isTrue(writeLinger >= 0, "'writeLinger' cannot be negative");
+		this.writeLinger = writeLinger;
+	}
+
 	protected ChannelOutputStream getChannelOutputStream() {
 		return channelOutputStream;
 	}
@@ -554,6 +891,476 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		return lastSend;
 	}
 
+	/**
+	 * Converts the decoded frames and sends them to the listener, in order; at most one
+	 * task runs on the task executor at a time, while frames are queued. If the
+	 * executor rejects the task, the frames are sent on the read thread.
+	 */
+	private final class FrameDispatcher implements Runnable {
+
+		private final BlockingQueue<Object> frames = new LinkedBlockingQueue<Object>(FRAME_LIMIT);
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		private void add(Object frame) throws IOException {
+			try {
+				if (!this.frames.offer(frame, pipeTimeout, TimeUnit.MILLISECONDS)) {
+					throw new IOException("Timed out waiting for frame queue space");
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting for frame queue space", e);
+			}
+			schedule();
+		}
+
+		/**
+		 * Wait for the frames queued so far to be sent, including a frame taken by a task
+		 * that is still running, sending them on the calling thread if no task is running.
+		 * The running task notifies this dispatcher's monitor when it finishes.
+		 */
+		private void drain() {
+			while (!this.frames.isEmpty() || this.scheduled.get()) {
+				if (this.scheduled.compareAndSet(false, true)) {
+					run();
+				}
+				else {
+					synchronized (this) {
+						while (this.scheduled.get()) {
+							try {
+								wait();
+							}
+							catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+								logger.debug("Interrupted while waiting for frames to be sent on " + getConnectionId());
+								return;
+							}
+						}
+					}
+				}
+			}
+		}
+
+		private void schedule() {
+			if (this.scheduled.compareAndSet(false, true)) {
+				try {
+					TcpNioConnection.this.taskExecutor.execute2(this);
+				}
+				catch (RejectedExecutionException e) {
+					if (logger.isInfoEnabled()) {
+						logger.info(getConnectionId() + " Insufficient threads in the assembler task executor; " +
+								"sending frames on the read thread");
+					}
+					run();
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				Object frame;
+				while ((frame = this.frames.poll()) != null) {
+					if (getListener() == null && !isSingleUse()) {
+						logger.debug("TcpListener exiting - no listener and not single use");
+						this.frames.clear();
+						return;
+					}
+					Message<?> message = toMessage(frame);
+					if (message != null) {
+						sendToChannel(message);
+					}
+				}
+			}
+			finally {
+				synchronized (this) {
+					this.scheduled.set(false);
+					// wake up a drain() waiting for this task
+					notifyAll();
+				}
+			}
+			if (!this.frames.isEmpty()) {
+				schedule();
+			}
+		}
+
+		private Message<?> toMessage(Object frame) {
+			TcpNioConnection.this.currentFrame = frame;
+			try {
+				return getMapper().toMessage(TcpNioConnection.this);
+			}
+			catch (Exception e) {
+				logger.error("Read exception " + getConnectionId() + " " + e.getClass().getSimpleName()
+						+ ":" + e.getCause() + ":" + e.getMessage());
+				closeConnection(true);
+				sendExceptionToListener(e);
+				return null;
+			}
+			finally {
+				TcpNioConnection.this.currentFrame = null;
+			}
+		}
+
+	}
+
+	/**
+	 * Queues the frames of a connection that uses write batching and writes them in
+	 * batches, in order; at most one task runs on the task executor at a time. While a
+	 * batch lingers, no task runs: the batcher is re-armed by the task scheduler when the
+	 * linger time expires, or as soon as the batch size is reached. If the executor
+	 * rejects the task, the frames are written on the calling thread. A write failure,
+	 * or frames that could not be written when the connection is closed, are thrown to
+	 * the senders waiting for queue space and to all subsequent sends.
+	 */
+	private final class WriteBatcher implements Runnable {
+
+		private final List<ByteBuffer> frames = new ArrayList<ByteBuffer>();
+
+		private int queuedBytes;
+
+		private long firstQueuedAt;
+
+		/**
+		 * True while a task is submitted or running, or the linger timer is armed.
+		 */
+		private boolean scheduled;
+
+		private ScheduledFuture<?> lingerTimer;
+
+		private boolean writing;
+
+		private boolean closing;
+
+		private boolean draining;
+
+		private IOException failure;
+
+		private void add(ByteBuffer frame) throws IOException {
+			synchronized (this) {
+				while (this.queuedBytes >= writeBatchSize && this.failure == null && !this.closing && isOpen()) {
+					try {
+						wait();
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new IOException("Interrupted while waiting for write queue space", e);
+					}
+				}
+				if (this.failure != null) {
+					throw new IOException("A previous write failed on " + getConnectionId(), this.failure);
+				}
+				if (this.closing || !isOpen()) {
+					throw new ClosedChannelException();
+				}
+				if (this.frames.isEmpty()) {
+					this.firstQueuedAt = System.currentTimeMillis();
+				}
+				this.frames.add(frame);
+				this.queuedBytes += frame.remaining();
+				if (this.queuedBytes >= writeBatchSize) {
+					notifyAll();
+				}
+				if (this.scheduled) {
+					if (this.lingerTimer == null || this.queuedBytes < writeBatchSize) {
+						return;
+					}
+					// the batch is full; do not wait for the linger timer
+					this.lingerTimer.cancel(false);
+					this.lingerTimer = null;
+				}
+				else {
+					this.scheduled = true;
+					if (writeLinger > 0 && this.queuedBytes < writeBatchSize && armLingerTimer()) {
+						return;
+					}
+				}
+			}
+			execute();
+		}
+
+		private void execute() {
+			try {
+				ensureTaskExecutor().execute2(this);
+			}
+			catch (RejectedExecutionException e) {
+				if (logger.isInfoEnabled()) {
+					logger.info(getConnectionId() + " Insufficient threads in the assembler task executor; " +
+							"writing on the calling thread");
+				}
+				run();
+			}
+		}
+
+		/**
+		 * @return false if the scheduler rejected the timer; the batch is then written
+		 * without lingering.
+		 */
+		private boolean armLingerTimer() {
+			try {
+				this.lingerTimer = ensureTaskScheduler().schedule(new Runnable() {
+
+					@Override
+					public void run() {
+						lingerExpired();
+					}
+
+				}, new Date(this.firstQueuedAt + writeLinger));
+				return true;
+			}
+			catch (RejectedExecutionException e) {
+				if (logger.isDebugEnabled()) {
+					logger.debug(getConnectionId() + " linger timer rejected; writing without lingering");
+				}
+				return false;
+			}
+		}
+
+		private void lingerExpired() {
+			synchronized (this) {
+				if (this.lingerTimer == null || this.closing) {
+					// cancelled (batch full), or the frames are drained by close()
+					return;
+				}
+				this.lingerTimer = null;
+			}
+			execute();
+		}
+
+		@Override
+		public void run() {
+			ByteBuffer[] batch;
+			while ((batch = nextBatch()) != null) {
+				try {
+					if (logger.isDebugEnabled()) {
+						logger.debug(getConnectionId() + " writing a batch of " + batch.length + " frames");
+					}
+					getChannelOutputStream().doWrite(batch);
+				}
+				catch (Exception e) {
+					failed(e, batch);
+					return;
+				}
+				finally {
+					synchronized (this) {
+						this.writing = false;
+						// wake up a close() waiting for this batch
+						notifyAll();
+					}
+				}
+			}
+		}
+
+		/**
+		 * Take the frames of the next batch; at least one frame, and up to the batch size.
+		 * If the batch is not full and the linger time has not expired, re-arm the linger
+		 * timer instead of waiting.
+		 * @return the batch, or null if there are no more frames, or the batch lingers.
+		 */
+		private synchronized ByteBuffer[] nextBatch() {
+			if (this.frames.isEmpty() || this.closing || this.failure != null) {
+				this.scheduled = false;
+				return null;
+			}
+			if (writeLinger > 0 && this.queuedBytes < writeBatchSize
+					&& System.currentTimeMillis() < this.firstQueuedAt + writeLinger && armLingerTimer()) {
+				return null;
+			}
+			ByteBuffer[] batch = take(writeBatchSize);
+			this.writing = true;
+			return batch;
+		}
+
+		private ByteBuffer[] take(int maxBytes) {
+			int count = 0;
+			int bytes = 0;
+			do {
+				bytes += this.frames.get(count++).remaining();
+			}
+			while (count < this.frames.size() && bytes + this.frames.get(count).remaining() <= maxBytes);
+			List<ByteBuffer> taken = this.frames.subList(0, count);
+			ByteBuffer[] batch = taken.toArray(new ByteBuffer[count]);
+			taken.clear();
+			this.queuedBytes -= bytes;
+			notifyAll();
+			return batch;
+		}
+
+		private void failed(Exception e, ByteBuffer[] batch) {
+			synchronized (this) {
+				this.failure = lost(e, batch, this.frames.size());
+				this.frames.clear();
+				this.queuedBytes = 0;
+				this.scheduled = false;
+				notifyAll();
+			}
+			logger.error("Write failed " + getConnectionId() + " " + e.getMessage());
+			publishConnectionExceptionEvent(e);
+			closeConnection(true);
+		}
+
+		/**
+		 * Stop accepting frames and, if frames are queued or a batch is being written,
+		 * drain them on the task executor, then run the closer there; the caller (which
+		 * may be a selector thread) is not blocked.
+		 * @param closer closes the channel.
+		 * @return true if the closer will run after the drain; false if the caller must
+		 * close the channel now.
+		 */
+		private boolean close(final Runnable closer) {
+			synchronized (this) {
+				if (this.closing) {
+					// a drain in progress closes the channel
+					return this.draining;
+				}
+				this.closing = true;
+				if (this.lingerTimer != null) {
+					this.lingerTimer.cancel(false);
+					this.lingerTimer = null;
+				}
+				// wake up the senders waiting for queue space
+				notifyAll();
+				if (this.failure != null || this.frames.isEmpty() && !this.writing) {
+					return false;
+				}
+				this.draining = true;
+			}
+			try {
+				ensureTaskExecutor().execute2(new Runnable() {
+
+					@Override
+					public void run() {
+						try {
+							drain();
+						}
+						finally {
+							closer.run();
+						}
+					}
+
+				});
+				return true;
+			}
+			catch (RejectedExecutionException e) {
+				int queued;
+				synchronized (this) {
+					this.draining = false;
+					queued = this.frames.size();
+				}
+				drainFailed(lost(e, null, queued));
+				return false;
+			}
+		}
+
+		/**
+		 * Write the queued frames, with gathering writes, after waiting for a batch that
+		 * is being written. Bounded by the socket timeout (or the pipe timeout if the
+		 * socket has none).
+		 */
+		private void drain() {
+			ByteBuffer[] remaining;
+			long deadline = System.currentTimeMillis() + drainTimeout();
+			synchronized (this) {
+				long wait;
+				while (this.writing && (wait = deadline - System.currentTimeMillis()) > 0) {
+					try {
+						wait(wait);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						break;
+					}
+				}
+				if (this.frames.isEmpty() || this.failure != null) {
+					return;
+				}
+				if (this.writing) {
+					remaining = null;
+					this.failure = lost(new SocketTimeoutException("Timeout on write"), null, this.frames.size());
+				}
+				else {
+					remaining = take(Integer.MAX_VALUE);
+				}
+			}
+			if (remaining != null) {
+				try {
+					if (logger.isDebugEnabled()) {
+						logger.debug(getConnectionId() + " writing " + remaining.length + " frames before closing");
+					}
+					getChannelOutputStream().doWrite(remaining, deadline);
+					return;
+				}
+				catch (Exception e) {
+					synchronized (this) {
+						this.failure = lost(e, remaining, 0);
+					}
+				}
+			}
+			drainFailed(this.failure);
+		}
+
+		private void drainFailed(IOException failure) {
+			synchronized (this) {
+				if (this.failure == null) {
+					this.failure = failure;
+				}
+				this.frames.clear();
+				this.queuedBytes = 0;
+			}
+			logger.error(failure.getMessage());
+			publishConnectionExceptionEvent(failure);
+		}
+
+		private long drainTimeout() {
+			try {
+				int soTimeout = TcpNioConnection.this.socketChannel.socket().getSoTimeout();
+				if (soTimeout > 0) {
+					return soTimeout;
+				}
+			}
+			catch (IOException e) {
+				// use the pipe timeout
+			}
+			return pipeTimeout;
+		}
+
+		/**
+		 * @param cause the write failure.
+		 * @param batch the batch being written, if any; its frames that were not fully
+		 * written are counted.
+		 * @param queued the number of queued frames that will not be written.
+		 * @return the failure thrown to the senders.
+		 */
+		private IOException lost(Exception cause, ByteBuffer[] batch, int queued) {
+			int count = queued;
+			if (batch != null) {
+				for (ByteBuffer frame : batch) {
+					if (frame.hasRemaining()) {
+						count++;
+					}
+				}
+			}
+			return new IOException(count + " frame(s) could not be written to " + getConnectionId(), cause);
+		}
+
+	}
+
+	/**
+	 * Lazily creates the daemon scheduler that re-arms the write batchers of the
+	 * connections that have no {@link TaskScheduler}.
+	 */
+	private static final class DefaultLingerScheduler {
+
+		private static final ThreadPoolTaskScheduler INSTANCE = new ThreadPoolTaskScheduler();
+
+		static {
+			INSTANCE.setThreadNamePrefix("tcp-write-linger-");
+			INSTANCE.setDaemon(true);
+			INSTANCE.initialize();
+		}
+
+	}
+
 	/**
 	 * OutputStream to wrap a SocketChannel; implements timeout on write.
 	 *
@@ -618,6 +1425,59 @@ public class TcpNioConnection extends TcpConnectionSupport {
 			}
 		}
 
+		/**
+		 * Write the buffers, in order, with gathering writes.
+		 * @param buffers the buffers.
+		 * @throws IOException Any IOException.
+		 */
+		protected synchronized void doWrite(ByteBuffer[] buffers) throws IOException {
+			ByteBuffer last = buffers[buffers.length - 1];
+			socketChannel.write(buffers);
+			if (!last.hasRemaining()) {
+				return;
+			}
+			if (this.selector == null) {
+				this.selector = Selector.open();
+				this.soTimeout = socketChannel.socket().getSoTimeout();
+			}
+			socketChannel.register(selector, SelectionKey.OP_WRITE);
+			while (last.hasRemaining()) {
+				int selectionCount = this.selector.select(this.soTimeout);
+				if (selectionCount == 0) {
+					throw new SocketTimeoutException("Timeout on write");
+				}
+				selector.selectedKeys().clear();
+				socketChannel.write(buffers);
+			}
+		}
+
+		/**
+		 * Write the buffers, in order, with gathering writes, until the deadline.
+		 * @param buffers the buffers.
+		 * @param deadline the time (milliseconds) by which the buffers must be written.
+		 * @throws IOException Any IOException.
+		 */
+		protected synchronized void doWrite(ByteBuffer[] buffers, long deadline) throws IOException {
+			ByteBuffer last = buffers[buffers.length - 1];
+			socketChannel.write(buffers);
+			if (!last.hasRemaining()) {
+				return;
+			}
+			if (this.selector == null) {
+				this.selector = Selector.open();
+				this.soTimeout = socketChannel.socket().getSoTimeout();
+			}
+			socketChannel.register(selector, SelectionKey.OP_WRITE);
+			while (last.hasRemaining()) {
+				long timeout = deadline - System.currentTimeMillis();
+				if (timeout <= 0 || this.selector.select(timeout) == 0) {
+					throw new SocketTimeoutException("Timeout on write");
+				}
+				selector.selectedKeys().clear();
+				socketChannel.write(buffers);
+			}
+		}
+
 	}
 
 	/**
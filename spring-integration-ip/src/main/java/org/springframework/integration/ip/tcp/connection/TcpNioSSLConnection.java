@@ -16,6 +16,7 @@
 package org.springframework.integration.ip.tcp.connection;
 
 import java.io.IOException;
+import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 import java.util.concurrent.Semaphore;
@@ -315,6 +316,35 @@ public class TcpNioSSLConnection extends TcpNioConnection {
 			}
 		}
 
+		/**
+		 * Copies the plain text buffers to a single buffer, to be encrypted together.
+		 */
+		@Override
+		protected synchronized void doWrite(ByteBuffer[] buffers) throws IOException {
+			int length = 0;
+			for (ByteBuffer buffer : buffers) {
+				length += buffer.remaining();
+			}
+			ByteBuffer plainText = ByteBuffer.allocate(length);
+			for (ByteBuffer buffer : buffers) {
+				plainText.put(buffer);
+			}
+			plainText.flip();
+			doWrite(plainText);
+		}
+
+		/**
+		 * Encrypts the plain text buffers together, as {@link #doWrite(ByteBuffer[])};
+		 * the encrypted data is written with the socket timeout.
+		 */
+		@Override
+		protected synchronized void doWrite(ByteBuffer[] buffers, long deadline) throws IOException {
+			if (System.currentTimeMillis() >= deadline) {
+				throw new SocketTimeoutException("Timeout on write");
+			}
+			doWrite(buffers);
+		}
+
 		/**
 		 * Handles SSL handshaking; when network data is needed from the peer, suspends
 		 * until that data is received.
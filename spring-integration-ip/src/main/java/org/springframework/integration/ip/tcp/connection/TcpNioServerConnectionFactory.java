@@ -29,6 +29,7 @@ import java.nio.channels.SocketChannel;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.integration.ip.util.BufferPool;
 import org.springframework.util.Assert;
 
 /**
@@ -47,10 +48,24 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 
 	private volatile boolean usingDirectBuffers;
 
+	private volatile boolean readThreadFraming;
+
+	private volatile int writeBatchSize;
+
+	private volatile long writeLinger;
+
+	private volatile BufferPool bufferPool = BufferPool.getSharedInstance();
+
 	private final Map<SocketChannel, TcpNioConnection> channelMap = new HashMap<SocketChannel, TcpNioConnection>();
 
 	private volatile Selector selector;
 
+	private volatile int readSelectorCount = 1;
+
+	private volatile boolean readSelectorByLoad;
+
+	private volatile NioReadSelectorGroup readSelectors;
+
 	private volatile TcpNioConnectionSupport tcpNioConnectionSupport = new DefaultTcpNioConnectionSupport();
 
 	/**
@@ -96,6 +111,10 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 			}
 			final Selector selector = Selector.open();
 			this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+			if (this.readSelectorCount > 1) {
+				this.readSelectors = new NioReadSelectorGroup(this, this.readSelectorCount, this.readSelectorByLoad);
+				this.readSelectors.start(getTaskExecutor());
+			}
 			setListening(true);
 			this.selector = selector;
 			doSelect(this.serverChannel, selector);
@@ -121,6 +140,8 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 	 * When a socket is ready for reading, unregisters the read interest and
 	 * schedules a call to doRead which reads all available data. When the read
 	 * is complete, the socket is again registered for read interest.
+	 * When there are several read selectors, this selector only accepts connections;
+	 * they are read by the read selectors.
 	 * @param server the ServerSocketChannel to select
 	 * @param selector the Selector multiplexor
 	 * @throws IOException
@@ -183,8 +204,14 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 				}
 				connection.setTaskExecutor(getTaskExecutor());
 				connection.setLastRead(now);
-				this.channelMap.put(channel, connection);
-				channel.register(selector, SelectionKey.OP_READ, connection);
+				NioReadSelectorGroup readSelectors = this.readSelectors;
+				if (readSelectors != null) {
+					readSelectors.register(channel, connection);
+				}
+				else {
+					this.channelMap.put(channel, connection);
+					channel.register(selector, SelectionKey.OP_READ, connection);
+				}
 				connection.publishConnectionOpenEvent();
 			}
 			catch (Exception e) {
@@ -199,8 +226,15 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 			TcpNioConnection connection = this.tcpNioConnectionSupport.createNewConnection(socketChannel, true,
 							isLookupHost(), getApplicationEventPublisher(), getComponentName());
 			connection.setUsingDirectBuffers(this.usingDirectBuffers);
+			connection.setBufferPool(this.bufferPool);
 			TcpConnectionSupport wrappedConnection = wrapConnection(connection);
 			initializeConnection(wrappedConnection, socketChannel.socket());
+			connection.setReadThreadFraming(this.readThreadFraming);
+			connection.setWriteBatchSize(this.writeBatchSize);
+			connection.setWriteLinger(this.writeLinger);
+			if (this.writeBatchSize > 0 && this.getTaskScheduler() != null) {
+				connection.setTaskScheduler(this.getTaskScheduler());
+			}
 			return connection;
 		}
 		catch (Exception e) {
@@ -220,6 +254,10 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 				logger.error("Error closing selector", e);
 			}
 		}
+		if (this.readSelectors != null) {
+			this.readSelectors.close();
+			this.readSelectors = null;
+		}
 		if (this.serverChannel != null) {
 			try {
 				this.serverChannel.close();
@@ -238,6 +276,78 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 		this.usingDirectBuffers = usingDirectBuffers;
 	}
 
+	/**
+	 * When set to true, connections created by this factory frame the data on the
+	 * thread that reads the socket and hand off complete frames only; requires a
+	 * {@link org.springframework.integration.ip.tcp.serializer.ByteBufferDeserializer}.
+	 * @param readThreadFraming true to frame data on the read thread.
+	 * @since 4.2
+	 * @see TcpNioConnection#setReadThreadFraming(boolean)
+	 */
+	public void setReadThreadFraming(boolean readThreadFraming) {
+		this.readThreadFraming = readThreadFraming;
+	}
+
+	/**
+	 * The pool of the read buffers of the connections created by this factory.
+	 * Default {@link BufferPool#getSharedInstance()}; null to allocate the buffers.
+	 * @param bufferPool the buffer pool.
+	 * @since 4.2
+	 * @see TcpNioConnection#setBufferPool(BufferPool)
+	 */
+	public void setBufferPool(BufferPool bufferPool) {
+		this.bufferPool = bufferPool;
+	}
+
+	/**
+	 * The number of selectors that read the connections (default 1). With 1, a single
+	 * selector accepts and reads all the connections; with more, that selector only
+	 * accepts the connections and assigns each of them to one of the read selectors.
+	 * Each selector runs on a thread of the task executor, which must allow for them.
+	 * @param readSelectorCount the number of read selectors.
+	 * @since 4.2
+	 * @see #setReadSelectorByLoad(boolean)
+	 */
+	public void setReadSelectorCount(int readSelectorCount) {
+		Assert.isTrue(readSelectorCount > 0, "'readSelectorCount' must be greater than 0");
+		this.readSelectorCount = readSelectorCount;
+	}
+
+	/**
+	 * When there are several read selectors, a new connection is assigned to the next
+	 * one (round robin) by default; when set to true, it is assigned to the read selector
+	 * with the fewest connections.
+	 * @param readSelectorByLoad true to assign connections by load.
+	 * @since 4.2
+	 * @see #setReadSelectorCount(int)
+	 */
+	public void setReadSelectorByLoad(boolean readSelectorByLoad) {
+		this.readSelectorByLoad = readSelectorByLoad;
+	}
+
+	/**
+	 * When greater than 0, connections created by this factory queue the frames they
+	 * send and write them in batches of up to this number of bytes, with gathering
+	 * writes. Default 0 (each message is written on the sending thread).
+	 * @param writeBatchSize the maximum number of bytes written in one batch.
+	 * @since 4.2
+	 * @see TcpNioConnection#setWriteBatchSize(int)
+	 */
+	public void setWriteBatchSize(int writeBatchSize) {
+		this.writeBatchSize = writeBatchSize;
+	}
+
+	/**
+	 * The maximum time (milliseconds) a frame queued by a connection that uses write
+	 * batching waits for more frames before the batch is written. Default 0.
+	 * @param writeLinger the linger time.
+	 * @since 4.2
+	 * @see TcpNioConnection#setWriteLinger(long)
+	 */
+	public void setWriteLinger(long writeLinger) {
+		this.writeLinger = writeLinger;
+	}
+
 	public void setTcpNioConnectionSupport(TcpNioConnectionSupport tcpNioSupport) {
 		Assert.notNull(tcpNioSupport, "TcpNioSupport must not be null");
 		this.tcpNioConnectionSupport = tcpNioSupport;
@@ -258,9 +368,13 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 	}
 
 	/**
-	 * @return the connections
+	 * @return the connections; a snapshot when there are several read selectors.
 	 */
 	protected Map<SocketChannel, TcpNioConnection> getConnections() {
+		NioReadSelectorGroup readSelectors = this.readSelectors;
+		if (readSelectors != null) {
+			return readSelectors.getConnections();
+		}
 		return channelMap;
 	}
 
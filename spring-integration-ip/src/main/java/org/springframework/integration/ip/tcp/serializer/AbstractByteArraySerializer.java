@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,8 @@
 package org.springframework.integration.ip.tcp.serializer;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -25,6 +27,7 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
+import org.springframework.integration.ip.util.BufferPool;
 
 /**
  * Base class for (de)serializers that provide a mechanism to
@@ -45,6 +48,8 @@ public abstract class AbstractByteArraySerializer implements
 
 	private ApplicationEventPublisher applicationEventPublisher;
 
+	private volatile BufferPool bufferPool = BufferPool.getSharedInstance();
+
 	/**
 	 * The maximum supported message size for this serializer.
 	 * Default 2048.
@@ -63,6 +68,17 @@ public abstract class AbstractByteArraySerializer implements
 		this.maxMessageSize = maxMessageSize;
 	}
 
+	/**
+	 * The pool of the buffers used to assemble messages of unknown length, up to the
+	 * maxMessageSize. Default {@link BufferPool#getSharedInstance()}; null to allocate
+	 * a buffer for each message.
+	 * @param bufferPool The buffer pool.
+	 * @since 4.2
+	 */
+	public void setBufferPool(BufferPool bufferPool) {
+		this.bufferPool = bufferPool;
+	}
+
 	@Override
 	public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
 		this.applicationEventPublisher = applicationEventPublisher;
@@ -75,24 +91,79 @@ public abstract class AbstractByteArraySerializer implements
 		}
 	}
 
+	/**
+	 * Throw an IOException if the stream is closed and the buffer contains
+	 * a partial frame.
+	 * @param buffer The buffer containing the data.
+	 * @param endOfStream true if the stream is closed.
+	 * @throws IOException if the stream is closed during a frame.
+	 * @since 4.2
+	 */
+	protected void checkClosure(ByteBuffer buffer, boolean endOfStream) throws IOException {
+		if (endOfStream && buffer.hasRemaining()) {
+			checkClosure(-1);
+		}
+	}
+
+	/**
+	 * Copy length bytes, from the position of the buffer, to a new array and
+	 * advance the position past them and the following skip bytes (e.g.
+	 * a terminator).
+	 * @param buffer The buffer containing the data.
+	 * @param length The number of bytes to copy.
+	 * @param skip The number of bytes to skip after the data.
+	 * @return The new array.
+	 * @since 4.2
+	 */
+	protected byte[] copyFrame(ByteBuffer buffer, int length, int skip) {
+		byte[] frame = new byte[length];
+		buffer.get(frame);
+		buffer.position(buffer.position() + skip);
+		return frame;
+	}
+
+	/**
+	 * Acquire a buffer of at least size bytes from the buffer pool, if any.
+	 * @param size The size.
+	 * @return The buffer.
+	 * @since 4.2
+	 * @see #releaseBuffer(byte[])
+	 */
+	protected byte[] acquireBuffer(int size) {
+		BufferPool bufferPool = this.bufferPool;
+		return bufferPool != null ? bufferPool.acquireArray(size) : new byte[size];
+	}
+
+	/**
+	 * Release a buffer acquired by {@link #acquireBuffer(int)}; the buffer must not
+	 * be used, nor returned, afterwards.
+	 * @param buffer The buffer.
+	 * @since 4.2
+	 */
+	protected void releaseBuffer(byte[] buffer) {
+		BufferPool bufferPool = this.bufferPool;
+		if (bufferPool != null) {
+			bufferPool.release(buffer);
+		}
+	}
+
 	/**
 	 * Copy size bytes to a new buffer exactly size bytes long.
 	 * @param buffer The buffer containing the data.
 	 * @param size The number of bytes to copy.
-	 * @return The new buffer, or the buffer parameter if it is
-	 * already the correct size.
+	 * @return The new buffer; always a copy, even if the buffer parameter is already
+	 * the correct size, because that buffer may be released to the pool.
 	 */
 	protected byte[] copyToSizedArray(byte[] buffer, int size) {
-		if (size == buffer.length) {
-			return buffer;
-		}
 		byte[] assembledData = new byte[size];
 		System.arraycopy(buffer, 0, assembledData, 0, size);
 		return assembledData;
 	}
 
 	protected void publishEvent(Exception cause, byte[] buffer, int offset) {
-		TcpDeserializationExceptionEvent event = new TcpDeserializationExceptionEvent(this, cause, buffer, offset);
+		// the buffer may be released to the pool
+		byte[] data = buffer == null ? null : Arrays.copyOf(buffer, buffer.length);
+		TcpDeserializationExceptionEvent event = new TcpDeserializationExceptionEvent(this, cause, data, offset);
 		if (this.applicationEventPublisher != null) {
 			this.applicationEventPublisher.publishEvent(event);
 		}
@@ -101,4 +172,17 @@ public abstract class AbstractByteArraySerializer implements
 		}
 	}
 
+	/**
+	 * Publish a {@link TcpDeserializationExceptionEvent} with the data
+	 * remaining in the buffer.
+	 * @param cause The exception.
+	 * @param buffer The buffer containing the data.
+	 * @since 4.2
+	 */
+	protected void publishEvent(Exception cause, ByteBuffer buffer) {
+		byte[] data = new byte[buffer.remaining()];
+		buffer.duplicate().get(data);
+		publishEvent(cause, data, data.length);
+	}
+
 }
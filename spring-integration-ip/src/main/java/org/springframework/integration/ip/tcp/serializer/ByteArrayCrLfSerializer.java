@@ -19,6 +19,7 @@ package org.springframework.integration.ip.tcp.serializer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Reads data in an InputStream to a byte[]; data must be terminated by \r\n
@@ -28,7 +29,8 @@ import java.io.OutputStream;
  * @author Gary Russell
  * @since 2.0
  */
-public class ByteArrayCrLfSerializer extends AbstractByteArraySerializer {
+public class ByteArrayCrLfSerializer extends AbstractByteArraySerializer
+		implements ByteBufferDeserializer<byte[]> {
 
 	private static final byte[] CRLF = "\r\n".getBytes();
 
@@ -40,9 +42,14 @@ public class ByteArrayCrLfSerializer extends AbstractByteArraySerializer {
 	 */
 	@Override
 	public byte[] deserialize(InputStream inputStream) throws IOException {
-		byte[] buffer = new byte[this.maxMessageSize];
-		int n = this.fillToCrLf(inputStream, buffer);
-		return this.copyToSizedArray(buffer, n);
+		byte[] buffer = acquireBuffer(this.maxMessageSize);
+		try {
+			int n = this.fillToCrLf(inputStream, buffer);
+			return this.copyToSizedArray(buffer, n);
+		}
+		finally {
+			releaseBuffer(buffer);
+		}
 	}
 
 	public int fillToCrLf(InputStream inputStream, byte[] buffer) throws IOException {
@@ -82,6 +89,37 @@ public class ByteArrayCrLfSerializer extends AbstractByteArraySerializer {
 		}
 	}
 
+	/**
+	 * Decodes the data in the buffer up to the next CRLF (\r\n), which is
+	 * removed. Returns null if the buffer does not contain a CRLF.
+	 */
+	@Override
+	public byte[] deserialize(ByteBuffer buffer, boolean endOfStream) throws IOException {
+		try {
+			int start = buffer.position();
+			int end = start + Math.min(buffer.remaining(), this.maxMessageSize);
+			for (int i = start + 1; i < end; i++) {
+				if (buffer.get(i) == '\n' && buffer.get(i - 1) == '\r') {
+					return copyFrame(buffer, i - 1 - start, 2);
+				}
+			}
+			if (buffer.remaining() >= this.maxMessageSize) {
+				throw new IOException("CRLF not found before max message length: "
+						+ this.maxMessageSize);
+			}
+			checkClosure(buffer, endOfStream);
+			return null;
+		}
+		catch (IOException e) {
+			publishEvent(e, buffer);
+			throw e;
+		}
+		catch (RuntimeException e) {
+			publishEvent(e, buffer);
+			throw e;
+		}
+	}
+
 	/**
 	 * Writes the byte[] to the stream and appends \r\n.
 	 */
@@ -42,7 +42,8 @@ import org.apache.commons.logging.LogFactory;
  * @author Gary Russell
  * @since 2.0
  */
-public class ByteArrayLengthHeaderSerializer extends AbstractByteArraySerializer {
+public class ByteArrayLengthHeaderSerializer extends AbstractByteArraySerializer
+		implements ByteBufferDeserializer<byte[]> {
 
 
 	/**
@@ -122,6 +123,60 @@ public class ByteArrayLengthHeaderSerializer extends AbstractByteArraySerializer
 		}
 	}
 
+	/**
+	 * Decodes the header and then the data of the provided length from the
+	 * buffer. Returns null if the buffer does not contain the complete header
+	 * and data. Throws an IOException if the length field exceeds the
+	 * maxMessageSize.
+	 */
+	@Override
+	public byte[] deserialize(ByteBuffer buffer, boolean endOfStream) throws IOException {
+		try {
+			if (buffer.remaining() < this.headerSize) {
+				checkClosure(buffer, endOfStream);
+				return null;
+			}
+			int start = buffer.position();
+			int messageLength;
+			switch (this.headerSize) {
+			case HEADER_SIZE_INT:
+				messageLength = buffer.getInt(start);
+				if (messageLength < 0) {
+					throw new IllegalArgumentException("Length header:"
+							+ messageLength
+							+ " is negative");
+				}
+				break;
+			case HEADER_SIZE_UNSIGNED_BYTE:
+				messageLength = buffer.get(start) & 0xff;
+				break;
+			case HEADER_SIZE_UNSIGNED_SHORT:
+				messageLength = buffer.getShort(start) & 0xffff;
+				break;
+			default:
+				throw new IllegalArgumentException("Bad header size:" + headerSize);
+			}
+			if (messageLength > this.maxMessageSize) {
+				throw new IOException("Message length " + messageLength +
+						" exceeds max message length: " + this.maxMessageSize);
+			}
+			if (buffer.remaining() - this.headerSize < messageLength) {
+				checkClosure(buffer, endOfStream);
+				return null;
+			}
+			buffer.position(start + this.headerSize);
+			return copyFrame(buffer, messageLength, 0);
+		}
+		catch (IOException e) {
+			publishEvent(e, buffer);
+			throw e;
+		}
+		catch (RuntimeException e) {
+			publishEvent(e, buffer);
+			throw e;
+		}
+	}
+
 	/**
 	 * Writes the byte[] to the output stream, preceded by a 4 byte
 	 * length in network byte order (big endian).
@@ -18,6 +18,7 @@ package org.springframework.integration.ip.tcp.serializer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * A byte array (de)serializer that does nothing with the payload; sends it raw.
@@ -33,7 +34,8 @@ import java.io.OutputStream;
  * @since 2.0.3
  *
  */
-public class ByteArrayRawSerializer extends AbstractByteArraySerializer {
+public class ByteArrayRawSerializer extends AbstractByteArraySerializer
+		implements ByteBufferDeserializer<byte[]> {
 
 	@Override
 	public void serialize(byte[] bytes, OutputStream outputStream)
@@ -41,9 +43,35 @@ public class ByteArrayRawSerializer extends AbstractByteArraySerializer {
 		outputStream.write(bytes);
 	}
 
+	/**
+	 * Returns all the data in the buffer when the stream is closed; returns
+	 * null until then.
+	 */
+	@Override
+	public byte[] deserialize(ByteBuffer buffer, boolean endOfStream) throws IOException {
+		try {
+			if (buffer.remaining() >= this.maxMessageSize) {
+				throw new IOException("Socket was not closed before max message length: "
+						+ this.maxMessageSize);
+			}
+			if (!endOfStream || !buffer.hasRemaining()) {
+				return null;
+			}
+			return copyFrame(buffer, buffer.remaining(), 0);
+		}
+		catch (IOException e) {
+			publishEvent(e, buffer);
+			throw e;
+		}
+		catch (RuntimeException e) {
+			publishEvent(e, buffer);
+			throw e;
+		}
+	}
+
 	@Override
 	public byte[] deserialize(InputStream inputStream) throws IOException {
-		byte[] buffer = new byte[this.maxMessageSize];
+		byte[] buffer = acquireBuffer(this.maxMessageSize);
 		int n = 0;
 		int bite = 0;
 		if (logger.isDebugEnabled()) {
@@ -64,9 +92,7 @@ public class ByteArrayRawSerializer extends AbstractByteArraySerializer {
 							+ this.maxMessageSize);
 				}
 			}
-			byte[] assembledData = new byte[n];
-			System.arraycopy(buffer, 0, assembledData, 0, n);
-			return assembledData;
+			return this.copyToSizedArray(buffer, n);
 		}
 		catch (SoftEndOfStreamException e) {
 			throw e;
@@ -79,6 +105,9 @@ public class ByteArrayRawSerializer extends AbstractByteArraySerializer {
 			publishEvent(e, buffer, n);
 			throw e;
 		}
+		finally {
+			releaseBuffer(buffer);
+		}
 	}
 
 }
@@ -19,6 +19,7 @@ package org.springframework.integration.ip.tcp.serializer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Reads data in an InputStream to a byte[]; data must be terminated by a single
@@ -28,7 +29,8 @@ import java.io.OutputStream;
  * @author Gary Russell
  * @since 2.2
  */
-public class ByteArraySingleTerminatorSerializer extends AbstractByteArraySerializer {
+public class ByteArraySingleTerminatorSerializer extends AbstractByteArraySerializer
+		implements ByteBufferDeserializer<byte[]> {
 
 	private final byte terminator;
 
@@ -44,7 +46,7 @@ public class ByteArraySingleTerminatorSerializer extends AbstractByteArraySerial
 	 */
 	@Override
 	public byte[] deserialize(InputStream inputStream) throws IOException {
-		byte[] buffer = new byte[this.maxMessageSize];
+		byte[] buffer = acquireBuffer(this.maxMessageSize);
 		int n = 0;
 		int bite;
 		if (logger.isDebugEnabled()) {
@@ -67,9 +69,7 @@ public class ByteArraySingleTerminatorSerializer extends AbstractByteArraySerial
 							+ this.maxMessageSize);
 				}
 			}
-			byte[] assembledData = new byte[n];
-			System.arraycopy(buffer, 0, assembledData, 0, n);
-			return assembledData;
+			return this.copyToSizedArray(buffer, n);
 		}
 		catch (SoftEndOfStreamException e) {
 			throw e;
@@ -82,6 +82,41 @@ public class ByteArraySingleTerminatorSerializer extends AbstractByteArraySerial
 			publishEvent(e, buffer, n);
 			throw e;
 		}
+		finally {
+			releaseBuffer(buffer);
+		}
+	}
+
+	/**
+	 * Decodes the data in the buffer up to the next terminator, which is
+	 * removed. Returns null if the buffer does not contain the terminator.
+	 */
+	@Override
+	public byte[] deserialize(ByteBuffer buffer, boolean endOfStream) throws IOException {
+		try {
+			int start = buffer.position();
+			int end = start + Math.min(buffer.remaining(), this.maxMessageSize);
+			for (int i = start; i < end; i++) {
+				if (buffer.get(i) == terminator) {
+					return copyFrame(buffer, i - start, 1);
+				}
+			}
+			if (buffer.remaining() >= this.maxMessageSize) {
+				throw new IOException("Terminator '0x" + Integer.toHexString(terminator & 0xff)
+						+ "' not found before max message length: "
+						+ this.maxMessageSize);
+			}
+			checkClosure(buffer, endOfStream);
+			return null;
+		}
+		catch (IOException e) {
+			publishEvent(e, buffer);
+			throw e;
+		}
+		catch (RuntimeException e) {
+			publishEvent(e, buffer);
+			throw e;
+		}
 	}
 
 	/**
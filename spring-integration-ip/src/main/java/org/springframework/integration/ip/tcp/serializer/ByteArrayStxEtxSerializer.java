@@ -19,6 +19,7 @@ package org.springframework.integration.ip.tcp.serializer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import org.springframework.integration.mapping.MessageMappingException;
 
@@ -30,7 +31,8 @@ import org.springframework.integration.mapping.MessageMappingException;
  * @author Gary Russell
  * @since 2.0
  */
-public class ByteArrayStxEtxSerializer extends AbstractByteArraySerializer {
+public class ByteArrayStxEtxSerializer extends AbstractByteArraySerializer
+		implements ByteBufferDeserializer<byte[]> {
 
 	public static final int STX = 0x02;
 
@@ -56,7 +58,7 @@ public class ByteArrayStxEtxSerializer extends AbstractByteArraySerializer {
 			if (bite != STX) {
 				throw new MessageMappingException("Expected STX to begin message");
 			}
-			buffer = new byte[this.maxMessageSize];
+			buffer = acquireBuffer(this.maxMessageSize);
 			while ((bite = inputStream.read()) != ETX) {
 				checkClosure(bite);
 				buffer[n++] = (byte) bite;
@@ -65,9 +67,7 @@ public class ByteArrayStxEtxSerializer extends AbstractByteArraySerializer {
 							+ this.maxMessageSize);
 				}
 			}
-			byte[] assembledData = new byte[n];
-			System.arraycopy(buffer, 0, assembledData, 0, n);
-			return assembledData;
+			return this.copyToSizedArray(buffer, n);
 		}
 		catch (IOException e) {
 			publishEvent(e, buffer, n);
@@ -77,6 +77,49 @@ public class ByteArrayStxEtxSerializer extends AbstractByteArraySerializer {
 			publishEvent(e, buffer, n);
 			throw e;
 		}
+		finally {
+			if (buffer != null) {
+				releaseBuffer(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Decodes the data in the buffer between an ASCII STX character and the next
+	 * ASCII ETX character. Returns null if the buffer does not contain the ETX.
+	 */
+	@Override
+	public byte[] deserialize(ByteBuffer buffer, boolean endOfStream) throws IOException {
+		if (!buffer.hasRemaining()) {
+			return null;
+		}
+		try {
+			int start = buffer.position();
+			if (buffer.get(start) != STX) {
+				throw new MessageMappingException("Expected STX to begin message");
+			}
+			int end = start + 1 + Math.min(buffer.remaining() - 1, this.maxMessageSize);
+			for (int i = start + 1; i < end; i++) {
+				if (buffer.get(i) == ETX) {
+					buffer.position(start + 1);
+					return copyFrame(buffer, i - start - 1, 1);
+				}
+			}
+			if (buffer.remaining() > this.maxMessageSize) {
+				throw new IOException("ETX not found before max message length: "
+						+ this.maxMessageSize);
+			}
+			checkClosure(buffer, endOfStream);
+			return null;
+		}
+		catch (IOException e) {
+			publishEvent(e, buffer);
+			throw e;
+		}
+		catch (RuntimeException e) {
+			publishEvent(e, buffer);
+			throw e;
+		}
 	}
 
 	/**
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.tcp.serializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A deserializer that frames data in a {@link ByteBuffer}, without blocking, instead of
+ * reading an {@link java.io.InputStream}. It allows a
+ * {@link org.springframework.integration.ip.tcp.connection.TcpNioConnection} to decode
+ * the data on the thread that reads the socket, and to hand off complete frames only.
+ *
+ * @param <T> the type of the frames.
+ * @since 4.2
+ */
+public interface ByteBufferDeserializer<T> {
+
+	/**
+	 * Decode the next frame from the data between the position and the limit of the
+	 * buffer. If the data contains a complete frame, it is returned and the position is
+	 * advanced past it; otherwise {@code null} is returned and the position is unchanged,
+	 * and the caller invokes this method again when more data has been appended.
+	 * @param buffer the buffer.
+	 * @param endOfStream true if the stream is closed and no more data will be appended.
+	 * @return the frame, or null if the data does not contain a complete frame.
+	 * @throws IOException if the data cannot be framed, e.g. a frame exceeds the maximum
+	 * message size or the stream is closed during the frame.
+	 */
+	T deserialize(ByteBuffer buffer, boolean endOfStream) throws IOException;
+
+}
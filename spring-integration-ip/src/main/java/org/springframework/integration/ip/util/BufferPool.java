@@ -0,0 +1,259 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.jmx.export.annotation.ManagedMetric;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.jmx.support.MetricType;
+import org.springframework.util.Assert;
+
+/**
+ * A pool of byte arrays and direct {@link ByteBuffer}s, in size classes of powers of 2
+ * (from 256 bytes to the {@code maxBufferSize}), so that buffers are reused instead of
+ * being allocated for each message or connection.
+ * <p>
+ * A request is served by a buffer of the smallest class that fits, which may be larger
+ * than requested. Each class keeps up to {@code maxPooledPerClass} released buffers;
+ * requests larger than the {@code maxBufferSize} are always allocated, and the buffers
+ * are not pooled on release. Buffers must only be released to the pool they were
+ * acquired from, once, and must not be used after they are released.
+ * <p>
+ * The metrics are the number of requests served from the pool (hits) and by allocating a
+ * buffer (misses), and the number of buffers acquired and not yet released (outstanding).
+ * The connection factories register the shared instance as the
+ * {@value #SHARED_INSTANCE_BEAN_NAME} bean, so it is exported by an {@code MBeanExporter}
+ * that detects {@link ManagedResource} beans (e.g. {@code <context:mbean-export/>}).
+ *
+ * @since 4.2
+ */
+@ManagedResource
+public class BufferPool {
+
+	public static final int DEFAULT_MAX_BUFFER_SIZE = 1024 * 1024;
+
+	public static final int DEFAULT_MAX_POOLED_PER_CLASS = 64;
+
+	public static final String SHARED_INSTANCE_BEAN_NAME = "integrationTcpBufferPool";
+
+	private static final int MIN_CLASS_SHIFT = 8;
+
+	private static final BufferPool sharedInstance = new BufferPool();
+
+	private final int maxBufferSize;
+
+	private final BlockingQueue<byte[]>[] arrays;
+
+	private final BlockingQueue<ByteBuffer>[] directBuffers;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicInteger outstanding = new AtomicInteger();
+
+	/**
+	 * Create a pool with the default maximum buffer size (1MB) and number of pooled
+	 * buffers per class (64).
+	 */
+	public BufferPool() {
+		this(DEFAULT_MAX_BUFFER_SIZE, DEFAULT_MAX_POOLED_PER_CLASS);
+	}
+
+	/**
+	 * Create a pool with the provided limits.
+	 * @param maxBufferSize the size of the largest class, rounded up to a power of 2.
+	 * @param maxPooledPerClass the maximum number of released buffers kept per class.
+	 */
+	@SuppressWarnings("unchecked")
+	public BufferPool(int maxBufferSize, int maxPooledPerClass) {
+		Assert.isTrue(maxBufferSize > 0 && maxBufferSize <= 1 << 30,
+				"'maxBufferSize' must be greater than 0 and not more than 1GB");
+		Assert.isTrue(maxPooledPerClass > 0, "'maxPooledPerClass' must be greater than 0");
+		int classes = classIndex(maxBufferSize) + 1;
+		this.maxBufferSize = classSize(classes - 1);
+		this.arrays = new BlockingQueue[classes];
+		this.directBuffers = new BlockingQueue[classes];
+		for (int i = 0; i < classes; i++) {
+			this.arrays[i] = new ArrayBlockingQueue<byte[]>(maxPooledPerClass);
+			this.directBuffers[i] = new ArrayBlockingQueue<ByteBuffer>(maxPooledPerClass);
+		}
+	}
+
+	/**
+	 * @return the pool shared by the TCP serializers and connections by default.
+	 */
+	public static BufferPool getSharedInstance() {
+		return sharedInstance;
+	}
+
+	/**
+	 * Register the shared instance as the {@value #SHARED_INSTANCE_BEAN_NAME} singleton of
+	 * the bean factory, if it supports singleton registration and does not already have
+	 * such a bean, so that it can be exported to JMX.
+	 * @param beanFactory the bean factory; may be null.
+	 */
+	public static void registerSharedInstance(BeanFactory beanFactory) {
+		if (beanFactory instanceof SingletonBeanRegistry) {
+			synchronized (sharedInstance) {
+				if (!beanFactory.containsBean(SHARED_INSTANCE_BEAN_NAME)) {
+					((SingletonBeanRegistry) beanFactory).registerSingleton(SHARED_INSTANCE_BEAN_NAME, sharedInstance);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Acquire a byte array of at least the requested length.
+	 * @param size the length.
+	 * @return the array.
+	 */
+	public byte[] acquireArray(int size) {
+		this.outstanding.incrementAndGet();
+		if (size > this.maxBufferSize) {
+			this.misses.incrementAndGet();
+			return new byte[size];
+		}
+		int index = classIndex(size);
+		byte[] array = this.arrays[index].poll();
+		if (array != null) {
+			this.hits.incrementAndGet();
+			return array;
+		}
+		this.misses.incrementAndGet();
+		return new byte[classSize(index)];
+	}
+
+	/**
+	 * Release an array acquired from this pool.
+	 * @param array the array.
+	 */
+	public void release(byte[] array) {
+		Assert.notNull(array, "'array' must not be null");
+		this.outstanding.decrementAndGet();
+		if (array.length <= this.maxBufferSize) {
+			int index = classIndex(array.length);
+			if (classSize(index) == array.length) {
+				this.arrays[index].offer(array);
+			}
+		}
+	}
+
+	/**
+	 * Acquire a heap or direct buffer with a capacity of at least the requested size; the
+	 * position is 0 and the limit is the requested size. A heap buffer wraps an array of
+	 * the pool, from offset 0.
+	 * @param size the size.
+	 * @param direct true for a direct buffer.
+	 * @return the buffer.
+	 */
+	public ByteBuffer acquireBuffer(int size, boolean direct) {
+		ByteBuffer buffer;
+		if (!direct) {
+			buffer = ByteBuffer.wrap(acquireArray(size));
+		}
+		else {
+			this.outstanding.incrementAndGet();
+			if (size > this.maxBufferSize) {
+				this.misses.incrementAndGet();
+				buffer = ByteBuffer.allocateDirect(size);
+			}
+			else {
+				int index = classIndex(size);
+				buffer = this.directBuffers[index].poll();
+				if (buffer != null) {
+					this.hits.incrementAndGet();
+				}
+				else {
+					this.misses.incrementAndGet();
+					buffer = ByteBuffer.allocateDirect(classSize(index));
+				}
+			}
+		}
+		buffer.limit(size);
+		return buffer;
+	}
+
+	/**
+	 * Release a buffer acquired from this pool.
+	 * @param buffer the buffer.
+	 */
+	public void release(ByteBuffer buffer) {
+		Assert.notNull(buffer, "'buffer' must not be null");
+		if (!buffer.isDirect()) {
+			release(buffer.array());
+			return;
+		}
+		this.outstanding.decrementAndGet();
+		if (buffer.capacity() <= this.maxBufferSize) {
+			int index = classIndex(buffer.capacity());
+			if (classSize(index) == buffer.capacity()) {
+				buffer.clear();
+				this.directBuffers[index].offer(buffer);
+			}
+		}
+	}
+
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Requests served from the pool")
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Requests served by allocating a buffer")
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	@ManagedMetric(metricType = MetricType.GAUGE, displayName = "Buffers acquired and not released")
+	public int getOutstanding() {
+		return this.outstanding.get();
+	}
+
+	@ManagedMetric(metricType = MetricType.GAUGE, displayName = "Released buffers kept in the pool")
+	public int getPooled() {
+		int pooled = 0;
+		for (int i = 0; i < this.arrays.length; i++) {
+			pooled += this.arrays[i].size() + this.directBuffers[i].size();
+		}
+		return pooled;
+	}
+
+	@Override
+	public String toString() {
+		return "BufferPool [hits=" + getHits() + ", misses=" + getMisses() + ", outstanding=" + getOutstanding()
+				+ ", pooled=" + getPooled() + "]";
+	}
+
+	private static int classIndex(int size) {
+		if (size <= 1 << MIN_CLASS_SHIFT) {
+			return 0;
+		}
+		return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_CLASS_SHIFT;
+	}
+
+	private static int classSize(int index) {
+		return 1 << (index + MIN_CLASS_SHIFT);
+	}
+
+}
@@ -16,12 +16,14 @@
 
 package org.springframework.integration.ip.config;
 
+import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
@@ -40,6 +42,7 @@ import org.springframework.core.io.UrlResource;
 import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.integration.aggregator.ExpressionEvaluatingCorrelationStrategy;
 import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.core.MessagingTemplate;
@@ -489,6 +492,11 @@ public class ParserUnitTests {
 		assertEquals(24, dfa.getPropertyValue("order"));
 
 		assertEquals("4000", TestUtils.getPropertyValue(outAdviceGateway, "remoteTimeoutExpression.expression"));
+		assertNull(dfa.getPropertyValue("requestCorrelationStrategy"));
+		assertThat(TestUtils.getPropertyValue(outAdviceGateway, "requestCorrelationStrategy"),
+				instanceOf(ExpressionEvaluatingCorrelationStrategy.class));
+		assertThat(TestUtils.getPropertyValue(outAdviceGateway, "replyCorrelationStrategy"),
+				instanceOf(ExpressionEvaluatingCorrelationStrategy.class));
 	}
 
 	@Test
@@ -528,6 +536,11 @@ public class ParserUnitTests {
 		assertSame(taskExecutor, dfa.getPropertyValue("taskExecutor"));
 		assertEquals(123, dfa.getPropertyValue("backlog"));
 		assertEquals(true, dfa.getPropertyValue("usingDirectBuffers"));
+		assertEquals(true, dfa.getPropertyValue("readThreadFraming"));
+		assertEquals(2, dfa.getPropertyValue("readSelectorCount"));
+		assertEquals(true, dfa.getPropertyValue("readSelectorByLoad"));
+		assertEquals(8192, dfa.getPropertyValue("writeBatchSize"));
+		assertEquals(5L, dfa.getPropertyValue("writeLinger"));
 		assertNotNull(dfa.getPropertyValue("interceptorFactoryChain"));
 	}
 
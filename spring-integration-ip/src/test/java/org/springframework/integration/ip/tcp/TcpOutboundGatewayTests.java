@@ -26,10 +26,13 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.BufferedReader;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.ArrayList;
@@ -41,6 +44,7 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -59,6 +63,7 @@ import org.springframework.core.serializer.DefaultDeserializer;
 import org.springframework.core.serializer.DefaultSerializer;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.integration.MessageTimeoutException;
+import org.springframework.integration.aggregator.ExpressionEvaluatingCorrelationStrategy;
 import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.ip.tcp.connection.AbstractClientConnectionFactory;
 import org.springframework.integration.ip.tcp.connection.AbstractConnectionFactory;
@@ -203,6 +208,81 @@ public class TcpOutboundGatewayTests {
 		gateway.stop();
 	}
 
+	@Test
+	public void testNetMultiplexedOutOfOrderReplies() throws Exception {
+		final int port = SocketUtils.findAvailableServerSocket();
+		final int requests = 10;
+		final CountDownLatch latch = new CountDownLatch(1);
+		final AtomicBoolean done = new AtomicBoolean();
+		Executors.newSingleThreadExecutor().execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					ServerSocket server = ServerSocketFactory.getDefault().createServerSocket(port, 10);
+					latch.countDown();
+					Socket socket = server.accept();
+					BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+					List<String> ids = new ArrayList<String>();
+					// all the requests must be outstanding at once; reply in reverse order
+					for (int i = 0; i < requests; i++) {
+						ids.add(reader.readLine().split(":")[0]);
+					}
+					Collections.reverse(ids);
+					OutputStream os = socket.getOutputStream();
+					for (String id : ids) {
+						os.write((id + ":Reply" + id + "\r\n").getBytes());
+					}
+					os.flush();
+					reader.readLine();
+				}
+				catch (Exception e) {
+					if (!done.get()) {
+						e.printStackTrace();
+					}
+				}
+			}
+		});
+		AbstractConnectionFactory ccf = new TcpNetClientConnectionFactory("localhost", port);
+		ccf.setSoTimeout(10000);
+		ccf.setSingleUse(false);
+		ccf.start();
+		assertTrue(latch.await(10000, TimeUnit.MILLISECONDS));
+		final TcpOutboundGateway gateway = new TcpOutboundGateway();
+		gateway.setConnectionFactory(ccf);
+		gateway.setRequestCorrelationStrategy(
+				new ExpressionEvaluatingCorrelationStrategy("payload.split(':')[0]"));
+		gateway.setReplyCorrelationStrategy(
+				new ExpressionEvaluatingCorrelationStrategy("new String(payload).split(':')[0]"));
+		gateway.setBeanFactory(mock(BeanFactory.class));
+		gateway.afterPropertiesSet();
+		ExecutorService exec = Executors.newFixedThreadPool(requests);
+		List<Future<Message<?>>> futures = new ArrayList<Future<Message<?>>>();
+		for (int i = 0; i < requests; i++) {
+			final String id = "id" + i;
+			futures.add(exec.submit(new Callable<Message<?>>() {
+
+				@Override
+				public Message<?> call() throws Exception {
+					QueueChannel replyChannel = new QueueChannel();
+					gateway.handleMessage(MessageBuilder.withPayload(id + ":Test")
+							.setReplyChannel(replyChannel)
+							.build());
+					return replyChannel.receive(10000);
+				}
+
+			}));
+		}
+		for (int i = 0; i < requests; i++) {
+			Message<?> reply = futures.get(i).get(20, TimeUnit.SECONDS);
+			assertNotNull(reply);
+			assertEquals("id" + i + ":Replyid" + i, new String((byte[]) reply.getPayload()));
+		}
+		assertEquals(1, TestUtils.getPropertyValue(gateway, "multiplexedReplies", Map.class).size());
+		done.set(true);
+		exec.shutdownNow();
+		gateway.stop();
+	}
+
 	@Test
 	public void testGoodNetTimeout() throws Exception {
 		final int port = SocketUtils.findAvailableServerSocket();
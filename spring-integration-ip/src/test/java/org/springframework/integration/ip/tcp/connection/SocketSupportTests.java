@@ -363,6 +363,53 @@ Certificate fingerprints:
 		assertEquals("Hello, world!", new String((byte[]) messages.get(0).getPayload()));
 	}
 
+	@Test
+	public void testNioClientAndServerSSLWriteBatchingDrainedOnClose() throws Exception {
+		int port = SocketUtils.findAvailableServerSocket();
+		TcpNioServerConnectionFactory server = new TcpNioServerConnectionFactory(port);
+		DefaultTcpSSLContextSupport sslContextSupport = new DefaultTcpSSLContextSupport("test.ks",
+				"test.truststore.ks", "secret", "secret");
+		sslContextSupport.setProtocol("SSL");
+		DefaultTcpNioSSLConnectionSupport tcpNioConnectionSupport = new DefaultTcpNioSSLConnectionSupport(sslContextSupport);
+		tcpNioConnectionSupport.afterPropertiesSet();
+		server.setTcpNioConnectionSupport(tcpNioConnectionSupport);
+		final List<Message<?>> messages = new ArrayList<Message<?>>();
+		final CountDownLatch latch = new CountDownLatch(3);
+		server.registerListener(new TcpListener() {
+			public boolean onMessage(Message<?> message) {
+				messages.add(message);
+				latch.countDown();
+				return false;
+			}
+		});
+		server.start();
+		TestingUtilities.waitListening(server, null);
+
+		TcpNioClientConnectionFactory client = new TcpNioClientConnectionFactory("localhost", port);
+		client.setTcpNioConnectionSupport(tcpNioConnectionSupport);
+		client.setWriteBatchSize(1000);
+		client.setWriteLinger(60000);
+		client.registerListener(new TcpListener() {
+			public boolean onMessage(Message<?> message) {
+				return false;
+			}
+		});
+		client.start();
+
+		TcpConnection connection = client.getConnection();
+		for (int i = 0; i < 3; i++) {
+			connection.send(new GenericMessage<String>("Hello, world! " + i));
+		}
+		// the frames are still queued (linger); closing writes them, encrypted
+		connection.close();
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		for (int i = 0; i < 3; i++) {
+			assertEquals("Hello, world! " + i, new String((byte[]) messages.get(i).getPayload()));
+		}
+		client.stop();
+		server.stop();
+	}
+
 	@Test
 	public void testNioClientAndServerSSLDifferentContextsLargeDataWithReply() throws Exception {
 		System.setProperty("javax.net.debug", "all"); // SSL activity in the console
@@ -16,12 +16,16 @@
 
 package org.springframework.integration.ip.tcp.connection;
 
+import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.OutputStream;
 import java.net.Socket;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
@@ -34,11 +38,14 @@ import org.junit.Test;
 import org.springframework.integration.ip.tcp.serializer.AbstractByteArraySerializer;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayCrLfSerializer;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayLengthHeaderSerializer;
+import org.springframework.integration.ip.tcp.serializer.ByteArrayRawSerializer;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayStxEtxSerializer;
+import org.springframework.integration.ip.util.BufferPool;
 import org.springframework.integration.ip.util.SocketTestUtils;
 import org.springframework.integration.ip.util.TestingUtilities;
 import org.springframework.integration.test.util.SocketUtils;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.support.ErrorMessage;
 
 /**
  * @author Gary Russell
@@ -461,6 +468,148 @@ public class TcpNioConnectionReadTests {
 		scf.stop();
 	}
 
+	@Test
+	public void testReadThreadFramingFragmented() throws Exception {
+		int port = SocketUtils.findAvailableServerSocket();
+		final List<String> responses = Collections.synchronizedList(new ArrayList<String>());
+		final CountDownLatch latch = new CountDownLatch(200);
+		TcpNioServerConnectionFactory scf = getReadThreadFramingFactory(port, new ByteArrayCrLfSerializer(),
+				new TcpListener() {
+
+					@Override
+					public boolean onMessage(Message<?> message) {
+						responses.add(new String((byte[]) message.getPayload()));
+						latch.countDown();
+						return false;
+					}
+
+				});
+		StringBuilder data = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			data.append("message").append(i).append("\r\n");
+		}
+		byte[] bytes = data.toString().getBytes();
+		Socket socket = SocketFactory.getDefault().createSocket("localhost", port);
+		socket.setTcpNoDelay(true);
+		OutputStream outputStream = socket.getOutputStream();
+		for (int i = 0; i < bytes.length; i += 7) {
+			outputStream.write(bytes, i, Math.min(7, bytes.length - i));
+			outputStream.flush();
+		}
+		assertTrue(latch.await(20, TimeUnit.SECONDS));
+		for (int i = 0; i < 200; i++) {
+			assertEquals("message" + i, responses.get(i));
+		}
+		socket.close();
+		scf.stop();
+	}
+
+	@Test
+	public void testReadThreadFramingRaw() throws Exception {
+		int port = SocketUtils.findAvailableServerSocket();
+		final List<Message<?>> responses = Collections.synchronizedList(new ArrayList<Message<?>>());
+		final CountDownLatch latch = new CountDownLatch(1);
+		TcpNioServerConnectionFactory scf = getReadThreadFramingFactory(port, new ByteArrayRawSerializer(),
+				new TcpListener() {
+
+					@Override
+					public boolean onMessage(Message<?> message) {
+						responses.add(message);
+						latch.countDown();
+						return false;
+					}
+
+				});
+		Socket socket = SocketFactory.getDefault().createSocket("localhost", port);
+		socket.getOutputStream().write("foo".getBytes());
+		socket.getOutputStream().flush();
+		Thread.sleep(100);
+		socket.getOutputStream().write("bar".getBytes());
+		socket.close();
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertEquals("foobar", new String((byte[]) responses.get(0).getPayload()));
+		// the factory may then report the closure
+		for (int i = 1; i < responses.size(); i++) {
+			assertTrue(responses.get(i) instanceof ErrorMessage);
+		}
+		scf.stop();
+	}
+
+	@Test
+	public void testReadThreadFramingError() throws Exception {
+		int port = SocketUtils.findAvailableServerSocket();
+		final List<Message<?>> responses = Collections.synchronizedList(new ArrayList<Message<?>>());
+		final CountDownLatch latch = new CountDownLatch(2);
+		TcpNioServerConnectionFactory scf = getReadThreadFramingFactory(port, new ByteArrayStxEtxSerializer(),
+				new TcpListener() {
+
+					@Override
+					public boolean onMessage(Message<?> message) {
+						responses.add(message);
+						latch.countDown();
+						return false;
+					}
+
+				});
+		Socket socket = SocketFactory.getDefault().createSocket("localhost", port);
+		socket.getOutputStream().write("\u0002foo\u0003bar".getBytes());
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertEquals("foo", new String((byte[]) responses.get(0).getPayload()));
+		assertThat(responses.get(1), instanceOf(ErrorMessage.class));
+		assertEquals(0, socket.getInputStream().read(new byte[1]) < 0 ? 0 : 1);
+		socket.close();
+		scf.stop();
+	}
+
+	@Test
+	public void testReadBufferReleasedOnClose() throws Exception {
+		int port = SocketUtils.findAvailableServerSocket();
+		BufferPool pool = new BufferPool();
+		final CountDownLatch latch = new CountDownLatch(2);
+		TcpNioServerConnectionFactory scf = new TcpNioServerConnectionFactory(port);
+		scf.setBufferPool(pool);
+		scf.registerListener(new TcpListener() {
+
+			@Override
+			public boolean onMessage(Message<?> message) {
+				latch.countDown();
+				return false;
+			}
+
+		});
+		scf.start();
+		TestingUtilities.waitListening(scf, null);
+		for (int i = 0; i < 2; i++) {
+			Socket socket = SocketFactory.getDefault().createSocket("localhost", port);
+			socket.getOutputStream().write("foo\r\n".getBytes());
+			socket.getOutputStream().flush();
+			socket.close();
+			int n = 0;
+			while (pool.getMisses() + pool.getHits() == i || pool.getOutstanding() > 0) {
+				Thread.sleep(50);
+				if (n++ > 200) {
+					fail("Read buffer not released");
+				}
+			}
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertEquals(1, pool.getMisses());
+		assertEquals(1, pool.getHits());
+		scf.stop();
+	}
+
+	private TcpNioServerConnectionFactory getReadThreadFramingFactory(int port,
+			AbstractByteArraySerializer serializer, TcpListener listener) throws Exception {
+		TcpNioServerConnectionFactory scf = new TcpNioServerConnectionFactory(port);
+		scf.setSerializer(serializer);
+		scf.setDeserializer(serializer);
+		scf.setReadThreadFraming(true);
+		scf.registerListener(listener);
+		scf.start();
+		TestingUtilities.waitListening(scf, null);
+		return scf;
+	}
+
 	private void whileOpen(Semaphore semaphore, final List<TcpConnection> added)
 			throws InterruptedException {
 		int n = 0;
@@ -19,6 +19,7 @@ package org.springframework.integration.ip.tcp.connection;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -36,20 +37,24 @@ import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.net.ConnectException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -72,6 +77,7 @@ import org.mockito.stubbing.Answer;
 import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.integration.ip.IpHeaders;
 import org.springframework.integration.ip.tcp.connection.TcpNioConnection.ChannelInputStream;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayCrLfSerializer;
 import org.springframework.integration.ip.tcp.serializer.MapJsonSerializer;
@@ -807,6 +813,229 @@ public class TcpNioConnectionTests {
 		factory.stop();
 	}
 
+	@Test
+	public void testReadSelectors() throws Exception {
+		final int port = SocketUtils.findAvailableServerSocket();
+		TcpNioServerConnectionFactory server = new TcpNioServerConnectionFactory(port);
+		server.setApplicationEventPublisher(nullPublisher);
+		server.setReadSelectorCount(3);
+		final Map<String, TcpConnection> serverConnections = new ConcurrentHashMap<String, TcpConnection>();
+		server.registerSender(new TcpSender() {
+
+			@Override
+			public void addNewConnection(TcpConnection connection) {
+				serverConnections.put(connection.getConnectionId(), connection);
+			}
+
+			@Override
+			public void removeDeadConnection(TcpConnection connection) {
+				serverConnections.remove(connection.getConnectionId());
+			}
+
+		});
+		server.registerListener(new TcpListener() {
+
+			@Override
+			public boolean onMessage(Message<?> message) {
+				if (!(message instanceof ErrorMessage)) {
+					try {
+						serverConnections.get(message.getHeaders().get(IpHeaders.CONNECTION_ID)).send(message);
+					}
+					catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+				return false;
+			}
+
+		});
+		server.start();
+		TestingUtilities.waitListening(server, null);
+
+		TcpNioClientConnectionFactory client = new TcpNioClientConnectionFactory("localhost", port);
+		client.setApplicationEventPublisher(nullPublisher);
+		client.setReadSelectorCount(2);
+		client.setReadSelectorByLoad(true);
+		client.setSingleUse(true);
+		final CountDownLatch latch = new CountDownLatch(6);
+		final List<String> replies = Collections.synchronizedList(new ArrayList<String>());
+		client.registerListener(new TcpListener() {
+
+			@Override
+			public boolean onMessage(Message<?> message) {
+				if (!(message instanceof ErrorMessage)) {
+					replies.add(new String((byte[]) message.getPayload()));
+					latch.countDown();
+				}
+				return false;
+			}
+
+		});
+		client.start();
+		List<TcpConnection> connections = new ArrayList<TcpConnection>();
+		for (int i = 0; i < 6; i++) {
+			connections.add(client.getConnection());
+		}
+		assertEquals(6, client.getConnections().size());
+		int[] clientCounts = TestUtils.getPropertyValue(client, "readSelectors", NioReadSelectorGroup.class)
+				.getConnectionCounts();
+		assertEquals(3, clientCounts[0]);
+		assertEquals(3, clientCounts[1]);
+		int n = 0;
+		while (server.getConnections().size() < 6 && n++ < 100) {
+			Thread.sleep(100);
+		}
+		int[] serverCounts = TestUtils.getPropertyValue(server, "readSelectors", NioReadSelectorGroup.class)
+				.getConnectionCounts();
+		assertEquals(2, serverCounts[0]);
+		assertEquals(2, serverCounts[1]);
+		assertEquals(2, serverCounts[2]);
+		assertEquals(0, TestUtils.getPropertyValue(server, "channelMap", Map.class).size());
+		for (int i = 0; i < 6; i++) {
+			connections.get(i).send(MessageBuilder.withPayload("foo" + i).build());
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		for (int i = 0; i < 6; i++) {
+			assertTrue(replies.contains("foo" + i));
+		}
+		for (TcpConnection connection : connections) {
+			connection.close();
+		}
+		client.stop();
+		server.stop();
+	}
+
+	@Test
+	public void testWriteBatching() throws Exception {
+		ServerSocket server = ServerSocketFactory.getDefault().createServerSocket(0);
+		SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress("localhost", server.getLocalPort()));
+		Socket socket = server.accept();
+		socket.setSoTimeout(10000);
+		socketChannel.configureBlocking(false);
+		final List<Integer> batches = Collections.synchronizedList(new ArrayList<Integer>());
+		TcpNioConnection connection = new TcpNioConnection(socketChannel, false, false, nullPublisher, null) {
+
+			private final ChannelOutputStream channelOutputStream = new ChannelOutputStream() {
+
+				@Override
+				protected synchronized void doWrite(ByteBuffer[] buffers) throws IOException {
+					int bytes = 0;
+					for (ByteBuffer buffer : buffers) {
+						bytes += buffer.remaining();
+					}
+					batches.add(bytes);
+					super.doWrite(buffers);
+				}
+
+			};
+
+			@Override
+			protected ChannelOutputStream getChannelOutputStream() {
+				return this.channelOutputStream;
+			}
+
+		};
+		connection.setMapper(new TcpMessageMapper());
+		connection.setSerializer(new ByteArrayCrLfSerializer());
+		connection.setWriteBatchSize(100);
+		connection.setWriteLinger(10000);
+		for (int i = 0; i < 100; i++) {
+			connection.send(MessageBuilder.withPayload(String.format("%03d", i)).build());
+		}
+		byte[] received = new byte[500];
+		readFully(socket.getInputStream(), received);
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			expected.append(String.format("%03d", i)).append("\r\n");
+		}
+		assertEquals(expected.toString(), new String(received));
+		assertEquals(Arrays.asList(100, 100, 100, 100, 100), batches);
+		connection.setWriteLinger(50);
+		connection.send(MessageBuilder.withPayload("end").build());
+		received = new byte[5];
+		readFully(socket.getInputStream(), received);
+		assertEquals("end\r\n", new String(received));
+		assertEquals(Arrays.asList(100, 100, 100, 100, 100, 5), batches);
+		connection.close();
+		socket.close();
+		server.close();
+	}
+
+	@Test
+	public void testWriteBatchingDrainedOnClose() throws Exception {
+		ServerSocket server = ServerSocketFactory.getDefault().createServerSocket(0);
+		SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress("localhost", server.getLocalPort()));
+		Socket socket = server.accept();
+		socket.setSoTimeout(10000);
+		socketChannel.configureBlocking(false);
+		TcpNioConnection connection = new TcpNioConnection(socketChannel, false, false, nullPublisher, null);
+		connection.setMapper(new TcpMessageMapper());
+		connection.setSerializer(new ByteArrayCrLfSerializer());
+		connection.setWriteBatchSize(100);
+		connection.setWriteLinger(60000);
+		for (int i = 0; i < 3; i++) {
+			connection.send(MessageBuilder.withPayload(String.format("%03d", i)).build());
+		}
+		connection.close();
+		byte[] received = new byte[15];
+		readFully(socket.getInputStream(), received);
+		assertEquals("000\r\n001\r\n002\r\n", new String(received));
+		assertEquals(-1, socket.getInputStream().read());
+		try {
+			connection.send(MessageBuilder.withPayload("foo").build());
+			fail("Expected exception");
+		}
+		catch (ClosedChannelException e) {
+			// expected
+		}
+		socket.close();
+		server.close();
+	}
+
+	@Test
+	public void testWriteBatchingFailureThrownToSenders() throws Exception {
+		ServerSocket server = ServerSocketFactory.getDefault().createServerSocket(0);
+		SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress("localhost", server.getLocalPort()));
+		Socket socket = server.accept();
+		socketChannel.configureBlocking(false);
+		TcpNioConnection connection = new TcpNioConnection(socketChannel, false, false, nullPublisher, null) {
+
+			private final ChannelOutputStream channelOutputStream = new ChannelOutputStream() {
+
+				@Override
+				protected synchronized void doWrite(ByteBuffer[] buffers) throws IOException {
+					throw new IOException("write failed");
+				}
+
+			};
+
+			@Override
+			protected ChannelOutputStream getChannelOutputStream() {
+				return this.channelOutputStream;
+			}
+
+		};
+		connection.setMapper(new TcpMessageMapper());
+		connection.setSerializer(new ByteArrayCrLfSerializer());
+		connection.setWriteBatchSize(100);
+		connection.send(MessageBuilder.withPayload("foo").build());
+		int n = 0;
+		while (connection.isOpen() && n++ < 100) {
+			Thread.sleep(100);
+		}
+		assertFalse(connection.isOpen());
+		try {
+			connection.send(MessageBuilder.withPayload("bar").build());
+			fail("Expected exception");
+		}
+		catch (IOException e) {
+			assertThat(e.getCause().getMessage(), containsString("1 frame(s) could not be written"));
+			assertEquals("write failed", e.getCause().getCause().getMessage());
+		}
+		socket.close();
+		server.close();
+	}
+
 	private void readFully(InputStream is, byte[] buff) throws IOException {
 		for (int i = 0; i < buff.length; i++) {
 			buff[i] = (byte) is.read();
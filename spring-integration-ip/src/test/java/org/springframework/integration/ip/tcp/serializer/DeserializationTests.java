@@ -19,14 +19,20 @@ package org.springframework.integration.ip.tcp.serializer;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -288,6 +294,73 @@ public class DeserializationTests {
 		assertEquals(2, event.getOffset());
 	}
 
+	@Test
+	public void testByteBufferFraming() throws Exception {
+		List<String> expected = Arrays.asList("foo", "", "barbaz");
+		assertEquals(expected, frameByteAtATime(new ByteArrayCrLfSerializer(), expected));
+		assertEquals(expected, frameByteAtATime(new ByteArrayLfSerializer(), expected));
+		assertEquals(expected, frameByteAtATime(new ByteArrayStxEtxSerializer(), expected));
+		assertEquals(expected, frameByteAtATime(new ByteArrayLengthHeaderSerializer(), expected));
+		assertEquals(expected, frameByteAtATime(new ByteArrayLengthHeaderSerializer(
+				ByteArrayLengthHeaderSerializer.HEADER_SIZE_UNSIGNED_BYTE), expected));
+		assertEquals(expected, frameByteAtATime(new ByteArrayLengthHeaderSerializer(
+				ByteArrayLengthHeaderSerializer.HEADER_SIZE_UNSIGNED_SHORT), expected));
+		assertEquals(Arrays.asList("foobar"),
+				frameByteAtATime(new ByteArrayRawSerializer(), Arrays.asList("foo", "bar")));
+
+		ByteArrayCrLfSerializer serializer = new ByteArrayCrLfSerializer();
+		ByteBuffer buffer = ByteBuffer.wrap("foo\r\nbar\r\nba".getBytes());
+		assertEquals("foo", new String(serializer.deserialize(buffer, false)));
+		assertEquals("bar", new String(serializer.deserialize(buffer, false)));
+		assertNull(serializer.deserialize(buffer, false));
+		assertEquals(10, buffer.position());
+	}
+
+	@Test
+	public void byteBufferDeserializationEvents() throws Exception {
+		doDeserializeBuffer(new ByteArrayCrLfSerializer(), "CRLF not found before max message length: 5");
+		doDeserializeBuffer(new ByteArrayLengthHeaderSerializer(), "Message length 1718579042 exceeds max message length: 5");
+		doDeserializeBuffer(new ByteArrayLfSerializer(), "Terminator '0xa' not found before max message length: 5");
+		doDeserializeBuffer(new ByteArrayRawSerializer(), "Socket was not closed before max message length: 5");
+		doDeserializeBuffer(new ByteArrayStxEtxSerializer(), "Expected STX to begin message");
+		doDeserializeBuffer(new ByteArrayStxEtxSerializer(), "ETX not found before max message length: 5",
+				new byte[] { 0x02, 0, 0, 0, 0, 0, 0 }, 5);
+		TcpDeserializationExceptionEvent event = doDeserializeBuffer(new ByteArrayStxEtxSerializer(),
+				"Socket closed during message assembly", new byte[] { 0x02, 0, 0 }, 5);
+		assertEquals(3, event.getOffset());
+		event = doDeserializeBuffer(new ByteArrayLengthHeaderSerializer(),
+				"Socket closed during message assembly", new byte[] { 0, 0, 0, 2, 7 }, 5);
+		assertEquals(5, event.getBuffer().length);
+	}
+
+	private List<String> frameByteAtATime(AbstractByteArraySerializer serializer, List<String> payloads)
+			throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (String payload : payloads) {
+			serializer.serialize(payload.getBytes(), out);
+		}
+		byte[] data = out.toByteArray();
+		@SuppressWarnings("unchecked")
+		ByteBufferDeserializer<byte[]> deserializer = (ByteBufferDeserializer<byte[]>) serializer;
+		ByteBuffer buffer = ByteBuffer.allocate(data.length);
+		buffer.limit(0);
+		List<String> frames = new ArrayList<String>();
+		for (byte b : data) {
+			buffer.limit(buffer.limit() + 1);
+			buffer.put(buffer.limit() - 1, b);
+			byte[] frame;
+			while ((frame = deserializer.deserialize(buffer, false)) != null) {
+				frames.add(new String(frame));
+			}
+		}
+		byte[] frame = deserializer.deserialize(buffer, true);
+		if (frame != null) {
+			frames.add(new String(frame));
+		}
+		assertNull(deserializer.deserialize(buffer, true));
+		return frames;
+	}
+
 	private TcpDeserializationExceptionEvent doDeserialize(AbstractByteArraySerializer deser, String expectedMessage) {
 		return doDeserialize(deser, expectedMessage, "foobar".getBytes(), 5);
 	}
@@ -325,4 +398,38 @@ public class DeserializationTests {
 		return event.get();
 	}
 
+	private TcpDeserializationExceptionEvent doDeserializeBuffer(AbstractByteArraySerializer deser,
+			String expectedMessage) {
+		return doDeserializeBuffer(deser, expectedMessage, "foobar".getBytes(), 5);
+	}
+
+	private TcpDeserializationExceptionEvent doDeserializeBuffer(AbstractByteArraySerializer deser,
+			String expectedMessage, byte[] data, int mms) {
+		final AtomicReference<TcpDeserializationExceptionEvent> event =
+				new AtomicReference<TcpDeserializationExceptionEvent>();
+		deser.setApplicationEventPublisher(new ApplicationEventPublisher() {
+
+			@Override
+			public void publishEvent(ApplicationEvent anEvent) {
+				event.set((TcpDeserializationExceptionEvent) anEvent);
+			}
+
+			@Override
+			public void publishEvent(Object event) {
+			}
+
+		});
+		deser.setMaxMessageSize(mms);
+		try {
+			((ByteBufferDeserializer<?>) deser).deserialize(ByteBuffer.wrap(data), true);
+			fail("expected exception");
+		}
+		catch (Exception e) {
+			assertNotNull(event.get());
+			assertSame(e, event.get().getCause());
+			assertThat(e.getMessage(), containsString(expectedMessage));
+		}
+		return event.get();
+	}
+
 }
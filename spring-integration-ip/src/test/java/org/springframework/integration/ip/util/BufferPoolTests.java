@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.integration.ip.tcp.connection.TcpNioServerConnectionFactory;
+import org.springframework.integration.ip.tcp.serializer.ByteArrayCrLfSerializer;
+
+/**
+ * @since 4.2
+ */
+public class BufferPoolTests {
+
+	@Test
+	public void testSizeClasses() {
+		BufferPool pool = new BufferPool(4000, 2);
+		byte[] small = pool.acquireArray(10);
+		assertEquals(256, small.length);
+		byte[] medium = pool.acquireArray(1025);
+		assertEquals(2048, medium.length);
+		byte[] large = pool.acquireArray(4096);
+		assertEquals(4096, large.length);
+		byte[] oversized = pool.acquireArray(4097);
+		assertEquals(4097, oversized.length);
+		assertEquals(4, pool.getMisses());
+		assertEquals(4, pool.getOutstanding());
+		pool.release(small);
+		pool.release(medium);
+		pool.release(large);
+		pool.release(oversized);
+		assertEquals(0, pool.getOutstanding());
+		assertEquals(3, pool.getPooled());
+		assertSame(medium, pool.acquireArray(2000));
+		assertNotSame(medium, pool.acquireArray(2000));
+		assertEquals(1, pool.getHits());
+		assertEquals(5, pool.getMisses());
+	}
+
+	@Test
+	public void testMaxPooledPerClass() {
+		BufferPool pool = new BufferPool(1024, 2);
+		byte[] one = pool.acquireArray(100);
+		byte[] two = pool.acquireArray(100);
+		byte[] three = pool.acquireArray(100);
+		pool.release(one);
+		pool.release(two);
+		pool.release(three);
+		assertEquals(2, pool.getPooled());
+		assertEquals(0, pool.getOutstanding());
+	}
+
+	@Test
+	public void testBuffers() {
+		BufferPool pool = new BufferPool();
+		ByteBuffer direct = pool.acquireBuffer(1000, true);
+		assertTrue(direct.isDirect());
+		assertEquals(1024, direct.capacity());
+		assertEquals(1000, direct.limit());
+		direct.put((byte) 1);
+		pool.release(direct);
+		ByteBuffer again = pool.acquireBuffer(600, true);
+		assertSame(direct, again);
+		assertEquals(0, again.position());
+		assertEquals(600, again.limit());
+		ByteBuffer heap = pool.acquireBuffer(1000, false);
+		assertFalse(heap.isDirect());
+		assertEquals(0, heap.arrayOffset());
+		pool.release(heap);
+		assertSame(heap.array(), pool.acquireArray(1024));
+		assertEquals(2, pool.getHits());
+		assertEquals(2, pool.getOutstanding());
+	}
+
+	@Test
+	public void testSerializerReusesBuffers() throws Exception {
+		BufferPool pool = new BufferPool();
+		ByteArrayCrLfSerializer serializer = new ByteArrayCrLfSerializer();
+		serializer.setBufferPool(pool);
+		ByteArrayInputStream inputStream = new ByteArrayInputStream("foo\r\nbar\r\nbaz\r\n".getBytes());
+		assertEquals("foo", new String(serializer.deserialize(inputStream)));
+		assertEquals("bar", new String(serializer.deserialize(inputStream)));
+		assertEquals("baz", new String(serializer.deserialize(inputStream)));
+		assertEquals(1, pool.getMisses());
+		assertEquals(2, pool.getHits());
+		assertEquals(0, pool.getOutstanding());
+		try {
+			serializer.deserialize(inputStream);
+		}
+		catch (Exception e) {
+			// end of stream
+		}
+		assertEquals(0, pool.getOutstanding());
+	}
+
+	@Test
+	public void testSizedArrayIsAlwaysCopied() {
+		byte[] buffer = new byte[] { 1, 2, 3 };
+		byte[] copy = new CopyingSerializer().copy(buffer, 3);
+		assertNotSame(buffer, copy);
+		assertEquals(3, copy.length);
+		assertEquals(3, copy[2]);
+	}
+
+	@Test
+	public void testSharedInstanceRegisteredByConnectionFactory() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		TcpNioServerConnectionFactory connectionFactory = new TcpNioServerConnectionFactory(0);
+		connectionFactory.setBeanFactory(beanFactory);
+		connectionFactory.afterPropertiesSet();
+		assertSame(BufferPool.getSharedInstance(), beanFactory.getBean(BufferPool.SHARED_INSTANCE_BEAN_NAME));
+		TcpNioServerConnectionFactory another = new TcpNioServerConnectionFactory(0);
+		another.setBeanFactory(beanFactory);
+		another.afterPropertiesSet();
+		assertSame(BufferPool.getSharedInstance(), beanFactory.getBean(BufferPool.SHARED_INSTANCE_BEAN_NAME));
+	}
+
+	private static class CopyingSerializer extends ByteArrayCrLfSerializer {
+
+		private byte[] copy(byte[] buffer, int size) {
+			return copyToSizedArray(buffer, size);
+		}
+
+	}
+
+}
@@ -154,7 +154,13 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 
 		UPDATE_GROUP("UPDATE %PREFIX%MESSAGE_GROUP set UPDATED_DATE=? where GROUP_KEY=? and REGION=?"),
 
-		LIST_GROUP_KEYS("SELECT distinct GROUP_KEY as CREATED from %PREFIX%MESSAGE_GROUP where REGION=?");
+		LIST_GROUP_KEYS("SELECT distinct GROUP_KEY as CREATED from %PREFIX%MESSAGE_GROUP where REGION=?"),
+
+		LIST_GROUP_KEYS_CREATED_BEFORE("SELECT GROUP_KEY from %PREFIX%MESSAGE_GROUP " +
+				"where REGION=? and CREATED_DATE<=? ORDER BY CREATED_DATE"),
+
+		LIST_GROUP_KEYS_UPDATED_BEFORE("SELECT GROUP_KEY from %PREFIX%MESSAGE_GROUP " +
+				"where REGION=? and UPDATED_DATE<=? ORDER BY UPDATED_DATE");
 
 		private String sql;
 
@@ -568,8 +574,35 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 	@Override
 	public Iterator<MessageGroup> iterator() {
 
-		final Iterator<String> iterator = jdbcTemplate.query(getQuery(Query.LIST_GROUP_KEYS), new Object[] { region },
-				new SingleColumnRowMapper<String>()).iterator();
+		List<String> groupKeys = jdbcTemplate.query(getQuery(Query.LIST_GROUP_KEYS), new Object[] { region },
+				new SingleColumnRowMapper<String>());
+		return groupIterator(groupKeys.iterator());
+	}
+
+	/**
+	 * Select the keys of the groups created (or, with {@link #isTimeoutOnIdle() timeoutOnIdle},
+	 * updated) at or before the threshold, rather than all the keys of the region, and load
+	 * the groups lazily. With an index on {@code (REGION, CREATED_DATE)} (or
+	 * {@code (REGION, UPDATED_DATE)}) of the {@code MESSAGE_GROUP} table, the cost of an
+	 * expiry run is proportional to the number of expired groups.
+	 */
+	@Override
+	protected Iterable<MessageGroup> getExpiryCandidates(long threshold) {
+		Query query = isTimeoutOnIdle() ? Query.LIST_GROUP_KEYS_UPDATED_BEFORE : Query.LIST_GROUP_KEYS_CREATED_BEFORE;
+		final List<String> groupKeys = jdbcTemplate.query(getQuery(query),
+				new Object[] { region, new Timestamp(threshold) }, new SingleColumnRowMapper<String>());
+
+		return new Iterable<MessageGroup>() {
+
+			@Override
+			public Iterator<MessageGroup> iterator() {
+				return groupIterator(groupKeys.iterator());
+			}
+
+		};
+	}
+
+	private Iterator<MessageGroup> groupIterator(final Iterator<String> iterator) {
 
 		return new Iterator<MessageGroup>() {
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,6 +30,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
 
@@ -369,6 +371,26 @@ public class JdbcMessageStoreTests {
 		assertEquals(0, group.size());
 	}
 
+	@Test
+	@Transactional
+	public void testExpireOnlyExpiredMessageGroups() throws Exception {
+		messageStore.addMessageToGroup("X", MessageBuilder.withPayload("foo").setCorrelationId("X").build());
+		Thread.sleep(2001);
+		messageStore.addMessageToGroup("Y", MessageBuilder.withPayload("bar").setCorrelationId("Y").build());
+		final List<Object> expired = new ArrayList<Object>();
+		messageStore.registerMessageGroupExpiryCallback(new MessageGroupCallback() {
+			@Override
+			public void execute(MessageGroupStore messageGroupStore, MessageGroup group) {
+				expired.add(group.getGroupId());
+				messageGroupStore.removeMessageGroup(group.getGroupId());
+			}
+		});
+		assertEquals(1, messageStore.expireMessageGroups(2000));
+		assertEquals(1, expired.size());
+		assertEquals(0, messageStore.getMessageGroup("X").size());
+		assertEquals(1, messageStore.getMessageGroup("Y").size());
+	}
+
 	@Test
 	@Transactional
 	public void testMessagePollingFromTheGroup() throws Exception {
@@ -60,6 +60,8 @@ public class MBeanExporterParser extends AbstractSingleBeanDefinitionParser {
 		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element, "managed-components", "componentNamePatterns");
 		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element, "counts-enabled", "enabledCountsPatterns");
 		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element, "stats-enabled", "enabledStatsPatterns");
+		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element, "histogram-enabled",
+				"enabledHistogramPatterns");
 		IntegrationNamespaceUtils.setReferenceIfAttributeDefined(builder, element, "metrics-factory");
 		IntegrationNamespaceUtils.setReferenceIfAttributeDefined(builder, element, "object-naming-strategy", "namingStrategy");
 
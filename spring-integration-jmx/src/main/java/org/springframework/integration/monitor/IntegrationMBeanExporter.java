@@ -42,7 +42,7 @@ import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.EmbeddedValueResolverAware;
 import org.springframework.context.Lifecycle;
 import org.springframework.core.annotation.AnnotationUtils;
-import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.channel.QueueChannelOperations;
 import org.springframework.integration.channel.management.AbstractMessageChannelMetrics;
 import org.springframework.integration.channel.management.MessageChannelMetrics;
 import org.springframework.integration.channel.management.PollableChannelManagement;
@@ -59,6 +59,7 @@ import org.springframework.integration.history.TrackableComponent;
 import org.springframework.integration.router.MappingMessageRouterManagement;
 import org.springframework.integration.support.context.NamedComponent;
 import org.springframework.integration.support.management.ConfigurableMetricsAware;
+import org.springframework.integration.support.management.HistogramMetrics;
 import org.springframework.integration.support.management.IntegrationManagedResource;
 import org.springframework.integration.support.management.Statistics;
 import org.springframework.jmx.export.MBeanExporter;
@@ -162,6 +163,8 @@ public class IntegrationMBeanExporter extends MBeanExporter implements Applicati
 
 	private String[] enabledStatsPatterns = { "*" };
 
+	private String[] enabledHistogramPatterns = { };
+
 	private volatile long shutdownDeadline;
 
 	private final AtomicBoolean shuttingDown = new AtomicBoolean();
@@ -257,6 +260,23 @@ public class IntegrationMBeanExporter extends MBeanExporter implements Applicati
 		this.enabledStatsPatterns = Arrays.copyOf(enabledStatsPatterns, enabledStatsPatterns.length);
 	}
 
+	/**
+	 * Set the array of simple patterns for component names for which the distribution of
+	 * durations (channel send and message handler durations) is recorded in a
+	 * {@link org.springframework.integration.support.management.LatencyHistogram}, exposing
+	 * percentiles. (defaults to none). Only patterns that also match
+	 * {@link #setComponentNamePatterns(String[]) componentNamePatterns} will be considered.
+	 * This is the initial setting only, individual components can have the histogram
+	 * enabled/disabled at runtime. If a pattern starts with `!`, the histogram is disabled
+	 * for matches. For components that match multiple patterns, the first pattern wins.
+	 * @param enabledHistogramPatterns the patterns.
+	 * @since 4.2
+	 */
+	public void setEnabledHistogramPatterns(String[] enabledHistogramPatterns) {
+		Assert.notNull(enabledHistogramPatterns, "enabledHistogramPatterns must not be null");
+		this.enabledHistogramPatterns = Arrays.copyOf(enabledHistogramPatterns, enabledHistogramPatterns.length);
+	}
+
 	@Override
 	public void setApplicationContext(ApplicationContext applicationContext)
 			throws BeansException {
@@ -598,8 +618,8 @@ public class IntegrationMBeanExporter extends MBeanExporter implements Applicati
 	public int getQueuedMessageCount() {
 		int count = 0;
 		for (MessageChannelMetrics monitor : channels) {
-			if (monitor instanceof QueueChannel) {
-				count += ((QueueChannel) monitor).getQueueSize();
+			if (monitor instanceof QueueChannelOperations) {
+				count += ((QueueChannelOperations) monitor).getQueueSize();
 			}
 		}
 		return count;
@@ -687,6 +707,7 @@ public class IntegrationMBeanExporter extends MBeanExporter implements Applicati
 					monitor.enableStats(enabled);
 					metrics.setFullStatsEnabled(enabled);
 				}
+				enableHistogram(monitor, name);
 				if (monitor instanceof ConfigurableMetricsAware) {
 					((ConfigurableMetricsAware<AbstractMessageChannelMetrics>) monitor).configureMetrics(metrics);
 				}
@@ -721,6 +742,7 @@ public class IntegrationMBeanExporter extends MBeanExporter implements Applicati
 					monitor.enableStats(enabled);
 					metrics.setFullStatsEnabled(enabled);
 				}
+				enableHistogram(monitor, name);
 				if (monitor instanceof ConfigurableMetricsAware) {
 					((ConfigurableMetricsAware<AbstractMessageHandlerMetrics>) monitor).configureMetrics(metrics);
 				}
@@ -729,6 +751,15 @@ public class IntegrationMBeanExporter extends MBeanExporter implements Applicati
 		}
 	}
 
+	private void enableHistogram(Object monitor, String name) {
+		if (monitor instanceof HistogramMetrics) {
+			Boolean enabled = smartMatch(this.enabledHistogramPatterns, name);
+			if (enabled != null) {
+				((HistogramMetrics) monitor).enableHistogram(enabled);
+			}
+		}
+	}
+
 	private void registerSources() {
 		for (MessageSourceMetrics source : sources) {
 			MessageSourceMetrics monitor = enhanceSourceMonitor(source);
@@ -20,7 +20,9 @@ import org.springframework.context.Lifecycle;
 import org.springframework.integration.handler.management.AbstractMessageHandlerMetrics;
 import org.springframework.integration.handler.management.MessageHandlerMetrics;
 import org.springframework.integration.support.management.ConfigurableMetricsAware;
+import org.springframework.integration.support.management.HistogramMetrics;
 import org.springframework.integration.support.management.IntegrationManagedResource;
+import org.springframework.integration.support.management.LatencyHistogram;
 import org.springframework.integration.support.management.Statistics;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedOperation;
@@ -35,7 +37,7 @@ import org.springframework.jmx.export.annotation.ManagedOperation;
  */
 @IntegrationManagedResource
 public class LifecycleMessageHandlerMetrics implements MessageHandlerMetrics, Lifecycle,
-		ConfigurableMetricsAware<AbstractMessageHandlerMetrics> {
+		ConfigurableMetricsAware<AbstractMessageHandlerMetrics>, HistogramMetrics {
 
 	private final Lifecycle lifecycle;
 
@@ -163,6 +165,41 @@ public class LifecycleMessageHandlerMetrics implements MessageHandlerMetrics, Li
 		return this.delegate.isCountsEnabled();
 	}
 
+	@Override
+	public void enableHistogram(boolean histogramEnabled) {
+		if (this.delegate instanceof HistogramMetrics) {
+			((HistogramMetrics) this.delegate).enableHistogram(histogramEnabled);
+		}
+	}
+
+	@Override
+	public boolean isHistogramEnabled() {
+		return this.delegate instanceof HistogramMetrics && ((HistogramMetrics) this.delegate).isHistogramEnabled();
+	}
+
+	@Override
+	public double getMedianDuration() {
+		return this.delegate instanceof HistogramMetrics ? ((HistogramMetrics) this.delegate).getMedianDuration() : 0;
+	}
+
+	@Override
+	public double getDuration99thPercentile() {
+		return this.delegate instanceof HistogramMetrics
+				? ((HistogramMetrics) this.delegate).getDuration99thPercentile() : 0;
+	}
+
+	@Override
+	public double getDuration999thPercentile() {
+		return this.delegate instanceof HistogramMetrics
+				? ((HistogramMetrics) this.delegate).getDuration999thPercentile() : 0;
+	}
+
+	@Override
+	public LatencyHistogram getDurationHistogram() {
+		return this.delegate instanceof HistogramMetrics
+				? ((HistogramMetrics) this.delegate).getDurationHistogram() : null;
+	}
+
 	@Override
 	public void setManagedName(String name) {
 		this.delegate.setManagedName(name);
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.monitor;
+
+import org.springframework.integration.channel.management.AbstractMessageChannelMetrics;
+import org.springframework.integration.channel.management.DefaultMessageChannelMetrics;
+import org.springframework.integration.handler.management.AbstractMessageHandlerMetrics;
+import org.springframework.integration.handler.management.DefaultMessageHandlerMetrics;
+import org.springframework.integration.support.management.StripedExponentialMovingAverage;
+import org.springframework.integration.support.management.StripedExponentialMovingAverageRate;
+import org.springframework.integration.support.management.StripedExponentialMovingAverageRatio;
+
+/**
+ * A {@link MetricsFactory} creating the default metrics with the same windows and
+ * periods as the {@link DefaultMetricsFactory}, but backed by the lock-free
+ * {@code StripedExponentialMovingAverage*} classes; threads sending to the same channel
+ * (or invoking the same handler) do not contend on a monitor and the statistics are
+ * aggregated when read. Recommended when full statistics are enabled on busy
+ * components.
+ *
+ * @since 4.2
+ *
+ */
+public class StripedMetricsFactory implements MetricsFactory {
+
+	@Override
+	public AbstractMessageChannelMetrics createChannelMetrics(String name) {
+		return new DefaultMessageChannelMetrics(name,
+				new StripedExponentialMovingAverage(DefaultMessageChannelMetrics.DEFAULT_MOVING_AVERAGE_WINDOW,
+						1000000.),
+				new StripedExponentialMovingAverageRate(DefaultMessageChannelMetrics.ONE_SECOND_SECONDS,
+						DefaultMessageChannelMetrics.ONE_MINUTE_SECONDS,
+						DefaultMessageChannelMetrics.DEFAULT_MOVING_AVERAGE_WINDOW, true),
+				new StripedExponentialMovingAverageRatio(DefaultMessageChannelMetrics.ONE_MINUTE_SECONDS,
+						DefaultMessageChannelMetrics.DEFAULT_MOVING_AVERAGE_WINDOW, true),
+				new StripedExponentialMovingAverageRate(DefaultMessageChannelMetrics.ONE_SECOND_SECONDS,
+						DefaultMessageChannelMetrics.ONE_MINUTE_SECONDS,
+						DefaultMessageChannelMetrics.DEFAULT_MOVING_AVERAGE_WINDOW, true));
+	}
+
+	@Override
+	public AbstractMessageHandlerMetrics createHandlerMetrics(String name) {
+		return new DefaultMessageHandlerMetrics(name,
+				new StripedExponentialMovingAverage(DefaultMessageChannelMetrics.DEFAULT_MOVING_AVERAGE_WINDOW,
+						1000000.));
+	}
+
+}
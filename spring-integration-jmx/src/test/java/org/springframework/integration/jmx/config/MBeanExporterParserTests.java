@@ -39,6 +39,7 @@ import org.springframework.integration.handler.management.DefaultMessageHandlerM
 import org.springframework.integration.handler.management.MessageHandlerMetrics;
 import org.springframework.integration.monitor.IntegrationMBeanExporter;
 import org.springframework.integration.monitor.MetricsFactory;
+import org.springframework.integration.support.management.HistogramMetrics;
 import org.springframework.integration.support.management.ExponentialMovingAverage;
 import org.springframework.integration.support.management.ExponentialMovingAverageRate;
 import org.springframework.integration.support.management.ExponentialMovingAverageRatio;
@@ -79,6 +80,8 @@ public class MBeanExporterParserTests {
 		checkCustomized(metrics);
 		MessageHandlerMetrics handlerMetrics = context.getBean("transformer.handler", MessageHandlerMetrics.class);
 		checkCustomized(handlerMetrics);
+		assertTrue(((HistogramMetrics) handlerMetrics).isHistogramEnabled());
+		assertFalse(((HistogramMetrics) metrics).isHistogramEnabled());
 		metrics = context.getBean("bar", MessageChannelMetrics.class);
 		assertTrue(metrics.isCountsEnabled());
 		assertFalse(metrics.isStatsEnabled());
@@ -91,6 +94,7 @@ public class MBeanExporterParserTests {
 		metrics = context.getBean("fiz", MessageChannelMetrics.class);
 		assertTrue(metrics.isCountsEnabled());
 		assertTrue(metrics.isStatsEnabled());
+		assertTrue(((HistogramMetrics) metrics).isHistogramEnabled());
 		metrics = context.getBean("buz", MessageChannelMetrics.class);
 		assertTrue(metrics.isCountsEnabled());
 		assertTrue(metrics.isStatsEnabled());
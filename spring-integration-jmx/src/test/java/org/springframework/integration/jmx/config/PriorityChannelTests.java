@@ -58,6 +58,8 @@ public class PriorityChannelTests {
 		Set<ObjectName> names = server.queryNames(new ObjectName("test.PriorityChannel:type=MessageChannel,name=testChannel,*"), null);
 		assertEquals(1, names.size());
 		assertEquals(0, server.getAttribute(names.iterator().next(), "QueueSize"));
+		assertEquals(false, server.getAttribute(names.iterator().next(), "HistogramEnabled"));
+		assertEquals(0., server.getAttribute(names.iterator().next(), "Duration99thPercentile"));
 		assertEquals(0, ((QueueChannelOperations) testChannel).getQueueSize());
 	}
 
@@ -180,6 +180,9 @@ public class MongoDbMessageStore extends AbstractMessageGroupStore
 		indexOperations.ensureIndex(new Index(GROUP_ID_KEY, Sort.Direction.ASC)
 				.on(GROUP_UPDATE_TIMESTAMP_KEY, Sort.Direction.DESC)
 				.on(SEQUENCE, Sort.Direction.DESC));
+
+		indexOperations.ensureIndex(new Index(isTimeoutOnIdle() ? GROUP_UPDATE_TIMESTAMP_KEY : GROUP_TIMESTAMP_KEY,
+				Sort.Direction.ASC));
 	}
 
 	@Override
@@ -335,6 +338,30 @@ public class MongoDbMessageStore extends AbstractMessageGroupStore
 		return messageGroups.iterator();
 	}
 
+	/**
+	 * Select the ids of the groups created (or, with {@link #isTimeoutOnIdle() timeoutOnIdle},
+	 * updated) at or before the threshold using the timestamp index, rather than all the
+	 * group ids of the collection.
+	 */
+	@Override
+	protected Iterable<MessageGroup> getExpiryCandidates(long threshold) {
+		List<MessageGroup> messageGroups = new ArrayList<MessageGroup>();
+
+		Query query = Query.query(Criteria.where(isTimeoutOnIdle() ? GROUP_UPDATE_TIMESTAMP_KEY : GROUP_TIMESTAMP_KEY)
+				.lte(threshold)
+				.and(GROUP_ID_KEY).exists(true));
+
+		@SuppressWarnings("rawtypes")
+		List groupIds = template.getCollection(collectionName)
+				.distinct(GROUP_ID_KEY, query.getQueryObject());
+
+		for (Object groupId : groupIds) {
+			messageGroups.add(getMessageGroup(groupId));
+		}
+
+		return messageGroups;
+	}
+
 	@Override
 	public Message<?> pollMessageFromGroup(final Object groupId) {
 		Assert.notNull(groupId, "'groupId' must not be null");